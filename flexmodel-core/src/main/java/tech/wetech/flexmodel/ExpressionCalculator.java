@@ -1,5 +1,7 @@
 package tech.wetech.flexmodel;
 
+import tech.wetech.flexmodel.condition.ConditionNode;
+
 import java.util.Map;
 
 /**
@@ -9,4 +11,11 @@ public interface ExpressionCalculator<T> {
 
   T calculate(String expression, Map<String, Object> dataMap) throws ExpressionCalculatorException;
 
+  /**
+   * 直接计算条件语法树，默认转换为 JSON 后计算，实现类可覆盖以跳过解析
+   */
+  default T calculate(ConditionNode condition) throws ExpressionCalculatorException {
+    return calculate(JsonUtils.toJsonString(condition.toMap()), null);
+  }
+
 }
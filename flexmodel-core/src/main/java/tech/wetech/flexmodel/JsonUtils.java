@@ -9,6 +9,7 @@ import tech.wetech.flexmodel.supports.jackson.FlexmodelCoreModule;
 import tech.wetech.flexmodel.supports.jackson.ModelFieldAnnotationIntrospector;
 
 import java.io.IOException;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -72,6 +73,18 @@ public class JsonUtils {
     return JSON.convertValue(fromValue, cls);
   }
 
+  /**
+   * 按泛型类型转换，如 List&lt;Foo&gt; 字段
+   */
+  public static <T> T convertValue(Object fromValue, Type type) {
+    if (type instanceof Class<?> cls) {
+      @SuppressWarnings("unchecked")
+      T value = (T) convertValue(fromValue, cls);
+      return value;
+    }
+    return JSON.convertValue(fromValue, JSON.getTypeFactory().constructType(type));
+  }
+
   public static <T> T updateValue(T target, Object source) {
     try {
       return JSON.updateValue(target, source);
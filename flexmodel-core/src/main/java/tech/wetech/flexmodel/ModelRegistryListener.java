@@ -0,0 +1,19 @@
+package tech.wetech.flexmodel;
+
+/**
+ * 模型注册表变更监听器
+ *
+ * @author cjbi
+ */
+@FunctionalInterface
+public interface ModelRegistryListener {
+
+  /**
+   * 模型注册或注销后回调
+   *
+   * @param schemaName schema名称
+   * @param modelName  模型名称，为空时表示整个schema发生变更
+   */
+  void onChanged(String schemaName, String modelName);
+
+}
@@ -0,0 +1,37 @@
+package tech.wetech.flexmodel;
+
+import java.util.List;
+
+/**
+ * 记录变更版本的模型注册表，多个节点共享同一个注册表时，通过版本号发现其他节点的模型变更
+ *
+ * @author cjbi
+ */
+public interface RevisionedModelRegistry extends ModelRegistry {
+
+  /**
+   * 获取最新的版本号，每次注册或注销模型后递增
+   *
+   * @return 版本号
+   */
+  long getRevision();
+
+  /**
+   * 获取指定版本之后的变更，按版本号升序排列；较早的变更记录可能已被清理，调用方需检查版本号是否连续
+   *
+   * @param revision 版本号
+   * @return 变更记录
+   */
+  List<ModelRevision> getChangesSince(long revision);
+
+  /**
+   * 模型变更记录
+   *
+   * @param revision   版本号
+   * @param schemaName schema名称
+   * @param modelName  模型名称，为空时表示整个schema发生变更
+   */
+  record ModelRevision(long revision, String schemaName, String modelName) {
+  }
+
+}
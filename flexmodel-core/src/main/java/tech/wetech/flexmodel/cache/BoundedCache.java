@@ -0,0 +1,299 @@
+package tech.wetech.flexmodel.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * 有界缓存，支持最大条目数、最大权重、写入后过期，按 CLOCK（近似LRU）算法淘汰。
+ * <p>
+ * 读操作不加锁，只标记条目被访问过；超出容量时由写线程转动时钟指针，跳过并清除访问标记，淘汰最近未被访问的条目。
+ * {@link #retrieve(String, Supplier)} 对同一个键只执行一次加载，并发的未命中等待同一个加载结果；
+ * 加载函数中不能再次加载同一个键。
+ *
+ * @author cjbi
+ */
+public class BoundedCache implements Cache {
+
+  private final long maximumSize;
+  private final long maximumWeight;
+  private final ToLongBiFunction<String, Object> weigher;
+  private final long expireAfterWriteNanos;
+
+  private final Map<String, Entry> store = new ConcurrentHashMap<>();
+  private final Map<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+  private final AtomicLong weight = new AtomicLong();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private Iterator<Entry> clockHand;
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+  private final LongAdder loadSuccessCount = new LongAdder();
+  private final LongAdder loadFailureCount = new LongAdder();
+  private final LongAdder totalLoadTime = new LongAdder();
+
+  BoundedCache(long maximumSize, long maximumWeight, ToLongBiFunction<String, Object> weigher, long expireAfterWriteNanos) {
+    this.maximumSize = maximumSize;
+    this.maximumWeight = maximumWeight;
+    this.weigher = weigher;
+    this.expireAfterWriteNanos = expireAfterWriteNanos;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  @Override
+  public Object get(String key) {
+    Object value = getIfPresent(key);
+    if (value != null) {
+      hitCount.increment();
+    } else {
+      missCount.increment();
+    }
+    return value;
+  }
+
+  @Override
+  public Object retrieve(String key, Supplier<Object> supplier) {
+    Object value = get(key);
+    if (value != null) {
+      return value;
+    }
+    CompletableFuture<Object> future = new CompletableFuture<>();
+    CompletableFuture<Object> inFlight = loading.putIfAbsent(key, future);
+    if (inFlight != null) {
+      try {
+        return inFlight.join();
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
+      }
+    }
+    try {
+      // 占用加载标记之前其他线程可能已经加载完成
+      value = getIfPresent(key);
+      if (value == null) {
+        value = load(key, supplier);
+      }
+      future.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      future.completeExceptionally(e);
+      throw e;
+    } finally {
+      loading.remove(key, future);
+    }
+  }
+
+  private Object load(String key, Supplier<Object> supplier) {
+    long start = System.nanoTime();
+    Object value;
+    try {
+      value = supplier.get();
+    } catch (RuntimeException | Error e) {
+      loadFailureCount.increment();
+      totalLoadTime.add(System.nanoTime() - start);
+      throw e;
+    }
+    loadSuccessCount.increment();
+    totalLoadTime.add(System.nanoTime() - start);
+    if (value != null) {
+      put(key, value);
+    }
+    return value;
+  }
+
+  @Override
+  public void put(String key, Object value) {
+    if (value == null) {
+      invalidate(key);
+      return;
+    }
+    Entry entry = new Entry(key, value, weigher.applyAsLong(key, value), System.nanoTime());
+    Entry old = store.put(key, entry);
+    weight.addAndGet(entry.weight - (old != null ? old.weight : 0));
+    if (isOverCapacity()) {
+      evict();
+    }
+  }
+
+  @Override
+  public void invalidate(String key) {
+    Entry entry = store.remove(key);
+    if (entry != null) {
+      weight.addAndGet(-entry.weight);
+    }
+  }
+
+  @Override
+  public void invalidateAll() {
+    for (Entry entry : store.values()) {
+      remove(entry);
+    }
+  }
+
+  /**
+   * 当前条目数
+   */
+  public long size() {
+    return store.size();
+  }
+
+  /**
+   * 当前权重总和，未设置权重函数时与条目数相同
+   */
+  public long weight() {
+    return weight.get();
+  }
+
+  public CacheStats stats() {
+    return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(),
+      loadSuccessCount.sum(), loadFailureCount.sum(), totalLoadTime.sum());
+  }
+
+  private Object getIfPresent(String key) {
+    Entry entry = store.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (isExpired(entry, System.nanoTime())) {
+      if (remove(entry)) {
+        evictionCount.increment();
+      }
+      return null;
+    }
+    entry.referenced = true;
+    return entry.value;
+  }
+
+  private boolean remove(Entry entry) {
+    if (store.remove(entry.key, entry)) {
+      weight.addAndGet(-entry.weight);
+      return true;
+    }
+    return false;
+  }
+
+  private boolean isExpired(Entry entry, long now) {
+    return expireAfterWriteNanos > 0 && now - entry.writeTime >= expireAfterWriteNanos;
+  }
+
+  private boolean isOverCapacity() {
+    return (maximumSize > 0 && store.size() > maximumSize)
+           || (maximumWeight > 0 && weight.get() > maximumWeight);
+  }
+
+  /**
+   * 转动时钟指针直到不超出容量：过期的条目直接淘汰，被访问过的条目清除标记后跳过，其余条目淘汰
+   */
+  private void evict() {
+    evictionLock.lock();
+    try {
+      long now = System.nanoTime();
+      // 两圈内必然能找到可淘汰的条目
+      long budget = 2L * store.size() + 1;
+      while (isOverCapacity() && budget-- > 0) {
+        if (clockHand == null || !clockHand.hasNext()) {
+          clockHand = store.values().iterator();
+          if (!clockHand.hasNext()) {
+            return;
+          }
+        }
+        Entry entry = clockHand.next();
+        if (entry.referenced && !isExpired(entry, now)) {
+          entry.referenced = false;
+          continue;
+        }
+        if (remove(entry)) {
+          evictionCount.increment();
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private static final class Entry {
+    final String key;
+    final Object value;
+    final long weight;
+    final long writeTime;
+    volatile boolean referenced;
+
+    Entry(String key, Object value, long weight, long writeTime) {
+      this.key = key;
+      this.value = value;
+      this.weight = weight;
+      this.writeTime = writeTime;
+    }
+  }
+
+  public static class Builder {
+    private long maximumSize;
+    private long maximumWeight;
+    private ToLongBiFunction<String, Object> weigher;
+    private Duration expireAfterWrite;
+
+    /**
+     * 设置最大条目数
+     *
+     * @param maximumSize 最大条目数，为0时不限制
+     * @return Builder
+     */
+    public Builder setMaximumSize(long maximumSize) {
+      if (maximumSize < 0) {
+        throw new IllegalArgumentException("maximumSize must not be negative");
+      }
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * 设置最大权重，条目的权重由权重函数计算
+     *
+     * @param maximumWeight 最大权重，为0时不限制
+     * @param weigher       权重函数
+     * @return Builder
+     */
+    public Builder setMaximumWeight(long maximumWeight, ToLongBiFunction<String, Object> weigher) {
+      if (maximumWeight < 0) {
+        throw new IllegalArgumentException("maximumWeight must not be negative");
+      }
+      this.maximumWeight = maximumWeight;
+      this.weigher = weigher;
+      return this;
+    }
+
+    /**
+     * 设置写入后的过期时间
+     *
+     * @param expireAfterWrite 过期时间，为空时不过期
+     * @return Builder
+     */
+    public Builder setExpireAfterWrite(Duration expireAfterWrite) {
+      if (expireAfterWrite != null && (expireAfterWrite.isNegative() || expireAfterWrite.isZero())) {
+        throw new IllegalArgumentException("expireAfterWrite must be greater than 0");
+      }
+      this.expireAfterWrite = expireAfterWrite;
+      return this;
+    }
+
+    public BoundedCache build() {
+      if (maximumWeight > 0 && weigher == null) {
+        throw new IllegalStateException("Please set weigher");
+      }
+      return new BoundedCache(maximumSize, maximumWeight, weigher != null ? weigher : (key, value) -> 1L,
+        expireAfterWrite != null ? expireAfterWrite.toNanos() : 0L);
+    }
+  }
+
+}
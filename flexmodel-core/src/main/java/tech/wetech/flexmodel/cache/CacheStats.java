@@ -0,0 +1,34 @@
+package tech.wetech.flexmodel.cache;
+
+/**
+ * 缓存统计信息
+ *
+ * @param hitCount          命中次数
+ * @param missCount         未命中次数
+ * @param evictionCount     因容量或过期被淘汰的条目数
+ * @param loadSuccessCount  加载成功次数
+ * @param loadFailureCount  加载失败次数
+ * @param totalLoadTime     加载总耗时（纳秒）
+ * @author cjbi
+ */
+public record CacheStats(long hitCount, long missCount, long evictionCount,
+                         long loadSuccessCount, long loadFailureCount, long totalLoadTime) {
+
+  public long requestCount() {
+    return hitCount + missCount;
+  }
+
+  public double hitRate() {
+    long requestCount = requestCount();
+    return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+  }
+
+  /**
+   * 平均每次加载的耗时（纳秒）
+   */
+  public double averageLoadPenalty() {
+    long loadCount = loadSuccessCount + loadFailureCount;
+    return loadCount == 0 ? 0.0 : (double) totalLoadTime / loadCount;
+  }
+
+}
@@ -1,66 +1,366 @@
 package tech.wetech.flexmodel.cache;
 
 import tech.wetech.flexmodel.ModelRegistry;
+import tech.wetech.flexmodel.ModelRegistryListener;
+import tech.wetech.flexmodel.RevisionedModelRegistry;
+import tech.wetech.flexmodel.RevisionedModelRegistry.ModelRevision;
 import tech.wetech.flexmodel.model.SchemaObject;
+import tech.wetech.flexmodel.reflect.LazyObjProxy;
 import tech.wetech.flexmodel.session.AbstractSessionContext;
 
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * 基于快照的模型注册表。
+ * <p>
+ * 每个schema首次访问时从底层注册表一次性加载全部模型，生成不可变的版本化快照，读操作只查询快照，不加锁也不访问数据库；
+ * 快照包含schema的全部模型，查不到即表示未注册（别名等不存在的名称同样不会访问数据库）。
+ * 注册、注销时先写底层注册表，再基于当前快照复制出新版本并替换。
+ * <p>
+ * 底层注册表为 {@link RevisionedModelRegistry} 时，通过 {@link #checkRevision()} 发现其他节点的变更，只重新加载变更的模型。
+ *
  * @author cjbi
  */
 public class CachingModelRegistry implements ModelRegistry {
 
   private final ModelRegistry delegate;
   private final Cache cache;
+  private final List<ModelRegistryListener> listeners = new CopyOnWriteArrayList<>();
+  private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+  /**
+   * schema名称 -> 最新的快照版本，丢弃快照后保留，重新加载时继续递增，只在持有 writeLock 时访问
+   */
+  private final Map<String, Long> versions = new HashMap<>();
+  private final Object writeLock = new Object();
+  /**
+   * 已同步的底层注册表版本号
+   */
+  private volatile long revision;
+  private volatile long revisionCheckInterval = -1;
+  private final AtomicLong lastRevisionCheck = new AtomicLong();
 
   public CachingModelRegistry(ModelRegistry delegate, Cache cache) {
     this.delegate = delegate;
     this.cache = cache;
+    if (delegate instanceof RevisionedModelRegistry revisionedModelRegistry) {
+      this.revision = revisionedModelRegistry.getRevision();
+    }
   }
 
   @Override
   public List<SchemaObject> loadFromDataSource(AbstractSessionContext sessionContext) {
-    cache.invalidateAll();
-    return delegate.loadFromDataSource(sessionContext);
+    List<SchemaObject> result;
+    Set<ModelRevision> remoteChanges;
+    synchronized (writeLock) {
+      cache.invalidateAll();
+      result = delegate.loadFromDataSource(sessionContext);
+      snapshots.remove(sessionContext.getSchemaName());
+      remoteChanges = syncAfterWrite(sessionContext.getSchemaName(), null);
+    }
+    fireChanged(sessionContext.getSchemaName(), null);
+    fireChanged(remoteChanges);
+    return result;
   }
 
   @Override
   public List<SchemaObject> loadFromDataSource(AbstractSessionContext sessionContext, Set<String> includes) {
-    cache.invalidateAll();
-    return delegate.loadFromDataSource(sessionContext, includes);
+    List<SchemaObject> result;
+    Set<ModelRevision> remoteChanges;
+    synchronized (writeLock) {
+      cache.invalidateAll();
+      result = delegate.loadFromDataSource(sessionContext, includes);
+      snapshots.remove(sessionContext.getSchemaName());
+      remoteChanges = syncAfterWrite(sessionContext.getSchemaName(), null);
+    }
+    fireChanged(sessionContext.getSchemaName(), null);
+    fireChanged(remoteChanges);
+    return result;
   }
 
   @Override
   public List<SchemaObject> listRegistered(String schemaName) {
-    return delegate.listRegistered(schemaName);
+    return getSnapshot(schemaName).list();
   }
 
   @Override
   public void unregisterAll(String schemaName) {
-    cache.invalidateAll();
-    delegate.unregisterAll(schemaName);
+    Set<ModelRevision> remoteChanges;
+    synchronized (writeLock) {
+      cache.invalidateAll();
+      delegate.unregisterAll(schemaName);
+      snapshots.remove(schemaName);
+      remoteChanges = syncAfterWrite(schemaName, null);
+    }
+    fireChanged(schemaName, null);
+    fireChanged(remoteChanges);
   }
 
   @Override
   public void unregisterAll(String schemaName, String modelName) {
-    cache.invalidate(schemaName + ":" + modelName);
-    delegate.unregisterAll(schemaName, modelName);
+    Set<ModelRevision> remoteChanges;
+    synchronized (writeLock) {
+      cache.invalidate(schemaName + ":" + modelName);
+      LazyObjProxy.evict(modelName);
+      delegate.unregisterAll(schemaName, modelName);
+      Snapshot snapshot = snapshots.get(schemaName);
+      if (snapshot != null) {
+        Map<String, SchemaObject> models = new LinkedHashMap<>(snapshot.models());
+        models.remove(modelName);
+        snapshots.put(schemaName, new Snapshot(nextVersion(schemaName), models));
+      }
+      remoteChanges = syncAfterWrite(schemaName, modelName);
+    }
+    fireChanged(schemaName, modelName);
+    fireChanged(remoteChanges);
   }
 
   @Override
   public void register(String schemaName, SchemaObject object) {
-    cache.put(schemaName + ":" + object.getName(), object);
-    delegate.register(schemaName, object);
+    Set<ModelRevision> remoteChanges;
+    synchronized (writeLock) {
+      cache.invalidate(schemaName + ":" + object.getName());
+      LazyObjProxy.evict(object.getName());
+      delegate.register(schemaName, object);
+      Snapshot snapshot = snapshots.get(schemaName);
+      if (snapshot != null) {
+        Map<String, SchemaObject> models = new LinkedHashMap<>(snapshot.models());
+        models.put(object.getName(), object);
+        snapshots.put(schemaName, new Snapshot(nextVersion(schemaName), models));
+      }
+      remoteChanges = syncAfterWrite(schemaName, object.getName());
+    }
+    fireChanged(schemaName, object.getName());
+    fireChanged(remoteChanges);
   }
 
+  /**
+   * 快照中没有时只查找预先放入缓存中、尚未注册的模型（如构建脚本中的模型），不访问数据库
+   */
   @Override
   public SchemaObject getRegistered(String schemaName, String modelName) {
-    return (SchemaObject) cache.retrieve(schemaName + ":" + modelName, () -> delegate.getRegistered(schemaName, modelName));
+    SchemaObject model = getSnapshot(schemaName).models().get(modelName);
+    if (model != null) {
+      return model;
+    }
+    return (SchemaObject) cache.get(schemaName + ":" + modelName);
+  }
+
+  /**
+   * 获取schema当前快照的版本，每次注册、注销或重新加载后递增
+   */
+  public long getVersion(String schemaName) {
+    return getSnapshot(schemaName).version();
+  }
+
+  /**
+   * 丢弃快照，下次访问时重新从底层注册表加载，并通知监听器
+   *
+   * @param schemaName schema名称，为空时丢弃所有快照
+   */
+  public void invalidate(String schemaName) {
+    Set<String> schemaNames;
+    synchronized (writeLock) {
+      if (schemaName == null) {
+        schemaNames = new LinkedHashSet<>(snapshots.keySet());
+        snapshots.clear();
+      } else {
+        schemaNames = Set.of(schemaName);
+        snapshots.remove(schemaName);
+      }
+    }
+    for (String name : schemaNames) {
+      fireChanged(name, null);
+    }
+  }
+
+  /**
+   * 设置检查其他节点模型变更的最小间隔
+   *
+   * @param revisionCheckInterval 间隔毫秒数，为0时每次都检查，小于0时不检查
+   */
+  public void setRevisionCheckInterval(long revisionCheckInterval) {
+    this.revisionCheckInterval = revisionCheckInterval;
+  }
+
+  /**
+   * 距上次检查超过间隔时读取底层注册表的版本号，有变更时同步，用于创建会话时懒检查
+   */
+  public void checkRevision() {
+    long interval = revisionCheckInterval;
+    if (interval < 0 || !(delegate instanceof RevisionedModelRegistry)) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    long last = lastRevisionCheck.get();
+    // 并发创建会话时只有一个线程执行检查
+    if (now - last < interval || !lastRevisionCheck.compareAndSet(last, now)) {
+      return;
+    }
+    syncRevision();
+  }
+
+  /**
+   * 立即同步底层注册表的变更，只重新加载变更的模型；变更记录不连续（已被清理）时丢弃所有快照
+   */
+  public void syncRevision() {
+    if (!(delegate instanceof RevisionedModelRegistry revisionedModelRegistry)
+        || revisionedModelRegistry.getRevision() <= revision) {
+      return;
+    }
+    Set<ModelRevision> changed;
+    synchronized (writeLock) {
+      List<ModelRevision> changes = revisionedModelRegistry.getChangesSince(revision);
+      if (changes.isEmpty()) {
+        return;
+      }
+      changed = applyChanges(changes);
+    }
+    fireChanged(changed);
+  }
+
+  /**
+   * 本节点写入底层注册表后在写锁内调用，记录自己写入的版本，下次检查时不再重复加载和通知；
+   * 写入前后其他节点的变更一并同步
+   *
+   * @param schemaName schema名称
+   * @param modelName  写入的模型，为空时表示整个schema
+   * @return 需要通知的其他节点的变更
+   */
+  private Set<ModelRevision> syncAfterWrite(String schemaName, String modelName) {
+    if (!(delegate instanceof RevisionedModelRegistry revisionedModelRegistry)) {
+      return Set.of();
+    }
+    List<ModelRevision> changes = revisionedModelRegistry.getChangesSince(revision);
+    if (changes.isEmpty()) {
+      return Set.of();
+    }
+    if (changes.getFirst().revision() == revision + 1
+        && changes.stream().allMatch(change -> isWrittenBy(change, schemaName, modelName))) {
+      revision = changes.getLast().revision();
+      return Set.of();
+    }
+    Set<ModelRevision> changed = applyChanges(changes);
+    changed.removeIf(change -> isWrittenBy(change, schemaName, modelName));
+    return changed;
+  }
+
+  private static boolean isWrittenBy(ModelRevision change, String schemaName, String modelName) {
+    return change.schemaName().equals(schemaName) && (modelName == null || modelName.equals(change.modelName()));
+  }
+
+  /**
+   * 在写锁内应用变更记录并更新已同步的版本号，变更记录不连续时丢弃所有快照
+   *
+   * @return 需要通知的变更，版本号统一为0以便合并
+   */
+  private Set<ModelRevision> applyChanges(List<ModelRevision> changes) {
+    Set<ModelRevision> changed = new LinkedHashSet<>();
+    if (changes.getFirst().revision() != revision + 1) {
+      cache.invalidateAll();
+      for (String schemaName : snapshots.keySet()) {
+        changed.add(new ModelRevision(0, schemaName, null));
+      }
+      snapshots.clear();
+    } else {
+      for (ModelRevision change : changes) {
+        reload(change.schemaName(), change.modelName());
+        changed.add(new ModelRevision(0, change.schemaName(), change.modelName()));
+      }
+    }
+    revision = changes.getLast().revision();
+    return changed;
+  }
+
+  private void reload(String schemaName, String modelName) {
+    if (modelName == null) {
+      cache.invalidateAll();
+      snapshots.remove(schemaName);
+      return;
+    }
+    cache.invalidate(schemaName + ":" + modelName);
+    LazyObjProxy.evict(modelName);
+    Snapshot snapshot = snapshots.get(schemaName);
+    if (snapshot == null) {
+      return;
+    }
+    Map<String, SchemaObject> models = new LinkedHashMap<>(snapshot.models());
+    SchemaObject model = delegate.getRegistered(schemaName, modelName);
+    if (model != null) {
+      models.put(modelName, model);
+    } else {
+      models.remove(modelName);
+    }
+    snapshots.put(schemaName, new Snapshot(nextVersion(schemaName), models));
+  }
+
+  private Snapshot getSnapshot(String schemaName) {
+    Snapshot snapshot = snapshots.get(schemaName);
+    if (snapshot != null) {
+      return snapshot;
+    }
+    synchronized (writeLock) {
+      snapshot = snapshots.get(schemaName);
+      if (snapshot == null) {
+        Map<String, SchemaObject> models = new LinkedHashMap<>();
+        for (SchemaObject model : delegate.listRegistered(schemaName)) {
+          models.put(model.getName(), model);
+        }
+        snapshot = new Snapshot(nextVersion(schemaName), models);
+        snapshots.put(schemaName, snapshot);
+      }
+      return snapshot;
+    }
+  }
+
+  private long nextVersion(String schemaName) {
+    return versions.merge(schemaName, 1L, Long::sum);
   }
 
   public Cache getCache() {
     return cache;
   }
+
+  /**
+   * 添加模型变更监听器
+   */
+  public void addListener(ModelRegistryListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * 移除模型变更监听器
+   */
+  public void removeListener(ModelRegistryListener listener) {
+    listeners.remove(listener);
+  }
+
+  private void fireChanged(Set<ModelRevision> changes) {
+    for (ModelRevision change : changes) {
+      fireChanged(change.schemaName(), change.modelName());
+    }
+  }
+
+  private void fireChanged(String schemaName, String modelName) {
+    for (ModelRegistryListener listener : listeners) {
+      listener.onChanged(schemaName, modelName);
+    }
+  }
+
+  /**
+   * schema的不可变模型快照
+   *
+   * @param version 版本号
+   * @param models  模型名称 -> 模型
+   * @param list    按注册顺序排列的模型
+   */
+  private record Snapshot(long version, Map<String, SchemaObject> models, List<SchemaObject> list) {
+
+    Snapshot(long version, Map<String, SchemaObject> models) {
+      // 使用 LinkedHashMap 而不是 Map.copyOf，查询null名称时返回null而不是抛出异常
+      this(version, Collections.unmodifiableMap(models), List.copyOf(models.values()));
+    }
+  }
 }
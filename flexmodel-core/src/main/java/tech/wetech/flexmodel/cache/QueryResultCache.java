@@ -0,0 +1,192 @@
+package tech.wetech.flexmodel.cache;
+
+import tech.wetech.flexmodel.event.ChangedEvent;
+import tech.wetech.flexmodel.event.EventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 查询结果缓存，只缓存配置了过期时间的模型。
+ * <p>
+ * 每个模型维护一个代数，缓存条目记录查询涉及的所有模型（主模型、连接模型、关联模型）在加载前的代数，
+ * 收到任一涉及模型的 {@link ChangedEvent} 后代数递增，条目随之失效，失效时不需要遍历缓存。
+ * <p>
+ * 其他会话的事务中的写操作在执行时即发布事件，事务提交前再次加载的旧数据最长会保留到过期时间。
+ *
+ * @author cjbi
+ */
+public class QueryResultCache implements EventListener {
+
+  /**
+   * 全局代数的键，schema名称和模型名称不会为空字符串
+   */
+  private static final String ALL = "";
+
+  private final BoundedCache store;
+  private final Map<String, Long> ttls;
+  /**
+   * schema或 schema:model -> 代数
+   */
+  private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+
+  QueryResultCache(long maximumSize, Map<String, Long> ttls) {
+    this.store = BoundedCache.builder().setMaximumSize(maximumSize).build();
+    this.ttls = Map.copyOf(ttls);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * 模型是否配置了缓存
+   */
+  public boolean isCacheable(String schemaName, String modelName) {
+    return ttls.containsKey(schemaName + ":" + modelName);
+  }
+
+  /**
+   * 获取缓存的查询结果，不存在或已失效时加载，同一查询并发未命中时只加载一次
+   *
+   * @param schemaName schema名称
+   * @param modelName  模型名称
+   * @param models     查询涉及的模型，其中任一模型变更时结果失效
+   * @param key        规范化后的查询
+   * @param loader     加载函数
+   * @return 查询结果
+   */
+  public Object retrieve(String schemaName, String modelName, Collection<String> models, String key, Supplier<Object> loader) {
+    String cacheKey = schemaName + ":" + modelName + ":" + key;
+    CachedResult cached = (CachedResult) store.get(cacheKey);
+    if (cached != null && isValid(cached)) {
+      hitCount.increment();
+      return cached.value();
+    }
+    missCount.increment();
+    if (cached != null) {
+      store.invalidate(cacheKey);
+    }
+    long ttl = ttls.get(schemaName + ":" + modelName);
+    cached = (CachedResult) store.retrieve(cacheKey, () -> {
+      // 先记录代数再查询，查询期间发生的变更会使结果失效
+      Map<String, Long> snapshot = snapshotGenerations(schemaName, models);
+      Object value = loader.get();
+      return new CachedResult(value, System.nanoTime() + ttl, snapshot);
+    });
+    if (!isValid(cached)) {
+      // 加入的是当前调用开始前发起的加载，可能读不到已完成的写操作
+      return loader.get();
+    }
+    return cached.value();
+  }
+
+  /**
+   * 使模型相关的查询结果失效
+   *
+   * @param schemaName schema名称
+   * @param modelName  模型名称，为空时使整个schema的查询结果失效
+   */
+  public void invalidate(String schemaName, String modelName) {
+    String key = modelName == null ? schemaName : schemaName + ":" + modelName;
+    generations.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+  }
+
+  /**
+   * 使全部查询结果失效，正在加载的结果也不会写入缓存
+   */
+  public void invalidateAll() {
+    generations.computeIfAbsent(ALL, k -> new AtomicLong()).incrementAndGet();
+    store.invalidateAll();
+  }
+
+  public CacheStats stats() {
+    CacheStats stats = store.stats();
+    return new CacheStats(hitCount.sum(), missCount.sum(), stats.evictionCount(),
+      stats.loadSuccessCount(), stats.loadFailureCount(), stats.totalLoadTime());
+  }
+
+  @Override
+  public void onChanged(ChangedEvent event) {
+    invalidate(event.getSchemaName(), event.getModelName());
+  }
+
+  private Map<String, Long> snapshotGenerations(String schemaName, Collection<String> models) {
+    Map<String, Long> snapshot = new HashMap<>();
+    snapshot.put(ALL, generation(ALL));
+    snapshot.put(schemaName, generation(schemaName));
+    for (String model : models) {
+      String key = schemaName + ":" + model;
+      snapshot.put(key, generation(key));
+    }
+    return snapshot;
+  }
+
+  private boolean isValid(CachedResult cached) {
+    if (System.nanoTime() - cached.expireAt() >= 0) {
+      return false;
+    }
+    for (Map.Entry<String, Long> entry : cached.generations().entrySet()) {
+      if (generation(entry.getKey()) != entry.getValue()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private long generation(String key) {
+    AtomicLong generation = generations.get(key);
+    return generation != null ? generation.get() : 0;
+  }
+
+  private record CachedResult(Object value, long expireAt, Map<String, Long> generations) {
+  }
+
+  public static class Builder {
+    private long maximumSize = 10000;
+    private final Map<String, Long> ttls = new HashMap<>();
+
+    /**
+     * 设置最大条目数
+     *
+     * @param maximumSize 最大条目数
+     * @return Builder
+     */
+    public Builder setMaximumSize(long maximumSize) {
+      if (maximumSize <= 0) {
+        throw new IllegalArgumentException("maximumSize must be greater than 0");
+      }
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * 缓存模型的查询结果
+     *
+     * @param schemaName schema名称
+     * @param modelName  模型名称
+     * @param ttl        过期时间
+     * @return Builder
+     */
+    public Builder addModel(String schemaName, String modelName, Duration ttl) {
+      if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+        throw new IllegalArgumentException("ttl must be greater than 0");
+      }
+      this.ttls.put(schemaName + ":" + modelName, ttl.toNanos());
+      return this;
+    }
+
+    public QueryResultCache build() {
+      return new QueryResultCache(maximumSize, ttls);
+    }
+  }
+
+}
@@ -1,5 +1,7 @@
 package tech.wetech.flexmodel.condition;
 
+import java.util.Map;
+
 /**
  * 条件语法树节点。
  */
@@ -10,5 +12,10 @@ public interface ConditionNode {
    */
   boolean isEmpty();
 
+  /**
+   * 转换为 DSL JSON 结构，与 {@link ConditionParser#parse(String)} 互逆。
+   */
+  Map<String, Object> toMap();
+
 }
 
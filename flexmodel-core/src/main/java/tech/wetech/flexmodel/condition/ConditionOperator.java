@@ -1,26 +1,61 @@
 package tech.wetech.flexmodel.condition;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * 条件操作符定义。
  */
 public enum ConditionOperator {
-  AND,
-  OR,
-
-  EQ,
-  NE,
-  GT,
-  GTE,
-  LT,
-  LTE,
-
-  IN,
-  NIN,
-  BETWEEN,
-
-  CONTAINS,
-  NOT_CONTAINS,
-  STARTS_WITH,
-  ENDS_WITH
+  AND("_and"),
+  OR("_or"),
+
+  EQ("_eq"),
+  NE("_ne"),
+  GT("_gt"),
+  GTE("_gte"),
+  LT("_lt"),
+  LTE("_lte"),
+
+  IN("_in"),
+  NIN("_nin"),
+  BETWEEN("_between"),
+
+  CONTAINS("_contains"),
+  NOT_CONTAINS("_not_contains"),
+  STARTS_WITH("_starts_with"),
+  ENDS_WITH("_ends_with");
+
+  private static final Map<String, ConditionOperator> KEY_MAP = new HashMap<>();
+
+  static {
+    for (ConditionOperator operator : values()) {
+      KEY_MAP.put(operator.key, operator);
+    }
+  }
+
+  private final String key;
+
+  ConditionOperator(String key) {
+    this.key = key;
+  }
+
+  /**
+   * DSL JSON 中的操作符，如 _eq
+   */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * 根据 DSL JSON 中的操作符查找
+   */
+  public static ConditionOperator of(String key) {
+    ConditionOperator operator = KEY_MAP.get(key);
+    if (operator == null) {
+      throw new IllegalArgumentException("Unsupported operator: " + key);
+    }
+    return operator;
+  }
 }
 
@@ -2,6 +2,8 @@ package tech.wetech.flexmodel.condition;
 
 import tech.wetech.flexmodel.JsonUtils;
 
+import java.time.*;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 /**
@@ -15,10 +17,19 @@ public final class ConditionParser {
     }
     @SuppressWarnings("unchecked")
     Map<String, Object> map = JsonUtils.parseToObject(expression, Map.class);
+    return parse(map);
+  }
+
+  /**
+   * 直接解析已反序列化的条件，如 GraphQL 的 where 参数，无需再经过 JSON 转换。
+   * 日期时间值转换为与 JSON 序列化一致的 ISO 字符串，绑定的参数与解析 JSON 条件相同。
+   */
+  @SuppressWarnings("unchecked")
+  public ConditionNode parse(Map<String, ?> map) {
     if (map == null || map.isEmpty()) {
       return LogicalConditionNode.emptyAnd();
     }
-    ConditionNode node = parseMap(map);
+    ConditionNode node = parseMap((Map<String, Object>) map);
     return node == null ? LogicalConditionNode.emptyAnd() : node;
   }
 
@@ -68,7 +79,7 @@ public final class ConditionParser {
       return parseFieldMap(fieldPath, toOrderedMap(valueMap));
     }
     // 非 Map 值默认为等值匹配
-    return new FieldConditionNode(fieldPath, ConditionOperator.EQ, value);
+    return new FieldConditionNode(fieldPath, ConditionOperator.EQ, normalizeValue(value));
   }
 
   private ConditionNode parseFieldMap(String fieldPath, Map<String, Object> valueMap) {
@@ -77,8 +88,8 @@ public final class ConditionParser {
       String key = entry.getKey();
       Object value = entry.getValue();
       if (key.startsWith("_")) {
-        ConditionOperator operator = toOperator(key);
-        nodes.add(new FieldConditionNode(fieldPath, operator, value));
+        ConditionOperator operator = ConditionOperator.of(key);
+        nodes.add(new FieldConditionNode(fieldPath, operator, normalizeValue(value)));
       } else {
         String nestedPath = fieldPath + "." + key;
         ConditionNode nested = parseFieldNode(nestedPath, value);
@@ -96,22 +107,22 @@ public final class ConditionParser {
     return LogicalConditionNode.of(ConditionOperator.AND, nodes);
   }
 
-  private ConditionOperator toOperator(String key) {
-    return switch (key) {
-      case "_eq" -> ConditionOperator.EQ;
-      case "_ne" -> ConditionOperator.NE;
-      case "_gt" -> ConditionOperator.GT;
-      case "_gte" -> ConditionOperator.GTE;
-      case "_lt" -> ConditionOperator.LT;
-      case "_lte" -> ConditionOperator.LTE;
-      case "_in" -> ConditionOperator.IN;
-      case "_nin" -> ConditionOperator.NIN;
-      case "_between" -> ConditionOperator.BETWEEN;
-      case "_contains" -> ConditionOperator.CONTAINS;
-      case "_not_contains" -> ConditionOperator.NOT_CONTAINS;
-      case "_starts_with" -> ConditionOperator.STARTS_WITH;
-      case "_ends_with" -> ConditionOperator.ENDS_WITH;
-      default -> throw new IllegalArgumentException("Unsupported operator: " + key);
+  private static Object normalizeValue(Object value) {
+    return switch (value) {
+      case LocalDate date -> DateTimeFormatter.ISO_LOCAL_DATE.format(date);
+      case LocalDateTime dateTime -> DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dateTime);
+      case LocalTime time -> DateTimeFormatter.ISO_LOCAL_TIME.format(time);
+      case OffsetDateTime dateTime -> DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(dateTime);
+      case ZonedDateTime dateTime -> DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(dateTime);
+      case Instant instant -> DateTimeFormatter.ISO_INSTANT.format(instant);
+      case Collection<?> collection -> {
+        List<Object> list = new ArrayList<>(collection.size());
+        for (Object element : collection) {
+          list.add(normalizeValue(element));
+        }
+        yield list;
+      }
+      case null, default -> value;
     };
   }
 
@@ -1,5 +1,7 @@
 package tech.wetech.flexmodel.condition;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -41,6 +43,11 @@ public final class FieldConditionNode implements ConditionNode {
     return false;
   }
 
+  @Override
+  public Map<String, Object> toMap() {
+    return Collections.singletonMap(fieldPath, Collections.singletonMap(operator.getKey(), value));
+  }
+
   @Override
   public String toString() {
     return "FieldConditionNode{" +
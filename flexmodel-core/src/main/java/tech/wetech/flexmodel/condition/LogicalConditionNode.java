@@ -3,6 +3,7 @@ package tech.wetech.flexmodel.condition;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -63,6 +64,18 @@ public final class LogicalConditionNode implements ConditionNode {
     return children.isEmpty();
   }
 
+  @Override
+  public Map<String, Object> toMap() {
+    if (children.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    List<Map<String, Object>> conditions = new ArrayList<>(children.size());
+    for (ConditionNode child : children) {
+      conditions.add(child.toMap());
+    }
+    return Collections.singletonMap(operator.getKey(), conditions);
+  }
+
   @Override
   public String toString() {
     return "LogicalConditionNode{" +
@@ -3,8 +3,12 @@ package tech.wetech.flexmodel.model;
 import tech.wetech.flexmodel.model.field.RelationField;
 import tech.wetech.flexmodel.model.field.TypedField;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.UnaryOperator;
 
@@ -14,8 +18,12 @@ import java.util.function.UnaryOperator;
 public class EntityDefinition extends AbstractModelDefinition<EntityDefinition> {
 
   private String comment;
-  private List<TypedField<?, ?>> fields = new ArrayList<>();
+  private final FieldList fields = new FieldList();
   private List<IndexDefinition> indexes = new ArrayList<>();
+  /**
+   * 字段索引，字段列表的任意修改都会使其失效，下次访问时重建
+   */
+  private volatile FieldIndex fieldIndex;
 
   public EntityDefinition(String name) {
     this.name = name;
@@ -41,16 +49,40 @@ public class EntityDefinition extends AbstractModelDefinition<EntityDefinition>
   }
 
   public EntityDefinition setFields(List<TypedField<?, ?>> fields) {
-    this.fields = fields;
+    List<TypedField<?, ?>> copy = fields != null ? new ArrayList<>(fields) : List.of();
+    this.fields.clear();
+    this.fields.addAll(copy);
     return this;
   }
 
   @Override
   public TypedField<?, ?> getField(String name) {
-    return this.getFields().stream()
-      .filter(f -> f.getName().equals(name))
-      .findFirst()
-      .orElse(null);
+    TypedField<?, ?> field = getFieldIndex().fieldMap().get(name);
+    if (field != null && field.getName().equals(name)) {
+      return field;
+    }
+    // 字段可能在建立索引后被改名，未命中时以字段列表为准
+    for (TypedField<?, ?> f : fields) {
+      if (f.getName().equals(name)) {
+        fieldIndex = null;
+        return f;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * 获取关联字段
+   */
+  public List<RelationField> getRelationFields() {
+    return getFieldIndex().relationFields();
+  }
+
+  /**
+   * 获取非关联字段，即对应表中列的字段
+   */
+  public List<TypedField<?, ?>> getNonRelationFields() {
+    return getFieldIndex().nonRelationFields();
   }
 
   public IndexDefinition getIndex(String name) {
@@ -61,11 +93,9 @@ public class EntityDefinition extends AbstractModelDefinition<EntityDefinition>
   }
 
   public Optional<RelationField> findRelationByModelName(String modelName) {
-    for (TypedField<?, ?> field : fields) {
-      if (field instanceof RelationField relationField) {
-        if (relationField.getFrom().equals(modelName)) {
-          return Optional.of(relationField);
-        }
+    for (RelationField relationField : getRelationFields()) {
+      if (relationField.getFrom().equals(modelName)) {
+        return Optional.of(relationField);
       }
     }
     return Optional.empty();
@@ -108,9 +138,27 @@ public class EntityDefinition extends AbstractModelDefinition<EntityDefinition>
   }
 
   public Optional<TypedField<?,?>> findIdField() {
-    return fields.stream()
-      .filter(TypedField::isIdentity)
-      .findFirst();
+    TypedField<?, ?> idField = getFieldIndex().idField();
+    if (idField != null && idField.isIdentity()) {
+      return Optional.of(idField);
+    }
+    // 字段可能在建立索引后修改了主键标识
+    for (TypedField<?, ?> field : fields) {
+      if (field.isIdentity()) {
+        fieldIndex = null;
+        return Optional.of(field);
+      }
+    }
+    return Optional.empty();
+  }
+
+  private FieldIndex getFieldIndex() {
+    FieldIndex index = fieldIndex;
+    if (index == null) {
+      index = FieldIndex.of(fields);
+      fieldIndex = index;
+    }
+    return index;
   }
 
   @Override
@@ -126,6 +174,87 @@ public class EntityDefinition extends AbstractModelDefinition<EntityDefinition>
     return this.getClass().getSimpleName() + "<" + getName() + ">";
   }
 
+  /**
+   * 字段列表，增删改时使字段索引失效，调用方可以直接修改 {@link #getFields()} 返回的列表
+   */
+  private class FieldList extends AbstractList<TypedField<?, ?>> {
+    private final List<TypedField<?, ?>> elements = new ArrayList<>();
+
+    @Override
+    public TypedField<?, ?> get(int index) {
+      return elements.get(index);
+    }
+
+    @Override
+    public int size() {
+      return elements.size();
+    }
+
+    @Override
+    public TypedField<?, ?> set(int index, TypedField<?, ?> element) {
+      TypedField<?, ?> previous = elements.set(index, element);
+      fieldIndex = null;
+      return previous;
+    }
+
+    @Override
+    public void add(int index, TypedField<?, ?> element) {
+      elements.add(index, element);
+      modCount++;
+      fieldIndex = null;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends TypedField<?, ?>> c) {
+      boolean changed = elements.addAll(c);
+      modCount++;
+      fieldIndex = null;
+      return changed;
+    }
+
+    @Override
+    public TypedField<?, ?> remove(int index) {
+      TypedField<?, ?> removed = elements.remove(index);
+      modCount++;
+      fieldIndex = null;
+      return removed;
+    }
+  }
+
+  /**
+   * 字段索引
+   *
+   * @param fieldMap          字段名称 -> 字段
+   * @param idField           主键字段
+   * @param relationFields    关联字段
+   * @param nonRelationFields 非关联字段
+   */
+  private record FieldIndex(Map<String, TypedField<?, ?>> fieldMap,
+                            TypedField<?, ?> idField, List<RelationField> relationFields,
+                            List<TypedField<?, ?>> nonRelationFields) {
+
+    static FieldIndex of(List<TypedField<?, ?>> fields) {
+      Map<String, TypedField<?, ?>> fieldMap = new HashMap<>();
+      TypedField<?, ?> idField = null;
+      List<RelationField> relationFields = new ArrayList<>();
+      List<TypedField<?, ?>> nonRelationFields = new ArrayList<>();
+      for (TypedField<?, ?> field : fields) {
+        // 与遍历查找一致，名称重复时取第一个
+        fieldMap.putIfAbsent(field.getName(), field);
+        if (idField == null && field.isIdentity()) {
+          idField = field;
+        }
+        if (field instanceof RelationField relationField) {
+          relationFields.add(relationField);
+        } else {
+          nonRelationFields.add(field);
+        }
+      }
+      return new FieldIndex(fieldMap, idField,
+        List.copyOf(relationFields), List.copyOf(nonRelationFields));
+    }
+  }
+
   @Override
   public EntityDefinition clone() {
     EntityDefinition entity = new EntityDefinition(name);
@@ -17,9 +17,19 @@ public class DefaultMongoExpressionCalculator extends AbstractExpressionCalculat
     if (expression == null) {
       throw new ExpressionCalculatorException("Expression is null");
     }
+    ConditionNode conditionNode;
     try {
-      ConditionNode conditionNode = parseCondition(expression);
-      return MongoConditionRenderer.render(conditionNode);
+      conditionNode = parseCondition(expression);
+    } catch (RuntimeException e) {
+      throw new ExpressionCalculatorException(e.getMessage(), e);
+    }
+    return calculate(conditionNode);
+  }
+
+  @Override
+  public String calculate(ConditionNode condition) throws ExpressionCalculatorException {
+    try {
+      return MongoConditionRenderer.render(condition);
     } catch (RuntimeException e) {
       throw new ExpressionCalculatorException(e.getMessage(), e);
     }
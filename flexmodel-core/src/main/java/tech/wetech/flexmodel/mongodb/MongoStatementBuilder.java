@@ -3,6 +3,7 @@ package tech.wetech.flexmodel.mongodb;
 import org.bson.Document;
 import tech.wetech.flexmodel.ExpressionCalculator;
 import tech.wetech.flexmodel.ExpressionCalculatorException;
+import tech.wetech.flexmodel.condition.ConditionNode;
 import tech.wetech.flexmodel.model.ModelDefinition;
 import tech.wetech.flexmodel.model.field.Field;
 import tech.wetech.flexmodel.model.field.RelationField;
@@ -28,8 +29,10 @@ class MongoStatementBuilder extends BaseService {
   }
 
   private void addMatchStage(List<Document> pipeline, Query query) {
-    if (query.getFilter() != null) {
-      String bsonCondition = getMongoCondition(query.getFilter());
+    if (query.getCondition() != null || query.getFilter() != null) {
+      String bsonCondition = query.getCondition() != null
+        ? getMongoCondition(query.getCondition())
+        : getMongoCondition(query.getFilter());
       pipeline.add(Document.parse(String.format("{ $match: %s }", bsonCondition)));
     }
   }
@@ -75,8 +78,11 @@ class MongoStatementBuilder extends BaseService {
       .append("foreignField", join.getForeignField())
       .append("as", join.getFrom());
 
-    if (join.getFilter() != null) {
-      lookup.append("pipeline", List.of(Document.parse(String.format("{ $match: %s }", getMongoCondition(join.getFilter())))));
+    if (join.getCondition() != null || join.getFilter() != null) {
+      String bsonCondition = join.getCondition() != null
+        ? getMongoCondition(join.getCondition())
+        : getMongoCondition(join.getFilter());
+      lookup.append("pipeline", List.of(Document.parse(String.format("{ $match: %s }", bsonCondition))));
     }
     return lookup;
   }
@@ -216,6 +222,15 @@ class MongoStatementBuilder extends BaseService {
     return queryField.getName();
   }
 
+  protected String getMongoCondition(ConditionNode condition) {
+    try {
+      ExpressionCalculator<String> expressionCalculator = mongoContext.getConditionCalculator();
+      return expressionCalculator.calculate(condition);
+    } catch (ExpressionCalculatorException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   protected String getMongoCondition(String condition) {
     try {
       ExpressionCalculator<String> expressionCalculator = mongoContext.getConditionCalculator();
@@ -1,13 +1,17 @@
 package tech.wetech.flexmodel.query;
 
-import tech.wetech.flexmodel.JsonUtils;
+import tech.wetech.flexmodel.condition.ConditionNode;
 import tech.wetech.flexmodel.reflect.LazyObjProxy;
 import tech.wetech.flexmodel.reflect.ReflectionUtils;
 import tech.wetech.flexmodel.session.Session;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 /**
  * DSL查询构建器
@@ -73,7 +77,15 @@ public class DSLQueryBuilder {
    * 设置过滤条件
    */
   public DSLQueryBuilder where(Predicate predicate) {
-    query.setFilter(predicate.toJsonString());
+    query.setCondition(predicate.toConditionNode());
+    return this;
+  }
+
+  /**
+   * 设置过滤条件（条件语法树形式）
+   */
+  public DSLQueryBuilder where(ConditionNode condition) {
+    query.setCondition(condition);
     return this;
   }
 
@@ -216,12 +228,18 @@ public class DSLQueryBuilder {
    */
   @SuppressWarnings("all")
   public <T> List<T> execute(Class<T> resultType) {
+    List<T> typedResults = fetch(resultType);
+    return LazyObjProxy.createProxyList(typedResults, modelName, session);
+  }
+
+  /**
+   * 执行查询，结果集直接映射为指定类型，不经过Map中转
+   */
+  <T> List<T> fetch(Class<T> resultType) {
     if (modelName == null) {
       throw new IllegalStateException("Model name or entity class must be specified using from() method");
     }
-    List<Map<String, Object>> list = execute();
-    List<T> typedResults = JsonUtils.convertValueList(list, resultType);
-    return LazyObjProxy.createProxyList(typedResults, modelName, session);
+    return session.data().find(modelName, query, resultType);
   }
 
   /**
@@ -232,6 +250,42 @@ public class DSLQueryBuilder {
     return results.isEmpty() ? null : results.getFirst();
   }
 
+  /**
+   * 执行流式查询，返回的Stream使用完毕后必须关闭；SQL数据源不支持嵌套查询
+   */
+  public Stream<Map<String, Object>> stream() {
+    if (modelName == null) {
+      throw new IllegalStateException("Model name or entity class must be specified using from() method");
+    }
+    return session.data().stream(modelName, query);
+  }
+
+  /**
+   * 流式遍历查询结果，每凑满batchSize条回调一次
+   */
+  public void forEach(int batchSize, Consumer<List<Map<String, Object>>> consumer) {
+    if (modelName == null) {
+      throw new IllegalStateException("Model name or entity class must be specified using from() method");
+    }
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("batchSize must be greater than 0");
+    }
+    try (Stream<Map<String, Object>> stream = session.data().stream(modelName, query, batchSize)) {
+      List<Map<String, Object>> batch = new ArrayList<>(batchSize);
+      Iterator<Map<String, Object>> iterator = stream.iterator();
+      while (iterator.hasNext()) {
+        batch.add(iterator.next());
+        if (batch.size() >= batchSize) {
+          consumer.accept(batch);
+          batch = new ArrayList<>(batchSize);
+        }
+      }
+      if (!batch.isEmpty()) {
+        consumer.accept(batch);
+      }
+    }
+  }
+
   /**
    * 统计记录数
    */
@@ -1,5 +1,9 @@
 package tech.wetech.flexmodel.query;
 
+import tech.wetech.flexmodel.condition.ConditionNode;
+import tech.wetech.flexmodel.condition.ConditionOperator;
+import tech.wetech.flexmodel.condition.LogicalConditionNode;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -20,6 +24,21 @@ public class LogicalPredicate extends Predicate {
     this.predicates = predicates;
   }
 
+  @Override
+  public ConditionNode toConditionNode() {
+    List<ConditionNode> children = new ArrayList<>(predicates.size());
+    for (Predicate predicate : predicates) {
+      ConditionNode node = predicate.toConditionNode();
+      if (!node.isEmpty()) {
+        children.add(node);
+      }
+    }
+    if (children.isEmpty()) {
+      return LogicalConditionNode.emptyAnd();
+    }
+    return LogicalConditionNode.of(ConditionOperator.of(operator), children);
+  }
+
   @Override
   public Map<String, Object> toMap() {
     List<Map<String, Object>> conditions = new ArrayList<>();
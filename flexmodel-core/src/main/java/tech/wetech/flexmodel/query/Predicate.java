@@ -1,8 +1,12 @@
 package tech.wetech.flexmodel.query;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Map;
+import tech.wetech.flexmodel.JsonUtils;
+import tech.wetech.flexmodel.condition.ConditionNode;
+import tech.wetech.flexmodel.condition.ConditionOperator;
+import tech.wetech.flexmodel.condition.FieldConditionNode;
+import tech.wetech.flexmodel.condition.LogicalConditionNode;
+
+import java.util.*;
 
 /**
  * 条件表达式
@@ -29,6 +33,47 @@ public class Predicate implements Expression {
     return Collections.singletonMap(fieldName, Collections.singletonMap(operator, value));
   }
 
+  /**
+   * 直接转换为条件语法树，不经过 JSON 序列化和解析
+   */
+  public ConditionNode toConditionNode() {
+    if (fieldName == null) {
+      return LogicalConditionNode.emptyAnd();
+    }
+    return new FieldConditionNode(fieldName, ConditionOperator.of(operator), normalizeValue(value));
+  }
+
+  /**
+   * 保持与 JSON 解析结果一致：基础类型原样使用，其余类型（日期、枚举等）按 JSON 转换后的值使用
+   */
+  static Object normalizeValue(Object value) {
+    if (isJsonNative(value)) {
+      return value;
+    }
+    if (value instanceof Collection<?> collection) {
+      boolean allNative = true;
+      for (Object element : collection) {
+        if (!isJsonNative(element)) {
+          allNative = false;
+          break;
+        }
+      }
+      if (allNative) {
+        return value;
+      }
+      List<Object> list = new ArrayList<>(collection.size());
+      for (Object element : collection) {
+        list.add(normalizeValue(element));
+      }
+      return list;
+    }
+    return JsonUtils.parseToObject(JsonUtils.toJsonString(value), Object.class);
+  }
+
+  private static boolean isJsonNative(Object value) {
+    return value == null || value instanceof String || value instanceof Number || value instanceof Boolean;
+  }
+
   public Predicate and(Predicate other) {
     if (this == Expressions.TRUE) {
       return other;
@@ -1,7 +1,12 @@
 package tech.wetech.flexmodel.query;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import tech.wetech.flexmodel.JsonUtils;
+import tech.wetech.flexmodel.condition.ConditionNode;
 import tech.wetech.flexmodel.model.field.Field;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
@@ -18,6 +23,10 @@ import java.util.function.UnaryOperator;
 public class Query implements Serializable {
 
   private String filter;
+  /**
+   * 由 {@link Predicate} 直接生成的条件，存在时优先于 filter 渲染，filter 仅在被读取时才生成
+   */
+  private transient ConditionNode condition;
   private Projection projection;
   private Joins joins;
   private GroupBy groupBy;
@@ -117,6 +126,7 @@ public class Query implements Serializable {
     private String localField;
     private String foreignField;
     private String filter;
+    private transient ConditionNode condition;
     private JoinType joinType;
 
     public enum JoinType {
@@ -163,19 +173,39 @@ public class Query implements Serializable {
     }
 
     public String getFilter() {
+      if (filter == null && condition != null) {
+        filter = JsonUtils.toJsonString(condition.toMap());
+      }
       return filter;
     }
 
     public Join withFilter(Predicate condition) {
-      this.filter = condition.toJsonString();
-      return this;
+      return setCondition(condition.toConditionNode());
     }
 
     public Join setFilter(String filter) {
       this.filter = filter;
+      this.condition = null;
       return this;
     }
 
+    @JsonIgnore
+    public ConditionNode getCondition() {
+      return condition;
+    }
+
+    @JsonIgnore
+    public Join setCondition(ConditionNode condition) {
+      this.condition = condition == null || condition.isEmpty() ? null : condition;
+      this.filter = null;
+      return this;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+      getFilter();
+      out.defaultWriteObject();
+    }
+
     public JoinType getJoinType() {
       return joinType;
     }
@@ -238,6 +268,16 @@ public class Query implements Serializable {
   // Setter方法
   public void setFilter(String filter) {
     this.filter = filter;
+    this.condition = null;
+  }
+
+  /**
+   * 设置条件语法树，跳过 JSON 序列化和解析
+   */
+  @JsonIgnore
+  public void setCondition(ConditionNode condition) {
+    this.condition = condition == null || condition.isEmpty() ? null : condition;
+    this.filter = null;
   }
 
   public void setProjection(Projection projection) {
@@ -266,9 +306,17 @@ public class Query implements Serializable {
 
   // Getter方法
   public String getFilter() {
+    if (filter == null && condition != null) {
+      filter = JsonUtils.toJsonString(condition.toMap());
+    }
     return filter;
   }
 
+  @JsonIgnore
+  public ConditionNode getCondition() {
+    return condition;
+  }
+
   public Projection getProjection() {
     return projection;
   }
@@ -383,6 +431,7 @@ public class Query implements Serializable {
     private String localField;
     private String foreignField;
     private String filter;
+    private ConditionNode condition;
 
     public JoinBuilder model(String model) {
       this.model = model;
@@ -402,11 +451,13 @@ public class Query implements Serializable {
 
     public JoinBuilder where(String filter) {
       this.filter = filter;
+      this.condition = null;
       return this;
     }
 
     public JoinBuilder where(Predicate predicate) {
-      this.filter = predicate.toJsonString();
+      this.condition = predicate.toConditionNode();
+      this.filter = null;
       return this;
     }
   }
@@ -428,7 +479,7 @@ public class Query implements Serializable {
      * 设置过滤条件
      */
     public Builder where(Predicate predicate) {
-      query.setFilter(predicate.toJsonString());
+      query.setCondition(predicate.toConditionNode());
       return this;
     }
 
@@ -488,7 +539,9 @@ public class Query implements Serializable {
         join.setAs(joinBuilder.alias);
         join.setLocalField(joinBuilder.localField);
         join.setForeignField(joinBuilder.foreignField);
-        if (joinBuilder.filter != null) {
+        if (joinBuilder.condition != null) {
+          join.setCondition(joinBuilder.condition);
+        } else if (joinBuilder.filter != null) {
           join.setFilter(joinBuilder.filter);
         }
         return join;
@@ -512,7 +565,9 @@ public class Query implements Serializable {
         join.setAs(joinBuilder.alias);
         join.setLocalField(joinBuilder.localField);
         join.setForeignField(joinBuilder.foreignField);
-        if (joinBuilder.filter != null) {
+        if (joinBuilder.condition != null) {
+          join.setCondition(joinBuilder.condition);
+        } else if (joinBuilder.filter != null) {
           join.setFilter(joinBuilder.filter);
         }
         return join;
@@ -750,4 +805,10 @@ public class Query implements Serializable {
   public static Query.DayOfYearFunc dayOfYear(Query.QueryCall date) {
     return new Query.DayOfYearFunc(date);
   }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    getFilter();
+    out.defaultWriteObject();
+  }
+
 }
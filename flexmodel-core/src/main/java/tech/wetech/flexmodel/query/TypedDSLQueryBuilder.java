@@ -1,9 +1,6 @@
 package tech.wetech.flexmodel.query;
 
-import tech.wetech.flexmodel.JsonUtils;
-
 import java.util.List;
-import java.util.Map;
 import java.util.function.UnaryOperator;
 
 /**
@@ -162,32 +159,30 @@ public class TypedDSLQueryBuilder<T> {
    * 执行查询并返回指定类型的结果（自动使用from中指定的类型）
    */
   public List<T> execute() {
-    List<Map<String, Object>> list = delegate.execute();
-    return JsonUtils.convertValueList(list, entityClass);
+    return delegate.fetch(entityClass);
   }
 
   /**
    * 执行查询并返回指定类型的结果（可以覆盖from中指定的类型）
    */
   public <R> List<R> execute(Class<R> resultType) {
-    List<Map<String, Object>> list = delegate.execute();
-    return JsonUtils.convertValueList(list, resultType);
+    return delegate.fetch(resultType);
   }
 
   /**
    * 执行查询并返回单个结果（自动使用from中指定的类型）
    */
   public T executeOne() {
-    Map<String, Object> result = delegate.executeOne();
-    return JsonUtils.convertValue(result, entityClass);
+    List<T> results = delegate.fetch(entityClass);
+    return results.isEmpty() ? null : results.getFirst();
   }
 
   /**
    * 执行查询并返回单个结果（可以覆盖from中指定的类型）
    */
   public <R> R executeOne(Class<R> resultType) {
-    Map<String, Object> result = delegate.executeOne();
-    return JsonUtils.convertValue(result, resultType);
+    List<R> results = delegate.fetch(resultType);
+    return results.isEmpty() ? null : results.getFirst();
   }
 
   /**
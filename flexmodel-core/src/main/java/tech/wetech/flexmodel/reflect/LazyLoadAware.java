@@ -0,0 +1,14 @@
+package tech.wetech.flexmodel.reflect;
+
+/**
+ * 代理对象持有的懒加载状态，由生成的代理类通过字段实现
+ *
+ * @author cjbi
+ */
+public interface LazyLoadAware {
+
+  LazyLoadInterceptor lazyLoadInterceptor();
+
+  void lazyLoadInterceptor(LazyLoadInterceptor interceptor);
+
+}
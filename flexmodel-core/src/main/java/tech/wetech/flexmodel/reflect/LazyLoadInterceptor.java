@@ -32,13 +32,26 @@ public class LazyLoadInterceptor {
   private final String modelName;
   private final Session session;
   private final Map<String, Object> dataMap;
+  private final EntityDefinition entity;
 
   public LazyLoadInterceptor(String modelName, Map<String, Object> dataMap, Session session) {
+    this(modelName, null, dataMap, session);
+  }
+
+  public LazyLoadInterceptor(String modelName, EntityDefinition entity, Map<String, Object> dataMap, Session session) {
     this.modelName = modelName;
+    this.entity = entity;
     this.dataMap = dataMap;
     this.session = session;
   }
 
+  /**
+   * 代理对象 {@link ProxyInterface#entityInfo()} 的实现
+   */
+  public EntityDefinition entityInfo() {
+    return entity != null ? entity : (EntityDefinition) session.schema().getModel(modelName);
+  }
+
   public static void clear() {
     loadCache.get().clear();
   }
@@ -142,7 +155,7 @@ public class LazyLoadInterceptor {
       List<Map<String, Object>> list = session.data()
         .find(relationField.getFrom(), Expressions.field(relationField.getForeignField()).eq(convertedIdentifier), false);
       List<?> objects = JsonUtils.convertValueList(list, elementType);
-      List<?> proxyList = LazyObjProxy.createProxyList(objects, relationField.getFrom(), session);
+      List<?> proxyList = LazyObjProxy.createProxyList(objects, list, relationField.getFrom(), session);
       return RelationLoadResult.loaded(proxyList);
     }
 
@@ -152,7 +165,7 @@ public class LazyLoadInterceptor {
       return RelationLoadResult.notLoaded();
     }
     Object value = JsonUtils.convertValue(result.getFirst(), method.getReturnType());
-    Object proxyValue = LazyObjProxy.createProxy(value, relationField.getFrom(), session);
+    Object proxyValue = LazyObjProxy.createProxy(value, result.getFirst(), relationField.getFrom(), session);
     return RelationLoadResult.loaded(proxyValue);
   }
 
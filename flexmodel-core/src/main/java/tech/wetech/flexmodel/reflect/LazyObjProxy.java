@@ -1,6 +1,9 @@
 package tech.wetech.flexmodel.reflect;
 
 import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.TypeCache;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.implementation.FieldAccessor;
 import net.bytebuddy.implementation.FixedValue;
 import net.bytebuddy.implementation.MethodDelegation;
 import net.bytebuddy.matcher.ElementMatchers;
@@ -10,10 +13,14 @@ import tech.wetech.flexmodel.JsonUtils;
 import tech.wetech.flexmodel.model.EntityDefinition;
 import tech.wetech.flexmodel.model.field.RelationField;
 import tech.wetech.flexmodel.session.Session;
+import tech.wetech.flexmodel.sql.type.EntityRowMapper;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author cjbi
@@ -22,25 +29,66 @@ public class LazyObjProxy {
 
   private static final Logger log = LoggerFactory.getLogger(LazyObjProxy.class);
 
-  @SuppressWarnings("unchecked")
+  private static final String INTERCEPTOR_FIELD = "$$lazyLoadInterceptor";
+
+  /**
+   * 模型名称 -> 代理类缓存，按类加载器弱引用、代理类软引用保存，内存紧张时可被卸载；
+   * 模型重新定义后整体移除，旧的代理类随之释放
+   */
+  private static final Map<String, TypeCache<ProxyKey>> PROXY_TYPE_CACHES = new ConcurrentHashMap<>();
+
+  private static final ClassValue<Field[]> COPYABLE_FIELDS = new ClassValue<>() {
+    @Override
+    protected Field[] computeValue(Class<?> type) {
+      List<Field> fields = new ArrayList<>();
+      for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+        for (Field field : c.getDeclaredFields()) {
+          if (!Modifier.isStatic(field.getModifiers())) {
+            field.setAccessible(true);
+            fields.add(field);
+          }
+        }
+      }
+      return fields.toArray(new Field[0]);
+    }
+  };
+
   public static <T> T createProxy(T obj, String modelName, Session session) {
+    return createProxy(obj, null, modelName, session);
+  }
+
+  /**
+   * 创建懒加载代理
+   *
+   * @param obj       原始对象
+   * @param dataMap   原始对象对应的记录，用于解析关联字段的值，为空时仅在存在关联字段时由原始对象转换
+   * @param modelName 模型名称
+   * @param session   会话
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T createProxy(T obj, Map<String, Object> dataMap, String modelName, Session session) {
+    if (obj == null || obj instanceof ProxyInterface) {
+      return obj;
+    }
     try {
       EntityDefinition entity = (EntityDefinition) session.schema().getModel(modelName);
-      Class<?> subClazz = new ByteBuddy()
-        .subclass(obj.getClass())
-        .implement(ProxyInterface.class)
-        .method(ElementMatchers.namedOneOf(getLazyMethods(entity)))
-        .intercept(MethodDelegation.to(new LazyLoadInterceptor(modelName,
-          JsonUtils.convertValue(obj, Map.class), session))) // 委托给 LazyLoadInterceptor
-        .method(ElementMatchers.named("entityInfo"))
-        .intercept(FixedValue.value(session.schema().getModel(modelName)))
-        .method(ElementMatchers.named("originClass"))
-        .intercept(FixedValue.value(obj.getClass()))
-        .make()
-        .load(obj.getClass().getClassLoader())
-        .getLoaded();
-
-      return (T) JsonUtils.convertValue(obj, subClazz);
+      Class<?> originClass = obj.getClass();
+      String[] lazyMethods = getLazyMethods(entity);
+      ProxyKey key = new ProxyKey(originClass.getName(), List.of(lazyMethods));
+      TypeCache<ProxyKey> typeCache = PROXY_TYPE_CACHES.computeIfAbsent(modelName,
+        k -> new TypeCache.WithInlineExpunction<>(TypeCache.Sort.SOFT));
+      Class<?> proxyClass = typeCache.findOrInsert(originClass.getClassLoader(), key,
+        () -> makeProxyClass(originClass, lazyMethods));
+      if (dataMap == null) {
+        dataMap = lazyMethods.length > 0 ? toDataMap(obj) : Map.of();
+      }
+
+      Object proxy = proxyClass.getDeclaredConstructor().newInstance();
+      for (Field field : COPYABLE_FIELDS.get(originClass)) {
+        field.set(proxy, field.get(obj));
+      }
+      ((LazyLoadAware) proxy).lazyLoadInterceptor(new LazyLoadInterceptor(modelName, entity, dataMap, session));
+      return (T) proxy;
     } catch (Throwable e) {
       log.trace("Failed to create lazy class, message: {}", e.toString());
       return obj;
@@ -56,6 +104,65 @@ public class LazyObjProxy {
     return result;
   }
 
+  /**
+   * 创建懒加载代理列表，dataList与list按下标一一对应
+   */
+  public static <T> List<T> createProxyList(List<T> list, List<Map<String, Object>> dataList, String modelName, Session session) {
+    List<T> result = new ArrayList<>(list.size());
+    for (int i = 0; i < list.size(); i++) {
+      result.add(createProxy(list.get(i), dataList.get(i), modelName, session));
+    }
+    return result;
+  }
+
+  /**
+   * 由实体读取关联字段需要的列值，实体类可由 {@link EntityRowMapper} 映射时直接读取字段，否则通过 Jackson 转换
+   */
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> toDataMap(Object obj) {
+    EntityRowMapper<Object> mapper = (EntityRowMapper<Object>) EntityRowMapper.of(obj.getClass());
+    return mapper != null ? mapper.toRow(obj) : JsonUtils.convertValue(obj, Map.class);
+  }
+
+  /**
+   * 模型重新定义后调用，使该模型已生成的代理类失效
+   */
+  public static void evict(String modelName) {
+    TypeCache<ProxyKey> typeCache = PROXY_TYPE_CACHES.remove(modelName);
+    if (typeCache != null) {
+      typeCache.clear();
+    }
+  }
+
+  /**
+   * 清空所有已生成的代理类
+   */
+  public static void clearCache() {
+    PROXY_TYPE_CACHES.keySet().forEach(LazyObjProxy::evict);
+  }
+
+  private static Class<?> makeProxyClass(Class<?> originClass, String[] lazyMethods) {
+    return new ByteBuddy()
+      .subclass(originClass)
+      .defineField(INTERCEPTOR_FIELD, LazyLoadInterceptor.class, Visibility.PRIVATE)
+      .implement(LazyLoadAware.class)
+      .intercept(FieldAccessor.ofField(INTERCEPTOR_FIELD))
+      .implement(ProxyInterface.class)
+      .method(ElementMatchers.namedOneOf(lazyMethods))
+      .intercept(MethodDelegation.withDefaultConfiguration()
+        .filter(ElementMatchers.named("intercept"))
+        .toField(INTERCEPTOR_FIELD)) // 委托给实例上的 LazyLoadInterceptor
+      .method(ElementMatchers.named("entityInfo"))
+      .intercept(MethodDelegation.withDefaultConfiguration()
+        .filter(ElementMatchers.named("entityInfo"))
+        .toField(INTERCEPTOR_FIELD))
+      .method(ElementMatchers.named("originClass"))
+      .intercept(FixedValue.value(originClass))
+      .make()
+      .load(originClass.getClassLoader())
+      .getLoaded();
+  }
+
   private static String[] getLazyMethods(EntityDefinition entity) {
     List<String> methodNames = new ArrayList<>();
     entity.getFields().forEach(field -> {
@@ -66,5 +173,7 @@ public class LazyObjProxy {
     return methodNames.toArray(new String[]{});
   }
 
+  private record ProxyKey(String className, List<String> lazyMethods) {
+  }
 
 }
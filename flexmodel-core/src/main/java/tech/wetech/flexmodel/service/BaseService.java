@@ -3,6 +3,7 @@ package tech.wetech.flexmodel.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import tech.wetech.flexmodel.JsonUtils;
+import tech.wetech.flexmodel.condition.ConditionNode;
 import tech.wetech.flexmodel.model.EntityDefinition;
 import tech.wetech.flexmodel.model.ModelDefinition;
 import tech.wetech.flexmodel.model.field.*;
@@ -14,8 +15,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.*;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static tech.wetech.flexmodel.query.Expressions.field;
@@ -282,14 +284,10 @@ public abstract class BaseService {
       if (fieldExpression instanceof Query.QueryField queryField) {
         log.debug("Checking field: {} (alias: {})", queryField.getName(), fieldAlias);
 
-        entity.getFields().stream()
-          .filter(field -> field.getName().equals(queryField.getName()) && field instanceof RelationField)
-          .map(field -> (RelationField) field)
-          .findFirst()
-          .ifPresent(relationField -> {
-            relationFieldMap.put(fieldAlias, relationField);
-            log.debug("Found relation field: {} -> {}", fieldAlias, relationField.getName());
-          });
+        if (entity.getField(queryField.getName()) instanceof RelationField relationField) {
+          relationFieldMap.put(fieldAlias, relationField);
+          log.debug("Found relation field: {} -> {}", fieldAlias, relationField.getName());
+        }
       }
     }
   }
@@ -303,16 +301,15 @@ public abstract class BaseService {
   private void findAllRelationFields(EntityDefinition entity, Map<String, RelationField> relationFieldMap) {
     log.debug("Finding all relation fields for entity: {}", entity.getName());
 
-    for (Field field : entity.getFields()) {
-      if (field instanceof RelationField relationField) {
-        relationFieldMap.put(relationField.getName(), relationField);
-        log.debug("Found relation field: {}", relationField.getName());
-      }
+    for (RelationField relationField : entity.getRelationFields()) {
+      relationFieldMap.put(relationField.getName(), relationField);
+      log.debug("Found relation field: {}", relationField.getName());
     }
   }
 
   /**
    * 查找关联数据列表
+   * 外键值超过单次查询的上限时分批查询并合并结果，配置了执行器时各批次并行执行
    *
    * @param relationQueryFunction 关联查询函数
    * @param relationField 关联字段定义
@@ -327,15 +324,81 @@ public abstract class BaseService {
     log.debug("Finding relation data for field: {}, foreign key values count: {}",
       relationField.getName(), foreignKeyValues.size());
 
-    Query relationQuery = new Query();
-    relationQuery.setFilter(field(relationField.getForeignField()).in(foreignKeyValues).toJsonString());
+    List<List<Object>> chunks = chunkForeignKeyValues(foreignKeyValues, getRelationQueryBatchSize());
+    List<Function<BiFunction<String, Query, List<Map<String, Object>>>, List<Map<String, Object>>>> tasks = new ArrayList<>(chunks.size());
+    for (List<Object> chunk : chunks) {
+      tasks.add(queryFunction -> {
+        Query relationQuery = new Query();
+        relationQuery.setCondition(toRelationCondition(relationField, chunk));
+        return queryFunction.apply(relationField.getFrom(), relationQuery);
+      });
+    }
 
-    List<Map<String, Object>> result = relationQueryFunction.apply(relationField.getFrom(), relationQuery);
+    List<Map<String, Object>> result;
+    if (tasks.size() == 1) {
+      result = tasks.getFirst().apply(relationQueryFunction);
+    } else {
+      result = new ArrayList<>();
+      runInBranches(tasks, relationQueryFunction).forEach(result::addAll);
+    }
 
-    log.debug("Found {} relation data records for field: {}", result.size(), relationField.getName());
+    log.debug("Found {} relation data records for field: {} in {} batches", result.size(), relationField.getName(), chunks.size());
     return result;
   }
 
+  /**
+   * 按批次大小拆分外键值，除首个批次外不足一批的补齐到2的幂次（重复最后一个值），
+   * 减少不同长度的 IN 列表产生的语句数量；重复的外键值只保留一个
+   *
+   * @param foreignKeyValues 外键值集合
+   * @param batchSize 批次大小
+   * @return 外键值批次
+   */
+  static List<List<Object>> chunkForeignKeyValues(Collection<Object> foreignKeyValues, int batchSize) {
+    if (!(foreignKeyValues instanceof Set)) {
+      foreignKeyValues = new LinkedHashSet<>(foreignKeyValues);
+    }
+    if (foreignKeyValues.size() <= batchSize) {
+      return List.of(new ArrayList<>(foreignKeyValues));
+    }
+    List<List<Object>> chunks = new ArrayList<>();
+    List<Object> chunk = new ArrayList<>(batchSize);
+    for (Object value : foreignKeyValues) {
+      chunk.add(value);
+      if (chunk.size() == batchSize) {
+        chunks.add(chunk);
+        chunk = new ArrayList<>(batchSize);
+      }
+    }
+    if (!chunk.isEmpty()) {
+      int paddedSize = Math.min(batchSize, Integer.highestOneBit(chunk.size() - 1) << 1);
+      Object last = chunk.getLast();
+      while (chunk.size() < paddedSize) {
+        chunk.add(last);
+      }
+      chunks.add(chunk);
+    }
+    return chunks;
+  }
+
+  /**
+   * 关联查询的外键条件，子类可按数据库能力调整外键值的绑定方式
+   *
+   * @param relationField 关联字段定义
+   * @param foreignKeyValues 一个批次的外键值
+   * @return 条件语法树
+   */
+  protected ConditionNode toRelationCondition(RelationField relationField, List<Object> foreignKeyValues) {
+    return field(relationField.getForeignField()).in(foreignKeyValues).toConditionNode();
+  }
+
+  /**
+   * 单次关联查询允许的最大外键值个数，子类可按数据库限制调整
+   */
+  protected int getRelationQueryBatchSize() {
+    return Integer.MAX_VALUE;
+  }
+
   /**
    * 执行嵌套查询
    *
@@ -354,7 +417,7 @@ public abstract class BaseService {
       model.getName(), parentDataList.size(), maxDepth);
 
     try {
-      nestedQuery(parentDataList, relationQueryFunction, model, query, new AtomicInteger(maxDepth));
+      nestedQuery(parentDataList, relationQueryFunction, model, query, maxDepth, new LoadedRecords());
       log.debug("Nested query completed successfully for model: {}", model.getName());
     } catch (Exception e) {
       log.error("Nested query failed for model: {}, error: {}", model.getName(), e.getMessage(), e);
@@ -363,132 +426,294 @@ public abstract class BaseService {
   }
 
   /**
-   * 执行嵌套查询（私有方法，使用原子整数控制深度）
+   * 逐层执行嵌套查询，每一层中关联模型和外键字段相同的关联字段合并为一组，每组只查询一次（按批次拆分），
+   * 下一层以本层加载到的同一关联模型的数据整体作为父级数据。
+   * 配置了执行器且存在多个分组时并行加载，结果在所有分支完成后统一写回父级数据
    *
    * @param parentDataList 父级数据列表
    * @param relationQueryFunction 关联查询函数
    * @param model 模型定义
    * @param query 查询对象
-   * @param remainingDepth 剩余深度（原子整数）
+   * @param remainingDepth 剩余层数
+   * @param loadedRecords 本次嵌套查询已加载的关联记录
    */
   private void nestedQuery(List<Map<String, Object>> parentDataList,
                            BiFunction<String, Query, List<Map<String, Object>>> relationQueryFunction,
                            ModelDefinition model,
                            Query query,
-                           AtomicInteger remainingDepth) {
-    if (remainingDepth.get() <= 0) {
+                           int remainingDepth,
+                           LoadedRecords loadedRecords) {
+    if (remainingDepth <= 0) {
       log.debug("Nested query depth limit reached for model: {}", model.getName());
       return;
     }
+    if (parentDataList.isEmpty()) {
+      return;
+    }
 
-    log.debug("Processing nested query for model: {}, remaining depth: {}", model.getName(), remainingDepth.get());
-
-    Map<String, RelationField> relationFieldMap = findRelationFields(model, query);
+    log.debug("Processing nested query for model: {}, remaining depth: {}", model.getName(), remainingDepth);
 
-    relationFieldMap.entrySet().parallelStream().forEach(entry -> {
-      String relationFieldAlias = entry.getKey();
+    Map<String, RelationGroup> groupMap = new LinkedHashMap<>();
+    for (Map.Entry<String, RelationField> entry : findRelationFields(model, query).entrySet()) {
       RelationField relationField = entry.getValue();
+      log.debug("Processing relation field: {} (alias: {})", relationField.getName(), entry.getKey());
+      EntityDefinition relationModel = (EntityDefinition) sessionContext.getModelDefinition(relationField.getFrom());
+      if (relationModel == null || relationModel.getField(relationField.getForeignField()) == null) {
+        log.warn("Relation model or foreign field not found for relation: {}", relationField.getName());
+        continue;
+      }
+      groupMap.computeIfAbsent(relationField.getFrom() + "." + relationField.getForeignField(),
+          key -> new RelationGroup(relationModel, relationField))
+        .add(entry.getKey(), relationField, parentDataList);
+    }
+    List<RelationGroup> groups = new ArrayList<>(groupMap.values());
+    List<Function<BiFunction<String, Query, List<Map<String, Object>>>, List<Map<String, Object>>>> tasks = new ArrayList<>();
+    for (RelationGroup group : groups) {
+      tasks.add(queryFunction -> loadRelationData(group, queryFunction, loadedRecords));
+    }
+    List<List<Map<String, Object>>> results = runInBranches(tasks, relationQueryFunction);
+
+    Map<String, List<Map<String, Object>>> nextParentDataMap = new LinkedHashMap<>();
+    Map<String, EntityDefinition> nextModelMap = new HashMap<>();
+    for (int i = 0; i < groups.size(); i++) {
+      RelationGroup group = groups.get(i);
+      List<Map<String, Object>> relationDataList = results.get(i);
+      applyRelationValues(parentDataList, group, relationDataList);
+      nextParentDataMap.computeIfAbsent(group.relationModel.getName(), k -> new ArrayList<>()).addAll(relationDataList);
+      nextModelMap.put(group.relationModel.getName(), group.relationModel);
+    }
 
-      log.debug("Processing relation field: {} (alias: {})", relationField.getName(), relationFieldAlias);
-      processRelationField(parentDataList, relationQueryFunction, model, query,
-        remainingDepth, relationFieldAlias, relationField);
-    });
+    // 下一层，同一关联模型只处理一次
+    for (Map.Entry<String, List<Map<String, Object>>> entry : nextParentDataMap.entrySet()) {
+      nestedQuery(entry.getValue(), relationQueryFunction, nextModelMap.get(entry.getKey()), null,
+        remainingDepth - 1, loadedRecords);
+    }
   }
 
   /**
-   * 处理单个关联字段
+   * 执行关联查询任务，可并行时每个任务在独立的关联查询分支中执行，否则在当前线程顺序执行，
+   * 结果与任务顺序一致
    *
-   * @param parentDataList 父级数据列表
+   * @param tasks 关联查询任务
    * @param relationQueryFunction 关联查询函数
-   * @param model 模型定义
-   * @param query 查询对象
-   * @param remainingDepth 剩余深度
-   * @param relationFieldAlias 关联字段别名
-   * @param relationField 关联字段定义
+   * @return 任务结果
    */
-  private void processRelationField(List<Map<String, Object>> parentDataList,
-                                    BiFunction<String, Query, List<Map<String, Object>>> relationQueryFunction,
-                                    ModelDefinition model,
-                                    Query query,
-                                    AtomicInteger remainingDepth,
-                                    String relationFieldAlias,
-                                    RelationField relationField) {
-    // 收集所有外键值
-    Set<Object> foreignKeyValues = parentDataList.stream()
-      .map(dataItem -> dataItem.get(relationField.getLocalField()))
-      .filter(Objects::nonNull)
-      .collect(Collectors.toSet());
-
-    log.debug("Collected {} foreign key values for relation field: {}",
-      foreignKeyValues.size(), relationField.getName());
+  private <T> List<T> runInBranches(List<Function<BiFunction<String, Query, List<Map<String, Object>>>, T>> tasks,
+                                    BiFunction<String, Query, List<Map<String, Object>>> relationQueryFunction) {
+    Executor executor = sessionContext.getNestedQueryExecutor();
+    if (executor == null || tasks.size() <= 1 || !supportsParallelNestedQuery()) {
+      List<T> results = new ArrayList<>(tasks.size());
+      for (Function<BiFunction<String, Query, List<Map<String, Object>>>, T> task : tasks) {
+        results.add(task.apply(relationQueryFunction));
+      }
+      return results;
+    }
 
-    EntityDefinition relationModel = (EntityDefinition) sessionContext.getModelDefinition(relationField.getFrom());
+    Semaphore permits = sessionContext.getNestedQueryPermits();
+    List<CompletableFuture<T>> futures = new ArrayList<>(tasks.size());
+    for (Function<BiFunction<String, Query, List<Map<String, Object>>>, T> task : tasks) {
+      CompletableFuture<T> future = null;
+      if (permits.tryAcquire()) {
+        try {
+          future = CompletableFuture.supplyAsync(() -> {
+            try (RelationQueryBranch branch = openRelationQueryBranch(relationQueryFunction)) {
+              return task.apply(branch::find);
+            } finally {
+              permits.release();
+            }
+          }, executor);
+        } catch (RejectedExecutionException e) {
+          permits.release();
+        }
+      }
+      if (future == null) {
+        // 无可用许可时在当前线程执行，避免嵌套的分支互相等待许可
+        try {
+          future = CompletableFuture.completedFuture(task.apply(relationQueryFunction));
+        } catch (RuntimeException e) {
+          future = CompletableFuture.failedFuture(e);
+        }
+      }
+      futures.add(future);
+    }
 
-    if (relationModel == null || relationModel.getField(relationField.getForeignField()) == null) {
-      log.warn("Relation model or foreign field not found for relation: {}", relationField.getName());
-      return;
+    List<T> results = new ArrayList<>(futures.size());
+    RuntimeException failure = null;
+    for (CompletableFuture<T> future : futures) {
+      try {
+        results.add(future.join());
+      } catch (CompletionException e) {
+        results.add(null);
+        if (failure == null) {
+          failure = e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
     }
+    return results;
+  }
+
+  /**
+   * 是否可以并行加载关联数据，子类可在无法提供独立分支时（如事务中）返回false
+   */
+  protected boolean supportsParallelNestedQuery() {
+    return true;
+  }
 
-    // 查询关联数据并按外键分组
-    Map<Object, List<Map<String, Object>>> relationDataGroup = findRelationDataList(relationQueryFunction, relationField, foreignKeyValues)
-      .stream()
-      .collect(Collectors.groupingBy(dataItem -> dataItem.get(relationField.getForeignField())));
+  /**
+   * 打开并行加载使用的关联查询分支，默认与调用方共用关联查询函数
+   *
+   * @param relationQueryFunction 关联查询函数
+   * @return 关联查询分支，使用完毕后关闭
+   */
+  protected RelationQueryBranch openRelationQueryBranch(BiFunction<String, Query, List<Map<String, Object>>> relationQueryFunction) {
+    return relationQueryFunction::apply;
+  }
+
+  /**
+   * 按外键分组关联数据，写回分组中每个关联字段的值
+   */
+  private void applyRelationValues(List<Map<String, Object>> parentDataList, RelationGroup group,
+                                   List<Map<String, Object>> relationDataList) {
+    Map<Object, List<Map<String, Object>>> relationDataGroup = relationDataList.stream()
+      .collect(Collectors.groupingBy(dataItem -> dataItem.get(group.foreignField)));
 
     log.debug("Grouped relation data by foreign key, groups count: {}", relationDataGroup.size());
 
-    // 填充关联数据到父级数据中
-    parentDataList.forEach(parentDataItem -> {
-      if (model instanceof EntityDefinition) {
-        fillRelationDataToParent(parentDataItem, relationField, relationFieldAlias,
-          relationDataGroup, relationQueryFunction, remainingDepth, relationModel);
+    for (Map.Entry<String, RelationField> entry : group.relationFields.entrySet()) {
+      for (Map<String, Object> parentDataItem : parentDataList) {
+        parentDataItem.put(entry.getKey(), resolveRelationValue(parentDataItem, entry.getValue(), entry.getKey(), relationDataGroup));
       }
-    });
+    }
+  }
+
+  /**
+   * 加载一组关联字段的关联数据，外键字段为关联模型主键时已加载过的记录不再重复查询
+   *
+   * @param group 关联字段分组
+   * @param relationQueryFunction 关联查询函数
+   * @param loadedRecords 本次嵌套查询已加载的关联记录
+   * @return 本层加载的关联数据
+   */
+  private List<Map<String, Object>> loadRelationData(RelationGroup group,
+                                                     BiFunction<String, Query, List<Map<String, Object>>> relationQueryFunction,
+                                                     LoadedRecords loadedRecords) {
+    log.debug("Collected {} foreign key values for relation model: {}",
+      group.foreignKeyValues.size(), group.relationModel.getName());
+
+    EntityDefinition relationModel = group.relationModel;
+    String idFieldName = relationModel.findIdField().map(TypedField::getName).orElse(null);
+    List<Map<String, Object>> relationDataList = new ArrayList<>();
+    Set<Object> missingKeyValues = group.foreignKeyValues;
+    if (group.foreignField.equals(idFieldName)) {
+      missingKeyValues = new LinkedHashSet<>();
+      for (Object foreignKeyValue : group.foreignKeyValues) {
+        Map<String, Object> loaded = loadedRecords.get(relationModel.getName(), foreignKeyValue);
+        if (loaded != null) {
+          relationDataList.add(loaded);
+        } else {
+          missingKeyValues.add(foreignKeyValue);
+        }
+      }
+      log.debug("Reused {} loaded records for relation model: {}",
+        group.foreignKeyValues.size() - missingKeyValues.size(), relationModel.getName());
+    }
+    if (!missingKeyValues.isEmpty()) {
+      List<Map<String, Object>> fetched = findRelationDataList(relationQueryFunction, group.queryField, missingKeyValues);
+      if (idFieldName != null) {
+        fetched.forEach(dataItem -> loadedRecords.put(relationModel.getName(), dataItem.get(idFieldName), dataItem));
+      }
+      relationDataList.addAll(fetched);
+    }
+    return relationDataList;
   }
 
   /**
-   * 将关联数据填充到父级数据中
+   * 计算父级数据的关联值
    *
    * @param parentDataItem 父级数据项
    * @param relationField 关联字段定义
    * @param relationFieldAlias 关联字段别名
    * @param relationDataGroup 关联数据分组
-   * @param relationQueryFunction 关联查询函数
-   * @param remainingDepth 剩余深度
-   * @param relationModel 关联模型定义
-   */
-  private void fillRelationDataToParent(Map<String, Object> parentDataItem,
-                                        RelationField relationField,
-                                        String relationFieldAlias,
-                                        Map<Object, List<Map<String, Object>>> relationDataGroup,
-                                        BiFunction<String, Query, List<Map<String, Object>>> relationQueryFunction,
-                                        AtomicInteger remainingDepth,
-                                        EntityDefinition relationModel) {
+   * @return 关联值
+   */
+  private Object resolveRelationValue(Map<String, Object> parentDataItem,
+                                      RelationField relationField,
+                                      String relationFieldAlias,
+                                      Map<Object, List<Map<String, Object>>> relationDataGroup) {
     Object localKeyValue = parentDataItem.get(relationField.getLocalField());
 
     if (localKeyValue == null) {
       log.debug("Local key value is null for relation field: {}", relationField.getName());
-      parentDataItem.put(relationFieldAlias, relationField.isMultiple() ? List.of() : null);
-      return;
+      return relationField.isMultiple() ? List.of() : null;
     }
 
     List<Map<String, Object>> relationDataList = relationDataGroup.getOrDefault(localKeyValue, List.of());
 
     log.debug("Found {} relation data records for local key: {}", relationDataList.size(), localKeyValue);
 
-    // 递归处理嵌套查询
-    remainingDepth.decrementAndGet();
-    nestedQuery(relationDataList, relationQueryFunction, relationModel, null, remainingDepth);
-
     // 根据关联类型设置值
     Object relationValue = relationField.isMultiple() ?
       relationDataList :
       (!relationDataList.isEmpty() ? relationDataList.getFirst() : null);
 
-    parentDataItem.put(relationFieldAlias, relationValue);
-
-    log.debug("Set relation value for field: {} (alias: {}), value type: {}",
+    log.debug("Resolved relation value for field: {} (alias: {}), value type: {}",
       relationField.getName(), relationFieldAlias,
       relationValue != null ? relationValue.getClass().getSimpleName() : "null");
+    return relationValue;
+  }
+
+  /**
+   * 一层中关联模型和外键字段相同的关联字段，外键值合并后只查询一次
+   */
+  private static final class RelationGroup {
+    private final EntityDefinition relationModel;
+    private final String foreignField;
+    /**
+     * 用于查询的关联字段，分组中所有字段的关联模型和外键字段相同
+     */
+    private final RelationField queryField;
+    private final Map<String, RelationField> relationFields = new LinkedHashMap<>();
+    private final Set<Object> foreignKeyValues = new LinkedHashSet<>();
+
+    RelationGroup(EntityDefinition relationModel, RelationField queryField) {
+      this.relationModel = relationModel;
+      this.foreignField = queryField.getForeignField();
+      this.queryField = queryField;
+    }
+
+    void add(String relationFieldAlias, RelationField relationField, List<Map<String, Object>> parentDataList) {
+      relationFields.put(relationFieldAlias, relationField);
+      for (Map<String, Object> dataItem : parentDataList) {
+        Object foreignKeyValue = dataItem.get(relationField.getLocalField());
+        if (foreignKeyValue != null) {
+          foreignKeyValues.add(foreignKeyValue);
+        }
+      }
+    }
+  }
+
+  /**
+   * 一次嵌套查询中按(模型, 主键)记录已加载的关联数据，通过不同路径关联到同一记录时不再重复查询。
+   * 复用时返回原始字段的副本，每条路径各自填充下一层的关联字段，避免数据间形成循环引用
+   */
+  private static final class LoadedRecords {
+
+    private final Map<String, Map<Object, Map<String, Object>>> records = new ConcurrentHashMap<>();
+
+    Map<String, Object> get(String modelName, Object id) {
+      Map<Object, Map<String, Object>> modelRecords = records.get(modelName);
+      Map<String, Object> loaded = modelRecords != null ? modelRecords.get(id) : null;
+      return loaded != null ? new LinkedHashMap<>(loaded) : null;
+    }
+
+    void put(String modelName, Object id, Map<String, Object> dataItem) {
+      if (id != null) {
+        records.computeIfAbsent(modelName, k -> new ConcurrentHashMap<>()).putIfAbsent(id, new LinkedHashMap<>(dataItem));
+      }
+    }
   }
 
   /**
@@ -0,0 +1,181 @@
+package tech.wetech.flexmodel.service;
+
+import tech.wetech.flexmodel.JsonUtils;
+import tech.wetech.flexmodel.cache.QueryResultCache;
+import tech.wetech.flexmodel.model.ModelDefinition;
+import tech.wetech.flexmodel.model.field.Field;
+import tech.wetech.flexmodel.model.field.RelationField;
+import tech.wetech.flexmodel.query.Query;
+import tech.wetech.flexmodel.session.AbstractSessionContext;
+import tech.wetech.flexmodel.sql.SqlQueryShape;
+
+import java.util.*;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+/**
+ * 缓存查询结果的数据服务包装器，只缓存 {@link QueryResultCache} 中配置的模型的 find 和 count 查询。
+ * <p>
+ * 缓存的失效依赖后置事件，需要包装在 {@link EventAwareDataService} 之外；事务中的查询不使用缓存。
+ *
+ * @author cjbi
+ */
+public class CachingDataService implements DataService {
+
+  private final DataService delegate;
+  private final QueryResultCache queryResultCache;
+  private final AbstractSessionContext sessionContext;
+  private final BooleanSupplier transactionActive;
+
+  public CachingDataService(DataService delegate, QueryResultCache queryResultCache, AbstractSessionContext sessionContext, BooleanSupplier transactionActive) {
+    this.delegate = delegate;
+    this.queryResultCache = queryResultCache;
+    this.sessionContext = sessionContext;
+    this.transactionActive = transactionActive;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<Map<String, Object>> find(String modelName, Query query) {
+    if (!isCacheable(modelName)) {
+      return delegate.find(modelName, query);
+    }
+    List<Map<String, Object>> result = (List<Map<String, Object>>) queryResultCache.retrieve(
+      sessionContext.getSchemaName(), modelName, collectModels(modelName, query), cacheKey("find:", query),
+      () -> delegate.find(modelName, query));
+    // 返回深拷贝，避免调用方修改缓存的结果（包括嵌套查询的关联数据）
+    return (List<Map<String, Object>>) deepCopy(result);
+  }
+
+  @Override
+  public <T> List<T> find(String modelName, Query query, Class<T> resultType) {
+    if (!isCacheable(modelName)) {
+      return delegate.find(modelName, query, resultType);
+    }
+    return JsonUtils.convertValueList(find(modelName, query), resultType);
+  }
+
+  @Override
+  public long count(String modelName, Query query) {
+    if (!isCacheable(modelName)) {
+      return delegate.count(modelName, query);
+    }
+    return (Long) queryResultCache.retrieve(
+      sessionContext.getSchemaName(), modelName, collectModels(modelName, query), cacheKey("count:", query),
+      () -> delegate.count(modelName, query));
+  }
+
+  private static String cacheKey(String operation, Query query) {
+    return operation + (query != null && query.isNestedEnabled() ? "N" : "") + SqlQueryShape.keyOf(query);
+  }
+
+  private static Object deepCopy(Object value) {
+    if (value instanceof Map<?, ?> map) {
+      Map<Object, Object> copy = new LinkedHashMap<>(map.size());
+      map.forEach((k, v) -> copy.put(k, deepCopy(v)));
+      return copy;
+    }
+    if (value instanceof List<?> list) {
+      List<Object> copy = new ArrayList<>(list.size());
+      list.forEach(item -> copy.add(deepCopy(item)));
+      return copy;
+    }
+    return value;
+  }
+
+  private boolean isCacheable(String modelName) {
+    return queryResultCache.isCacheable(sessionContext.getSchemaName(), modelName)
+           && !sessionContext.isAliasModel(modelName)
+           && !transactionActive.getAsBoolean();
+  }
+
+  /**
+   * 收集查询涉及的模型：主模型、连接的模型，开启嵌套查询时还包括直接或间接关联的模型
+   */
+  private Set<String> collectModels(String modelName, Query query) {
+    Set<String> models = new LinkedHashSet<>();
+    models.add(modelName);
+    if (query == null) {
+      return models;
+    }
+    if (query.getJoins() != null) {
+      for (Query.Join join : query.getJoins().getJoins()) {
+        models.add(join.getFrom());
+      }
+    }
+    if (query.isNestedEnabled()) {
+      Deque<String> pending = new ArrayDeque<>(List.of(modelName));
+      while (!pending.isEmpty()) {
+        if (!(sessionContext.getModelDefinition(pending.poll()) instanceof ModelDefinition model)) {
+          continue;
+        }
+        for (Field field : model.getFields()) {
+          if (field instanceof RelationField relationField && models.add(relationField.getFrom())) {
+            pending.add(relationField.getFrom());
+          }
+        }
+      }
+    }
+    return models;
+  }
+
+  @Override
+  public Map<String, Object> findById(String modelName, Object id, boolean nestedQuery) {
+    return delegate.findById(modelName, id, nestedQuery);
+  }
+
+  @Override
+  public Stream<Map<String, Object>> stream(String modelName, Query query, int fetchSize) {
+    return delegate.stream(modelName, query, fetchSize);
+  }
+
+  @Override
+  public List<Map<String, Object>> findByNativeQuery(String modelName, Map<String, Object> params) {
+    return delegate.findByNativeQuery(modelName, params);
+  }
+
+  @Override
+  public Object executeNativeStatement(String statement, Map<String, Object> params) {
+    try {
+      return delegate.executeNativeStatement(statement, params);
+    } finally {
+      // 原生语句可能修改任意模型且不发布事件
+      queryResultCache.invalidate(sessionContext.getSchemaName(), null);
+    }
+  }
+
+  @Override
+  public int insert(String modelName, Map<String, Object> record) {
+    return delegate.insert(modelName, record);
+  }
+
+  @Override
+  public int insertAll(String modelName, List<Map<String, Object>> records) {
+    return delegate.insertAll(modelName, records);
+  }
+
+  @Override
+  public int updateById(String modelName, Map<String, Object> record, Object id) {
+    return delegate.updateById(modelName, record, id);
+  }
+
+  @Override
+  public int update(String modelName, Map<String, Object> record, String filter) {
+    return delegate.update(modelName, record, filter);
+  }
+
+  @Override
+  public int deleteById(String modelName, Object id) {
+    return delegate.deleteById(modelName, id);
+  }
+
+  @Override
+  public int delete(String modelName, String filter) {
+    return delegate.delete(modelName, filter);
+  }
+
+  @Override
+  public int deleteAll(String modelName) {
+    return delegate.deleteAll(modelName);
+  }
+}
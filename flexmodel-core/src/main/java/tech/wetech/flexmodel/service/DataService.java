@@ -1,11 +1,13 @@
 package tech.wetech.flexmodel.service;
 
+import tech.wetech.flexmodel.JsonUtils;
 import tech.wetech.flexmodel.query.Predicate;
 import tech.wetech.flexmodel.query.Query;
 
 import java.util.List;
 import java.util.Map;
 import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 /**
  * 数据服务
@@ -14,6 +16,11 @@ import java.util.function.UnaryOperator;
  */
 public interface DataService {
 
+  /**
+   * Default fetch size of stream queries
+   */
+  int DEFAULT_FETCH_SIZE = 1000;
+
   /**
    * Insert a record
    *
@@ -34,6 +41,45 @@ public interface DataService {
 
   List<Map<String, Object>> find(String modelName, Query query);
 
+  /**
+   * Find records and map each row to the given type
+   *
+   * @param modelName  Model name
+   * @param query      Query
+   * @param resultType Result type, fields are matched by {@link tech.wetech.flexmodel.annotation.ModelField} or field name
+   * @return Typed records
+   */
+  default <T> List<T> find(String modelName, Query query, Class<T> resultType) {
+    return JsonUtils.convertValueList(find(modelName, query), resultType);
+  }
+
+  /**
+   * Stream records, the returned stream must be closed after use (e.g. try-with-resources)
+   * <p>
+   * Implementations that read rows from a database cursor do not load nested relations,
+   * they throw {@link UnsupportedOperationException} when {@link Query#isNestedEnabled()} is true
+   *
+   * @param modelName Model name
+   * @param query     Query
+   * @param fetchSize Number of rows fetched from the database per round trip
+   * @return Stream of records
+   * @throws UnsupportedOperationException if nested query is enabled and not supported by the implementation
+   */
+  default Stream<Map<String, Object>> stream(String modelName, Query query, int fetchSize) {
+    return find(modelName, query).stream();
+  }
+
+  /**
+   * Stream records with the default fetch size
+   *
+   * @param modelName Model name
+   * @param query     Query
+   * @return Stream of records
+   */
+  default Stream<Map<String, Object>> stream(String modelName, Query query) {
+    return stream(modelName, query, DEFAULT_FETCH_SIZE);
+  }
+
   List<Map<String, Object>> findByNativeQuery(String modelName, Map<String, Object> params);
 
   /**
@@ -118,7 +164,7 @@ public interface DataService {
 
   default List<Map<String, Object>> find(String modelName, Predicate predicate, boolean nestedQuery) {
     Query query = new Query();
-    query.setFilter(predicate.toJsonString());
+    query.setCondition(predicate.toConditionNode());
     query.setNestedEnabled(nestedQuery);
     return find(modelName, query);
   }
@@ -149,7 +195,7 @@ public interface DataService {
 
   default List<Map<String, Object>> find(String modelName, Predicate predicate) {
     Query query = new Query();
-    query.setFilter(predicate.toJsonString());
+    query.setCondition(predicate.toConditionNode());
     return find(modelName, query);
   }
 
@@ -161,7 +207,7 @@ public interface DataService {
 
   default long count(String modelName, Predicate predicate) {
     Query query = new Query();
-    query.setFilter(predicate.toJsonString());
+    query.setCondition(predicate.toConditionNode());
     return count(modelName, query);
   }
 
@@ -10,8 +10,10 @@ import tech.wetech.flexmodel.model.field.TypedField;
 import tech.wetech.flexmodel.query.Query;
 import tech.wetech.flexmodel.session.SessionFactory;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * 事件感知的数据服务包装器
@@ -72,6 +74,46 @@ public class EventAwareDataService implements DataService {
     return affectedRows;
   }
 
+  @Override
+  public int insertAll(String modelName, List<Map<String, Object>> records) {
+    log.debug("Starting insertAll operation for model: {}, records: {}", modelName, records.size());
+
+    // 逐条发布前置事件，使用事件中可能被修改的数据
+    List<Map<String, Object>> finalRecords = new ArrayList<>(records.size());
+    for (Map<String, Object> record : records) {
+      PreInsertEvent preEvent = new PreInsertEvent(modelName, schemaName, record, extractId(modelName, record), sessionId, source);
+      eventPublisher.publishPreChangeEvent(preEvent);
+      finalRecords.add(preEvent.getNewData() != null ? preEvent.getNewData() : record);
+    }
+
+    int affectedRows = 0;
+    Throwable exception = null;
+    boolean success = false;
+
+    try {
+      // 整批交给底层数据服务执行
+      affectedRows = delegate.insertAll(modelName, finalRecords);
+      success = affectedRows > 0;
+      log.debug("InsertAll operation completed for model: {}, affected rows: {}", modelName, affectedRows);
+    } catch (Throwable e) {
+      exception = e;
+      log.error("InsertAll operation failed for model: {}", modelName, e);
+      throw e;
+    } finally {
+      // 逐条发布后置事件
+      for (int i = 0; i < finalRecords.size(); i++) {
+        Map<String, Object> finalRecord = finalRecords.get(i);
+        InsertedEvent changedEvent = new InsertedEvent(
+          modelName, schemaName, finalRecord, records.get(i), extractId(modelName, finalRecord),
+          success ? 1 : 0, success, exception, sessionId, source
+        );
+        eventPublisher.publishChangedEvent(changedEvent);
+      }
+    }
+
+    return affectedRows;
+  }
+
   @Override
   public int updateById(String modelName, Map<String, Object> record, Object id) {
     log.debug("Starting update operation for model: {}, id: {}", modelName, id);
@@ -316,6 +358,40 @@ public class EventAwareDataService implements DataService {
     }
   }
 
+  @Override
+  public <T> List<T> find(String modelName, Query query, Class<T> resultType) {
+    log.debug("Starting typed find operation for model: {}, type: {}", modelName, resultType.getName());
+
+    // 发布前置查询事件
+    PreQueryEvent preEvent = new PreQueryEvent(modelName, schemaName, query, sessionId, source);
+    eventPublisher.publishPreChangeEvent(preEvent);
+
+    // 使用事件中可能被修改的查询
+    Query finalQuery = preEvent.getQuery() != null ? preEvent.getQuery() : query;
+
+    try {
+      List<T> result = delegate.find(modelName, finalQuery, resultType);
+      log.debug("Typed find operation completed for model: {}, result count: {}", modelName, result.size());
+      return result;
+    } catch (Exception e) {
+      log.error("Typed find operation failed for model: {}", modelName, e);
+      throw e;
+    }
+  }
+
+  @Override
+  public Stream<Map<String, Object>> stream(String modelName, Query query, int fetchSize) {
+    log.debug("Starting stream operation for model: {}", modelName);
+
+    // 发布前置查询事件
+    PreQueryEvent preEvent = new PreQueryEvent(modelName, schemaName, query, sessionId, source);
+    eventPublisher.publishPreChangeEvent(preEvent);
+
+    // 使用事件中可能被修改的查询
+    Query finalQuery = preEvent.getQuery() != null ? preEvent.getQuery() : query;
+    return delegate.stream(modelName, finalQuery, fetchSize);
+  }
+
   @Override
   public List<Map<String, Object>> findByNativeQuery(String modelName, Map<String, Object> params) {
     return delegate.findByNativeQuery(modelName, params);
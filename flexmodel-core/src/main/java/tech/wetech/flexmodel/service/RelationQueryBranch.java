@@ -0,0 +1,29 @@
+package tech.wetech.flexmodel.service;
+
+import tech.wetech.flexmodel.query.Query;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 并行加载关联数据时的查询分支，每个分支独占使用，完成后关闭以释放占用的资源
+ *
+ * @author cjbi
+ */
+@FunctionalInterface
+public interface RelationQueryBranch extends AutoCloseable {
+
+  /**
+   * 查询关联数据
+   *
+   * @param modelName 模型名称
+   * @param query     查询对象
+   * @return 关联数据列表
+   */
+  List<Map<String, Object>> find(String modelName, Query query);
+
+  @Override
+  default void close() {
+  }
+
+}
@@ -9,8 +9,10 @@ import tech.wetech.flexmodel.naming.DefaultPhysicalNamingStrategy;
 import tech.wetech.flexmodel.naming.PhysicalNamingStrategy;
 import tech.wetech.flexmodel.type.TypeHandler;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
 
 /**
  * @author cjbi
@@ -24,9 +26,16 @@ public abstract class AbstractSessionContext {
   protected PhysicalNamingStrategy physicalNamingStrategy = new DefaultPhysicalNamingStrategy();
   protected boolean failsafe = false;
   protected int nestedQueryMaxDepth = 5;
+  protected int insertBatchSize = 500;
+  /**
+   * 并行加载关联数据的执行器，为空时顺序加载
+   */
+  protected Executor nestedQueryExecutor;
+  protected int nestedQueryConcurrency = 4;
+  private volatile Semaphore nestedQueryPermits;
   protected final SessionFactory factory;
   protected Session session;
-  protected final Map<String, ModelDefinition> aliasModelMap = new HashMap<>();
+  protected final Map<String, ModelDefinition> aliasModelMap = new ConcurrentHashMap<>();
 
   protected AbstractSessionContext(String schemaName, ModelRegistry mappedModels, SessionFactory factory) {
     this.schemaName = schemaName;
@@ -47,13 +56,20 @@ public abstract class AbstractSessionContext {
   }
 
   public void addAliasModelIfPresent(String alias, ModelDefinition model) {
-    if (!aliasModelMap.containsKey(alias)) {
-      aliasModelMap.put(alias, model);
+    if (alias != null && model != null) {
+      aliasModelMap.putIfAbsent(alias, model);
     }
   }
 
+  /**
+   * 是否为当前会话中注册的别名模型
+   */
+  public boolean isAliasModel(String name) {
+    return name != null && aliasModelMap.containsKey(name);
+  }
+
   public SchemaObject getModelDefinition(String name) {
-    ModelDefinition model = aliasModelMap.get(name);
+    ModelDefinition model = name != null ? aliasModelMap.get(name) : null;
     if (model != null) {
       return model;
     }
@@ -82,6 +98,48 @@ public abstract class AbstractSessionContext {
     this.nestedQueryMaxDepth = nestedQueryMaxDepth;
   }
 
+  public int getInsertBatchSize() {
+    return insertBatchSize;
+  }
+
+  public void setInsertBatchSize(int insertBatchSize) {
+    this.insertBatchSize = insertBatchSize;
+  }
+
+  public Executor getNestedQueryExecutor() {
+    return nestedQueryExecutor;
+  }
+
+  public void setNestedQueryExecutor(Executor nestedQueryExecutor) {
+    this.nestedQueryExecutor = nestedQueryExecutor;
+  }
+
+  public int getNestedQueryConcurrency() {
+    return nestedQueryConcurrency;
+  }
+
+  public void setNestedQueryConcurrency(int nestedQueryConcurrency) {
+    this.nestedQueryConcurrency = nestedQueryConcurrency;
+    this.nestedQueryPermits = null;
+  }
+
+  /**
+   * 会话内并行加载关联数据的许可，限制同时使用的分支数
+   */
+  public Semaphore getNestedQueryPermits() {
+    Semaphore permits = nestedQueryPermits;
+    if (permits == null) {
+      synchronized (this) {
+        permits = nestedQueryPermits;
+        if (permits == null) {
+          permits = new Semaphore(Math.max(nestedQueryConcurrency, 1));
+          nestedQueryPermits = permits;
+        }
+      }
+    }
+    return permits;
+  }
+
   public SessionFactory getFactory() {
     return factory;
   }
@@ -7,10 +7,12 @@ import tech.wetech.flexmodel.DataSourceProvider;
 import tech.wetech.flexmodel.JsonUtils;
 import tech.wetech.flexmodel.ModelImportBundle;
 import tech.wetech.flexmodel.ModelRegistry;
+import tech.wetech.flexmodel.ModelRegistryListener;
 import tech.wetech.flexmodel.cache.Cache;
 import tech.wetech.flexmodel.cache.CachingModelRegistry;
 import tech.wetech.flexmodel.cache.ConcurrentHashMapCache;
 import tech.wetech.flexmodel.cache.InMemoryModelRegistry;
+import tech.wetech.flexmodel.cache.QueryResultCache;
 import tech.wetech.flexmodel.event.EventPublisher;
 import tech.wetech.flexmodel.event.impl.SimpleEventPublisher;
 import tech.wetech.flexmodel.model.EntityDefinition;
@@ -22,6 +24,7 @@ import tech.wetech.flexmodel.mongodb.MongoSession;
 import tech.wetech.flexmodel.parser.ASTNodeConverter;
 import tech.wetech.flexmodel.parser.impl.ModelParser;
 import tech.wetech.flexmodel.parser.impl.ParseException;
+import tech.wetech.flexmodel.service.CachingDataService;
 import tech.wetech.flexmodel.service.DataService;
 import tech.wetech.flexmodel.service.EventAwareDataService;
 import tech.wetech.flexmodel.sql.*;
@@ -29,7 +32,10 @@ import tech.wetech.flexmodel.sql.*;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
@@ -45,15 +51,42 @@ public class SessionFactory {
   private final MemoryScriptManager memoryScriptManager;
   private final boolean failsafe;
   private final EventPublisher eventPublisher;
+  private final int insertBatchSize;
+  private final SqlStatementCache statementCache;
+  private final Executor nestedQueryExecutor;
+  private final int nestedQueryConcurrency;
+  private final QueryResultCache queryResultCache;
+  /**
+   * 数据源方言配置缓存，每个数据源只解析一次元数据
+   */
+  private final Map<String, SqlDialectProfile> dialectProfiles = new ConcurrentHashMap<>();
 
-  SessionFactory(DataSourceProvider defaultDataSourceProvider, List<DataSourceProvider> dataSourceProviders, Cache cache, boolean failsafe, EventPublisher eventPublisher) {
+  SessionFactory(DataSourceProvider defaultDataSourceProvider, List<DataSourceProvider> dataSourceProviders, Cache cache, boolean failsafe, EventPublisher eventPublisher, int insertBatchSize, int statementCacheSize,
+                 Executor nestedQueryExecutor, int nestedQueryConcurrency, long modelRevisionCheckInterval, QueryResultCache queryResultCache) {
     this.cache = cache;
+    this.insertBatchSize = insertBatchSize;
+    this.nestedQueryExecutor = nestedQueryExecutor;
+    this.nestedQueryConcurrency = nestedQueryConcurrency;
+    this.statementCache = statementCacheSize > 0 ? new SqlStatementCache(statementCacheSize) : null;
     this.memoryScriptManager = new MemoryScriptManager();
     this.eventPublisher = eventPublisher != null ? eventPublisher : new SimpleEventPublisher();
+    this.queryResultCache = queryResultCache;
+    if (queryResultCache != null) {
+      this.eventPublisher.addListener(queryResultCache);
+    }
     this.defaultDataSourceProvider = defaultDataSourceProvider;
     addDataSourceProvider(defaultDataSourceProvider);
     dataSourceProviders.forEach(this::addDataSourceProvider);
     this.modelRegistry = initializeModelRegistry(defaultDataSourceProvider);
+    if (modelRegistry instanceof CachingModelRegistry cachingModelRegistry) {
+      cachingModelRegistry.setRevisionCheckInterval(modelRevisionCheckInterval);
+      if (statementCache != null) {
+        cachingModelRegistry.addListener((schemaName, modelName) -> statementCache.invalidate(schemaName));
+      }
+      if (queryResultCache != null) {
+        cachingModelRegistry.addListener(queryResultCache::invalidate);
+      }
+    }
     this.failsafe = failsafe;
     processBuildItem();
   }
@@ -237,12 +270,20 @@ public class SessionFactory {
     return cache;
   }
 
+  public QueryResultCache getQueryResultCache() {
+    return queryResultCache;
+  }
+
   public static Builder builder() {
     return new Builder();
   }
 
   public void addDataSourceProvider(DataSourceProvider dataSource) {
     dataSourceProviders.put(dataSource.getId(), dataSource);
+    dialectProfiles.remove(dataSource.getId());
+    if (statementCache != null) {
+      statementCache.invalidate(dataSource.getId());
+    }
   }
 
   public DataSourceProvider getDataSourceProvider(String dsId) {
@@ -251,6 +292,25 @@ public class SessionFactory {
 
   public void removeDataSourceProvider(String dsId) {
     dataSourceProviders.remove(dsId);
+    dialectProfiles.remove(dsId);
+    if (statementCache != null) {
+      statementCache.invalidate(dsId);
+    }
+  }
+
+  private void configureNestedQuery(AbstractSessionContext sessionContext) {
+    sessionContext.setNestedQueryExecutor(nestedQueryExecutor);
+    sessionContext.setNestedQueryConcurrency(nestedQueryConcurrency);
+  }
+
+  private SqlDialectProfile getDialectProfile(String dsId, JdbcDataSourceProvider jdbc) {
+    return dialectProfiles.computeIfAbsent(dsId, key -> {
+      try (Connection connection = jdbc.dataSource().getConnection()) {
+        return SqlDialectProfile.resolve(connection);
+      } catch (SQLException e) {
+        throw new IllegalStateException("获取数据库连接失败，请检查数据源", e);
+      }
+    });
   }
 
   public Session createSession() {
@@ -269,12 +329,17 @@ public class SessionFactory {
    * @return
    */
   public Session createFailsafeSession(String id) {
+    checkModelRevision();
     try {
       return switch (dataSourceProviders.get(id)) {
         case JdbcDataSourceProvider jdbc -> {
-          Connection connection = jdbc.dataSource().getConnection();
-          SqlContext sqlContext = new SqlContext(id, new NamedParameterSqlExecutor(connection), modelRegistry, this);
+          // 连接在首次执行SQL时获取
+          SqlConnectionManager connectionManager = new SqlConnectionManager(jdbc.dataSource());
+          SqlContext sqlContext = new SqlContext(id, new NamedParameterSqlExecutor(connectionManager), modelRegistry, this, getDialectProfile(id, jdbc));
           sqlContext.setFailsafe(true);
+          sqlContext.setInsertBatchSize(insertBatchSize);
+          configureNestedQuery(sqlContext);
+          sqlContext.setStatementCache(statementCache);
 
           // 创建原始的DataService
           DataService originalDataService = new SqlDataService(sqlContext);
@@ -285,12 +350,13 @@ public class SessionFactory {
             originalDataService, eventPublisher, id, sessionId, this
           );
 
-          yield new SqlSession(sqlContext, eventAwareDataService);
+          yield new SqlSession(sqlContext, wrapQueryResultCache(eventAwareDataService, sqlContext, connectionManager));
         }
         case MongoDataSourceProvider mongodb -> {
           MongoDatabase mongoDatabase = mongodb.mongoDatabase();
           MongoContext mongoContext = new MongoContext(id, mongoDatabase, modelRegistry, this);
           mongoContext.setFailsafe(true);
+          configureNestedQuery(mongoContext);
 
           // MongoDB的事件支持暂时使用原始DataService
           // TODO: 实现MongoDB的事件支持
@@ -309,10 +375,15 @@ public class SessionFactory {
       if (failsafe) {
         return createFailsafeSession(identifier);
       }
+      checkModelRevision();
       return switch (dataSourceProviders.get(identifier)) {
         case JdbcDataSourceProvider jdbc -> {
-          Connection connection = jdbc.dataSource().getConnection();
-          SqlContext sqlContext = new SqlContext(identifier, new NamedParameterSqlExecutor(connection), modelRegistry, this);
+          // 连接在首次执行SQL时获取
+          SqlConnectionManager connectionManager = new SqlConnectionManager(jdbc.dataSource());
+          SqlContext sqlContext = new SqlContext(identifier, new NamedParameterSqlExecutor(connectionManager), modelRegistry, this, getDialectProfile(identifier, jdbc));
+          sqlContext.setInsertBatchSize(insertBatchSize);
+          configureNestedQuery(sqlContext);
+          sqlContext.setStatementCache(statementCache);
 
           // 创建原始的DataService
           DataService originalDataService = new SqlDataService(sqlContext);
@@ -324,11 +395,12 @@ public class SessionFactory {
           );
 
           // 创建SqlSession时使用包装后的DataService
-          yield new SqlSession(sqlContext, eventAwareDataService);
+          yield new SqlSession(sqlContext, wrapQueryResultCache(eventAwareDataService, sqlContext, connectionManager));
         }
         case MongoDataSourceProvider mongodb -> {
           MongoDatabase mongoDatabase = mongodb.mongoDatabase();
           MongoContext mongoContext = new MongoContext(identifier, mongoDatabase, modelRegistry, this);
+          configureNestedQuery(mongoContext);
 
           // MongoDB的事件支持暂时使用原始DataService
           // TODO: 实现MongoDB的事件支持
@@ -342,16 +414,47 @@ public class SessionFactory {
     }
   }
 
+  /**
+   * 配置了查询结果缓存时包装为缓存查询结果的DataService
+   */
+  private DataService wrapQueryResultCache(DataService dataService, SqlContext sqlContext, SqlConnectionManager connectionManager) {
+    if (queryResultCache == null) {
+      return dataService;
+    }
+    return new CachingDataService(dataService, queryResultCache, sqlContext, connectionManager::isTransactionActive);
+  }
+
+  /**
+   * 懒检查其他节点是否变更了模型，按配置的间隔节流
+   */
+  private void checkModelRevision() {
+    if (modelRegistry instanceof CachingModelRegistry cachingModelRegistry) {
+      cachingModelRegistry.checkRevision();
+    }
+  }
+
   public static class Builder {
     private Cache cache;
     private DataSourceProvider defaultDataSourceProvider = null;
     private final List<DataSourceProvider> dataSourceProviders = new ArrayList<>();
     private boolean failsafe = false;
     private EventPublisher eventPublisher = null;
+    private int insertBatchSize = 500;
+    private int statementCacheSize = 512;
+    private Executor nestedQueryExecutor;
+    private int nestedQueryConcurrency = 4;
+    private long modelRevisionCheckInterval = 5000;
+    private QueryResultCache queryResultCache;
 
     Builder() {
     }
 
+    /**
+     * 设置缓存，默认为不限容量的 {@link ConcurrentHashMapCache}，需要限制容量或过期时间时可使用 {@link tech.wetech.flexmodel.cache.BoundedCache}
+     *
+     * @param cache 缓存
+     * @return Builder
+     */
     public Builder setCache(Cache cache) {
       this.cache = cache;
       return this;
@@ -377,6 +480,82 @@ public class SessionFactory {
       return this;
     }
 
+    /**
+     * 设置批量插入时每批的记录数
+     *
+     * @param insertBatchSize 每批记录数
+     * @return Builder
+     */
+    public Builder setInsertBatchSize(int insertBatchSize) {
+      if (insertBatchSize <= 0) {
+        throw new IllegalArgumentException("insertBatchSize must be greater than 0");
+      }
+      this.insertBatchSize = insertBatchSize;
+      return this;
+    }
+
+    /**
+     * 设置查询语句模板缓存的最大条目数，为0时不缓存
+     *
+     * @param statementCacheSize 最大条目数
+     * @return Builder
+     */
+    public Builder setStatementCacheSize(int statementCacheSize) {
+      if (statementCacheSize < 0) {
+        throw new IllegalArgumentException("statementCacheSize must not be negative");
+      }
+      this.statementCacheSize = statementCacheSize;
+      return this;
+    }
+
+    /**
+     * 设置并行加载关联数据的执行器，默认不设置，关联数据在当前线程顺序加载。
+     * 每个并行分支会从数据源额外借用一个连接，执行器由调用方管理生命周期
+     *
+     * @param nestedQueryExecutor 执行器，为空时顺序加载
+     * @return Builder
+     */
+    public Builder setNestedQueryExecutor(Executor nestedQueryExecutor) {
+      this.nestedQueryExecutor = nestedQueryExecutor;
+      return this;
+    }
+
+    /**
+     * 设置每个会话并行加载关联数据的最大分支数，超出时在当前线程执行
+     *
+     * @param nestedQueryConcurrency 最大分支数
+     * @return Builder
+     */
+    public Builder setNestedQueryConcurrency(int nestedQueryConcurrency) {
+      if (nestedQueryConcurrency <= 0) {
+        throw new IllegalArgumentException("nestedQueryConcurrency must be greater than 0");
+      }
+      this.nestedQueryConcurrency = nestedQueryConcurrency;
+      return this;
+    }
+
+    /**
+     * 设置创建会话时检查其他节点模型变更的最小间隔，多个节点共享模型注册表时，其他节点的变更最迟在该间隔后生效
+     *
+     * @param modelRevisionCheckInterval 间隔毫秒数，为0时每次创建会话都检查，小于0时不检查
+     * @return Builder
+     */
+    public Builder setModelRevisionCheckInterval(long modelRevisionCheckInterval) {
+      this.modelRevisionCheckInterval = modelRevisionCheckInterval;
+      return this;
+    }
+
+    /**
+     * 设置查询结果缓存，只缓存其中配置的模型，默认不缓存
+     *
+     * @param queryResultCache 查询结果缓存
+     * @return Builder
+     */
+    public Builder setQueryResultCache(QueryResultCache queryResultCache) {
+      this.queryResultCache = queryResultCache;
+      return this;
+    }
+
     public SessionFactory build() {
       if (defaultDataSourceProvider == null) {
         throw new IllegalStateException("Please set defaultDataSourceProvider");
@@ -384,7 +563,8 @@ public class SessionFactory {
       if (cache == null) {
         this.cache = new ConcurrentHashMapCache();
       }
-      return new SessionFactory(defaultDataSourceProvider, dataSourceProviders, cache, failsafe, eventPublisher);
+      return new SessionFactory(defaultDataSourceProvider, dataSourceProviders, cache, failsafe, eventPublisher, insertBatchSize, statementCacheSize,
+        nestedQueryExecutor, nestedQueryConcurrency, modelRevisionCheckInterval, queryResultCache);
     }
   }
 
@@ -400,6 +580,26 @@ public class SessionFactory {
     return modelRegistry;
   }
 
+  /**
+   * 添加模型变更监听器，模型注册或注销后回调
+   */
+  public void addModelRegistryListener(ModelRegistryListener listener) {
+    if (modelRegistry instanceof CachingModelRegistry cachingModelRegistry) {
+      cachingModelRegistry.addListener(listener);
+    } else {
+      log.warn("Model registry {} does not publish change notifications", modelRegistry.getClass().getSimpleName());
+    }
+  }
+
+  /**
+   * 移除模型变更监听器
+   */
+  public void removeModelRegistryListener(ModelRegistryListener listener) {
+    if (modelRegistry instanceof CachingModelRegistry cachingModelRegistry) {
+      cachingModelRegistry.removeListener(listener);
+    }
+  }
+
   /**
    * 获取事件发布器
    *
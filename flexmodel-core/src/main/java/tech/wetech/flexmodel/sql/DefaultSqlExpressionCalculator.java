@@ -24,8 +24,18 @@ public class DefaultSqlExpressionCalculator extends SqlExpressionCalculator {
     if (expression == null) {
       throw new ExpressionCalculatorException("Expression is null");
     }
+    ConditionNode condition;
+    try {
+      condition = parseCondition(expression);
+    } catch (RuntimeException e) {
+      throw new ExpressionCalculatorException(e.getMessage(), e);
+    }
+    return calculateIncludeValue(condition);
+  }
+
+  @Override
+  public String calculateIncludeValue(ConditionNode condition) throws ExpressionCalculatorException {
     try {
-      ConditionNode condition = parseCondition(expression);
       SqlRenderContext context = new SqlRenderContext(sqlDialect.getIdentifierQuoteString(), new InlinePlaceholderHandler());
       return SqlConditionRenderer.render(condition, context);
     } catch (RuntimeException e) {
@@ -38,8 +48,18 @@ public class DefaultSqlExpressionCalculator extends SqlExpressionCalculator {
     if (expression == null) {
       throw new ExpressionCalculatorException("Expression is null");
     }
+    ConditionNode condition;
+    try {
+      condition = parseCondition(expression);
+    } catch (RuntimeException e) {
+      throw new ExpressionCalculatorException(e.getMessage(), e);
+    }
+    return calculate(condition);
+  }
+
+  @Override
+  public SqlClauseResult calculate(ConditionNode condition) throws ExpressionCalculatorException {
     try {
-      ConditionNode condition = parseCondition(expression);
       NamedPlaceholderHandler placeholderHandler = new NamedPlaceholderHandler();
       SqlRenderContext context = new SqlRenderContext(sqlDialect.getIdentifierQuoteString(), placeholderHandler);
       String sql = SqlConditionRenderer.render(condition, context);
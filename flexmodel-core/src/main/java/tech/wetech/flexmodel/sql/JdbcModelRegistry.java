@@ -3,7 +3,7 @@ package tech.wetech.flexmodel.sql;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import tech.wetech.flexmodel.JsonUtils;
-import tech.wetech.flexmodel.ModelRegistry;
+import tech.wetech.flexmodel.RevisionedModelRegistry;
 import tech.wetech.flexmodel.model.EntityDefinition;
 import tech.wetech.flexmodel.model.IndexDefinition;
 import tech.wetech.flexmodel.model.ModelDefinition;
@@ -21,6 +21,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static tech.wetech.flexmodel.model.field.ScalarType.STRING;
@@ -28,8 +29,20 @@ import static tech.wetech.flexmodel.model.field.ScalarType.STRING;
 /**
  * @author cjbi
  */
-public class JdbcModelRegistry implements ModelRegistry {
+public class JdbcModelRegistry implements RevisionedModelRegistry {
   public static final String STORED_TABLES = "f_model_registry";
+  /**
+   * 单行的版本号表，每次变更递增
+   */
+  public static final String STORED_REVISION = "f_model_registry_revision";
+  /**
+   * 变更记录表，记录每个版本变更的模型
+   */
+  public static final String STORED_CHANGES = "f_model_registry_change";
+  /**
+   * 保留的变更记录数，更早的记录在写入时清理
+   */
+  private static final int MAX_CHANGE_HISTORY = 1000;
   private final DataSource dataSource;
   private final SqlDialect sqlDialect;
   private final Logger log = LoggerFactory.getLogger(JdbcModelRegistry.class);
@@ -38,21 +51,24 @@ public class JdbcModelRegistry implements ModelRegistry {
     this.dataSource = dataSource;
     try (Connection connection = dataSource.getConnection()) {
       sqlDialect = SqlDialectFactory.create(dataSource.getConnection().getMetaData());
-      if (!existSchema(connection)) {
+      if (!existTable(connection, STORED_TABLES)) {
         initSchema(connection);
       }
+      if (!existTable(connection, STORED_REVISION)) {
+        initRevisionSchema(connection);
+      }
     } catch (SQLException e) {
       throw new RuntimeException(e);
     }
 
   }
 
-  private boolean existSchema(Connection connection) {
+  private boolean existTable(Connection connection, String tableName) {
     Statement statement = null;
     ResultSet resultSet = null;
     try {
       statement = connection.createStatement();
-      resultSet = statement.executeQuery("select count(0) from " + sqlDialect.quoteIdentifier(STORED_TABLES));
+      resultSet = statement.executeQuery("select count(0) from " + sqlDialect.quoteIdentifier(tableName));
       return true;
     } catch (Exception e) {
       return false;
@@ -130,6 +146,79 @@ public class JdbcModelRegistry implements ModelRegistry {
     sqlList.addAll(List.of(sqlDialect.getTableExporter().getSqlCreateString(sqlTable)));
     sqlList.addAll(List.of(sqlDialect.getIndexExporter().getSqlCreateString(idxSchema)));
     sqlList.addAll(List.of(sqlDialect.getIndexExporter().getSqlCreateString(idxSchemaModel)));
+    executeCreateSql(connection, sqlList);
+  }
+
+  private void initRevisionSchema(Connection connection) throws SQLException {
+    // 版本号表只有一行，固定主键使并发启动的节点无法重复写入初始行
+    SqlTable revisionTable = new SqlTable();
+    revisionTable.setName(STORED_REVISION);
+    SqlColumn id = createColumn(revisionTable, "id", Types.INTEGER, false);
+    id.setPrimaryKey(true);
+    revisionTable.addColumn(id);
+    revisionTable.addColumn(createColumn(revisionTable, "revision", Types.BIGINT, false));
+    SqlPrimaryKey primaryKey = new SqlPrimaryKey(revisionTable);
+    primaryKey.addColumn(id);
+    revisionTable.setPrimaryKey(primaryKey);
+
+    SqlTable changeTable = new SqlTable();
+    changeTable.setName(STORED_CHANGES);
+    SqlColumn revision = createColumn(changeTable, "revision", Types.BIGINT, false);
+    changeTable.addColumn(revision);
+    changeTable.addColumn(createColumn(changeTable, "schema_name", Types.VARCHAR, false));
+    changeTable.addColumn(createColumn(changeTable, "model_name", Types.VARCHAR, true));
+
+    SqlIndex idxRevision = new SqlIndex();
+    idxRevision.setName("idx_change_revision");
+    idxRevision.setTable(changeTable);
+    idxRevision.setUnique(true);
+    idxRevision.addColumn(revision);
+
+    List<String> sqlList = new ArrayList<>();
+    sqlList.addAll(List.of(sqlDialect.getTableExporter().getSqlCreateString(revisionTable)));
+    sqlList.addAll(List.of(sqlDialect.getTableExporter().getSqlCreateString(changeTable)));
+    sqlList.addAll(List.of(sqlDialect.getIndexExporter().getSqlCreateString(idxRevision)));
+    try {
+      executeCreateSql(connection, sqlList);
+    } catch (SQLException e) {
+      // 其他节点同时启动并已建表
+      if (!existTable(connection, STORED_REVISION)) {
+        throw e;
+      }
+      log.debug("Revision tables created by another node", e);
+    }
+    try (Statement statement = connection.createStatement()) {
+      statement.executeUpdate("insert into " + sqlDialect.quoteIdentifier(STORED_REVISION) +
+                              " (" + sqlDialect.quoteIdentifier("id") + ", " + sqlDialect.quoteIdentifier("revision") + ") values (1, 0)");
+    } catch (SQLException e) {
+      // 主键冲突，初始行已由其他节点写入
+      if (!existRevisionRow(connection)) {
+        throw e;
+      }
+      log.debug("Initial revision inserted by another node", e);
+    }
+  }
+
+  private boolean existRevisionRow(Connection connection) throws SQLException {
+    try (Statement statement = connection.createStatement();
+         ResultSet resultSet = statement.executeQuery("select count(0) from " + sqlDialect.quoteIdentifier(STORED_REVISION))) {
+      return resultSet.next() && resultSet.getLong(1) > 0;
+    }
+  }
+
+  private SqlColumn createColumn(SqlTable table, String name, int sqlTypeCode, boolean nullable) {
+    SqlColumn column = new SqlColumn();
+    column.setName(name);
+    column.setTableName(table.getName());
+    column.setSqlTypeCode(sqlTypeCode);
+    if (sqlTypeCode == Types.VARCHAR) {
+      column.setLength(100);
+    }
+    column.setNullable(nullable);
+    return column;
+  }
+
+  private void executeCreateSql(Connection connection, List<String> sqlList) throws SQLException {
     log.debug("Execute Create Sql: {}", sqlList);
     for (String sql : sqlList) {
       try (Statement statement = connection.createStatement()) {
@@ -146,7 +235,7 @@ public class JdbcModelRegistry implements ModelRegistry {
   @Override
   public List<SchemaObject> loadFromDataSource(AbstractSessionContext sessionContext, Set<String> includes) {
     SqlContext sqlContext = (SqlContext) sessionContext;
-    List<EntityDefinition> entities = convert(sqlContext.getSqlMetadata().getTables(includes), sqlContext);
+    List<EntityDefinition> entities = convert(sqlContext.withSqlMetadata(metadata -> metadata.getTables(includes)), sqlContext);
     Map<String, SchemaObject> metaMap = listRegistered(sqlContext.getSchemaName()).stream().collect(Collectors.toMap(SchemaObject::getName, wrapper -> wrapper));
     for (EntityDefinition entity : entities) {
       SchemaObject model = getIgnoreCase(entity.getName(), metaMap);
@@ -180,8 +269,7 @@ public class JdbcModelRegistry implements ModelRegistry {
   }
 
   private void deleteRedundant(String schemaName, Set<String> modelNames) {
-
-    try (Connection connection = dataSource.getConnection()) {
+    executeInTransaction(sqlExecutor -> {
       Map<String, Object> paramMap = new HashMap<>();
       paramMap.put("schemaName", schemaName);
       StringJoiner sqlIn = new StringJoiner(", ");
@@ -197,12 +285,11 @@ public class JdbcModelRegistry implements ModelRegistry {
         sqlDialect.quoteIdentifier("model_name"),
         sqlIn
       );
-      NamedParameterSqlExecutor sqlExecutor = new NamedParameterSqlExecutor(connection);
       sqlExecutor.update(sqlDeleteString, paramMap);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
-
+      for (String modelName : modelNames) {
+        appendChange(sqlExecutor, schemaName, modelName);
+      }
+    });
   }
 
   private List<EntityDefinition> convert(List<SqlTable> tables, SqlContext sqlContext) {
@@ -406,34 +493,28 @@ public class JdbcModelRegistry implements ModelRegistry {
 
   @Override
   public void unregisterAll(String schemaName) {
-    try (Connection connection = dataSource.getConnection()) {
-      NamedParameterSqlExecutor sqlExecutor = new NamedParameterSqlExecutor(connection);
+    executeInTransaction(sqlExecutor -> {
       String sqlDeleteString = "delete from " + sqlDialect.quoteIdentifier(STORED_TABLES) +
-                               " \nwhere " + sqlDialect.quoteIdentifier("schema_name") + "=:schemaName and ";
+                               " \nwhere " + sqlDialect.quoteIdentifier("schema_name") + "=:schemaName";
       sqlExecutor.update(sqlDeleteString, Map.of("schemaName", schemaName));
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
+      appendChange(sqlExecutor, schemaName, null);
+    });
   }
 
   @Override
   public void unregisterAll(String schemaName, String modelName) {
-    try (Connection connection = dataSource.getConnection()) {
-      NamedParameterSqlExecutor sqlExecutor = new NamedParameterSqlExecutor(connection);
+    executeInTransaction(sqlExecutor -> {
       String sqlDeleteString = getDeleteString();
       sqlExecutor.update(sqlDeleteString, Map.of("schemaName", schemaName, "modelName", modelName));
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
+      appendChange(sqlExecutor, schemaName, modelName);
+    });
   }
 
   @Override
   public void register(String schemaName, SchemaObject object) {
-    try (Connection connection = dataSource.getConnection()) {
-      String content = JsonUtils.toJsonString(object);
-      log.trace("Persist:\n{}", content);
-      connection.setAutoCommit(false);
-      NamedParameterSqlExecutor sqlExecutor = new NamedParameterSqlExecutor(connection);
+    String content = JsonUtils.toJsonString(object);
+    log.trace("Persist:\n{}", content);
+    executeInTransaction(sqlExecutor -> {
       SchemaObject older;
       if ((older = this.getRegistered(schemaName, object.getName())) != null) {
         String oldContent = JsonUtils.toJsonString(older);
@@ -445,6 +526,7 @@ public class JdbcModelRegistry implements ModelRegistry {
             Map.of("schemaName", schemaName,
               "modelName", object.getName(),
               "content", content));
+          appendChange(sqlExecutor, schemaName, object.getName());
         }
       } else {
         String sqlInsertString = "insert into " + sqlDialect.quoteIdentifier(STORED_TABLES) +
@@ -455,13 +537,94 @@ public class JdbcModelRegistry implements ModelRegistry {
             "modelType", object.getType(),
             "content", content
           ));
+        appendChange(sqlExecutor, schemaName, object.getName());
+      }
+    });
+  }
+
+  /**
+   * 在事务中执行写操作，失败时回滚，避免未完成的写操作在关闭连接时被提交或连接带着事务归还连接池
+   */
+  private void executeInTransaction(Consumer<NamedParameterSqlExecutor> action) {
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try {
+        action.accept(new NamedParameterSqlExecutor(connection));
+        connection.commit();
+      } catch (Exception e) {
+        try {
+          connection.rollback();
+        } catch (SQLException ex) {
+          e.addSuppressed(ex);
+        }
+        throw e;
+      } finally {
+        connection.setAutoCommit(true);
       }
-      connection.commit();
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
   }
 
+  /**
+   * 在当前事务中递增版本号并记录变更，版本号行的更新锁使并发写入按顺序生成连续的版本号
+   */
+  private void appendChange(NamedParameterSqlExecutor sqlExecutor, String schemaName, String modelName) {
+    String revisionColumn = sqlDialect.quoteIdentifier("revision");
+    sqlExecutor.update("update " + sqlDialect.quoteIdentifier(STORED_REVISION) + " set " + revisionColumn + "=" + revisionColumn + "+1");
+    long revision = getRevision(sqlExecutor);
+    Map<String, Object> paramMap = new HashMap<>();
+    paramMap.put("revision", revision);
+    paramMap.put("schemaName", schemaName);
+    String modelNameValue = ":modelName";
+    if (modelName != null) {
+      paramMap.put("modelName", modelName);
+    } else {
+      modelNameValue = "null";
+    }
+    sqlExecutor.update("insert into " + sqlDialect.quoteIdentifier(STORED_CHANGES) +
+                       " values (:revision, :schemaName, " + modelNameValue + ")", paramMap);
+    if (revision > MAX_CHANGE_HISTORY) {
+      sqlExecutor.update("delete from " + sqlDialect.quoteIdentifier(STORED_CHANGES) +
+                         " \nwhere " + revisionColumn + "<=:revision", Map.of("revision", revision - MAX_CHANGE_HISTORY));
+    }
+  }
+
+  private long getRevision(NamedParameterSqlExecutor sqlExecutor) {
+    Long revision = sqlExecutor.queryForScalar("select " + sqlDialect.quoteIdentifier("revision") +
+                                               " \nfrom " + sqlDialect.quoteIdentifier(STORED_REVISION), Long.class);
+    return revision != null ? revision : 0L;
+  }
+
+  @Override
+  public long getRevision() {
+    try (Connection connection = dataSource.getConnection()) {
+      return getRevision(new NamedParameterSqlExecutor(connection));
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public List<ModelRevision> getChangesSince(long revision) {
+    try (Connection connection = dataSource.getConnection()) {
+      NamedParameterSqlExecutor sqlExecutor = new NamedParameterSqlExecutor(connection);
+      String sqlSelectString = "select " + sqlDialect.quoteIdentifier("revision") + ", " +
+                               sqlDialect.quoteIdentifier("schema_name") + ", " + sqlDialect.quoteIdentifier("model_name") +
+                               " \nfrom " + sqlDialect.quoteIdentifier(STORED_CHANGES) +
+                               " \nwhere " + sqlDialect.quoteIdentifier("revision") + ">:revision" +
+                               " \norder by " + sqlDialect.quoteIdentifier("revision");
+      List<ModelRevision> result = new ArrayList<>();
+      for (Map<String, Object> data : sqlExecutor.queryForList(sqlSelectString, Map.of("revision", revision))) {
+        result.add(new ModelRevision(((Number) data.get("revision")).longValue(),
+          (String) data.get("schema_name"), (String) data.get("model_name")));
+      }
+      return result;
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   private String getDeleteString() {
     return "delete from " + sqlDialect.quoteIdentifier(STORED_TABLES) +
            " \nwhere " + sqlDialect.quoteIdentifier("schema_name") + "=:schemaName and " + sqlDialect.quoteIdentifier("model_name") + "=:modelName";
@@ -1,23 +1,36 @@
 package tech.wetech.flexmodel.sql;
 
+import tech.wetech.flexmodel.sql.condition.SqlArrayParameter;
+
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author cjbi
  */
 public class NamedParamStatement implements AutoCloseable {
 
+  /**
+   * 按原始命名SQL缓存解析结果
+   */
+  private static final ParsedSqlCache PARSED_SQL_CACHE = new ParsedSqlCache(2048);
+
+  /**
+   * 创建语句时调用方占用的连接，语句只在占用期间使用
+   */
+  private final Connection conn;
   private final PreparedStatement prepStmt;
   private final ParsedSql parsedSql;
+  private List<Array> arrays;
 
   protected NamedParamStatement(Connection conn, String statementWithNames, String[] retrieveGeneratedKeys) throws SQLException {
-    this.parsedSql = parseSqlStatement(statementWithNames);
+    this.conn = conn;
+    this.parsedSql = getParsedSql(statementWithNames);
     if (retrieveGeneratedKeys.length == 0) {
       prepStmt = conn.prepareStatement(parsedSql.getActualSql());
     } else {
@@ -26,7 +39,8 @@ public class NamedParamStatement implements AutoCloseable {
   }
 
   protected NamedParamStatement(Connection conn, String statementWithNames, boolean returnFirstId) throws SQLException {
-    this.parsedSql = parseSqlStatement(statementWithNames);
+    this.conn = conn;
+    this.parsedSql = getParsedSql(statementWithNames);
     if (returnFirstId) {
       prepStmt = conn.prepareStatement(parsedSql.getActualSql(), PreparedStatement.RETURN_GENERATED_KEYS);
     } else {
@@ -72,27 +86,123 @@ public class NamedParamStatement implements AutoCloseable {
 
   @Override
   public void close() throws SQLException {
-    prepStmt.close();
+    try {
+      if (arrays != null) {
+        for (Array array : arrays) {
+          array.free();
+        }
+      }
+    } finally {
+      prepStmt.close();
+    }
   }
 
   public void setObject(String name, Object value) throws SQLException {
-    List<Integer> indexes = getIndexes(name);
-    for (Integer index : indexes) {
-      prepStmt.setObject(index, value);
+    int[] indexes = parsedSql.getIndexes(name);
+    for (int index : indexes) {
+      if (value instanceof SqlArrayParameter array) {
+        prepStmt.setArray(index, createArray(array));
+      } else {
+        prepStmt.setObject(index, value);
+      }
+    }
+  }
+
+  private Array createArray(SqlArrayParameter parameter) throws SQLException {
+    Array array = conn.createArrayOf(parameter.elementTypeName(), parameter.elements());
+    if (arrays == null) {
+      arrays = new ArrayList<>();
     }
+    arrays.add(array);
+    return array;
   }
 
-  private List<Integer> getIndexes(String name) {
-    List<Integer> list = new ArrayList<>();
-    for (int i = 0; i < parsedSql.getParameterNames().size(); i++) {
-      if (name.equals(parsedSql.getParameterNames().get(i))) {
-        list.add(i + 1);
+  /**
+   * 从缓存中获取解析结果，未命中时解析并放入缓存
+   *
+   * @param sql 命名参数SQL
+   * @return 解析结果
+   */
+  static ParsedSql getParsedSql(String sql) {
+    return PARSED_SQL_CACHE.get(sql);
+  }
+
+  public static long getCacheHits() {
+    return PARSED_SQL_CACHE.getHits();
+  }
+
+  public static long getCacheMisses() {
+    return PARSED_SQL_CACHE.getMisses();
+  }
+
+  public static int getCacheSize() {
+    return PARSED_SQL_CACHE.size();
+  }
+
+  public static void clearCache() {
+    PARSED_SQL_CACHE.clear();
+  }
+
+  /**
+   * 解析结果缓存，LRU淘汰，命中统计属于缓存实例
+   */
+  static final class ParsedSqlCache {
+
+    private final Map<String, ParsedSql> store;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    ParsedSqlCache(int limit) {
+      this.store = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ParsedSql> eldest) {
+          return size() > limit;
+        }
+      };
+    }
+
+    ParsedSql get(String sql) {
+      ParsedSql parsedSql;
+      synchronized (store) {
+        parsedSql = store.get(sql);
+      }
+      if (parsedSql != null) {
+        hits.incrementAndGet();
+        return parsedSql;
+      }
+      misses.incrementAndGet();
+      // 在锁外解析，并发情况下重复解析的结果是等价的
+      parsedSql = parseSqlStatement(sql);
+      synchronized (store) {
+        store.put(sql, parsedSql);
+      }
+      return parsedSql;
+    }
+
+    long getHits() {
+      return hits.get();
+    }
+
+    long getMisses() {
+      return misses.get();
+    }
+
+    int size() {
+      synchronized (store) {
+        return store.size();
+      }
+    }
+
+    void clear() {
+      synchronized (store) {
+        store.clear();
       }
+      hits.set(0);
+      misses.set(0);
     }
-    return list;
   }
 
-  public ParsedSql parseSqlStatement(String sql) {
+  public static ParsedSql parseSqlStatement(String sql) {
     sql += ' ';
     ParsedSql parsedSql = new ParsedSql(sql);
     char[] statement = sql.toCharArray();
@@ -130,8 +240,7 @@ public class NamedParamStatement implements AutoCloseable {
       }
       i++;
     }
-
-
+    parsedSql.compile();
     return parsedSql;
   }
 
@@ -207,7 +316,7 @@ public class NamedParamStatement implements AutoCloseable {
     return position;
   }
 
-  private boolean isParameterSeparator(char c) {
+  private static boolean isParameterSeparator(char c) {
     return (c < 128 && separatorIndex[c]) || Character.isWhitespace(c);
   }
 
@@ -216,6 +325,7 @@ public class NamedParamStatement implements AutoCloseable {
     private String actualSql;
     private final List<String> parameterNames = new ArrayList<>();
     private final List<int[]> parameterIndexes = new ArrayList<>();
+    private Map<String, int[]> nameIndexMap = Collections.emptyMap();
 
     public ParsedSql(String originalSql) {
       this.originalSql = originalSql;
@@ -233,6 +343,20 @@ public class NamedParamStatement implements AutoCloseable {
       this.parameterIndexes.add(new int[]{startIndex, endIndex});
     }
 
+    /**
+     * 预先计算实际SQL与参数名到占位符下标的映射，完成后只读，可在线程间共享
+     */
+    void compile() {
+      Map<String, List<Integer>> positions = new HashMap<>();
+      for (int i = 0; i < parameterNames.size(); i++) {
+        positions.computeIfAbsent(parameterNames.get(i), k -> new ArrayList<>()).add(i + 1);
+      }
+      Map<String, int[]> map = new HashMap<>(positions.size() * 2);
+      positions.forEach((name, list) -> map.put(name, list.stream().mapToInt(Integer::intValue).toArray()));
+      this.nameIndexMap = map;
+      this.actualSql = buildActualSql();
+    }
+
     public String getOriginalSql() {
       return originalSql;
     }
@@ -245,28 +369,40 @@ public class NamedParamStatement implements AutoCloseable {
       return this.parameterIndexes.get(parameterPosition);
     }
 
+    /**
+     * 获取参数名对应的JDBC占位符下标(从1开始)
+     */
+    int[] getIndexes(String name) {
+      int[] indexes = nameIndexMap.get(name);
+      return indexes != null ? indexes : new int[0];
+    }
+
     String getActualSql() {
       if (actualSql == null) {
-        List<String> paramNames = parameterNames;
-        if (paramNames.isEmpty()) {
-          return originalSql;
-        }
-        StringBuilder actualSql = new StringBuilder(originalSql.length());
-        int lastIndex = 0;
-        for (int i = 0; i < paramNames.size(); i++) {
-          int[] indexes = this.getParameterIndexes(i);
-          int startIndex = indexes[0];
-          int endIndex = indexes[1];
-          actualSql.append(originalSql, lastIndex, startIndex - 1);
-          actualSql.append('?');
-          lastIndex = endIndex;
-        }
-        actualSql.append(originalSql, lastIndex, originalSql.length());
-        this.actualSql = actualSql.toString();
+        actualSql = buildActualSql();
       }
       return actualSql;
     }
 
+    private String buildActualSql() {
+      List<String> paramNames = parameterNames;
+      if (paramNames.isEmpty()) {
+        return originalSql;
+      }
+      StringBuilder actualSql = new StringBuilder(originalSql.length());
+      int lastIndex = 0;
+      for (int i = 0; i < paramNames.size(); i++) {
+        int[] indexes = this.getParameterIndexes(i);
+        int startIndex = indexes[0];
+        int endIndex = indexes[1];
+        actualSql.append(originalSql, lastIndex, startIndex - 1);
+        actualSql.append('?');
+        lastIndex = endIndex;
+      }
+      actualSql.append(originalSql, lastIndex, originalSql.length());
+      return actualSql.toString();
+    }
+
   }
 
 }
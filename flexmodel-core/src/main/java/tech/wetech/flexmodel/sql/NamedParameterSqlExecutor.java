@@ -10,6 +10,7 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -19,18 +20,23 @@ import java.util.stream.StreamSupport;
  */
 public class NamedParameterSqlExecutor implements SqlExecutor {
 
-  private final Connection connection;
+  private final SqlConnectionManager connectionManager;
 
   private final Logger log = LoggerFactory.getLogger(NamedParameterSqlExecutor.class);
 
   public NamedParameterSqlExecutor(Connection connection) {
     Objects.requireNonNull(connection);
-    this.connection = connection;
+    this.connectionManager = new SqlConnectionManager(connection);
+  }
+
+  public NamedParameterSqlExecutor(SqlConnectionManager connectionManager) {
+    Objects.requireNonNull(connectionManager);
+    this.connectionManager = connectionManager;
   }
 
   @Override
   public <T> T queryForScalar(String sql, Map<String, Object> paramMap, Class<T> type) {
-    return metrics(() -> {
+    return metrics(() -> withConnection(connection -> {
       NamedParamStatement stmt = null;
       ResultSet rs = null;
       try {
@@ -55,12 +61,25 @@ public class NamedParameterSqlExecutor implements SqlExecutor {
         closeResultSet(rs);
         closeStatement(stmt);
       }
-    }, sql, paramMap);
+    }), sql, paramMap);
   }
 
   @Override
   public Connection getConnection() {
-    return connection;
+    return connectionManager.getConnection();
+  }
+
+  @Override
+  public SqlConnectionManager getConnectionManager() {
+    return connectionManager;
+  }
+
+  /**
+   * 语句执行期间占用连接，执行完毕后释放
+   */
+  @Override
+  public <T> T withConnection(Function<Connection, T> action) {
+    return connectionManager.withConnection(action);
   }
 
 
@@ -75,7 +94,7 @@ public class NamedParameterSqlExecutor implements SqlExecutor {
 
   @Override
   public <T> T queryForObject(String sql, Map<String, Object> paramMap, SqlResultHandler<T> sqlResultHandler) {
-    return metrics(() -> {
+    return metrics(() -> withConnection(connection -> {
       NamedParamStatement stmt = null;
       ResultSet rs = null;
       try {
@@ -93,7 +112,7 @@ public class NamedParameterSqlExecutor implements SqlExecutor {
         closeResultSet(rs);
         closeStatement(stmt);
       }
-    }, sql, paramMap);
+    }), sql, paramMap);
   }
 
   @Override
@@ -104,7 +123,7 @@ public class NamedParameterSqlExecutor implements SqlExecutor {
 
   @Override
   public <T> List<T> queryForList(String sql, Map<String, Object> paramMap, SqlResultHandler<T> sqlResultHandler) {
-    return metrics(() -> {
+    return metrics(() -> withConnection(connection -> {
       NamedParamStatement stmt = null;
       ResultSet rs = null;
       try {
@@ -118,7 +137,7 @@ public class NamedParameterSqlExecutor implements SqlExecutor {
         closeResultSet(rs);
         closeStatement(stmt);
       }
-    }, sql, paramMap);
+    }), sql, paramMap);
   }
 
   @Override
@@ -129,36 +148,61 @@ public class NamedParameterSqlExecutor implements SqlExecutor {
 
   @Override
   public <T> Stream<T> queryForStream(String sql, Map<String, Object> paramMap, SqlResultHandler<T> sqlResultHandler) {
-    UncheckedCloseable close = null;
+    return queryForStream(sql, paramMap, sqlResultHandler, 0, true);
+  }
+
+  @Override
+  public <T> Stream<T> queryForStream(String sql, Map<String, Object> paramMap, SqlResultHandler<T> sqlResultHandler,
+                                      int fetchSize, boolean disableAutoCommit) {
+    // 连接在Stream关闭时释放，依次关闭结果集、语句并恢复自动提交
+    Connection connection = connectionManager.acquire();
+    UncheckedCloseable close = connectionManager::release;
     try {
-      close = UncheckedCloseable.wrap(connection);
+      if (disableAutoCommit && connection.getAutoCommit()) {
+        connection.setAutoCommit(false);
+        close = close.nest(() -> connection.setAutoCommit(true));
+      }
       NamedParamStatement stmt = new NamedParamStatement(connection, sql);
-      setParameters(stmt, paramMap);
       close = close.nest(stmt);
-      connection.setAutoCommit(false);
+      setParameters(stmt, paramMap);
+      if (fetchSize != 0) {
+        stmt.getPreparedStatement().setFetchSize(fetchSize);
+      }
+      if (log.isDebugEnabled()) {
+        log.debug(" ==> Executing SQL      : {} ", sql);
+        log.debug(" ==> SQL Parameters     : {}", formatValueLog(paramMap));
+      }
       ResultSet rs = stmt.executeQuery();
       close = close.nest(rs);
+      SqlResultHandler<T>.RowReader reader = sqlResultHandler.compile(rs);
       return StreamSupport.stream(new Spliterators.AbstractSpliterator<T>(
         Long.MAX_VALUE, Spliterator.ORDERED) {
         @Override
         public boolean tryAdvance(Consumer<? super T> action) {
           try {
             if (!rs.next()) return false;
-            action.accept(sqlResultHandler.convertResultSetToObject(rs));
+            action.accept(reader.read(rs));
             return true;
           } catch (SQLException ex) {
-            throw new RuntimeException(ex);
+            throw new SqlExecutionException("Could not read JDBC ResultSet: " + sql + ", Reason: " + ex.getMessage(), ex);
           }
         }
       }, false).onClose(close);
     } catch (SQLException sqlEx) {
-      if (close != null)
-        try {
-          close.close();
-        } catch (Exception ex) {
-          sqlEx.addSuppressed(ex);
-        }
+      closeQuietly(close, sqlEx);
       throw new SqlExecutionException("Could not execute JDBC Statement: " + sql + " Reason: " + sqlEx.getMessage(), sqlEx);
+    } catch (RuntimeException e) {
+      // 设置参数或编译结果映射失败时同样需要释放连接
+      closeQuietly(close, e);
+      throw e;
+    }
+  }
+
+  private static void closeQuietly(UncheckedCloseable close, Exception cause) {
+    try {
+      close.close();
+    } catch (Exception ex) {
+      cause.addSuppressed(ex);
     }
   }
 
@@ -191,7 +235,7 @@ public class NamedParameterSqlExecutor implements SqlExecutor {
 
   @Override
   public int update(String sql, Map<String, Object> paramMap) {
-    return metrics(() -> {
+    return metrics(() -> withConnection(connection -> {
       NamedParamStatement stmt = null;
       try {
         stmt = new NamedParamStatement(connection, sql);
@@ -202,7 +246,7 @@ public class NamedParameterSqlExecutor implements SqlExecutor {
       } finally {
         closeStatement(stmt);
       }
-    }, sql, paramMap);
+    }), sql, paramMap);
 
   }
 
@@ -213,7 +257,7 @@ public class NamedParameterSqlExecutor implements SqlExecutor {
 
   @Override
   public int updateAndReturnFirstGeneratedKeys(String sql, Map<String, Object> paramMap, Consumer<Long> keyConsumer) {
-    return metrics(() -> {
+    return metrics(() -> withConnection(connection -> {
       NamedParamStatement stmt = null;
       ResultSet krs = null;
       try {
@@ -233,12 +277,12 @@ public class NamedParameterSqlExecutor implements SqlExecutor {
         closeResultSet(krs);
         closeStatement(stmt);
       }
-    }, sql, paramMap);
+    }), sql, paramMap);
   }
 
   @Override
   public int updateAndReturnGeneratedKeys(String sql, Map<String, Object> paramMap, String[] generatedKeyColumns, Consumer<List<?>> keyConsumer) {
-    return metrics(() -> {
+    return metrics(() -> withConnection(connection -> {
       NamedParamStatement stmt = null;
       ResultSet krs = null;
       try {
@@ -258,7 +302,54 @@ public class NamedParameterSqlExecutor implements SqlExecutor {
         closeResultSet(krs);
         closeStatement(stmt);
       }
-    }, sql, paramMap);
+    }), sql, paramMap);
+  }
+
+  @Override
+  public int[] batchUpdate(String sql, List<Map<String, Object>> paramMaps) {
+    return metrics(() -> withConnection(connection -> {
+      NamedParamStatement stmt = null;
+      try {
+        stmt = new NamedParamStatement(connection, sql);
+        for (Map<String, Object> paramMap : paramMaps) {
+          setParameters(stmt, paramMap);
+          stmt.addBatch();
+        }
+        return stmt.executeBatch();
+      } catch (SQLException e) {
+        throw new SqlExecutionException("Could not execute JDBC Statement: " + sql + ", Reason: " + e.getMessage(), e);
+      } finally {
+        closeStatement(stmt);
+      }
+    }), sql, paramMaps);
+  }
+
+  @Override
+  public int[] batchUpdateAndReturnGeneratedKeys(String sql, List<Map<String, Object>> paramMaps, String[] generatedKeyColumns, Consumer<List<?>> keyConsumer) {
+    return metrics(() -> withConnection(connection -> {
+      NamedParamStatement stmt = null;
+      ResultSet krs = null;
+      try {
+        stmt = new NamedParamStatement(connection, sql, generatedKeyColumns);
+        for (Map<String, Object> paramMap : paramMaps) {
+          setParameters(stmt, paramMap);
+          stmt.addBatch();
+        }
+        int[] rows = stmt.executeBatch();
+        krs = stmt.getGeneratedKeys();
+        List<Long> keyList = new ArrayList<>(paramMaps.size());
+        while (krs.next()) {
+          keyList.add(krs.getLong(1));
+        }
+        keyConsumer.accept(keyList);
+        return rows;
+      } catch (SQLException e) {
+        throw new SqlExecutionException("Could not execute JDBC Statement: " + sql + ", Reason: " + e.getMessage(), e);
+      } finally {
+        closeResultSet(krs);
+        closeStatement(stmt);
+      }
+    }), sql, paramMaps);
   }
 
   private void setParameters(NamedParamStatement stmt, Map<String, Object> paramMap) throws SQLException {
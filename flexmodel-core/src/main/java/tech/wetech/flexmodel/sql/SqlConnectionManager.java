@@ -0,0 +1,236 @@
+package tech.wetech.flexmodel.sql;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Function;
+
+/**
+ * 会话级连接管理，首次执行SQL时才从数据源获取连接。
+ * <p>
+ * 未开启事务时，语句执行完毕（流式查询关闭后）即归还连接，连接占用只反映实际的数据库操作；
+ * 开启事务后连接保持到提交或回滚。使用连接须通过 {@link #acquire()} 和 {@link #release()} 或 {@link #withConnection(Function)}，
+ * 通过 {@link #getConnection()} 直接获取的连接会保持到会话关闭。
+ *
+ * @author cjbi
+ */
+public class SqlConnectionManager {
+
+  private final Logger log = LoggerFactory.getLogger(SqlConnectionManager.class);
+
+  private final DataSource dataSource;
+  /**
+   * 是否在空闲时归还连接，外部传入的连接由会话关闭时统一关闭
+   */
+  private final boolean releaseOnIdle;
+  private final boolean readOnly;
+  private Connection connection;
+  private boolean transactionActive;
+  private int holdCount;
+  /**
+   * 连接已直接交给调用方，保持到会话关闭
+   */
+  private boolean pinned;
+  private boolean closed;
+
+  public SqlConnectionManager(DataSource dataSource) {
+    this(dataSource, false);
+  }
+
+  /**
+   * @param readOnly 获取的连接是否设为只读
+   */
+  public SqlConnectionManager(DataSource dataSource, boolean readOnly) {
+    this.dataSource = dataSource;
+    this.releaseOnIdle = true;
+    this.readOnly = readOnly;
+  }
+
+  /**
+   * 使用已获取的连接，连接在会话关闭前不会归还
+   */
+  public SqlConnectionManager(Connection connection) {
+    this.dataSource = null;
+    this.connection = connection;
+    this.releaseOnIdle = false;
+    this.readOnly = false;
+  }
+
+  /**
+   * 是否可以从数据源借用独立连接
+   */
+  public boolean supportsBranch() {
+    return dataSource != null;
+  }
+
+  /**
+   * 从同一数据源借用独立的只读连接，用于并行加载关联数据
+   */
+  public SqlConnectionManager branch() {
+    if (dataSource == null) {
+      throw new IllegalStateException("Connection manager has no DataSource to branch from");
+    }
+    return new SqlConnectionManager(dataSource, true);
+  }
+
+  /**
+   * 获取当前连接，没有时从数据源获取。
+   * 调用方持有的连接无法确定何时用完，连接保持到会话关闭，需要及时归还连接时使用 {@link #withConnection(Function)}
+   */
+  public synchronized Connection getConnection() {
+    Connection conn = openConnection();
+    pinned = true;
+    return conn;
+  }
+
+  /**
+   * 获取连接并标记占用，使用完毕后须调用 {@link #release()}
+   */
+  public synchronized Connection acquire() {
+    Connection conn = openConnection();
+    holdCount++;
+    return conn;
+  }
+
+  /**
+   * 占用连接执行操作，执行完毕后释放
+   */
+  public <T> T withConnection(Function<Connection, T> action) {
+    Connection conn = acquire();
+    try {
+      return action.apply(conn);
+    } finally {
+      release();
+    }
+  }
+
+  /**
+   * 当前是否持有连接
+   */
+  public synchronized boolean isConnected() {
+    return connection != null;
+  }
+
+  public synchronized void release() {
+    if (holdCount > 0) {
+      holdCount--;
+    }
+    releaseIfIdle();
+  }
+
+  public synchronized void begin() throws SQLException {
+    openConnection().setAutoCommit(false);
+    transactionActive = true;
+  }
+
+  public synchronized void commit() throws SQLException {
+    try {
+      if (connection != null && !connection.getAutoCommit()) {
+        connection.commit();
+        connection.setAutoCommit(true);
+      }
+    } finally {
+      transactionActive = false;
+      releaseIfIdle();
+    }
+  }
+
+  public synchronized void rollback() throws SQLException {
+    try {
+      if (connection != null && !connection.getAutoCommit()) {
+        connection.rollback();
+        connection.setAutoCommit(true);
+      }
+    } finally {
+      transactionActive = false;
+      releaseIfIdle();
+    }
+  }
+
+  public synchronized boolean isTransactionActive() {
+    return transactionActive;
+  }
+
+  public synchronized void close() throws SQLException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    transactionActive = false;
+    if (connection != null) {
+      try {
+        if (!connection.getAutoCommit()) {
+          connection.commit();
+        }
+      } finally {
+        closeConnection(connection);
+        connection = null;
+      }
+    }
+  }
+
+  public synchronized boolean isClosed() {
+    if (closed) {
+      return true;
+    }
+    try {
+      return connection != null && connection.isClosed();
+    } catch (SQLException e) {
+      throw new SqlExecutionException("Could not check JDBC Connection: " + e.getMessage(), e);
+    }
+  }
+
+  private Connection openConnection() {
+    if (closed) {
+      throw new SqlExecutionException("Session is closed");
+    }
+    if (connection == null) {
+      try {
+        connection = dataSource.getConnection();
+        if (readOnly) {
+          connection.setReadOnly(true);
+        }
+      } catch (SQLException e) {
+        throw new SqlExecutionException("Could not get JDBC Connection: " + e.getMessage(), e);
+      }
+    }
+    return connection;
+  }
+
+  private void releaseIfIdle() {
+    if (!releaseOnIdle || pinned || connection == null || transactionActive || holdCount > 0) {
+      return;
+    }
+    Connection conn = connection;
+    connection = null;
+    try {
+      if (!conn.getAutoCommit()) {
+        conn.commit();
+        conn.setAutoCommit(true);
+      }
+    } catch (SQLException ex) {
+      log.debug("Could not reset JDBC Connection", ex);
+    } finally {
+      closeConnection(conn);
+    }
+  }
+
+  private void closeConnection(Connection conn) {
+    try {
+      if (readOnly) {
+        conn.setReadOnly(false);
+      }
+    } catch (SQLException ex) {
+      log.debug("Could not reset JDBC Connection read-only flag", ex);
+    }
+    try {
+      conn.close();
+    } catch (SQLException ex) {
+      log.debug("Could not close JDBC Connection", ex);
+    }
+  }
+
+}
@@ -1,18 +1,17 @@
 package tech.wetech.flexmodel.sql;
 
 import tech.wetech.flexmodel.ModelRegistry;
-import tech.wetech.flexmodel.model.field.ScalarType;
 import tech.wetech.flexmodel.naming.PhysicalNamingStrategy;
 import tech.wetech.flexmodel.session.AbstractSessionContext;
 import tech.wetech.flexmodel.session.SessionFactory;
 import tech.wetech.flexmodel.sql.dialect.SqlDialect;
-import tech.wetech.flexmodel.sql.type.*;
+import tech.wetech.flexmodel.sql.type.SqlTypeHandler;
+import tech.wetech.flexmodel.sql.type.UnknownSqlTypeHandler;
 
 import java.sql.Connection;
-import java.sql.DatabaseMetaData;
-import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * @author cjbi
@@ -22,8 +21,12 @@ public class SqlContext extends AbstractSessionContext {
   private final SqlDialect sqlDialect;
 
   private SqlExpressionCalculator conditionCalculator;
-  protected final Map<String, SqlTypeHandler<?>> typeHandlerMap = new HashMap<>();
-  private final SqlMetadata sqlMetadata;
+  private SqlStatementCache statementCache;
+  /**
+   * 默认共享方言配置中的不可变映射，添加类型处理器时复制为会话私有
+   */
+  protected Map<String, SqlTypeHandler<?>> typeHandlerMap;
+  private boolean typeHandlerMapCopied;
 
   public SqlContext(String schemaName,
                     SqlExecutor sqlExecutor,
@@ -31,36 +34,19 @@ public class SqlContext extends AbstractSessionContext {
                     SessionFactory factory
 
   ) {
+    this(schemaName, sqlExecutor, mappedModels, factory, sqlExecutor.withConnection(SqlDialectProfile::resolve));
+  }
+
+  public SqlContext(String schemaName,
+                    SqlExecutor sqlExecutor,
+                    ModelRegistry mappedModels,
+                    SessionFactory factory,
+                    SqlDialectProfile dialectProfile) {
     super(schemaName, mappedModels, factory);
     this.sqlExecutor = sqlExecutor;
-    DatabaseMetaData databaseMetaData;
-    Connection connection = sqlExecutor.getConnection();
-    try {
-      databaseMetaData = connection.getMetaData();
-    } catch (SQLException e) {
-      log.error("获取数据库元数据失败了：{}", e.getMessage());
-      throw new IllegalStateException("获取数据库连接失败，请检查数据源");
-    }
-    this.sqlDialect = SqlDialectFactory.create(databaseMetaData);
-    this.sqlMetadata = new SqlMetadata(sqlDialect, connection);
-    this.conditionCalculator = new DefaultSqlExpressionCalculator(sqlDialect);
-
-    this.typeHandlerMap.put(ScalarType.STRING.getType(), new StringSqlTypeHandler());
-    this.typeHandlerMap.put(ScalarType.FLOAT.getType(), new DecimalSqlTypeHandler());
-    this.typeHandlerMap.put(ScalarType.INT.getType(), new IntSqlTypeHandler());
-    this.typeHandlerMap.put(ScalarType.LONG.getType(), new LongSqlTypeHandler());
-    this.typeHandlerMap.put(ScalarType.BOOLEAN.getType(), new BooleanSqlTypeHandler());
-    if (sqlDialect.supportsJSR310()) {
-      this.typeHandlerMap.put(ScalarType.DATETIME.getType(), new DateTimeSqlTypeHandler());
-      this.typeHandlerMap.put(ScalarType.DATE.getType(), new DateSqlTypeHandler());
-      this.typeHandlerMap.put(ScalarType.TIME.getType(), new TimeSqlTypeHandler());
-    } else {
-      this.typeHandlerMap.put(ScalarType.DATETIME.getType(), new LegacyDateTimeSqlTypeHandler());
-      this.typeHandlerMap.put(ScalarType.DATE.getType(), new LegacyDateSqlTypeHandler());
-      this.typeHandlerMap.put(ScalarType.TIME.getType(), new LegacyTimeSqlTypeHandler());
-    }
-    this.typeHandlerMap.put(ScalarType.JSON.getType(), new JsonSqlTypeHandler());
-    this.typeHandlerMap.put(ScalarType.ENUM.getType(), new EnumSqlTypeHandler());
+    this.sqlDialect = dialectProfile.getSqlDialect();
+    this.conditionCalculator = dialectProfile.getConditionCalculator();
+    this.typeHandlerMap = dialectProfile.getTypeHandlerMap();
   }
 
   @Override
@@ -78,6 +64,10 @@ public class SqlContext extends AbstractSessionContext {
   }
 
   public void addTypeHandler(String fieldType, SqlTypeHandler<?> typeHandler) {
+    if (!typeHandlerMapCopied) {
+      this.typeHandlerMap = new HashMap<>(typeHandlerMap);
+      this.typeHandlerMapCopied = true;
+    }
     this.typeHandlerMap.put(fieldType, typeHandler);
   }
 
@@ -97,11 +87,40 @@ public class SqlContext extends AbstractSessionContext {
     this.conditionCalculator = conditionCalculator;
   }
 
+  public SqlStatementCache getStatementCache() {
+    return statementCache;
+  }
+
+  public void setStatementCache(SqlStatementCache statementCache) {
+    this.statementCache = statementCache;
+  }
+
+  /**
+   * 直接获取连接，连接保持到会话关闭，需要及时归还连接时使用 {@link #withConnection(Function)}
+   */
   public Connection getConnection() {
     return this.getJdbcOperations().getConnection();
   }
 
+  public <T> T withConnection(Function<Connection, T> action) {
+    return this.getJdbcOperations().withConnection(action);
+  }
+
+  public SqlConnectionManager getConnectionManager() {
+    return this.getJdbcOperations().getConnectionManager();
+  }
+
+  /**
+   * 获取元数据，连接保持到会话关闭，需要及时归还连接时使用 {@link #withSqlMetadata(Function)}
+   */
   public SqlMetadata getSqlMetadata() {
-    return sqlMetadata;
+    return new SqlMetadata(sqlDialect, getConnection());
+  }
+
+  /**
+   * 占用连接读取元数据，读取完毕后释放
+   */
+  public <T> T withSqlMetadata(Function<SqlMetadata, T> action) {
+    return withConnection(connection -> action.apply(new SqlMetadata(sqlDialect, connection)));
   }
 }
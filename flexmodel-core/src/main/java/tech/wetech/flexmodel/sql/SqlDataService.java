@@ -2,6 +2,9 @@ package tech.wetech.flexmodel.sql;
 
 import tech.wetech.flexmodel.ExpressionCalculator;
 import tech.wetech.flexmodel.ExpressionCalculatorException;
+import tech.wetech.flexmodel.condition.ConditionNode;
+import tech.wetech.flexmodel.condition.ConditionOperator;
+import tech.wetech.flexmodel.condition.FieldConditionNode;
 import tech.wetech.flexmodel.model.EntityDefinition;
 import tech.wetech.flexmodel.model.ModelDefinition;
 import tech.wetech.flexmodel.model.NativeQueryDefinition;
@@ -11,14 +14,19 @@ import tech.wetech.flexmodel.model.field.TypedField;
 import tech.wetech.flexmodel.query.Query;
 import tech.wetech.flexmodel.service.BaseService;
 import tech.wetech.flexmodel.service.DataService;
+import tech.wetech.flexmodel.service.RelationQueryBranch;
 import tech.wetech.flexmodel.sql.SqlStatementBuilder.Pair;
+import tech.wetech.flexmodel.sql.condition.SqlArrayParameter;
 import tech.wetech.flexmodel.sql.dialect.SqlDialect;
 import tech.wetech.flexmodel.sql.type.SqlResultHandler;
-import tech.wetech.flexmodel.sql.type.SqlTypeHandler;
 import tech.wetech.flexmodel.sql.type.UnknownSqlTypeHandler;
 
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.*;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author cjbi
@@ -28,7 +36,6 @@ public class SqlDataService extends BaseService implements DataService {
   private final SqlExecutor sqlExecutor;
   private final SqlDialect sqlDialect;
   private final ExpressionCalculator<SqlClauseResult> sqlExpressionCalculator;
-  private final Map<String, SqlTypeHandler<?>> typeHandlerMap;
   private final SqlStatementBuilder builder;
   private final SqlContext sessionContext;
 
@@ -37,23 +44,33 @@ public class SqlDataService extends BaseService implements DataService {
     this.sqlExecutor = sessionContext.getJdbcOperations();
     this.sqlDialect = sessionContext.getSqlDialect();
     this.sqlExpressionCalculator = sessionContext.getConditionCalculator();
-    this.typeHandlerMap = sessionContext.getTypeHandlerMap();
     this.sessionContext = sessionContext;
     this.builder = new SqlStatementBuilder(sessionContext);
   }
 
   @Override
   public int insert(String modelName, Map<String, Object> data) {
+    return insertProcessedData(modelName, data, generateFieldValues(modelName, data, false));
+  }
+
+  /**
+   * 插入已生成字段值的记录，生成的ID回填到原始记录中
+   *
+   * @param modelName     模型名称
+   * @param data          原始记录
+   * @param processedData 已生成字段值的记录
+   * @return 影响行数
+   */
+  private int insertProcessedData(String modelName, Map<String, Object> data, Map<String, Object> processedData) {
     log.debug("Starting SQL insert for model: {}", modelName);
     long startTime = System.currentTimeMillis();
 
-    Map<String, Object> processedData = generateFieldValues(modelName, data, false);
+    EntityDefinition entity = (EntityDefinition) sessionContext.getModelDefinition(modelName);
+    Optional<TypedField<?, ?>> idFieldOptional = entity.findIdField();
     try {
       String sql = getInsertSqlString(modelName, processedData);
       log.debug("Generated INSERT SQL: {}", sql);
 
-      EntityDefinition entity = (EntityDefinition) sessionContext.getModelDefinition(modelName);
-      Optional<TypedField<?, ?>> idFieldOptional = entity.findIdField();
       int rows;
       if (idFieldOptional.isPresent()) {
         TypedField<?, ?> idField = idFieldOptional.get();
@@ -86,8 +103,6 @@ public class SqlDataService extends BaseService implements DataService {
       throw e;
     } finally {
       // 获取生成的ID（如果有的话）
-      EntityDefinition entity = (EntityDefinition) sessionContext.getModelDefinition(modelName);
-      Optional<TypedField<?, ?>> idFieldOptional = entity.findIdField();
       Object id = null;
       if (idFieldOptional.isPresent()) {
         id = processedData.get(idFieldOptional.get().getName());
@@ -100,6 +115,137 @@ public class SqlDataService extends BaseService implements DataService {
     }
   }
 
+  @Override
+  public int insertAll(String modelName, List<Map<String, Object>> records) {
+    log.debug("Starting SQL insertAll for model: {}, records: {}", modelName, records.size());
+    long startTime = System.currentTimeMillis();
+
+    try {
+      EntityDefinition entity = (EntityDefinition) sessionContext.getModelDefinition(modelName);
+      TypedField<?, ?> idField = entity.findIdField().orElse(null);
+      int batchSize = sessionContext.getInsertBatchSize();
+      int rows = 0;
+
+      // 相同SQL的连续记录合并为一个批次
+      String batchSql = null;
+      List<Map<String, Object>> batchData = new ArrayList<>();
+      List<Map<String, Object>> batchRecords = new ArrayList<>();
+      for (Map<String, Object> record : records) {
+        Map<String, Object> processedData = generateFieldValues(modelName, record, false);
+        boolean needGeneratedId = idField != null && processedData.get(idField.getName()) == null;
+        if (needGeneratedId && !sqlDialect.supportsBatchGeneratedKeys()) {
+          // 驱动无法在批量执行时返回自增主键，退化为逐条插入
+          rows += executeInsertBatch(modelName, idField, batchSql, batchData, batchRecords);
+          batchSql = null;
+          rows += insertProcessedData(modelName, record, processedData);
+          continue;
+        }
+        String sql = getInsertSqlString(modelName, processedData);
+        if (!sql.equals(batchSql) || batchData.size() >= batchSize) {
+          rows += executeInsertBatch(modelName, idField, batchSql, batchData, batchRecords);
+          batchSql = sql;
+        }
+        batchData.add(processedData);
+        batchRecords.add(record);
+      }
+      rows += executeInsertBatch(modelName, idField, batchSql, batchData, batchRecords);
+
+      long duration = System.currentTimeMillis() - startTime;
+      log.debug("SQL insertAll completed for model: {} in {}ms, affected rows: {}", modelName, duration, rows);
+      return rows;
+    } catch (Exception e) {
+      long duration = System.currentTimeMillis() - startTime;
+      log.error("SQL insertAll failed for model: {} after {}ms", modelName, duration, e);
+      throw e;
+    }
+  }
+
+  /**
+   * 执行一个批次的插入，执行后清空批次数据
+   *
+   * @return 影响行数
+   */
+  private int executeInsertBatch(String modelName, TypedField<?, ?> idField, String sql,
+                                 List<Map<String, Object>> batchData, List<Map<String, Object>> batchRecords) {
+    if (batchData.isEmpty()) {
+      return 0;
+    }
+    log.debug("Executing INSERT batch: {}, size: {}", sql, batchData.size());
+    int[] counts;
+    // 同一批次SQL相同，要么都带ID，要么都不带ID
+    if (idField != null && batchData.getFirst().get(idField.getName()) == null) {
+      counts = sqlExecutor.batchUpdateAndReturnGeneratedKeys(sql, batchData,
+        new String[]{sqlDialect.getGeneratedKeyName(idField.getName())}, keys -> {
+          if (keys.size() != batchData.size()) {
+            throw new SqlExecutionException("Generated keys count mismatch, expected " + batchData.size() + ", actual " + keys.size());
+          }
+          for (int i = 0; i < keys.size(); i++) {
+            batchData.get(i).put(idField.getName(), keys.get(i));
+          }
+        });
+    } else if (sqlDialect.getMaxInsertRows() > 1 && batchData.size() > 1) {
+      counts = executeMultiRowInsert(modelName, batchData);
+    } else {
+      counts = sqlExecutor.batchUpdate(sql, batchData);
+    }
+    int rows = 0;
+    for (int count : counts) {
+      // Statement.SUCCESS_NO_INFO 视为成功插入一行
+      rows += count >= 0 ? count : (count == Statement.SUCCESS_NO_INFO ? 1 : 0);
+    }
+    for (int i = 0; i < batchData.size(); i++) {
+      Map<String, Object> record = batchRecords.get(i);
+      Object id = null;
+      if (idField != null) {
+        id = batchData.get(i).get(idField.getName());
+        // 返回ID值
+        record.put(idField.getName(), id);
+      }
+      insertRelatedRecords(modelName, record, id);
+    }
+    batchData.clear();
+    batchRecords.clear();
+    return rows;
+  }
+
+  /**
+   * 将不需要回填主键的记录打包为多行VALUES语句执行，每条语句的行数受方言的最大行数和最大参数个数限制
+   *
+   * @return 每条语句的影响行数
+   */
+  private int[] executeMultiRowInsert(String modelName, List<Map<String, Object>> batchData) {
+    // 同一批次的SQL相同，列顺序以第一条记录为准
+    List<String> columns = new ArrayList<>(batchData.getFirst().keySet());
+    int rowsPerStatement = Math.max(1, Math.min(sqlDialect.getMaxInsertRows(),
+      sqlDialect.getMaxBindParameters() / Math.max(1, columns.size())));
+    String physicalTableName = toPhysicalTablenameQuoteString(modelName);
+    StringJoiner columnJoiner = new StringJoiner(", ", "(", ")");
+    columns.forEach(column -> columnJoiner.add(sqlDialect.quoteIdentifier(column)));
+
+    int statementCount = (batchData.size() + rowsPerStatement - 1) / rowsPerStatement;
+    int[] counts = new int[statementCount];
+    for (int s = 0; s < statementCount; s++) {
+      List<Map<String, Object>> chunk = batchData.subList(s * rowsPerStatement,
+        Math.min(batchData.size(), (s + 1) * rowsPerStatement));
+      StringJoiner rowsJoiner = new StringJoiner(", ");
+      Map<String, Object> params = new HashMap<>(chunk.size() * columns.size() * 2);
+      for (int i = 0; i < chunk.size(); i++) {
+        Map<String, Object> record = chunk.get(i);
+        StringJoiner values = new StringJoiner(", ", "(", ")");
+        for (String column : columns) {
+          String paramName = column + "_" + i;
+          values.add(":" + paramName);
+          params.put(paramName, record.get(column));
+        }
+        rowsJoiner.add(values.toString());
+      }
+      String sql = "insert into " + physicalTableName + columnJoiner + " values " + rowsJoiner;
+      log.debug("Generated multi-row INSERT SQL for model: {}, rows: {}", modelName, chunk.size());
+      counts[s] = sqlExecutor.update(sql, params);
+    }
+    return counts;
+  }
+
   private String getInsertSqlString(String modelName, Map<String, Object> record) {
     String physicalTableName = toPhysicalTablenameQuoteString(modelName);
     EntityDefinition entity = (EntityDefinition) sessionContext.getModelDefinition(modelName);
@@ -218,8 +364,7 @@ public class SqlDataService extends BaseService implements DataService {
       String physicalTableName = toPhysicalTablenameQuoteString(modelName);
       EntityDefinition entity = (EntityDefinition) sessionContext.getModelDefinition(modelName);
       TypedField<?, ?> idField = entity.findIdField().orElseThrow();
-      String columnsString = entity.getFields().stream()
-        .filter(f -> !(f instanceof RelationField))
+      String columnsString = entity.getNonRelationFields().stream()
         .map(field -> sqlDialect.quoteIdentifier(field.getName()))
         .collect(Collectors.joining(", "));
 
@@ -276,6 +421,44 @@ public class SqlDataService extends BaseService implements DataService {
   }
 
 
+  @Override
+  public <T> List<T> find(String modelName, Query query, Class<T> resultType) {
+    if (query.isNestedEnabled() || Map.class.isAssignableFrom(resultType)) {
+      // 嵌套查询结果需要先组装成Map
+      return DataService.super.find(modelName, query, resultType);
+    }
+    log.debug("Starting SQL typed find for model: {}, type: {}", modelName, resultType.getName());
+    long startTime = System.currentTimeMillis();
+
+    try {
+      Pair<String, Map<String, Object>> pair = builder.toQuerySqlWithPrepared(modelName, query);
+      log.debug("Generated SELECT SQL: {}", pair.first());
+
+      List<T> list = sqlExecutor.queryForList(pair.first(), pair.second(), getSqlResultHandler((ModelDefinition) sessionContext.getModelDefinition(modelName), query, resultType));
+      long duration = System.currentTimeMillis() - startTime;
+      log.debug("SQL typed find completed for model: {} in {}ms, results: {}", modelName, duration, list.size());
+      return list;
+    } catch (Exception e) {
+      long duration = System.currentTimeMillis() - startTime;
+      log.error("SQL typed find failed for model: {} after {}ms", modelName, duration, e);
+      throw e;
+    }
+  }
+
+  @Override
+  public Stream<Map<String, Object>> stream(String modelName, Query query, int fetchSize) {
+    log.debug("Starting SQL stream for model: {}, fetchSize: {}", modelName, fetchSize);
+    if (query.isNestedEnabled()) {
+      // 关联数据需要按批次回填，逐行读取时无法加载
+      throw new UnsupportedOperationException("Nested query is not supported by stream, model: " + modelName);
+    }
+    Pair<String, Map<String, Object>> pair = builder.toQuerySqlWithPrepared(modelName, query);
+    log.debug("Generated SELECT SQL: {}", pair.first());
+    return sqlExecutor.queryForStream(pair.first(), pair.second(),
+      getMapResultHandler((ModelDefinition) sessionContext.getModelDefinition(modelName), query),
+      sqlDialect.getStreamingFetchSize(fetchSize), sqlDialect.requiresManualCommitForStreaming());
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   public List<Map<String, Object>> findByNativeQuery(String modelName, Map<String, Object> params) {
@@ -339,8 +522,12 @@ public class SqlDataService extends BaseService implements DataService {
     }
   }
 
-  @SuppressWarnings("all")
   private List<Map<String, Object>> findMapList(String modelName, Query query) {
+    return findMapList(sqlExecutor, modelName, query);
+  }
+
+  @SuppressWarnings("all")
+  private List<Map<String, Object>> findMapList(SqlExecutor sqlExecutor, String modelName, Query query) {
     log.debug("Starting SQL findMapList for model: {}", modelName);
     long startTime = System.currentTimeMillis();
 
@@ -358,6 +545,66 @@ public class SqlDataService extends BaseService implements DataService {
     }
   }
 
+  @Override
+  protected int getRelationQueryBatchSize() {
+    return sqlDialect.getMaxInListSize();
+  }
+
+  /**
+   * 方言支持数组绑定时，外键值按外键字段的列类型绑定为单个数组参数，SQL文本与外键个数无关
+   */
+  @Override
+  protected ConditionNode toRelationCondition(RelationField relationField, List<Object> foreignKeyValues) {
+    if (foreignKeyValues.size() < 2
+        || !sqlDialect.supportsArrayBinding()
+        || sessionContext.getConditionCalculator().getClass() != DefaultSqlExpressionCalculator.class
+        || !(sessionContext.getModelDefinition(relationField.getFrom()) instanceof EntityDefinition entity)) {
+      return super.toRelationCondition(relationField, foreignKeyValues);
+    }
+    TypedField<?, ?> foreignField = entity.getField(relationField.getForeignField());
+    String elementTypeName = foreignField != null
+      ? sqlDialect.getArrayElementTypeName(sessionContext.getTypeHandler(foreignField.getType()).getJdbcTypeCode())
+      : null;
+    if (elementTypeName == null) {
+      return super.toRelationCondition(relationField, foreignKeyValues);
+    }
+    return new FieldConditionNode(relationField.getForeignField(), ConditionOperator.IN,
+      new SqlArrayParameter(elementTypeName, foreignKeyValues.toArray()));
+  }
+
+  /**
+   * 事务中的数据只对当前连接可见，关联数据需在同一连接上顺序加载
+   */
+  @Override
+  protected boolean supportsParallelNestedQuery() {
+    SqlConnectionManager connectionManager = sqlExecutor.getConnectionManager();
+    return !connectionManager.isTransactionActive() && connectionManager.supportsBranch();
+  }
+
+  /**
+   * 每个分支从数据源借用独立的只读连接
+   */
+  @Override
+  protected RelationQueryBranch openRelationQueryBranch(BiFunction<String, Query, List<Map<String, Object>>> relationQueryFunction) {
+    SqlConnectionManager branchConnectionManager = sqlExecutor.getConnectionManager().branch();
+    SqlExecutor branchExecutor = new NamedParameterSqlExecutor(branchConnectionManager);
+    return new RelationQueryBranch() {
+      @Override
+      public List<Map<String, Object>> find(String modelName, Query query) {
+        return findMapList(branchExecutor, modelName, query);
+      }
+
+      @Override
+      public void close() {
+        try {
+          branchConnectionManager.close();
+        } catch (SQLException e) {
+          log.debug("Could not close branch JDBC Connection", e);
+        }
+      }
+    };
+  }
+
   @Override
   public long count(String modelName, Query query) {
     log.debug("Starting SQL count for model: {}", modelName);
@@ -453,12 +700,17 @@ public class SqlDataService extends BaseService implements DataService {
    * @param <T>
    * @return
    */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private SqlResultHandler<Map<String, Object>> getMapResultHandler(ModelDefinition model, Query query) {
+    return (SqlResultHandler) getSqlResultHandler(model, query, Map.class);
+  }
+
   private <T> SqlResultHandler<T> getSqlResultHandler(ModelDefinition model, Query query, Class<T> resultType) {
     SqlResultHandler<T> sqlResultHandler = new SqlResultHandler<>(resultType);
     if (query == null || query.getProjection() == null || query.getProjection().getFields().isEmpty()) {
       for (Field field : model.getFields()) {
         if (field instanceof TypedField<?, ?> typedField) {
-          sqlResultHandler.addSqlTypeHandler(field.getName(), typeHandlerMap.get(typedField.getType()), field);
+          sqlResultHandler.addSqlTypeHandler(field.getName(), sessionContext.getTypeHandlerMap().get(typedField.getType()), field);
         } else if (field instanceof Query.QueryField) {
           sqlResultHandler.addSqlTypeHandler(field.getName(), new UnknownSqlTypeHandler(), field);
         }
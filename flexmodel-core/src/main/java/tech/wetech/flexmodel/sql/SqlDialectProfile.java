@@ -0,0 +1,77 @@
+package tech.wetech.flexmodel.sql;
+
+import tech.wetech.flexmodel.model.field.ScalarType;
+import tech.wetech.flexmodel.sql.dialect.SqlDialect;
+import tech.wetech.flexmodel.sql.type.*;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 数据源的方言配置，包括方言、条件计算器及类型处理器，均为无状态对象，
+ * 同一数据源只需解析一次，由所有会话共享。
+ *
+ * @author cjbi
+ */
+public final class SqlDialectProfile {
+
+  private final SqlDialect sqlDialect;
+  private final SqlExpressionCalculator conditionCalculator;
+  private final Map<String, SqlTypeHandler<?>> typeHandlerMap;
+
+  private SqlDialectProfile(SqlDialect sqlDialect) {
+    this.sqlDialect = sqlDialect;
+    this.conditionCalculator = new DefaultSqlExpressionCalculator(sqlDialect);
+    Map<String, SqlTypeHandler<?>> typeHandlers = new HashMap<>();
+    typeHandlers.put(ScalarType.STRING.getType(), new StringSqlTypeHandler());
+    typeHandlers.put(ScalarType.FLOAT.getType(), new DecimalSqlTypeHandler());
+    typeHandlers.put(ScalarType.INT.getType(), new IntSqlTypeHandler());
+    typeHandlers.put(ScalarType.LONG.getType(), new LongSqlTypeHandler());
+    typeHandlers.put(ScalarType.BOOLEAN.getType(), new BooleanSqlTypeHandler());
+    if (sqlDialect.supportsJSR310()) {
+      typeHandlers.put(ScalarType.DATETIME.getType(), new DateTimeSqlTypeHandler());
+      typeHandlers.put(ScalarType.DATE.getType(), new DateSqlTypeHandler());
+      typeHandlers.put(ScalarType.TIME.getType(), new TimeSqlTypeHandler());
+    } else {
+      typeHandlers.put(ScalarType.DATETIME.getType(), new LegacyDateTimeSqlTypeHandler());
+      typeHandlers.put(ScalarType.DATE.getType(), new LegacyDateSqlTypeHandler());
+      typeHandlers.put(ScalarType.TIME.getType(), new LegacyTimeSqlTypeHandler());
+    }
+    typeHandlers.put(ScalarType.JSON.getType(), new JsonSqlTypeHandler());
+    typeHandlers.put(ScalarType.ENUM.getType(), new EnumSqlTypeHandler());
+    this.typeHandlerMap = Collections.unmodifiableMap(typeHandlers);
+  }
+
+  /**
+   * 根据连接的元数据解析方言配置
+   */
+  public static SqlDialectProfile resolve(Connection connection) {
+    DatabaseMetaData databaseMetaData;
+    try {
+      databaseMetaData = connection.getMetaData();
+    } catch (SQLException e) {
+      throw new IllegalStateException("获取数据库连接失败，请检查数据源", e);
+    }
+    return new SqlDialectProfile(SqlDialectFactory.create(databaseMetaData));
+  }
+
+  public SqlDialect getSqlDialect() {
+    return sqlDialect;
+  }
+
+  public SqlExpressionCalculator getConditionCalculator() {
+    return conditionCalculator;
+  }
+
+  /**
+   * @return 不可修改的类型处理器映射
+   */
+  public Map<String, SqlTypeHandler<?>> getTypeHandlerMap() {
+    return typeHandlerMap;
+  }
+
+}
@@ -3,9 +3,11 @@ package tech.wetech.flexmodel.sql;
 import tech.wetech.flexmodel.sql.type.SqlResultHandler;
 
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 /**
@@ -15,8 +17,21 @@ public interface SqlExecutor {
 
   <T> T queryForScalar(String sql, Map<String, Object> paramMap, Class<T> type);
 
+  /**
+   * 直接获取连接，连接保持到会话关闭
+   */
   Connection getConnection();
 
+  /**
+   * 占用连接执行操作，执行完毕后释放
+   */
+  <T> T withConnection(Function<Connection, T> action);
+
+  /**
+   * 会话连接管理，负责连接的获取、释放及事务
+   */
+  SqlConnectionManager getConnectionManager();
+
   <T> T queryForScalar(String sql, Class<T> type);
 
   Map<String, Object> queryForMap(String sql, Map<String, Object> paramMap);
@@ -31,6 +46,19 @@ public interface SqlExecutor {
 
   <T> Stream<T> queryForStream(String sql, Map<String, Object> paramMap, SqlResultHandler<T> sqlResultHandler);
 
+  /**
+   * 流式查询，返回的Stream关闭时释放结果集与语句，不关闭连接
+   * <p>
+   * 默认实现一次性查询全部结果
+   *
+   * @param fetchSize         每次从数据库抓取的行数，0表示使用驱动默认值
+   * @param disableAutoCommit 查询期间是否关闭自动提交，关闭Stream时恢复
+   */
+  default <T> Stream<T> queryForStream(String sql, Map<String, Object> paramMap, SqlResultHandler<T> sqlResultHandler,
+                                       int fetchSize, boolean disableAutoCommit) {
+    return queryForList(sql, paramMap, sqlResultHandler).stream();
+  }
+
   int update(String sql);
 
   int update(String sql, Map<String, Object> paramMap);
@@ -40,4 +68,32 @@ public interface SqlExecutor {
   int updateAndReturnFirstGeneratedKeys(String sql, Map<String, Object> paramMap, Consumer<Long> keyConsumer);
 
   int updateAndReturnGeneratedKeys(String sql, Map<String, Object> paramMap, String[] generatedKeyColumns, Consumer<List<?>> keyConsumer);
+
+  /**
+   * 批量执行同一语句，默认实现逐条执行
+   *
+   * @return 每组参数的影响行数
+   */
+  default int[] batchUpdate(String sql, List<Map<String, Object>> paramMaps) {
+    int[] counts = new int[paramMaps.size()];
+    for (int i = 0; i < paramMaps.size(); i++) {
+      counts[i] = update(sql, paramMaps.get(i));
+    }
+    return counts;
+  }
+
+  /**
+   * 批量执行同一语句并返回生成的主键，主键按参数顺序一次性回调，默认实现逐条执行
+   *
+   * @return 每组参数的影响行数
+   */
+  default int[] batchUpdateAndReturnGeneratedKeys(String sql, List<Map<String, Object>> paramMaps, String[] generatedKeyColumns, Consumer<List<?>> keyConsumer) {
+    int[] counts = new int[paramMaps.size()];
+    List<Object> keys = new ArrayList<>(paramMaps.size());
+    for (int i = 0; i < paramMaps.size(); i++) {
+      counts[i] = updateAndReturnGeneratedKeys(sql, paramMaps.get(i), generatedKeyColumns, keys::addAll);
+    }
+    keyConsumer.accept(keys);
+    return counts;
+  }
 }
@@ -2,6 +2,8 @@ package tech.wetech.flexmodel.sql;
 
 import tech.wetech.flexmodel.AbstractExpressionCalculator;
 import tech.wetech.flexmodel.ExpressionCalculatorException;
+import tech.wetech.flexmodel.JsonUtils;
+import tech.wetech.flexmodel.condition.ConditionNode;
 import tech.wetech.flexmodel.sql.dialect.SqlDialect;
 
 /**
@@ -20,4 +22,11 @@ public abstract class SqlExpressionCalculator extends AbstractExpressionCalculat
   }
 
   public abstract String calculateIncludeValue(String expression) throws ExpressionCalculatorException;
+
+  /**
+   * 直接渲染条件语法树，子类可覆盖以跳过 JSON 解析
+   */
+  public String calculateIncludeValue(ConditionNode condition) throws ExpressionCalculatorException {
+    return calculateIncludeValue(JsonUtils.toJsonString(condition.toMap()));
+  }
 }
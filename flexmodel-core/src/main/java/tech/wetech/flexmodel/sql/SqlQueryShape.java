@@ -0,0 +1,249 @@
+package tech.wetech.flexmodel.sql;
+
+import tech.wetech.flexmodel.condition.ConditionNode;
+import tech.wetech.flexmodel.condition.ConditionParser;
+import tech.wetech.flexmodel.condition.FieldConditionNode;
+import tech.wetech.flexmodel.condition.LogicalConditionNode;
+import tech.wetech.flexmodel.query.Query;
+import tech.wetech.flexmodel.sql.condition.SqlArrayParameter;
+
+import java.util.*;
+
+import static tech.wetech.flexmodel.condition.ConditionParser.toCollection;
+
+/**
+ * 查询形状：除参数值外决定渲染结果的全部信息，参数值按渲染顺序抽取为槽位。
+ * <p>
+ * 条件部分的抽取规则与 {@link tech.wetech.flexmodel.sql.condition.SqlConditionRenderer} 保持一致，
+ * 会影响 SQL 文本的值特征（集合大小、空值、CONTAINS 是否为简单值集合）计入形状。
+ *
+ * @author cjbi
+ */
+public final class SqlQueryShape {
+
+  private static final ConditionParser CONDITION_PARSER = new ConditionParser();
+
+  private final StringBuilder shape = new StringBuilder();
+  private final List<Object> values = new ArrayList<>();
+
+  private SqlQueryShape() {
+  }
+
+  /**
+   * @param bindPage 分页值是否作为绑定参数，否则内联到SQL中计入形状
+   */
+  static SqlQueryShape of(Query query, boolean bindPage) {
+    SqlQueryShape queryShape = new SqlQueryShape();
+    queryShape.appendQuery(query, bindPage);
+    return queryShape;
+  }
+
+  /**
+   * 查询的规范化键：形状加上带类型的参数值，分页值也作为参数值，键相同的查询结果相同
+   *
+   * @param query 查询
+   * @return 规范化键
+   */
+  public static String keyOf(Query query) {
+    if (query == null) {
+      return "-";
+    }
+    SqlQueryShape queryShape = of(query, true);
+    StringBuilder key = queryShape.shape.append('|');
+    for (Object value : queryShape.values) {
+      if (value == null) {
+        key.append('~');
+      } else {
+        queryShape.token(value.getClass().getSimpleName());
+        queryShape.token(String.valueOf(value));
+      }
+    }
+    return key.toString();
+  }
+
+  String getShape() {
+    return shape.toString();
+  }
+
+  List<Object> getValues() {
+    return values;
+  }
+
+  /**
+   * 校验实际渲染出的参数与抽取的槽位是否一一对应
+   */
+  boolean matches(List<Map.Entry<String, Object>> renderedParameters) {
+    if (renderedParameters.size() != values.size()) {
+      return false;
+    }
+    for (int i = 0; i < values.size(); i++) {
+      if (!Objects.equals(renderedParameters.get(i).getValue(), values.get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void appendQuery(Query query, boolean bindPage) {
+    Query.Projection projection = query.getProjection();
+    if (projection != null) {
+      shape.append("P");
+      projection.getFields().forEach((alias, call) -> {
+        token(alias);
+        appendCall(call);
+      });
+    }
+    Query.Joins joins = query.getJoins();
+    if (joins != null) {
+      for (Query.Join join : joins.getJoins()) {
+        shape.append("J");
+        token(join.getFrom());
+        token(join.getAs());
+        token(join.getLocalField());
+        token(join.getForeignField());
+        token(Objects.toString(join.getJoinType(), null));
+        appendCondition(join.getCondition(), join.getFilter());
+      }
+    }
+    shape.append("W");
+    appendCondition(query.getCondition(), query.getFilter());
+    Query.GroupBy groupBy = query.getGroupBy();
+    if (groupBy != null) {
+      shape.append("G");
+      groupBy.getFields().forEach(field -> token(field.name()));
+    }
+    Query.OrderBy sort = query.getSort();
+    if (sort != null) {
+      shape.append("O");
+      for (Query.OrderBy.Sort order : sort.getSorts()) {
+        token(order.getField().name());
+        token(order.getDirection().name());
+      }
+    }
+    Query.Page page = query.getPage();
+    if (page != null && bindPage) {
+      shape.append("L?");
+      values.add(page.getOffset());
+      values.add(page.getPageSize());
+    } else if (page != null) {
+      shape.append("L").append(page.getOffset()).append(',').append(page.getPageSize());
+    }
+  }
+
+  private void appendCall(Query.QueryCall call) {
+    if (call instanceof Query.QueryField field) {
+      shape.append("F");
+      token(field.name());
+    } else if (call instanceof Query.QueryFunc func) {
+      shape.append("C");
+      token(func.getOperator());
+      shape.append(func.getArgs().length);
+      for (Object arg : func.getArgs()) {
+        if (arg instanceof Query.QueryCall callArg) {
+          appendCall(callArg);
+        } else {
+          shape.append(arg instanceof String ? "S" : "A");
+          token(String.valueOf(arg));
+        }
+      }
+    } else if (call instanceof Query.QueryValue queryValue) {
+      shape.append("V");
+      token(String.valueOf(queryValue.value()));
+    } else {
+      shape.append("?");
+    }
+  }
+
+  private void appendCondition(ConditionNode condition, String filter) {
+    if (condition == null) {
+      if (filter == null) {
+        shape.append("-");
+        return;
+      }
+      condition = CONDITION_PARSER.parse(filter);
+    }
+    if (condition.isEmpty()) {
+      shape.append("E");
+      return;
+    }
+    appendNode(condition);
+  }
+
+  private void appendNode(ConditionNode node) {
+    if (node instanceof LogicalConditionNode logical) {
+      shape.append("(").append(logical.getOperator().name());
+      logical.getChildren().forEach(this::appendNode);
+      shape.append(")");
+    } else if (node instanceof FieldConditionNode field) {
+      shape.append("[");
+      token(field.getFieldPath());
+      shape.append(field.getOperator().name());
+      appendFieldValue(field);
+      shape.append("]");
+    } else {
+      throw new IllegalArgumentException("Unknown condition node: " + node);
+    }
+  }
+
+  private void appendFieldValue(FieldConditionNode field) {
+    Object value = field.getValue();
+    switch (field.getOperator()) {
+      case EQ, NE, GT, GTE, LT, LTE -> values.add(value);
+      case IN, NIN -> appendIn(value);
+      case BETWEEN -> appendCollection(toCollection(value));
+      case CONTAINS, NOT_CONTAINS -> {
+        if (value instanceof Collection<?> collection) {
+          boolean simple = collection.stream().allMatch(item -> item instanceof String || item instanceof Number);
+          shape.append(simple ? "s" : "l");
+          if (simple) {
+            appendCollection(collection);
+          } else {
+            shape.append(collection.size());
+            collection.forEach(item -> appendLike(item == null ? null : "%" + item + "%"));
+          }
+        } else {
+          appendLike(value == null ? null : "%" + value + "%");
+        }
+      }
+      case STARTS_WITH -> appendLike(value == null ? null : value + "%");
+      case ENDS_WITH -> appendLike(value == null ? null : "%" + value);
+      default -> {
+      }
+    }
+  }
+
+  private void appendIn(Object value) {
+    if (value instanceof SqlArrayParameter array) {
+      shape.append("a");
+      values.add(array);
+    } else {
+      appendCollection(toCollection(value));
+    }
+  }
+
+  private void appendCollection(Collection<?> collection) {
+    shape.append(collection.size());
+    values.addAll(collection);
+  }
+
+  private void appendLike(String pattern) {
+    if (pattern == null) {
+      shape.append("n");
+    } else {
+      shape.append("v");
+      values.add(pattern);
+    }
+  }
+
+  /**
+   * 以长度前缀写入标识，避免拼接歧义
+   */
+  private void token(String value) {
+    if (value == null) {
+      shape.append("~");
+    } else {
+      shape.append(value.length()).append(':').append(value);
+    }
+  }
+
+}
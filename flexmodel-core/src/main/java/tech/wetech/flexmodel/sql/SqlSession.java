@@ -4,28 +4,27 @@ import tech.wetech.flexmodel.reflect.LazyLoadInterceptor;
 import tech.wetech.flexmodel.service.DataService;
 import tech.wetech.flexmodel.session.AbstractSession;
 
-import java.sql.Connection;
 import java.sql.SQLException;
 
 /**
  * SQL数据库的Session实现
- * 负责SQL数据库的事务管理和连接管理
+ * 负责SQL数据库的事务管理和连接管理，连接在首次执行SQL时获取，未开启事务时执行完毕即归还
  *
  * @author cjbi
  */
 public class SqlSession extends AbstractSession {
 
-  private final Connection connection;
+  private final SqlConnectionManager connectionManager;
 
   public SqlSession(SqlContext sqlContext, DataService dataService) {
     super(sqlContext, dataService, new SqlSchemaService(sqlContext));
-    this.connection = sqlContext.getConnection();
+    this.connectionManager = sqlContext.getConnectionManager();
   }
 
   @Override
   public void startTransaction() {
     try {
-      this.connection.setAutoCommit(false);
+      connectionManager.begin();
     } catch (SQLException e) {
       throw new RuntimeException(e);
     } finally {
@@ -36,10 +35,7 @@ public class SqlSession extends AbstractSession {
   @Override
   public void commit() {
     try {
-      if (!connection.getAutoCommit()) {
-        connection.commit();
-      }
-      this.connection.setAutoCommit(true);
+      connectionManager.commit();
     } catch (SQLException e) {
       throw new RuntimeException(e);
     } finally {
@@ -50,8 +46,7 @@ public class SqlSession extends AbstractSession {
   @Override
   public void rollback() {
     try {
-      connection.rollback();
-      this.connection.setAutoCommit(true);
+      connectionManager.rollback();
     } catch (SQLException e) {
       throw new RuntimeException(e);
     } finally {
@@ -62,10 +57,7 @@ public class SqlSession extends AbstractSession {
   @Override
   public void close() {
     try {
-      if (!connection.getAutoCommit()) {
-        connection.commit();
-      }
-      connection.close();
+      connectionManager.close();
     } catch (SQLException e) {
       throw new RuntimeException(e);
     } finally {
@@ -76,10 +68,6 @@ public class SqlSession extends AbstractSession {
 
   @Override
   public boolean isClosed() {
-    try {
-      return connection.isClosed();
-    } catch (SQLException e) {
-      throw new RuntimeException(e);
-    }
+    return connectionManager.isClosed();
   }
 }
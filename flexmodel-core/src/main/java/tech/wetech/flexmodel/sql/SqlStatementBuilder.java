@@ -1,6 +1,7 @@
 package tech.wetech.flexmodel.sql;
 
 import tech.wetech.flexmodel.ExpressionCalculatorException;
+import tech.wetech.flexmodel.condition.ConditionNode;
 import tech.wetech.flexmodel.model.EntityDefinition;
 import tech.wetech.flexmodel.model.ModelDefinition;
 import tech.wetech.flexmodel.model.field.RelationField;
@@ -18,6 +19,12 @@ import static tech.wetech.flexmodel.query.Query.Join.JoinType.LEFT_JOIN;
  */
 public class SqlStatementBuilder extends BaseService {
 
+  /**
+   * 分页参数名，条件参数名均以数字结尾，不会冲突
+   */
+  private static final String PAGE_OFFSET_PARAMETER = "page_offset";
+  private static final String PAGE_SIZE_PARAMETER = "page_size";
+
   protected final SqlContext sqlContext;
 
   public SqlStatementBuilder(SqlContext sqlContext) {
@@ -26,10 +33,38 @@ public class SqlStatementBuilder extends BaseService {
   }
 
   public Pair<String, Map<String, Object>> toQuerySqlWithPrepared(String modelName, Query query) {
-    return buildQuerySql(modelName, query);
+    SqlStatementCache statementCache = sqlContext.getStatementCache();
+    // 自定义条件计算器的渲染规则未知，会话内的别名模型也不能跨会话共享，均不走缓存
+    if (statementCache == null
+        || sqlContext.getConditionCalculator().getClass() != DefaultSqlExpressionCalculator.class
+        || sqlContext.isAliasModel(modelName)) {
+      return buildQuerySql(modelName, query, null);
+    }
+    SqlQueryShape shape;
+    try {
+      shape = SqlQueryShape.of(query, sqlContext.getSqlDialect().supportsVariableLimit());
+    } catch (RuntimeException e) {
+      // 无法解析的条件交由常规渲染抛出异常
+      return buildQuerySql(modelName, query, null);
+    }
+    SqlStatementCache.Key key = statementCache.keyOf(sqlContext.getSchemaName(), modelName, shape.getShape());
+    SqlStatementCache.Template template = statementCache.get(key);
+    if (template != null) {
+      if (query.getJoins() != null) {
+        // 注册连接别名模型，结果映射依赖
+        validateQuery(modelName, query);
+      }
+      return Pair.of(template.sql(), template.bind(shape.getValues()));
+    }
+    List<Map.Entry<String, Object>> renderedParameters = new ArrayList<>();
+    Pair<String, Map<String, Object>> pair = buildQuerySql(modelName, query, renderedParameters);
+    if (shape.matches(renderedParameters)) {
+      statementCache.put(key, SqlStatementCache.Template.of(pair.first(), renderedParameters));
+    }
+    return pair;
   }
 
-  private Pair<String, Map<String, Object>> buildQuerySql(String modelName, Query query) {
+  private Pair<String, Map<String, Object>> buildQuerySql(String modelName, Query query, List<Map.Entry<String, Object>> renderedParameters) {
     validateQuery(modelName, query);
     Map<String, Object> params = new HashMap<>();
     ModelDefinition model = (ModelDefinition) sqlContext.getModelDefinition(modelName);
@@ -40,22 +75,35 @@ public class SqlStatementBuilder extends BaseService {
     Map<String, String> projectionMap = new HashMap<>();
     appendProjection(modelName, query, model, projectionMap, sqlBuilder);
     appendFromClause(modelName, sqlBuilder);
-    appendJoins(modelName, query, model, sqlBuilder, params, true);
-    appendWhereClause(query, sqlBuilder, params, true);
+    appendJoins(modelName, query, model, sqlBuilder, params, renderedParameters, true);
+    appendWhereClause(query, sqlBuilder, params, renderedParameters, true);
     appendGroupByClause(query, projectionMap, sqlBuilder);
     appendOrderByClause(query, sqlBuilder);
-    appendLimitClause(query, sqlBuilder);
+    appendLimitClause(query, sqlBuilder, params, renderedParameters);
     return Pair.of(sqlBuilder.toString(), params);
   }
 
-  private void appendLimitClause(Query query, StringBuilder sqlBuilder) {
+  private void appendLimitClause(Query query, StringBuilder sqlBuilder, Map<String, Object> params, List<Map.Entry<String, Object>> renderedParameters) {
     SqlDialect sqlDialect = sqlContext.getSqlDialect();
-    if (query.getPage() != null) {
-      String limitString = sqlDialect.getLimitString(
-        sqlBuilder.toString(),
-        Objects.toString(query.getPage().getOffset()),
-        Objects.toString(query.getPage().getPageSize())
-      );
+    Query.Page page = query.getPage();
+    if (page != null) {
+      String limitString;
+      if (sqlDialect.supportsVariableLimit()) {
+        // 分页值作为绑定参数，不同页使用同一条SQL
+        limitString = sqlDialect.getLimitString(sqlBuilder.toString(), ":" + PAGE_OFFSET_PARAMETER, ":" + PAGE_SIZE_PARAMETER);
+        params.put(PAGE_OFFSET_PARAMETER, page.getOffset());
+        params.put(PAGE_SIZE_PARAMETER, page.getPageSize());
+        if (renderedParameters != null) {
+          renderedParameters.add(new AbstractMap.SimpleImmutableEntry<>(PAGE_OFFSET_PARAMETER, page.getOffset()));
+          renderedParameters.add(new AbstractMap.SimpleImmutableEntry<>(PAGE_SIZE_PARAMETER, page.getPageSize()));
+        }
+      } else {
+        limitString = sqlDialect.getLimitString(
+          sqlBuilder.toString(),
+          Objects.toString(page.getOffset()),
+          Objects.toString(page.getPageSize())
+        );
+      }
       sqlBuilder.setLength(0);
       sqlBuilder.append(limitString);
     }
@@ -85,19 +133,23 @@ public class SqlStatementBuilder extends BaseService {
     }
   }
 
-  private void appendWhereClause(Query query, StringBuilder sqlBuilder, Map<String, Object> params, boolean prepared) {
-    if (query.getFilter() != null) {
+  private void appendWhereClause(Query query, StringBuilder sqlBuilder, Map<String, Object> params, List<Map.Entry<String, Object>> renderedParameters, boolean prepared) {
+    ConditionNode condition = query.getCondition();
+    if (condition != null || query.getFilter() != null) {
       if (prepared) {
-        SqlClauseResult sqlClauseResult = toSqlWhereClauseWithPrepared(query.getFilter());
+        SqlClauseResult sqlClauseResult = condition != null
+          ? toSqlWhereClauseWithPrepared(condition)
+          : toSqlWhereClauseWithPrepared(query.getFilter());
         sqlBuilder.append("\nwhere (").append(sqlClauseResult.sqlClause()).append(")");
         params.putAll(sqlClauseResult.args());
+        recordParameters(renderedParameters, sqlClauseResult);
       } else {
-        sqlBuilder.append("\nwhere (").append(toSqlWhereClause(query.getFilter())).append(")");
+        sqlBuilder.append("\nwhere (").append(condition != null ? toSqlWhereClause(condition) : toSqlWhereClause(query.getFilter())).append(")");
       }
     }
   }
 
-  private void appendJoins(String modelName, Query query, ModelDefinition model, StringBuilder sqlBuilder, Map<String, Object> params, boolean prepared) {
+  private void appendJoins(String modelName, Query query, ModelDefinition model, StringBuilder sqlBuilder, Map<String, Object> params, List<Map.Entry<String, Object>> renderedParameters, boolean prepared) {
     Query.Joins joins = query.getJoins();
     if (joins != null) {
       StringBuilder joinCause = new StringBuilder();
@@ -120,13 +172,17 @@ public class SqlStatementBuilder extends BaseService {
           joinCause.append(joinTableName).append(" \n on \n").append(toFullColumnQuoteString(modelName, localField)).append("=").append(toFullColumnQuoteString(joiner.getAs(), foreignField));
         }
         StringBuilder joinCondition = new StringBuilder();
-        if (joiner.getFilter() != null) {
+        ConditionNode joinFilter = joiner.getCondition();
+        if (joinFilter != null || joiner.getFilter() != null) {
           if (prepared) {
-            SqlClauseResult leftSqlWhere = toSqlWhereClauseWithPrepared(joiner.getFilter());
+            SqlClauseResult leftSqlWhere = joinFilter != null
+              ? toSqlWhereClauseWithPrepared(joinFilter)
+              : toSqlWhereClauseWithPrepared(joiner.getFilter());
             joinCondition.append(" and ").append(leftSqlWhere.sqlClause());
             params.putAll(leftSqlWhere.args());
+            recordParameters(renderedParameters, leftSqlWhere);
           } else {
-            joinCondition.append(" and ").append(toSqlWhereClause(joiner.getFilter()));
+            joinCondition.append(" and ").append(joinFilter != null ? toSqlWhereClause(joinFilter) : toSqlWhereClause(joiner.getFilter()));
           }
           joinCause.append(joinCondition);
         }
@@ -135,6 +191,12 @@ public class SqlStatementBuilder extends BaseService {
     }
   }
 
+  private void recordParameters(List<Map.Entry<String, Object>> renderedParameters, SqlClauseResult sqlClauseResult) {
+    if (renderedParameters != null) {
+      sqlClauseResult.args().forEach((name, value) -> renderedParameters.add(new AbstractMap.SimpleImmutableEntry<>(name, value)));
+    }
+  }
+
   private void appendFromClause(String modelName, StringBuilder sqlBuilder) {
     String physicalFromTableName = toPhysicalTableNameQuoteString(modelName, modelName);
     sqlBuilder.append("\nfrom ").append(physicalFromTableName);
@@ -193,6 +255,24 @@ public class SqlStatementBuilder extends BaseService {
     }
   }
 
+  private String toSqlWhereClause(ConditionNode condition) {
+    SqlExpressionCalculator conditionCalculator = sqlContext.getConditionCalculator();
+    try {
+      return conditionCalculator.calculateIncludeValue(condition);
+    } catch (ExpressionCalculatorException e) {
+      throw new SqlExecutionException("Calculate sql where error: " + e.getMessage(), e);
+    }
+  }
+
+  private SqlClauseResult toSqlWhereClauseWithPrepared(ConditionNode condition) {
+    SqlExpressionCalculator conditionCalculator = sqlContext.getConditionCalculator();
+    try {
+      return conditionCalculator.calculate(condition);
+    } catch (ExpressionCalculatorException e) {
+      throw new SqlExecutionException("Calculate sql where error: " + e.getMessage(), e);
+    }
+  }
+
   private SqlClauseResult toSqlWhereClauseWithPrepared(String condition) {
     SqlExpressionCalculator conditionCalculator = sqlContext.getConditionCalculator();
     try {
@@ -0,0 +1,96 @@
+package tech.wetech.flexmodel.sql;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 查询语句模板缓存，按(schema, 模型, 模型版本, 查询形状)缓存渲染好的SQL及参数名，
+ * 同一形状的查询只需按顺序绑定参数值，生成的SQL文本保持稳定，便于命中驱动和数据库的语句缓存。
+ * <p>
+ * 模型版本以schema为单位维护，模型注册或注销后整体递增，旧版本的模板不再被命中。
+ *
+ * @author cjbi
+ */
+public class SqlStatementCache {
+
+  private final int maxSize;
+  private final Map<Key, Template> templates;
+  private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+  private final AtomicLong epoch = new AtomicLong();
+
+  public SqlStatementCache(int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be greater than 0");
+    }
+    this.maxSize = maxSize;
+    this.templates = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Template> eldest) {
+        return size() > SqlStatementCache.this.maxSize;
+      }
+    };
+  }
+
+  Key keyOf(String schemaName, String modelName, String shape) {
+    AtomicLong version = versions.get(schemaName);
+    return new Key(schemaName, modelName, epoch.get() + (version != null ? version.get() : 0L), shape);
+  }
+
+  Template get(Key key) {
+    synchronized (templates) {
+      return templates.get(key);
+    }
+  }
+
+  void put(Key key, Template template) {
+    synchronized (templates) {
+      templates.put(key, template);
+    }
+  }
+
+  /**
+   * 模型变更后调用，使该schema下已缓存的模板失效
+   */
+  public void invalidate(String schemaName) {
+    versions.computeIfAbsent(schemaName, k -> new AtomicLong()).incrementAndGet();
+    synchronized (templates) {
+      templates.keySet().removeIf(key -> key.schemaName().equals(schemaName));
+    }
+  }
+
+  public void invalidateAll() {
+    epoch.incrementAndGet();
+    synchronized (templates) {
+      templates.clear();
+    }
+  }
+
+  public int size() {
+    synchronized (templates) {
+      return templates.size();
+    }
+  }
+
+  record Key(String schemaName, String modelName, long modelVersion, String shape) {
+  }
+
+  record Template(String sql, String[] parameterNames) {
+
+    static Template of(String sql, List<Map.Entry<String, Object>> parameters) {
+      return new Template(sql, parameters.stream().map(Map.Entry::getKey).toArray(String[]::new));
+    }
+
+    Map<String, Object> bind(List<Object> values) {
+      Map<String, Object> params = new HashMap<>();
+      for (int i = 0; i < parameterNames.length; i++) {
+        params.put(parameterNames[i], values.get(i));
+      }
+      return params;
+    }
+  }
+
+}
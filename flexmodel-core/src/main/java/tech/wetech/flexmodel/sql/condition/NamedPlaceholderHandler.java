@@ -1,14 +1,14 @@
 package tech.wetech.flexmodel.sql.condition;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
- * 以命名参数方式渲染占位符。
+ * 以命名参数方式渲染占位符，参数按渲染顺序保存。
  */
 public class NamedPlaceholderHandler implements PlaceholderHandler {
 
-  private final Map<String, Object> parameters = new HashMap<>();
+  private final Map<String, Object> parameters = new LinkedHashMap<>();
   private int placeholderIndex;
 
   @Override
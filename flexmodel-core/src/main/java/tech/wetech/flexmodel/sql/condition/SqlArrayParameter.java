@@ -0,0 +1,30 @@
+package tech.wetech.flexmodel.sql.condition;
+
+import java.util.Arrays;
+
+/**
+ * 以单个数组参数绑定的 IN 列表值，渲染为 {@code column = ANY(?)}，
+ * 无论集合大小SQL文本都保持不变。仅用于列类型已知的条件，如关联查询的外键。
+ *
+ * @param elementTypeName 数据库数组元素类型名称
+ * @param elements        元素值
+ */
+public record SqlArrayParameter(String elementTypeName, Object[] elements) {
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof SqlArrayParameter that
+           && elementTypeName.equals(that.elementTypeName)
+           && Arrays.equals(elements, that.elements);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * elementTypeName.hashCode() + Arrays.hashCode(elements);
+  }
+
+  @Override
+  public String toString() {
+    return elementTypeName + Arrays.toString(elements);
+  }
+}
@@ -68,18 +68,22 @@ public final class SqlConditionRenderer {
       case GTE -> column + " >= " + placeholderHandler.handle(column, value);
       case LT -> column + " < " + placeholderHandler.handle(column, value);
       case LTE -> column + " <= " + placeholderHandler.handle(column, value);
-      case IN -> renderIn(column, value, false, placeholderHandler);
-      case NIN -> renderIn(column, value, true, placeholderHandler);
+      case IN -> renderIn(column, value, false, context);
+      case NIN -> renderIn(column, value, true, context);
       case BETWEEN -> renderBetween(column, value, placeholderHandler);
-      case CONTAINS -> renderContains(column, value, false, placeholderHandler);
-      case NOT_CONTAINS -> renderContains(column, value, true, placeholderHandler);
+      case CONTAINS -> renderContains(column, value, false, context);
+      case NOT_CONTAINS -> renderContains(column, value, true, context);
       case STARTS_WITH -> renderLike(column, value, "suffix", false, placeholderHandler);
       case ENDS_WITH -> renderLike(column, value, "prefix", false, placeholderHandler);
       default -> throw new IllegalStateException("Unsupported operator: " + field.getOperator());
     };
   }
 
-  private static String renderIn(String column, Object value, boolean negate, PlaceholderHandler placeholderHandler) {
+  private static String renderIn(String column, Object value, boolean negate, SqlRenderContext context) {
+    PlaceholderHandler placeholderHandler = context.getPlaceholderHandler();
+    if (value instanceof SqlArrayParameter array) {
+      return column + (negate ? " <> ALL(" : " = ANY(") + placeholderHandler.handle(column, array) + ")";
+    }
     Collection<?> collection = toCollection(value);
     if (collection.isEmpty()) {
       return negate ? "1=1" : "1=0";
@@ -102,7 +106,8 @@ public final class SqlConditionRenderer {
     return column + " BETWEEN " + start + " AND " + end;
   }
 
-  private static String renderContains(String column, Object value, boolean negate, PlaceholderHandler placeholderHandler) {
+  private static String renderContains(String column, Object value, boolean negate, SqlRenderContext context) {
+    PlaceholderHandler placeholderHandler = context.getPlaceholderHandler();
     Collection<?> collection = value instanceof Collection<?> ? (Collection<?>) value : null;
     if (collection != null) {
       if (collection.isEmpty()) {
@@ -110,7 +115,7 @@ public final class SqlConditionRenderer {
       }
       boolean simple = collection.stream().allMatch(item -> item instanceof String || item instanceof Number);
       if (simple) {
-        return renderIn(column, collection, negate, placeholderHandler);
+        return renderIn(column, collection, negate, context);
       }
       return collection.stream()
         .map(item -> renderLike(column, item, "both", negate, placeholderHandler))
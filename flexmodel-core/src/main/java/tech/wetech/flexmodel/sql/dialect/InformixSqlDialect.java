@@ -98,6 +98,14 @@ public class InformixSqlDialect extends SqlDialect {
     return "drop";
   }
 
+  /**
+   * SKIP/FIRST 只接受整数常量，不能使用绑定变量
+   */
+  @Override
+  public boolean supportsVariableLimit() {
+    return false;
+  }
+
   @Override
   public String getLimitString(String sql, String offsetPlaceholder, String limitPlaceHolder) {
     return "select * from (select "
@@ -158,4 +158,19 @@ public class MariaDBSqlDialect extends SqlDialect {
     return null;
   }
 
+  @Override
+  public boolean supportsBatchGeneratedKeys() {
+    return true;
+  }
+
+  @Override
+  public int getMaxInsertRows() {
+    return 1000;
+  }
+
+  @Override
+  public int getMaxBindParameters() {
+    return 65535;
+  }
+
 }
@@ -173,4 +173,25 @@ public class MySQLSqlDialect extends SqlDialect {
     return null;
   }
 
+  @Override
+  public boolean supportsBatchGeneratedKeys() {
+    return true;
+  }
+
+  @Override
+  public int getMaxInsertRows() {
+    return 1000;
+  }
+
+  @Override
+  public int getMaxBindParameters() {
+    return 65535;
+  }
+
+  @Override
+  public int getStreamingFetchSize(int fetchSize) {
+    // Connector/J 只有在 fetchSize 为 Integer.MIN_VALUE 时才逐行读取
+    return Integer.MIN_VALUE;
+  }
+
 }
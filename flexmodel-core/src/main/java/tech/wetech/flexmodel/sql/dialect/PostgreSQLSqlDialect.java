@@ -110,4 +110,50 @@ public class PostgreSQLSqlDialect extends SqlDialect {
         return "alter column";
     }
 
+  @Override
+  public boolean supportsBatchGeneratedKeys() {
+    return true;
+  }
+
+  @Override
+  public int getMaxInsertRows() {
+    return 1000;
+  }
+
+  @Override
+  public int getMaxBindParameters() {
+    return 32767;
+  }
+
+  @Override
+  public boolean requiresManualCommitForStreaming() {
+    return true;
+  }
+
+  /**
+   * 以数组绑定时整个 IN 列表只占一个参数，仅受绑定参数上限约束
+   */
+  @Override
+  public int getMaxInListSize() {
+    return getMaxBindParameters();
+  }
+
+  @Override
+  public boolean supportsArrayBinding() {
+    return true;
+  }
+
+  @Override
+  public String getArrayElementTypeName(int sqlTypeCode) {
+    return switch (sqlTypeCode) {
+      case Types.BIGINT -> "int8";
+      case Types.INTEGER -> "int4";
+      case Types.SMALLINT -> "int2";
+      case Types.VARCHAR -> "varchar";
+      case Types.NUMERIC, Types.DECIMAL -> "numeric";
+      case Types.DOUBLE -> "float8";
+      default -> null;
+    };
+  }
+
 }
@@ -98,4 +98,15 @@ public class SQLiteSqlDialect extends SqlDialect {
   public boolean supportsNotNullWithoutDefaultValue() {
     return false;
   }
+
+  @Override
+  public int getMaxInsertRows() {
+    return 500;
+  }
+
+  @Override
+  public int getMaxBindParameters() {
+    return 999;
+  }
+
 }
@@ -396,6 +396,15 @@ public abstract class SqlDialect {
     return getLimitOffsetRowsString(sql, offsetPlaceholder, limitPlaceHolder);
   }
 
+  /**
+   * Does this dialect support bind variables (i.e., {@code ?} or named parameters) for the limit/offset?
+   *
+   * @return {@code true} if the limit/offset values can be bound as parameters
+   */
+  public boolean supportsVariableLimit() {
+    return true;
+  }
+
   protected String getLimitOffsetRowsString(String sql, String offset, String limit) {
     StringBuilder builder = new StringBuilder(sql);
     if (limit != null) {
@@ -464,6 +473,69 @@ public abstract class SqlDialect {
     return false;
   }
 
+  /**
+   * 批量插入(executeBatch)时驱动是否能按行返回自增主键
+   */
+  public boolean supportsBatchGeneratedKeys() {
+    return false;
+  }
+
+  /**
+   * 流式查询时实际传给JDBC驱动的fetchSize
+   *
+   * @param fetchSize 期望的每次抓取行数
+   */
+  public int getStreamingFetchSize(int fetchSize) {
+    return fetchSize;
+  }
+
+  /**
+   * 流式查询是否需要关闭自动提交才能使用服务端游标
+   */
+  public boolean requiresManualCommitForStreaming() {
+    return false;
+  }
+
+  /**
+   * 单条多行VALUES插入语句允许的最大行数，返回0表示不支持多行VALUES插入，使用JDBC批量执行
+   */
+  public int getMaxInsertRows() {
+    return 0;
+  }
+
+  /**
+   * 单条语句允许的最大绑定参数个数
+   */
+  public int getMaxBindParameters() {
+    return 2000;
+  }
+
+  /**
+   * 单个 IN 列表允许的最大元素个数，关联数据按此大小分批查询，默认不超过Oracle的1000个限制及绑定参数上限
+   *
+   * @return 最大元素个数
+   */
+  public int getMaxInListSize() {
+    return Math.min(1000, getMaxBindParameters());
+  }
+
+  /**
+   * 是否支持以数组参数绑定 IN 列表，即 {@code column = ANY(?)}
+   */
+  public boolean supportsArrayBinding() {
+    return false;
+  }
+
+  /**
+   * 数组参数的元素类型名称
+   *
+   * @param sqlTypeCode 元素所在列的JDBC类型
+   * @return 数据库类型名称，不支持该类型时返回null
+   */
+  public String getArrayElementTypeName(int sqlTypeCode) {
+    return null;
+  }
+
   public String getDefaultValueString(int sqlTypeCode, String defaultValue) {
     if (defaultValue == null) {
       return null;
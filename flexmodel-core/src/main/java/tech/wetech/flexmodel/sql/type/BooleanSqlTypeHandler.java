@@ -21,4 +21,9 @@ public class BooleanSqlTypeHandler extends BooleanTypeHandler implements SqlType
   public Boolean getNullableResult(ResultSet rs, String columnName, Field field) throws SQLException {
     return rs.getObject(columnName, Boolean.class);
   }
+
+  @Override
+  public Boolean getNullableResult(ResultSet rs, int columnIndex, Field field) throws SQLException {
+    return rs.getObject(columnIndex, Boolean.class);
+  }
 }
@@ -26,4 +26,13 @@ public class DateSqlTypeHandler extends DateTypeHandler implements SqlTypeHandle
       return null;
     }
   }
+
+  @Override
+  public LocalDate getNullableResult(ResultSet rs, int columnIndex, Field field) throws SQLException {
+    try {
+      return rs.getObject(columnIndex, LocalDate.class);
+    } catch (NullPointerException e) {
+      return null;
+    }
+  }
 }
@@ -26,4 +26,13 @@ public class DateTimeSqlTypeHandler extends DateTimeTypeHandler implements SqlTy
       return null;
     }
   }
+
+  @Override
+  public LocalDateTime getNullableResult(ResultSet rs, int columnIndex, Field field) throws SQLException {
+    try {
+      return rs.getObject(columnIndex, LocalDateTime.class);
+    } catch (NullPointerException e) {
+      return null;
+    }
+  }
 }
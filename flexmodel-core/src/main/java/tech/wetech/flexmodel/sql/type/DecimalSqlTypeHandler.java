@@ -19,7 +19,15 @@ public class DecimalSqlTypeHandler extends DecimalTypeHandler implements SqlType
 
   @Override
   public Double getNullableResult(ResultSet rs, String columnName, Field field) throws SQLException {
-    Object number = rs.getObject(columnName);
+    return toResult(rs.getObject(columnName));
+  }
+
+  @Override
+  public Double getNullableResult(ResultSet rs, int columnIndex, Field field) throws SQLException {
+    return toResult(rs.getObject(columnIndex));
+  }
+
+  private Double toResult(Object number) {
     if (number == null) {
       return null;
     }
@@ -0,0 +1,223 @@
+package tech.wetech.flexmodel.sql.type;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import tech.wetech.flexmodel.JsonUtils;
+import tech.wetech.flexmodel.annotation.ModelField;
+import tech.wetech.flexmodel.annotation.ModelRelation;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.*;
+import java.util.*;
+
+/**
+ * 实体行映射器，每个实体类只解析一次，通过 MethodHandle 将列值直接写入实体字段
+ * <p>
+ * 列名与 Jackson 反序列化一致：优先取 {@link JsonProperty} 的值，其次为 {@link ModelField} 的值，最后为字段名，
+ * {@link JsonAlias} 的值作为备选列名；{@link ModelRelation}、静态、final 及 transient 字段不参与映射。
+ * 没有无参构造器的类（如 record），以及类、方法或字段上有其他 Jackson 注解的类无法直接映射，{@link #of(Class)} 返回 null，
+ * 由调用方通过 Jackson 转换。
+ *
+ * @author cjbi
+ */
+public final class EntityRowMapper<T> {
+
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+  private static final ClassValue<EntityRowMapper<?>> MAPPERS = new ClassValue<>() {
+    @Override
+    protected EntityRowMapper<?> computeValue(Class<?> type) {
+      return create(type);
+    }
+  };
+
+  private final Class<T> type;
+  private final MethodHandle constructor;
+  private final Property[] properties;
+
+  private EntityRowMapper(Class<T> type, MethodHandle constructor, Property[] properties) {
+    this.type = type;
+    this.constructor = constructor;
+    this.properties = properties;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> EntityRowMapper<T> of(Class<T> type) {
+    return (EntityRowMapper<T>) MAPPERS.get(type);
+  }
+
+  public Class<T> getType() {
+    return type;
+  }
+
+  public int size() {
+    return properties.length;
+  }
+
+  /**
+   * 第index个属性对应的列名
+   */
+  public String getColumnName(int index) {
+    return properties[index].columnNames[0];
+  }
+
+  /**
+   * 第index个属性对应的列名及别名，按优先级排列
+   */
+  public List<String> getColumnNames(int index) {
+    return List.of(properties[index].columnNames);
+  }
+
+  @SuppressWarnings("unchecked")
+  public T newInstance() {
+    try {
+      return (T) constructor.invokeExact();
+    } catch (Throwable e) {
+      throw new TypeException("Instantiate type fail: " + type.getName(), e);
+    }
+  }
+
+  /**
+   * 为第index个属性赋值，值类型与字段类型不一致时进行转换
+   */
+  public void setValue(T target, int index, Object value) {
+    Property property = properties[index];
+    if (value == null && property.primitive) {
+      return;
+    }
+    try {
+      property.setter.invokeExact((Object) target, property.convert(value));
+    } catch (TypeException e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new TypeException("Mapping field fail: " + type.getName() + "." + property.fieldName + ", " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * 读取实体的属性值，键为属性对应的列名
+   */
+  public Map<String, Object> toRow(T source) {
+    Map<String, Object> row = new HashMap<>(properties.length * 2);
+    for (Property property : properties) {
+      try {
+        row.put(property.columnNames[0], property.getter.invokeExact((Object) source));
+      } catch (Throwable e) {
+        throw new TypeException("Read field fail: " + type.getName() + "." + property.fieldName + ", " + e.getMessage(), e);
+      }
+    }
+    return row;
+  }
+
+  private static EntityRowMapper<?> create(Class<?> type) {
+    if (type.isRecord() || type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+      return null;
+    }
+    try {
+      Constructor<?> declaredConstructor = type.getDeclaredConstructor();
+      declaredConstructor.setAccessible(true);
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      MethodHandle constructor = lookup.unreflectConstructor(declaredConstructor).asType(CONSTRUCTOR_TYPE);
+      List<Property> properties = new ArrayList<>();
+      Set<String> fieldNames = new HashSet<>();
+      for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+        if (hasJacksonAnnotation(c, Set.of())) {
+          return null;
+        }
+        for (Method method : c.getDeclaredMethods()) {
+          // 注解在访问方法上的映射规则交给 Jackson 处理
+          if (!Modifier.isStatic(method.getModifiers()) && hasJacksonAnnotation(method, Set.of())) {
+            return null;
+          }
+        }
+        for (Field field : c.getDeclaredFields()) {
+          int modifiers = field.getModifiers();
+          if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || Modifier.isTransient(modifiers)
+              || field.isSynthetic() || field.isAnnotationPresent(ModelRelation.class)) {
+            continue;
+          }
+          if (hasJacksonAnnotation(field, Set.of(JsonProperty.class, JsonAlias.class))) {
+            return null;
+          }
+          JsonProperty jsonProperty = field.getAnnotation(JsonProperty.class);
+          if (jsonProperty != null && jsonProperty.access() == JsonProperty.Access.READ_ONLY) {
+            continue;
+          }
+          if (!fieldNames.add(field.getName())) {
+            // 子类字段优先
+            continue;
+          }
+          field.setAccessible(true);
+          MethodHandle setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+          MethodHandle getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+          properties.add(new Property(field.getName(), resolveColumnNames(field, jsonProperty), field.getType(), field.getGenericType(), setter, getter));
+        }
+      }
+      return new EntityRowMapper<>(type, constructor, properties.toArray(new Property[0]));
+    } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  private static String[] resolveColumnNames(Field field, JsonProperty jsonProperty) {
+    Set<String> columnNames = new LinkedHashSet<>();
+    ModelField modelField = field.getAnnotation(ModelField.class);
+    if (jsonProperty != null && !jsonProperty.value().isEmpty()) {
+      columnNames.add(jsonProperty.value());
+    } else if (modelField != null && !modelField.value().isEmpty()) {
+      columnNames.add(modelField.value());
+    } else {
+      columnNames.add(field.getName());
+    }
+    JsonAlias jsonAlias = field.getAnnotation(JsonAlias.class);
+    if (jsonAlias != null) {
+      columnNames.addAll(Arrays.asList(jsonAlias.value()));
+    }
+    return columnNames.toArray(new String[0]);
+  }
+
+  private static boolean hasJacksonAnnotation(AnnotatedElement element, Set<Class<? extends Annotation>> supported) {
+    for (Annotation annotation : element.getDeclaredAnnotations()) {
+      Class<? extends Annotation> annotationType = annotation.annotationType();
+      if (annotationType.getName().startsWith("com.fasterxml.jackson.") && !supported.contains(annotationType)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static final class Property {
+    private final String fieldName;
+    private final String[] columnNames;
+    private final Class<?> boxedType;
+    private final Type genericType;
+    private final boolean primitive;
+    private final boolean simple;
+    private final MethodHandle setter;
+    private final MethodHandle getter;
+
+    private Property(String fieldName, String[] columnNames, Class<?> rawType, Type genericType, MethodHandle setter, MethodHandle getter) {
+      this.fieldName = fieldName;
+      this.columnNames = columnNames;
+      this.boxedType = rawType.isPrimitive() ? MethodType.methodType(rawType).wrap().returnType() : rawType;
+      this.genericType = genericType;
+      this.primitive = rawType.isPrimitive();
+      this.simple = genericType instanceof Class;
+      this.setter = setter;
+      this.getter = getter;
+    }
+
+    private Object convert(Object value) {
+      if (value == null || (simple && boxedType.isInstance(value))) {
+        return value;
+      }
+      return JsonUtils.convertValue(value, genericType);
+    }
+  }
+
+}
@@ -41,8 +41,15 @@ public class EnumSqlTypeHandler extends EnumTypeHandler implements SqlTypeHandle
 
   @Override
   public Object getNullableResult(ResultSet rs, String columnName, Field field) throws SQLException {
-    EnumRefField enumField = (EnumRefField) field;
-    String value = rs.getString(columnName);
+    return toResult((EnumRefField) field, rs.getString(columnName));
+  }
+
+  @Override
+  public Object getNullableResult(ResultSet rs, int columnIndex, Field field) throws SQLException {
+    return toResult((EnumRefField) field, rs.getString(columnIndex));
+  }
+
+  private Object toResult(EnumRefField enumField, String value) {
     if (enumField.isMultiple()) {
       if (value == null) {
         return List.of();
@@ -19,7 +19,15 @@ public class IntSqlTypeHandler extends IntTypeHandler implements SqlTypeHandler<
 
   @Override
   public Integer getNullableResult(ResultSet rs, String columnName, Field field) throws SQLException {
-    Object value = rs.getObject(columnName);
+    return toResult(rs.getObject(columnName));
+  }
+
+  @Override
+  public Integer getNullableResult(ResultSet rs, int columnIndex, Field field) throws SQLException {
+    return toResult(rs.getObject(columnIndex));
+  }
+
+  private Integer toResult(Object value) {
     if (value == null) {
       return null;
     }
@@ -24,7 +24,15 @@ public class JsonSqlTypeHandler extends JsonTypeHandler implements SqlTypeHandle
 
   @Override
   public Object getNullableResult(ResultSet rs, String columnName, Field field) throws SQLException {
-    String jsonString = rs.getString(columnName);
+    return toResult(rs.getString(columnName));
+  }
+
+  @Override
+  public Object getNullableResult(ResultSet rs, int columnIndex, Field field) throws SQLException {
+    return toResult(rs.getString(columnIndex));
+  }
+
+  private Object toResult(String jsonString) {
     try {
       if (jsonString == null) {
         return null;
@@ -38,4 +38,13 @@ public class LegacyDateSqlTypeHandler implements SqlTypeHandler {
       return null;
     }
   }
+
+  @Override
+  public LocalDate getNullableResult(ResultSet rs, int columnIndex, Field field) throws SQLException {
+    try {
+      return rs.getObject(columnIndex, Date.class).toLocalDate();
+    } catch (NullPointerException e) {
+      return null;
+    }
+  }
 }
@@ -35,4 +35,13 @@ public class LegacyTimeSqlTypeHandler implements SqlTypeHandler {
       return null;
     }
   }
+
+  @Override
+  public LocalDateTime getNullableResult(ResultSet rs, int columnIndex, Field field) throws SQLException {
+    try {
+      return rs.getObject(columnIndex, Timestamp.class).toLocalDateTime();
+    } catch (NullPointerException e) {
+      return null;
+    }
+  }
 }
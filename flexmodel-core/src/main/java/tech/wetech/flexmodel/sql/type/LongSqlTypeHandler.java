@@ -19,7 +19,15 @@ public class LongSqlTypeHandler extends LongTypeHandler implements SqlTypeHandle
 
   @Override
   public Long getNullableResult(ResultSet rs, String columnName, Field field) throws SQLException {
-    Object value = rs.getObject(columnName);
+    return toResult(rs.getObject(columnName));
+  }
+
+  @Override
+  public Long getNullableResult(ResultSet rs, int columnIndex, Field field) throws SQLException {
+    return toResult(rs.getObject(columnIndex));
+  }
+
+  private Long toResult(Object value) {
     if (value == null) {
       return null;
     }
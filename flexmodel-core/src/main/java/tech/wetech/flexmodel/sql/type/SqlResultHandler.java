@@ -1,8 +1,8 @@
 package tech.wetech.flexmodel.sql.type;
 
 import com.mongodb.lang.Nullable;
+import tech.wetech.flexmodel.JsonUtils;
 
-import java.lang.reflect.Field;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -17,20 +17,16 @@ public class SqlResultHandler<T> {
   private final boolean isResultMap;
   private final Map<String, SqlTypeHandler<?>> sqlTypeHanlderMap = new HashMap<>();
   private final Map<String, tech.wetech.flexmodel.model.field.Field> fmTypeFieldMap = new HashMap<>();
-  private final List<Field> fields;
+  private final EntityRowMapper<T> rowMapper;
 
   public SqlResultHandler(Class<T> resultType) {
     this.resultType = resultType;
     if (resultType.isAssignableFrom(Map.class)) {
       this.isResultMap = true;
-      this.fields = List.of();
+      this.rowMapper = null;
     } else {
       this.isResultMap = false;
-      Field[] fields = resultType.getDeclaredFields();
-      for (Field field : fields) {
-        field.setAccessible(true);
-      }
-      this.fields = List.of(fields);
+      this.rowMapper = EntityRowMapper.of(resultType);
     }
   }
 
@@ -51,45 +47,104 @@ public class SqlResultHandler<T> {
   }
 
   public List<T> convertResultSetToList(ResultSet resultSet) throws SQLException {
+    RowReader reader = compile(resultSet);
     List<T> list = new ArrayList<>();
     while (resultSet.next()) {
-      list.add(convertResultSetToObject(resultSet));
+      list.add(reader.read(resultSet));
     }
     return list;
   }
 
   public T convertResultSetToObject(ResultSet rs) throws SQLException {
-    if (isResultMap) {
-      return (T) convertResultSetToMap(rs);
+    return compile(rs).read(rs);
+  }
+
+  /**
+   * 读取一次结果集元数据，按列下标缓存列标签、类型处理器和字段定义。
+   * <p>
+   * 解析结果只属于传入的结果集，处理器本身不保存结果集状态，可以被多个线程共享
+   */
+  public RowReader compile(ResultSet rs) throws SQLException {
+    ResultSetMetaData metaData = rs.getMetaData();
+    int columnCount = metaData.getColumnCount();
+    String[] labels = new String[columnCount];
+    SqlTypeHandler<?>[] typeHandlers = new SqlTypeHandler<?>[columnCount];
+    tech.wetech.flexmodel.model.field.Field[] fmFields = new tech.wetech.flexmodel.model.field.Field[columnCount];
+    Map<String, Integer> labelIndexMap = new HashMap<>();
+    SqlTypeHandler<?> unknownTypeHandler = new UnknownSqlTypeHandler();
+    for (int i = 0; i < columnCount; i++) {
+      String columnName = metaData.getColumnLabel(i + 1);
+      labels[i] = columnName;
+      typeHandlers[i] = sqlTypeHanlderMap.getOrDefault(columnName, unknownTypeHandler);
+      fmFields[i] = fmTypeFieldMap.get(columnName);
+      labelIndexMap.putIfAbsent(columnName, i + 1);
+    }
+    int[] indexes = new int[rowMapper != null ? rowMapper.size() : 0];
+    for (int i = 0; i < indexes.length; i++) {
+      indexes[i] = -1;
+      for (String columnName : rowMapper.getColumnNames(i)) {
+        Integer columnIndex = labelIndexMap.get(columnName);
+        if (columnIndex != null) {
+          indexes[i] = columnIndex;
+          break;
+        }
+      }
+    }
+    return new RowReader(labels, typeHandlers, fmFields, indexes, (int) (columnCount / 0.75f) + 1);
+  }
+
+  /**
+   * 单个结果集的行读取器
+   */
+  public final class RowReader {
+    private final String[] columnLabels;
+    private final SqlTypeHandler<?>[] columnTypeHandlers;
+    private final tech.wetech.flexmodel.model.field.Field[] columnFmFields;
+    private final int[] propertyColumnIndexes;
+    private final int rowMapCapacity;
+
+    private RowReader(String[] columnLabels, SqlTypeHandler<?>[] columnTypeHandlers,
+                      tech.wetech.flexmodel.model.field.Field[] columnFmFields, int[] propertyColumnIndexes, int rowMapCapacity) {
+      this.columnLabels = columnLabels;
+      this.columnTypeHandlers = columnTypeHandlers;
+      this.columnFmFields = columnFmFields;
+      this.propertyColumnIndexes = propertyColumnIndexes;
+      this.rowMapCapacity = rowMapCapacity;
     }
-    try {
-      T dto = resultType.getConstructor().newInstance();
-      for (Field field : fields) {
-        String name = field.getName();
+
+    /**
+     * 读取结果集的当前行
+     */
+    public T read(ResultSet rs) throws SQLException {
+      if (isResultMap) {
+        return (T) readMap(rs);
+      }
+      if (rowMapper == null) {
+        // 无法直接映射的类型（如 record）通过 Jackson 转换
         try {
-          SqlTypeHandler<?> typeHandler = this.getSqlTypeHandler(name);
-          field.set(dto, typeHandler.getResult(rs, name, getFmTypeField(name)));
-//          field.set(dto, field.getType().getConstructor(String.class).newInstance(value));
-        } catch (Exception e) {
-          e.printStackTrace();
+          return JsonUtils.convertValue(readMap(rs), resultType);
+        } catch (IllegalArgumentException e) {
+          throw new TypeException("Mapping type fail: " + e.getMessage(), e);
+        }
+      }
+      T dto = rowMapper.newInstance();
+      for (int i = 0; i < propertyColumnIndexes.length; i++) {
+        int columnIndex = propertyColumnIndexes[i];
+        if (columnIndex < 0) {
+          continue;
         }
+        rowMapper.setValue(dto, i, columnTypeHandlers[columnIndex - 1].getResult(rs, columnIndex, columnFmFields[columnIndex - 1]));
       }
       return dto;
-    } catch (Exception e) {
-      throw new TypeException("Mapping type fail: " + e.getMessage(), e);
     }
-  }
 
-  private Map<String, Object> convertResultSetToMap(ResultSet rs) throws SQLException {
-    ResultSetMetaData metaData = rs.getMetaData();
-    int columnCount = metaData.getColumnCount();
-    Map<String, Object> rowMap = new LinkedHashMap<>();
-    for (int i = 1; i <= columnCount; i++) {
-      String columnName = metaData.getColumnLabel(i);
-      SqlTypeHandler<?> typeHandler = this.getSqlTypeHandler(columnName);
-      rowMap.put(columnName, typeHandler.getResult(rs, columnName, getFmTypeField(columnName)));
+    private Map<String, Object> readMap(ResultSet rs) throws SQLException {
+      Map<String, Object> rowMap = new LinkedHashMap<>(rowMapCapacity);
+      for (int i = 0; i < columnLabels.length; i++) {
+        rowMap.put(columnLabels[i], columnTypeHandlers[i].getResult(rs, i + 1, columnFmFields[i]));
+      }
+      return rowMap;
     }
-    return rowMap;
   }
 
 }
@@ -23,4 +23,19 @@ public interface SqlTypeHandler<T> extends TypeHandler<T> {
 
   T getNullableResult(ResultSet rs, String columnName, Field field) throws SQLException;
 
+  default T getResult(ResultSet rs, int columnIndex, Field field) throws SQLException {
+    try {
+      return getNullableResult(rs, columnIndex, field);
+    } catch (Exception e) {
+      throw new ResultMapException("Error attempting to get column #" + columnIndex + " from result set.  Cause: " + e, e);
+    }
+  }
+
+  /**
+   * 按列下标读取，默认通过列标签回退到按名称读取
+   */
+  default T getNullableResult(ResultSet rs, int columnIndex, Field field) throws SQLException {
+    return getNullableResult(rs, rs.getMetaData().getColumnLabel(columnIndex), field);
+  }
+
 }
@@ -21,4 +21,9 @@ public class StringSqlTypeHandler extends StringTypeHandler implements SqlTypeHa
   public String getNullableResult(ResultSet rs, String columnName, Field field) throws SQLException {
     return rs.getString(columnName);
   }
+
+  @Override
+  public String getNullableResult(ResultSet rs, int columnIndex, Field field) throws SQLException {
+    return rs.getString(columnIndex);
+  }
 }
@@ -21,4 +21,9 @@ public class TextSqlTypeHandler extends TextTypeHandler implements SqlTypeHandle
   public String getNullableResult(ResultSet rs, String columnName, Field field) throws SQLException {
     return rs.getString(columnName);
   }
+
+  @Override
+  public String getNullableResult(ResultSet rs, int columnIndex, Field field) throws SQLException {
+    return rs.getString(columnIndex);
+  }
 }
@@ -26,4 +26,13 @@ public class TimeSqlTypeHandler extends TimeTypeHandler implements SqlTypeHandle
       return null;
     }
   }
+
+  @Override
+  public LocalTime getNullableResult(ResultSet rs, int columnIndex, Field field) throws SQLException {
+    try {
+      return rs.getObject(columnIndex, LocalTime.class);
+    } catch (NullPointerException e) {
+      return null;
+    }
+  }
 }
@@ -21,4 +21,9 @@ public class UnknownSqlTypeHandler extends UnknownTypeHandler implements SqlType
   public Object getNullableResult(ResultSet rs, String columnName, Field field) throws SQLException {
     return rs.getObject(columnName);
   }
+
+  @Override
+  public Object getNullableResult(ResultSet rs, int columnIndex, Field field) throws SQLException {
+    return rs.getObject(columnIndex);
+  }
 }
@@ -1,12 +1,17 @@
 package tech.wetech.flexmodel.supports.jackson;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import tech.wetech.flexmodel.model.EntityDefinition;
 import tech.wetech.flexmodel.model.EnumDefinition;
 import tech.wetech.flexmodel.model.NativeQueryDefinition;
+import tech.wetech.flexmodel.model.field.RelationField;
+import tech.wetech.flexmodel.model.field.TypedField;
+
+import java.util.List;
 
 /**
  * @author cjbi
@@ -23,4 +28,14 @@ public class ModelMixIn {
   public ModelMixIn(@JsonProperty("name") String name) {
   }
 
+  @JsonIgnore
+  public List<RelationField> getRelationFields() {
+    return null;
+  }
+
+  @JsonIgnore
+  public List<TypedField<?, ?>> getNonRelationFields() {
+    return null;
+  }
+
 }
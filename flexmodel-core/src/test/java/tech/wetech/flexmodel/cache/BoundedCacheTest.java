@@ -0,0 +1,95 @@
+package tech.wetech.flexmodel.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+  @Test
+  void shouldEvictUnreferencedEntries() {
+    BoundedCache cache = BoundedCache.builder().setMaximumSize(2).build();
+    cache.put("a", 1);
+    cache.put("b", 2);
+    assertEquals(1, cache.get("a"));
+    cache.put("c", 3);
+
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.get("a"));
+    assertNull(cache.get("b"));
+    assertEquals(1, cache.stats().evictionCount());
+  }
+
+  @Test
+  void shouldLimitWeight() {
+    BoundedCache cache = BoundedCache.builder()
+      .setMaximumWeight(10, (key, value) -> ((String) value).length())
+      .build();
+    cache.put("a", "12345");
+    cache.put("b", "123456");
+
+    assertTrue(cache.weight() <= 10);
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  void shouldExpireAfterWrite() throws InterruptedException {
+    BoundedCache cache = BoundedCache.builder().setExpireAfterWrite(Duration.ofMillis(20)).build();
+    cache.put("a", 1);
+    assertEquals(1, cache.get("a"));
+    Thread.sleep(40);
+
+    assertNull(cache.get("a"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void shouldLoadOncePerKey() throws Exception {
+    BoundedCache cache = BoundedCache.builder().setMaximumSize(100).build();
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch latch = new CountDownLatch(1);
+    try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+      List<Future<Object>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(executor.submit(() -> cache.retrieve("a", () -> {
+          loads.incrementAndGet();
+          try {
+            latch.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return "value";
+        })));
+      }
+      Thread.sleep(50);
+      latch.countDown();
+      for (Future<Object> future : futures) {
+        assertEquals("value", future.get());
+      }
+    }
+
+    assertEquals(1, loads.get());
+    assertEquals(1, cache.stats().loadSuccessCount());
+  }
+
+  @Test
+  void shouldPropagateLoadFailure() {
+    BoundedCache cache = BoundedCache.builder().build();
+    assertThrows(IllegalStateException.class, () -> cache.retrieve("a", () -> {
+      throw new IllegalStateException("load error");
+    }));
+
+    assertNull(cache.get("a"));
+    assertEquals(1, cache.stats().loadFailureCount());
+  }
+
+}
@@ -0,0 +1,220 @@
+package tech.wetech.flexmodel.cache;
+
+import org.junit.jupiter.api.Test;
+import tech.wetech.flexmodel.RevisionedModelRegistry;
+import tech.wetech.flexmodel.model.EntityDefinition;
+import tech.wetech.flexmodel.model.SchemaObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingModelRegistryTest {
+
+  /**
+   * 记录加载次数的底层注册表
+   */
+  static class CountingModelRegistry extends InMemoryModelRegistry {
+    final AtomicInteger listCount = new AtomicInteger();
+    final AtomicInteger getCount = new AtomicInteger();
+
+    @Override
+    public List<SchemaObject> listRegistered(String schemaName) {
+      listCount.incrementAndGet();
+      return super.listRegistered(schemaName);
+    }
+
+    @Override
+    public SchemaObject getRegistered(String schemaName, String modelName) {
+      getCount.incrementAndGet();
+      return super.getRegistered(schemaName, modelName);
+    }
+  }
+
+  /**
+   * 多个节点共享的底层注册表，只保留最近的变更记录
+   */
+  static class SharedModelRegistry extends InMemoryModelRegistry implements RevisionedModelRegistry {
+    final List<ModelRevision> changes = new ArrayList<>();
+    int maxChanges = Integer.MAX_VALUE;
+    long revision;
+
+    @Override
+    public synchronized void register(String schemaName, SchemaObject object) {
+      super.register(schemaName, object);
+      appendChange(schemaName, object.getName());
+    }
+
+    @Override
+    public synchronized void unregisterAll(String schemaName, String modelName) {
+      super.unregisterAll(schemaName, modelName);
+      appendChange(schemaName, modelName);
+    }
+
+    @Override
+    public synchronized long getRevision() {
+      return revision;
+    }
+
+    @Override
+    public synchronized List<ModelRevision> getChangesSince(long revision) {
+      return changes.stream().filter(change -> change.revision() > revision).toList();
+    }
+
+    private void appendChange(String schemaName, String modelName) {
+      changes.add(new ModelRevision(++revision, schemaName, modelName));
+      while (changes.size() > maxChanges) {
+        changes.removeFirst();
+      }
+    }
+  }
+
+  private static CachingModelRegistry newNode(SharedModelRegistry shared, List<String> changes) {
+    CachingModelRegistry registry = new CachingModelRegistry(shared, new ConcurrentHashMapCache());
+    registry.addListener((schemaName, modelName) -> changes.add(schemaName + ":" + modelName));
+    return registry;
+  }
+
+  @Test
+  void shouldNotReapplyOwnChanges() {
+    SharedModelRegistry shared = new SharedModelRegistry();
+    List<String> changesA = new ArrayList<>();
+    List<String> changesB = new ArrayList<>();
+    CachingModelRegistry nodeA = newNode(shared, changesA);
+    CachingModelRegistry nodeB = newNode(shared, changesB);
+    nodeA.listRegistered("s");
+    nodeB.listRegistered("s");
+
+    nodeA.register("s", new EntityDefinition("A1"));
+    long version = nodeA.getVersion("s");
+    nodeA.syncRevision();
+    // 自己写入的版本已记录，不会再次加载和通知
+    assertEquals(List.of("s:A1"), changesA);
+    assertEquals(version, nodeA.getVersion("s"));
+
+    nodeB.syncRevision();
+    assertEquals(List.of("s:A1"), changesB);
+    assertNotNull(nodeB.getRegistered("s", "A1"));
+
+    // A 写入时一并同步 B 尚未同步的变更
+    nodeB.register("s", new EntityDefinition("B1"));
+    nodeA.register("s", new EntityDefinition("A2"));
+    assertEquals(List.of("s:A1", "s:A2", "s:B1"), changesA);
+    assertNotNull(nodeA.getRegistered("s", "B1"));
+    nodeA.syncRevision();
+    assertEquals(3, changesA.size());
+
+    nodeB.syncRevision();
+    assertEquals(List.of("s:A1", "s:B1", "s:A2"), changesB);
+    nodeB.unregisterAll("s", "A2");
+    nodeB.syncRevision();
+    assertEquals(List.of("s:A1", "s:B1", "s:A2", "s:A2"), changesB);
+    assertNull(nodeB.getRegistered("s", "A2"));
+  }
+
+  @Test
+  void shouldReloadAllWhenChangesPruned() {
+    SharedModelRegistry shared = new SharedModelRegistry();
+    shared.maxChanges = 2;
+    List<String> changesA = new ArrayList<>();
+    List<String> changesB = new ArrayList<>();
+    CachingModelRegistry nodeA = newNode(shared, changesA);
+    CachingModelRegistry nodeB = newNode(shared, changesB);
+    long version = nodeB.getVersion("s");
+
+    nodeA.register("s", new EntityDefinition("X1"));
+    nodeA.register("s", new EntityDefinition("X2"));
+    nodeA.register("s", new EntityDefinition("X3"));
+    // 变更记录不连续，丢弃快照并通知整个schema
+    nodeB.syncRevision();
+    assertEquals(List.of("s:null"), changesB);
+    assertEquals(List.of("X1", "X2", "X3"), nodeB.listRegistered("s").stream().map(SchemaObject::getName).sorted().toList());
+    assertTrue(nodeB.getVersion("s") > version);
+    nodeB.syncRevision();
+    assertEquals(1, changesB.size());
+  }
+
+  @Test
+  void shouldCheckRevisionAtMostOncePerInterval() {
+    SharedModelRegistry shared = new SharedModelRegistry();
+    List<String> changesA = new ArrayList<>();
+    List<String> changesB = new ArrayList<>();
+    CachingModelRegistry nodeA = newNode(shared, changesA);
+    CachingModelRegistry nodeB = newNode(shared, changesB);
+    nodeB.setRevisionCheckInterval(60_000);
+
+    nodeA.register("s", new EntityDefinition("A1"));
+    nodeB.checkRevision();
+    assertEquals(List.of("s:A1"), changesB);
+    nodeA.register("s", new EntityDefinition("A2"));
+    nodeB.checkRevision();
+    assertEquals(List.of("s:A1"), changesB);
+    nodeB.syncRevision();
+    assertEquals(List.of("s:A1", "s:A2"), changesB);
+  }
+
+  @Test
+  void shouldReuseSnapshot() {
+    CountingModelRegistry delegate = new CountingModelRegistry();
+    delegate.register("s", new EntityDefinition("A"));
+    CachingModelRegistry registry = new CachingModelRegistry(delegate, new ConcurrentHashMapCache());
+
+    assertEquals(1, registry.listRegistered("s").size());
+    assertNotNull(registry.getRegistered("s", "A"));
+    assertNull(registry.getRegistered("s", "Missing"));
+    assertSame(registry.listRegistered("s"), registry.listRegistered("s"));
+    assertEquals(1, delegate.listCount.get());
+    assertEquals(0, delegate.getCount.get());
+
+    // 注册后基于当前快照复制新版本，不重新加载
+    long version = registry.getVersion("s");
+    registry.register("s", new EntityDefinition("B"));
+    assertEquals(version + 1, registry.getVersion("s"));
+    assertEquals(List.of("A", "B"), registry.listRegistered("s").stream().map(SchemaObject::getName).toList());
+    registry.unregisterAll("s", "A");
+    assertEquals(version + 2, registry.getVersion("s"));
+    assertNull(registry.getRegistered("s", "A"));
+    assertEquals(1, delegate.listCount.get());
+  }
+
+  @Test
+  void shouldReloadAndNotifyAfterInvalidate() {
+    CountingModelRegistry delegate = new CountingModelRegistry();
+    delegate.register("s", new EntityDefinition("A"));
+    delegate.register("t", new EntityDefinition("C"));
+    CachingModelRegistry registry = new CachingModelRegistry(delegate, new ConcurrentHashMapCache());
+    List<String> changes = new ArrayList<>();
+    registry.addListener((schemaName, modelName) -> changes.add(schemaName + ":" + modelName));
+
+    long version = registry.getVersion("s");
+    registry.getVersion("t");
+    // 绕过缓存直接修改底层注册表，丢弃快照后才能读到
+    delegate.register("s", new EntityDefinition("B"));
+    assertNull(registry.getRegistered("s", "B"));
+
+    registry.invalidate("s");
+    assertEquals(List.of("s:null"), changes);
+    assertNotNull(registry.getRegistered("s", "B"));
+    // 重新加载后版本号继续递增，不会回到初始值
+    assertTrue(registry.getVersion("s") > version);
+    assertEquals(3, delegate.listCount.get());
+
+    version = registry.getVersion("s");
+    registry.invalidate(null);
+    assertEquals(List.of("s:null", "s:null", "t:null"), changes.stream().sorted().toList());
+    assertTrue(registry.getVersion("s") > version);
+  }
+
+  @Test
+  void shouldKeepVersionIncreasingAfterUnregisterAll() {
+    CachingModelRegistry registry = new CachingModelRegistry(new InMemoryModelRegistry(), new ConcurrentHashMapCache());
+    registry.register("s", new EntityDefinition("A"));
+    long version = registry.getVersion("s");
+    registry.unregisterAll("s");
+    assertTrue(registry.listRegistered("s").isEmpty());
+    assertTrue(registry.getVersion("s") > version);
+  }
+
+}
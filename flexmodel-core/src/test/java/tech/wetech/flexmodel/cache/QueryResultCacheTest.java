@@ -0,0 +1,72 @@
+package tech.wetech.flexmodel.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryResultCacheTest {
+
+  @Test
+  void shouldInvalidateByTouchedModel() {
+    QueryResultCache cache = QueryResultCache.builder()
+      .addModel("s", "Dict", Duration.ofMinutes(1))
+      .build();
+    AtomicInteger loads = new AtomicInteger();
+
+    assertTrue(cache.isCacheable("s", "Dict"));
+    assertFalse(cache.isCacheable("s", "Order"));
+
+    assertEquals(1, cache.retrieve("s", "Dict", List.of("Dict", "DictItem"), "q", loads::incrementAndGet));
+    assertEquals(1, cache.retrieve("s", "Dict", List.of("Dict", "DictItem"), "q", loads::incrementAndGet));
+
+    cache.invalidate("s", "DictItem");
+    assertEquals(2, cache.retrieve("s", "Dict", List.of("Dict", "DictItem"), "q", loads::incrementAndGet));
+
+    cache.invalidate("s", "Other");
+    assertEquals(2, cache.retrieve("s", "Dict", List.of("Dict", "DictItem"), "q", loads::incrementAndGet));
+
+    cache.invalidate("s", null);
+    assertEquals(3, cache.retrieve("s", "Dict", List.of("Dict", "DictItem"), "q", loads::incrementAndGet));
+    assertEquals(2, cache.stats().hitCount());
+  }
+
+  @Test
+  void shouldExpireByModelTtl() throws InterruptedException {
+    QueryResultCache cache = QueryResultCache.builder()
+      .addModel("s", "Dict", Duration.ofMillis(20))
+      .build();
+    AtomicInteger loads = new AtomicInteger();
+
+    cache.retrieve("s", "Dict", List.of("Dict"), "q", loads::incrementAndGet);
+    Thread.sleep(40);
+    cache.retrieve("s", "Dict", List.of("Dict"), "q", loads::incrementAndGet);
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void shouldNotCacheLoadStartedBeforeInvalidateAll() {
+    QueryResultCache cache = QueryResultCache.builder()
+      .addModel("s", "Dict", Duration.ofMinutes(1))
+      .build();
+    AtomicInteger loads = new AtomicInteger();
+
+    // 加载期间使全部结果失效，重新加载且结果不会被后续查询命中
+    assertEquals(2, cache.retrieve("s", "Dict", List.of("Dict"), "q", () -> {
+      if (loads.get() == 0) {
+        cache.invalidateAll();
+      }
+      return loads.incrementAndGet();
+    }));
+    assertEquals(3, cache.retrieve("s", "Dict", List.of("Dict"), "q", loads::incrementAndGet));
+    assertEquals(3, cache.retrieve("s", "Dict", List.of("Dict"), "q", loads::incrementAndGet));
+
+    cache.invalidateAll();
+    assertEquals(4, cache.retrieve("s", "Dict", List.of("Dict"), "q", loads::incrementAndGet));
+  }
+
+}
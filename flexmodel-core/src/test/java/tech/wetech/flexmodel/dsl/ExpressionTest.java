@@ -3,6 +3,7 @@ package tech.wetech.flexmodel.dsl;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import tech.wetech.flexmodel.JsonUtils;
+import tech.wetech.flexmodel.condition.ConditionParser;
 import tech.wetech.flexmodel.query.Expressions;
 import tech.wetech.flexmodel.query.FilterExpression;
 import tech.wetech.flexmodel.query.Predicate;
@@ -61,4 +62,18 @@ public class ExpressionTest {
     System.out.println(jsonString);
   }
 
+  @Test
+  void testToConditionNode() {
+    Predicate condition = Expressions.TRUE
+      .and(Expressions.field("username").eq("john_doe"))
+      .and(Expressions.field("remark").contains("aa").or(Expressions.field("locked").eq(false)))
+      .and(Expressions.field("age").between(18, 65))
+      .and(Expressions.field("id").in(1L, 2L, 3L));
+
+    String expected = new ConditionParser().parse(condition.toJsonString()).toString();
+    Assertions.assertEquals(expected, condition.toConditionNode().toString());
+    Assertions.assertTrue(Expressions.TRUE.toConditionNode().isEmpty());
+    Assertions.assertEquals(condition.toJsonString(), JsonUtils.toJsonString(condition.toConditionNode().toMap()));
+  }
+
 }
@@ -0,0 +1,50 @@
+package tech.wetech.flexmodel.model;
+
+import org.junit.jupiter.api.Test;
+import tech.wetech.flexmodel.model.field.LongField;
+import tech.wetech.flexmodel.model.field.RelationField;
+import tech.wetech.flexmodel.model.field.StringField;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author cjbi
+ */
+class EntityDefinitionTest {
+
+  @Test
+  void shouldRebuildFieldIndexAfterModification() {
+    EntityDefinition entity = new EntityDefinition("Student");
+    entity.addField(new LongField("id").asIdentity());
+    entity.addField(new StringField("name"));
+    assertNotNull(entity.getField("name"));
+    assertEquals(2, entity.getNonRelationFields().size());
+
+    // 新增
+    entity.getFields().add(new RelationField("classes").setFrom("Classes"));
+    assertNotNull(entity.getField("classes"));
+    assertEquals(1, entity.getRelationFields().size());
+
+    // 原位替换，字段数不变
+    entity.getFields().set(1, new StringField("studentName"));
+    assertNull(entity.getField("name"));
+    assertNotNull(entity.getField("studentName"));
+    entity.getFields().set(0, new LongField("id"));
+    assertTrue(entity.findIdField().isEmpty());
+    entity.getFields().set(0, new LongField("studentId").asIdentity());
+    assertEquals("studentId", entity.findIdField().orElseThrow().getName());
+
+    // 删除
+    entity.removeField("classes");
+    assertNull(entity.getField("classes"));
+    assertTrue(entity.getRelationFields().isEmpty());
+    entity.getFields().removeIf(field -> field.getName().equals("studentName"));
+    assertNull(entity.getField("studentName"));
+
+    entity.setFields(entity.getFields());
+    assertEquals(List.of("studentId"), entity.getNonRelationFields().stream().map(field -> field.getName()).toList());
+  }
+
+}
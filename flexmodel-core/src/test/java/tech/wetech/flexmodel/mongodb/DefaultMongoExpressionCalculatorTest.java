@@ -3,7 +3,12 @@ package tech.wetech.flexmodel.mongodb;
 import org.junit.jupiter.api.Test;
 import tech.wetech.flexmodel.ExpressionCalculatorException;
 import tech.wetech.flexmodel.JsonUtils;
+import tech.wetech.flexmodel.condition.ConditionParser;
 
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -71,6 +76,28 @@ class DefaultMongoExpressionCalculatorTest {
     assertEquals("{\"$and\":[{\"username\":{\"$eq\":\"john_doe\"}},{\"age\":{\"$eq\":20}}]}", result);
   }
 
+  @Test
+  void shouldRenderMapConditionLikeJson() throws ExpressionCalculatorException {
+    // GraphQL 解析后的 where 参数，日期时间为 java.time 类型
+    Map<String, Object> where = new LinkedHashMap<>();
+    where.put("birthday", Map.of("_between", List.of(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31))));
+    where.put("_or", List.of(
+      Map.of("createdAt", Map.of("_lt", OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC))),
+      Map.of("_and", List.of(Map.of("id", Map.of("_eq", "1"))))
+    ));
+    String expression = """
+      {
+        "birthday": {"_between": ["2020-01-01", "2020-12-31"]},
+        "_or": [
+          {"createdAt": {"_lt": "2024-01-01T00:00:00Z"}},
+          {"_and": [{"id": {"_eq": "1"}}]}
+        ]
+      }
+      """;
+
+    assertEquals(calculator.calculate(expression, Map.of()), calculator.calculate(new ConditionParser().parse(where)));
+  }
+
   @Test
   void shouldRejectNullExpression() {
     assertThrows(ExpressionCalculatorException.class, () -> calculator.calculate(null, Map.of()));
@@ -0,0 +1,362 @@
+package tech.wetech.flexmodel.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import tech.wetech.flexmodel.JsonUtils;
+import tech.wetech.flexmodel.cache.InMemoryModelRegistry;
+import tech.wetech.flexmodel.condition.FieldConditionNode;
+import tech.wetech.flexmodel.model.EntityDefinition;
+import tech.wetech.flexmodel.model.field.LongField;
+import tech.wetech.flexmodel.model.field.RelationField;
+import tech.wetech.flexmodel.model.field.StringField;
+import tech.wetech.flexmodel.query.Query;
+import tech.wetech.flexmodel.session.AbstractSessionContext;
+import tech.wetech.flexmodel.type.TypeHandler;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaseServiceTest {
+
+  private static final String SCHEMA = "test";
+
+  private final InMemoryModelRegistry registry = new InMemoryModelRegistry();
+  private final AbstractSessionContext sessionContext = new AbstractSessionContext(SCHEMA, registry, null) {
+    @Override
+    public Map<String, ? extends TypeHandler<?>> getTypeHandlerMap() {
+      return Map.of();
+    }
+  };
+  private final BaseService service = new BaseService(sessionContext) {
+  };
+  private final Map<String, List<Map<String, Object>>> tables = new HashMap<>();
+  private final List<String> queriedModels = Collections.synchronizedList(new ArrayList<>());
+  private final Set<Thread> queryThreads = Collections.synchronizedSet(new HashSet<>());
+  private final AtomicInteger activeBranchQueries = new AtomicInteger();
+  private final AtomicInteger maxActiveBranchQueries = new AtomicInteger();
+  private ExecutorService executor;
+
+  @AfterEach
+  void tearDown() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * 作者关联书籍、简介和奖项，书籍通过作者和编辑两个字段反向关联作者
+   */
+  private EntityDefinition registerAuthorModels() {
+    EntityDefinition author = new EntityDefinition("Author")
+      .addField(new LongField("id").asIdentity())
+      .addField(new StringField("name"))
+      .addField(new RelationField("books").setFrom("Book").setLocalField("id").setForeignField("authorId").setMultiple(true))
+      .addField(new RelationField("profile").setFrom("Profile").setLocalField("id").setForeignField("authorId"))
+      .addField(new RelationField("awards").setFrom("Award").setLocalField("id").setForeignField("authorId").setMultiple(true));
+    EntityDefinition book = new EntityDefinition("Book")
+      .addField(new LongField("id").asIdentity())
+      .addField(new LongField("authorId"))
+      .addField(new StringField("title"))
+      .addField(new LongField("editorId"))
+      .addField(new RelationField("author").setFrom("Author").setLocalField("authorId").setForeignField("id"))
+      .addField(new RelationField("editor").setFrom("Author").setLocalField("editorId").setForeignField("id"));
+    EntityDefinition profile = new EntityDefinition("Profile")
+      .addField(new LongField("id").asIdentity())
+      .addField(new LongField("authorId"));
+    EntityDefinition award = new EntityDefinition("Award")
+      .addField(new LongField("id").asIdentity())
+      .addField(new LongField("authorId"));
+    registry.register(SCHEMA, author);
+    registry.register(SCHEMA, book);
+    registry.register(SCHEMA, profile);
+    registry.register(SCHEMA, award);
+
+    tables.put("Author", List.of(row(1L, "name", "a1"), row(2L, "name", "a2")));
+    tables.put("Book", List.of(
+      row(11L, "authorId", 1L, "editorId", 2L, "title", "b11"),
+      row(12L, "authorId", 1L, "editorId", 2L, "title", "b12"),
+      row(21L, "authorId", 2L, "editorId", 2L, "title", "b21")));
+    tables.put("Profile", List.of(row(101L, "authorId", 1L), row(102L, "authorId", 2L)));
+    tables.put("Award", List.of(row(201L, "authorId", 2L)));
+    return author;
+  }
+
+  private static Map<String, Object> row(Object id, Object... keyValues) {
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put("id", id);
+    for (int i = 0; i < keyValues.length; i += 2) {
+      row.put((String) keyValues[i], keyValues[i + 1]);
+    }
+    return row;
+  }
+
+  private List<Map<String, Object>> authors() {
+    List<Map<String, Object>> result = new ArrayList<>();
+    tables.get("Author").forEach(author -> result.add(new LinkedHashMap<>(author)));
+    return result;
+  }
+
+  /**
+   * 按 IN 条件过滤内存中的数据，记录查询的模型和线程
+   */
+  private List<Map<String, Object>> query(String modelName, Query query) {
+    boolean branch = !Thread.currentThread().getName().equals("main-test");
+    if (branch) {
+      maxActiveBranchQueries.accumulateAndGet(activeBranchQueries.incrementAndGet(), Math::max);
+    }
+    try {
+      queriedModels.add(modelName);
+      queryThreads.add(Thread.currentThread());
+      if (branch) {
+        Thread.sleep(20);
+      }
+      FieldConditionNode condition = (FieldConditionNode) query.getCondition();
+      Collection<?> values = (Collection<?>) condition.getValue();
+      List<Map<String, Object>> result = new ArrayList<>();
+      for (Map<String, Object> row : tables.getOrDefault(modelName, List.of())) {
+        if (values.contains(row.get(condition.getFieldPath()))) {
+          result.add(new LinkedHashMap<>(row));
+        }
+      }
+      return result;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } finally {
+      if (branch) {
+        activeBranchQueries.decrementAndGet();
+      }
+    }
+  }
+
+  private void runAsTestThread(Runnable runnable) {
+    String name = Thread.currentThread().getName();
+    Thread.currentThread().setName("main-test");
+    try {
+      runnable.run();
+    } finally {
+      Thread.currentThread().setName(name);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void assertAuthorRelations(List<Map<String, Object>> authors) {
+    Map<String, Object> a1 = authors.get(0);
+    Map<String, Object> a2 = authors.get(1);
+    assertEquals(List.of(11L, 12L), ((List<Map<String, Object>>) a1.get("books")).stream().map(b -> b.get("id")).toList());
+    assertEquals(List.of(21L), ((List<Map<String, Object>>) a2.get("books")).stream().map(b -> b.get("id")).toList());
+    assertEquals(101L, ((Map<String, Object>) a1.get("profile")).get("id"));
+    assertEquals(102L, ((Map<String, Object>) a2.get("profile")).get("id"));
+    assertEquals(List.of(), a1.get("awards"));
+    assertEquals(1, ((List<?>) a2.get("awards")).size());
+  }
+
+  @Test
+  void shouldLoadRelationsSequentiallyWithoutExecutor() {
+    EntityDefinition author = registerAuthorModels();
+    List<Map<String, Object>> authors = authors();
+
+    runAsTestThread(() -> service.nestedQuery(authors, this::query, author, null, 1));
+
+    assertAuthorRelations(authors);
+    assertEquals(Set.of(Thread.currentThread()), queryThreads);
+    assertEquals(0, maxActiveBranchQueries.get());
+  }
+
+  @Test
+  void shouldLoadRelationsInParallelWithExecutor() {
+    EntityDefinition author = registerAuthorModels();
+    executor = Executors.newFixedThreadPool(4);
+    sessionContext.setNestedQueryExecutor(executor);
+    sessionContext.setNestedQueryConcurrency(4);
+    List<Map<String, Object>> authors = authors();
+
+    runAsTestThread(() -> service.nestedQuery(authors, this::query, author, null, 1));
+
+    assertAuthorRelations(authors);
+    assertEquals(3, queriedModels.size());
+    assertFalse(queryThreads.contains(Thread.currentThread()));
+    assertEquals(4, sessionContext.getNestedQueryPermits().availablePermits());
+  }
+
+  @Test
+  void shouldLimitParallelBranchesByConcurrency() {
+    EntityDefinition author = registerAuthorModels();
+    executor = Executors.newFixedThreadPool(4);
+    sessionContext.setNestedQueryExecutor(executor);
+    sessionContext.setNestedQueryConcurrency(1);
+    List<Map<String, Object>> authors = authors();
+
+    runAsTestThread(() -> service.nestedQuery(authors, this::query, author, null, 1));
+
+    assertAuthorRelations(authors);
+    // 超出许可的任务在当前线程执行
+    assertEquals(1, maxActiveBranchQueries.get());
+    assertTrue(queryThreads.contains(Thread.currentThread()));
+    assertEquals(1, sessionContext.getNestedQueryPermits().availablePermits());
+  }
+
+  @Test
+  void shouldNotChunkForeignKeysWithinBatchSize() {
+    assertEquals(List.of(List.of(1, 2, 3)), BaseService.chunkForeignKeyValues(List.of(1, 2, 3), 4));
+    assertEquals(List.of(List.of(1, 2, 3, 4)), BaseService.chunkForeignKeyValues(List.of(1, 2, 3, 4), 4));
+  }
+
+  @Test
+  void shouldChunkForeignKeysAboveBatchSize() {
+    assertEquals(List.of(List.of(1, 2, 3, 4), List.of(5)), BaseService.chunkForeignKeyValues(List.of(1, 2, 3, 4, 5), 4));
+    assertEquals(List.of(List.of(1, 2, 3, 4), List.of(5, 6, 7, 8)), BaseService.chunkForeignKeyValues(List.of(1, 2, 3, 4, 5, 6, 7, 8), 4));
+  }
+
+  @Test
+  void shouldPadLastChunkToPowerOfTwo() {
+    List<Object> values = new ArrayList<>();
+    for (int i = 1; i <= 21; i++) {
+      values.add(i);
+    }
+    List<List<Object>> chunks = BaseService.chunkForeignKeyValues(values, 16);
+    assertEquals(2, chunks.size());
+    assertEquals(16, chunks.get(0).size());
+    // 剩余5个补齐到8个，重复最后一个值
+    assertEquals(List.of(17, 18, 19, 20, 21, 21, 21, 21), chunks.get(1));
+
+    values.add(22);
+    values.add(23);
+    values.add(24);
+    assertEquals(List.of(17, 18, 19, 20, 21, 22, 23, 24), BaseService.chunkForeignKeyValues(values, 16).get(1));
+    // 补齐后不超过批次大小
+    assertEquals(List.of(7, 8, 9, 9), BaseService.chunkForeignKeyValues(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9), 6).get(1));
+  }
+
+  @Test
+  void shouldIgnoreDuplicateForeignKeys() {
+    assertEquals(List.of(List.of(1, 2)), BaseService.chunkForeignKeyValues(List.of(1, 2, 1, 2, 2), 2));
+    assertEquals(List.of(List.of(1, 2), List.of(3)), BaseService.chunkForeignKeyValues(List.of(1, 1, 2, 3, 3), 2));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldMergeResultsFromEveryChunk() {
+    EntityDefinition author = registerAuthorModels();
+    List<Map<String, Object>> authors = new ArrayList<>();
+    List<Map<String, Object>> books = new ArrayList<>();
+    for (long i = 1; i <= 5; i++) {
+      authors.add(row(i, "name", "a" + i));
+      books.add(row(100 + i, "authorId", i, "title", "b" + i));
+    }
+    tables.put("Book", books);
+    BaseService chunkedService = new BaseService(sessionContext) {
+      @Override
+      protected int getRelationQueryBatchSize() {
+        return 2;
+      }
+    };
+    Query query = Query.Builder.create().select(select -> select.field("id", "id").field("books", "books")).build();
+
+    runAsTestThread(() -> chunkedService.nestedQuery(authors, this::query, author, query, 1));
+
+    // 5个外键拆分为3批，每一批都有结果
+    assertEquals(List.of("Book", "Book", "Book"), queriedModels);
+    for (int i = 0; i < authors.size(); i++) {
+      List<Map<String, Object>> authorBooks = (List<Map<String, Object>>) authors.get(i).get("books");
+      assertEquals(1, authorBooks.size());
+      assertEquals(101L + i, authorBooks.get(0).get("id"));
+    }
+  }
+
+  private long countQueries(String modelName) {
+    return queriedModels.stream().filter(modelName::equals).count();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldStopAtMaxDepth() {
+    EntityDefinition author = registerAuthorModels();
+    List<Map<String, Object>> authors = authors();
+
+    runAsTestThread(() -> service.nestedQuery(authors, this::query, author, null, 2));
+
+    Map<String, Object> book = ((List<Map<String, Object>>) authors.get(0).get("books")).get(0);
+    Map<String, Object> bookAuthor = (Map<String, Object>) book.get("author");
+    assertEquals(1L, bookAuthor.get("id"));
+    // 第三层不再加载
+    assertFalse(bookAuthor.containsKey("books"));
+    assertFalse(bookAuthor.containsKey("profile"));
+    assertEquals(1, countQueries("Profile"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldQueryEachRelationOncePerLevel() {
+    EntityDefinition author = registerAuthorModels();
+    List<Map<String, Object>> authors = authors();
+
+    runAsTestThread(() -> service.nestedQuery(authors, this::query, author, null, 3));
+
+    // 第一层：书籍、简介、奖项各一次；第二层：书籍的作者和编辑合并为一次；第三层：作者的关联各一次
+    assertEquals(2, countQueries("Book"));
+    assertEquals(2, countQueries("Profile"));
+    assertEquals(2, countQueries("Award"));
+    assertEquals(1, countQueries("Author"));
+    assertEquals(7, queriedModels.size());
+
+    List<Map<String, Object>> books = (List<Map<String, Object>>) authors.get(0).get("books");
+    for (Map<String, Object> book : books) {
+      Map<String, Object> bookAuthor = (Map<String, Object>) book.get("author");
+      assertEquals(1L, bookAuthor.get("id"));
+      assertEquals(2, ((List<?>) bookAuthor.get("books")).size());
+      assertEquals(101L, ((Map<String, Object>) bookAuthor.get("profile")).get("id"));
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldLoadCyclicRelationsAsTree() {
+    EntityDefinition author = registerAuthorModels();
+    List<Map<String, Object>> authors = authors();
+
+    runAsTestThread(() -> service.nestedQuery(authors, this::query, author, null, 5));
+
+    // Author -> Book -> Author 的循环按层数截止，结果中不能出现循环引用
+    Map<String, Object> a1 = authors.get(0);
+    Map<String, Object> book = ((List<Map<String, Object>>) a1.get("books")).get(0);
+    Map<String, Object> bookAuthor = (Map<String, Object>) book.get("author");
+    assertNotSame(a1, bookAuthor);
+    Map<String, Object> nestedBook = ((List<Map<String, Object>>) bookAuthor.get("books")).get(0);
+    assertNotSame(book, nestedBook);
+    assertEquals(book.get("id"), nestedBook.get("id"));
+    assertNotNull(JsonUtils.toJsonString(authors));
+    assertEquals(3, countQueries("Book"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldReuseSharedChildReachedByTwoPaths() {
+    EntityDefinition author = registerAuthorModels();
+    List<Map<String, Object>> authors = authors();
+
+    runAsTestThread(() -> service.nestedQuery(authors, this::query, author, null, 4));
+
+    // 作者2同时是书籍的作者和编辑，两个关联字段合并为一次查询
+    Map<String, Object> book21 = ((List<Map<String, Object>>) authors.get(1).get("books")).get(0);
+    Map<String, Object> bookAuthor = (Map<String, Object>) book21.get("author");
+    Map<String, Object> bookEditor = (Map<String, Object>) book21.get("editor");
+    assertEquals(2L, bookAuthor.get("id"));
+    assertEquals(2L, bookEditor.get("id"));
+    assertEquals(List.of(21L), ((List<Map<String, Object>>) bookEditor.get("books")).stream().map(b -> b.get("id")).toList());
+    Map<String, Object> book11 = ((List<Map<String, Object>>) authors.get(0).get("books")).get(0);
+    assertEquals(2L, ((Map<String, Object>) book11.get("editor")).get("id"));
+
+    // 第四层再次关联到已加载的作者时复用副本，不再查询
+    Map<String, Object> nestedBook = ((List<Map<String, Object>>) bookEditor.get("books")).get(0);
+    Map<String, Object> nestedEditor = (Map<String, Object>) nestedBook.get("editor");
+    assertEquals(2L, nestedEditor.get("id"));
+    assertNotSame(bookEditor, nestedEditor);
+    assertEquals(1, countQueries("Author"));
+  }
+
+}
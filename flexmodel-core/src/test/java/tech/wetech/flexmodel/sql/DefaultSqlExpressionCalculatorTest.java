@@ -2,8 +2,14 @@ package tech.wetech.flexmodel.sql;
 
 import org.junit.jupiter.api.Test;
 import tech.wetech.flexmodel.ExpressionCalculatorException;
+import tech.wetech.flexmodel.condition.ConditionParser;
 import tech.wetech.flexmodel.sql.dialect.MySQLSqlDialect;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -93,11 +99,42 @@ class DefaultSqlExpressionCalculatorTest {
     assertEquals("(`price` BETWEEN 100 AND 200 AND `remark` NOT LIKE '%测试%')", inline);
   }
 
+  @Test
+  void shouldBindMapConditionLikeJson() throws ExpressionCalculatorException {
+    DefaultSqlExpressionCalculator calculator = newCalculator();
+    // GraphQL 解析后的 where 参数，日期时间为 java.time 类型
+    Map<String, Object> where = new LinkedHashMap<>();
+    where.put("birthday", Map.of("_gte", LocalDate.of(2020, 1, 1)));
+    where.put("_or", List.of(
+      Map.of("createdAt", Map.of("_lt", OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC))),
+      Map.of("_and", List.of(
+        Map.of("id", Map.of("_in", List.of(1, 2))),
+        Map.of("alarm", Map.of("_eq", LocalTime.of(8, 0)))
+      ))
+    ));
+    String filter = """
+      {
+        "birthday": {"_gte": "2020-01-01"},
+        "_or": [
+          {"createdAt": {"_lt": "2024-01-01T00:00:00Z"}},
+          {"_and": [{"id": {"_in": [1, 2]}}, {"alarm": {"_eq": "08:00:00"}}]}
+        ]
+      }
+      """;
+
+    SqlClauseResult fromMap = calculator.calculate(new ConditionParser().parse(where));
+    SqlClauseResult fromJson = calculator.calculate(filter, Map.of());
+
+    assertEquals(fromJson.sqlClause(), fromMap.sqlClause());
+    assertEquals(fromJson.args(), fromMap.args());
+    assertEquals("2020-01-01", fromMap.args().get("birthday_0"));
+  }
+
   @Test
   void shouldRejectNullExpression() {
     DefaultSqlExpressionCalculator calculator = newCalculator();
     assertThrows(ExpressionCalculatorException.class, () -> calculator.calculate(null, Map.of()));
-    assertThrows(ExpressionCalculatorException.class, () -> calculator.calculateIncludeValue(null));
+    assertThrows(ExpressionCalculatorException.class, () -> calculator.calculateIncludeValue((String) null));
   }
 }
 
@@ -0,0 +1,123 @@
+package tech.wetech.flexmodel.sql;
+
+import org.junit.jupiter.api.Test;
+import org.sqlite.SQLiteDataSource;
+import tech.wetech.flexmodel.RevisionedModelRegistry.ModelRevision;
+import tech.wetech.flexmodel.cache.CachingModelRegistry;
+import tech.wetech.flexmodel.cache.ConcurrentHashMapCache;
+import tech.wetech.flexmodel.model.EntityDefinition;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcModelRegistryTest {
+
+  private static SQLiteDataSource newDataSource() throws Exception {
+    Path file = Files.createTempFile("model-registry", ".db");
+    file.toFile().deleteOnExit();
+    SQLiteDataSource dataSource = new SQLiteDataSource();
+    dataSource.setUrl("jdbc:sqlite:" + file);
+    return dataSource;
+  }
+
+  private static void execute(SQLiteDataSource dataSource, String sql) throws Exception {
+    try (Connection connection = dataSource.getConnection();
+         Statement statement = connection.createStatement()) {
+      statement.executeUpdate(sql);
+    }
+  }
+
+  @Test
+  void shouldCreateRevisionTablesForExistingSchema() throws Exception {
+    SQLiteDataSource dataSource = newDataSource();
+    // 升级前只有模型表
+    execute(dataSource, "create table " + JdbcModelRegistry.STORED_TABLES +
+                        " (schema_name varchar(100), model_name varchar(100), model_type varchar(100), content text)");
+
+    JdbcModelRegistry registry = new JdbcModelRegistry(dataSource);
+    assertEquals(0, registry.getRevision());
+    assertTrue(registry.getChangesSince(0).isEmpty());
+    registry.register("s", new EntityDefinition("A"));
+    assertEquals(1, registry.getRevision());
+
+    // 再次启动不会重复建表或重置版本号
+    JdbcModelRegistry restarted = new JdbcModelRegistry(dataSource);
+    assertEquals(1, restarted.getRevision());
+    assertNotNull(restarted.getRegistered("s", "A"));
+  }
+
+  @Test
+  void shouldKeepSingleRevisionRow() throws Exception {
+    SQLiteDataSource dataSource = newDataSource();
+    new JdbcModelRegistry(dataSource);
+    // 并发启动的节点重复写入初始行时主键冲突
+    assertThrows(Exception.class, () -> execute(dataSource, "insert into " + JdbcModelRegistry.STORED_REVISION +
+                                                            " (id, revision) values (1, 0)"));
+    JdbcModelRegistry registry = new JdbcModelRegistry(dataSource);
+    registry.register("s", new EntityDefinition("A"));
+    assertEquals(1, registry.getRevision());
+  }
+
+  @Test
+  void shouldRollbackWhenChangeLogFails() throws Exception {
+    SQLiteDataSource dataSource = newDataSource();
+    JdbcModelRegistry registry = new JdbcModelRegistry(dataSource);
+    execute(dataSource, "drop table " + JdbcModelRegistry.STORED_CHANGES);
+
+    assertThrows(RuntimeException.class, () -> registry.register("s", new EntityDefinition("A")));
+    // 模型和版本号随变更记录一起回滚
+    assertNull(registry.getRegistered("s", "A"));
+    assertEquals(0, registry.getRevision());
+  }
+
+  @Test
+  void shouldRecordChangeLog() throws Exception {
+    JdbcModelRegistry registry = new JdbcModelRegistry(newDataSource());
+    registry.register("s", new EntityDefinition("A"));
+    registry.register("s", new EntityDefinition("B"));
+    registry.unregisterAll("s", "A");
+    registry.unregisterAll("s");
+
+    assertEquals(4, registry.getRevision());
+    assertEquals(List.of(
+      new ModelRevision(1, "s", "A"),
+      new ModelRevision(2, "s", "B"),
+      new ModelRevision(3, "s", "A"),
+      new ModelRevision(4, "s", null)
+    ), registry.getChangesSince(0));
+    assertEquals(List.of(new ModelRevision(4, "s", null)), registry.getChangesSince(3));
+  }
+
+  @Test
+  void shouldReloadAllWhenChangeLogHasGap() throws Exception {
+    SQLiteDataSource dataSource = newDataSource();
+    CachingModelRegistry nodeA = new CachingModelRegistry(new JdbcModelRegistry(dataSource), new ConcurrentHashMapCache());
+    CachingModelRegistry nodeB = new CachingModelRegistry(new JdbcModelRegistry(dataSource), new ConcurrentHashMapCache());
+    List<String> changesA = new ArrayList<>();
+    List<String> changesB = new ArrayList<>();
+    nodeA.addListener((schemaName, modelName) -> changesA.add(schemaName + ":" + modelName));
+    nodeB.addListener((schemaName, modelName) -> changesB.add(schemaName + ":" + modelName));
+    nodeB.listRegistered("s");
+
+    nodeA.register("s", new EntityDefinition("A"));
+    nodeA.syncRevision();
+    assertEquals(List.of("s:A"), changesA);
+    nodeB.syncRevision();
+    assertEquals(List.of("s:A"), changesB);
+
+    nodeA.register("s", new EntityDefinition("B"));
+    nodeA.register("s", new EntityDefinition("C"));
+    // 模拟较早的变更记录已被清理
+    execute(dataSource, "delete from " + JdbcModelRegistry.STORED_CHANGES + " where revision = 2");
+    nodeB.syncRevision();
+    assertEquals(List.of("s:A", "s:null"), changesB);
+    assertEquals(List.of("A", "B", "C"), nodeB.listRegistered("s").stream().map(model -> model.getName()).sorted().toList());
+  }
+
+}
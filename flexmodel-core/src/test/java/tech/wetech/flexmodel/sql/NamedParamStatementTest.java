@@ -0,0 +1,47 @@
+package tech.wetech.flexmodel.sql;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NamedParamStatementTest {
+
+  @Test
+  void shouldParseNamedParameters() {
+    NamedParamStatement.ParsedSql parsedSql = NamedParamStatement.parseSqlStatement(
+      "select * from t where a = :a and b = :b or a > :a and c::text = 'x:y'");
+
+    assertEquals("select * from t where a = ? and b = ? or a > ? and c::text = 'x:y' ", parsedSql.getActualSql());
+    assertArrayEquals(new int[]{1, 3}, parsedSql.getIndexes("a"));
+    assertArrayEquals(new int[]{2}, parsedSql.getIndexes("b"));
+    assertEquals(0, parsedSql.getIndexes("c").length);
+  }
+
+  @Test
+  void shouldReuseCachedParsedSql() {
+    String sql = "update t set name = :name where id = :id";
+    NamedParamStatement.ParsedSqlCache cache = new NamedParamStatement.ParsedSqlCache(16);
+
+    NamedParamStatement.ParsedSql first = cache.get(sql);
+    NamedParamStatement.ParsedSql second = cache.get(sql);
+
+    assertSame(first, second);
+    assertEquals(1, cache.getMisses());
+    assertEquals(1, cache.getHits());
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedParsedSql() {
+    NamedParamStatement.ParsedSqlCache cache = new NamedParamStatement.ParsedSqlCache(2);
+    NamedParamStatement.ParsedSql a = cache.get("select :a");
+    cache.get("select :b");
+    cache.get("select :a");
+    cache.get("select :c");
+
+    assertEquals(2, cache.size());
+    assertSame(a, cache.get("select :a"));
+    assertEquals(3, cache.getMisses());
+    assertEquals(2, cache.getHits());
+  }
+
+}
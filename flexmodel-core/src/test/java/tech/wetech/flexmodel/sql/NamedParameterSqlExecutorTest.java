@@ -0,0 +1,43 @@
+package tech.wetech.flexmodel.sql;
+
+import org.junit.jupiter.api.Test;
+import org.sqlite.SQLiteDataSource;
+import tech.wetech.flexmodel.sql.type.SqlResultHandler;
+
+import java.sql.ResultSet;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author cjbi
+ */
+class NamedParameterSqlExecutorTest {
+
+  @Test
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  void shouldReleaseConnectionWhenStreamFailsToOpen() {
+    SQLiteDataSource dataSource = new SQLiteDataSource();
+    dataSource.setUrl("jdbc:sqlite::memory:");
+    SqlConnectionManager manager = new SqlConnectionManager(dataSource);
+    NamedParameterSqlExecutor executor = new NamedParameterSqlExecutor(manager);
+    SqlResultHandler<Map> failingHandler = new SqlResultHandler<>(Map.class) {
+      @Override
+      public RowReader compile(ResultSet rs) {
+        throw new IllegalStateException("compile failed");
+      }
+    };
+
+    assertThrows(IllegalStateException.class,
+      () -> executor.queryForStream("select 1 as id", Map.of(), failingHandler, 0, true));
+    assertFalse(manager.isConnected());
+
+    try (Stream<Map<String, Object>> stream = executor.queryForStream("select 1 as id", Map.of())) {
+      assertEquals(1, stream.count());
+      assertTrue(manager.isConnected());
+    }
+    assertFalse(manager.isConnected());
+  }
+
+}
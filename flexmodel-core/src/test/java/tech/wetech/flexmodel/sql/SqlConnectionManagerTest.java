@@ -0,0 +1,148 @@
+package tech.wetech.flexmodel.sql;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlConnectionManagerTest {
+
+  /**
+   * 记录获取和关闭次数的数据源
+   */
+  static class CountingDataSource {
+    final List<Connection> opened = new ArrayList<>();
+    final List<Connection> closed = new ArrayList<>();
+    final List<Connection> readOnly = new ArrayList<>();
+
+    DataSource dataSource() {
+      return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class},
+        (proxy, method, args) -> {
+          if (method.getName().equals("getConnection")) {
+            Connection connection = connection();
+            opened.add(connection);
+            return connection;
+          }
+          throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private Connection connection() {
+      boolean[] autoCommit = {true};
+      return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+        (proxy, method, args) -> switch (method.getName()) {
+          case "close" -> {
+            closed.add((Connection) proxy);
+            yield null;
+          }
+          case "setReadOnly" -> {
+            if ((Boolean) args[0]) {
+              readOnly.add((Connection) proxy);
+            }
+            yield null;
+          }
+          case "getAutoCommit" -> autoCommit[0];
+          case "setAutoCommit" -> {
+            autoCommit[0] = (Boolean) args[0];
+            yield null;
+          }
+          case "commit", "rollback" -> null;
+          case "hashCode" -> System.identityHashCode(proxy);
+          case "equals" -> proxy == args[0];
+          default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+  }
+
+  @Test
+  void shouldOpenOnFirstUseAndReleaseAfterLastHold() {
+    CountingDataSource ds = new CountingDataSource();
+    SqlConnectionManager manager = new SqlConnectionManager(ds.dataSource());
+    assertEquals(0, ds.opened.size());
+
+    Connection first = manager.acquire();
+    Connection second = manager.acquire();
+    assertSame(first, second);
+    assertEquals(1, ds.opened.size());
+
+    manager.release();
+    assertTrue(manager.isConnected());
+    assertEquals(0, ds.closed.size());
+
+    manager.release();
+    assertFalse(manager.isConnected());
+    assertEquals(List.of(first), ds.closed);
+
+    manager.withConnection(connection -> connection);
+    assertEquals(2, ds.opened.size());
+    assertEquals(2, ds.closed.size());
+  }
+
+  @Test
+  void shouldKeepConnectionDuringTransaction() throws Exception {
+    CountingDataSource ds = new CountingDataSource();
+    SqlConnectionManager manager = new SqlConnectionManager(ds.dataSource());
+
+    manager.begin();
+    manager.withConnection(connection -> connection);
+    assertTrue(manager.isConnected());
+    manager.commit();
+    assertFalse(manager.isConnected());
+    assertEquals(1, ds.opened.size());
+    assertEquals(1, ds.closed.size());
+  }
+
+  @Test
+  void shouldKeepDirectlyObtainedConnectionUntilClose() throws Exception {
+    CountingDataSource ds = new CountingDataSource();
+    SqlConnectionManager manager = new SqlConnectionManager(ds.dataSource());
+
+    Connection connection = manager.getConnection();
+    // 其他语句执行完毕不能归还调用方持有的连接
+    assertSame(connection, manager.withConnection(c -> c));
+    assertTrue(manager.isConnected());
+    assertEquals(0, ds.closed.size());
+
+    manager.close();
+    assertEquals(List.of(connection), ds.closed);
+  }
+
+  @Test
+  void shouldBranchIndependentReadOnlyConnection() {
+    CountingDataSource ds = new CountingDataSource();
+    SqlConnectionManager manager = new SqlConnectionManager(ds.dataSource());
+    assertTrue(manager.supportsBranch());
+
+    Connection parent = manager.acquire();
+    SqlConnectionManager branch = manager.branch();
+    assertEquals(1, ds.opened.size());
+
+    Connection child = branch.acquire();
+    assertNotSame(parent, child);
+    assertEquals(List.of(child), ds.readOnly);
+
+    branch.release();
+    assertEquals(List.of(child), ds.closed);
+    assertTrue(manager.isConnected());
+
+    manager.release();
+    assertEquals(List.of(child, parent), ds.closed);
+  }
+
+  @Test
+  void shouldNotBranchFromExternalConnection() {
+    CountingDataSource ds = new CountingDataSource();
+    SqlConnectionManager manager = new SqlConnectionManager(ds.connection());
+    assertFalse(manager.supportsBranch());
+    assertThrows(IllegalStateException.class, manager::branch);
+
+    manager.withConnection(connection -> connection);
+    assertTrue(manager.isConnected());
+  }
+
+}
@@ -0,0 +1,88 @@
+package tech.wetech.flexmodel.sql;
+
+import org.junit.jupiter.api.Test;
+import tech.wetech.flexmodel.ExpressionCalculatorException;
+import tech.wetech.flexmodel.condition.ConditionOperator;
+import tech.wetech.flexmodel.condition.FieldConditionNode;
+import tech.wetech.flexmodel.query.Query;
+import tech.wetech.flexmodel.sql.condition.SqlArrayParameter;
+import tech.wetech.flexmodel.sql.dialect.MySQLSqlDialect;
+import tech.wetech.flexmodel.sql.dialect.PostgreSQLSqlDialect;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tech.wetech.flexmodel.query.Expressions.field;
+
+class SqlQueryShapeTest {
+
+  private Query newQuery(Object id, String name) {
+    Query query = new Query();
+    query.setCondition(field("id").eq(id).and(field("name").startsWith(name)).toConditionNode());
+    return query;
+  }
+
+  @Test
+  void shouldExtractValuesInRenderOrder() throws ExpressionCalculatorException {
+    MySQLSqlDialect dialect = new MySQLSqlDialect();
+    dialect.setIdentifierQuoteString("`");
+    DefaultSqlExpressionCalculator calculator = new DefaultSqlExpressionCalculator(dialect);
+
+    Query query = newQuery(1, "张");
+    SqlQueryShape shape = SqlQueryShape.of(query, true);
+    SqlClauseResult result = calculator.calculate(query.getCondition());
+    assertTrue(shape.matches(new ArrayList<>(result.args().entrySet())));
+    assertEquals(List.of(1, "张%"), shape.getValues());
+
+    SqlQueryShape other = SqlQueryShape.of(newQuery(2, "李"), true);
+    assertEquals(shape.getShape(), other.getShape());
+    assertEquals(List.of(2, "李%"), other.getValues());
+    assertNotEquals(shape.getShape(), SqlQueryShape.of(newQuery(2, null), true).getShape());
+  }
+
+  @Test
+  void shouldBindInListAsArrayOnlyForArrayParameter() throws ExpressionCalculatorException {
+    PostgreSQLSqlDialect dialect = new PostgreSQLSqlDialect();
+    DefaultSqlExpressionCalculator calculator = new DefaultSqlExpressionCalculator(dialect);
+
+    // 普通 IN/CONTAINS 条件不改写为数组，避免与列类型不匹配
+    SqlClauseResult plain = calculator.calculate(field("id").in(List.of("a", "b")).toConditionNode());
+    assertEquals("id IN (:id_0, :id_1)", plain.sqlClause());
+    SqlClauseResult contains = calculator.calculate(field("id").contains(List.of("a", "b")).toConditionNode());
+    assertEquals("id IN (:id_0, :id_1)", contains.sqlClause());
+
+    Query query = new Query();
+    query.setCondition(new FieldConditionNode("id", ConditionOperator.IN,
+      new SqlArrayParameter(dialect.getArrayElementTypeName(Types.BIGINT), new Object[]{1L, 2L, 3L})));
+    SqlClauseResult result = calculator.calculate(query.getCondition());
+    assertEquals("id = ANY(:id_0)", result.sqlClause());
+    assertEquals(new SqlArrayParameter("int8", new Object[]{1L, 2L, 3L}), result.args().get("id_0"));
+    assertEquals("varchar", dialect.getArrayElementTypeName(Types.VARCHAR));
+    assertNull(dialect.getArrayElementTypeName(Types.TIMESTAMP));
+
+    SqlQueryShape shape = SqlQueryShape.of(query, true);
+    assertTrue(shape.matches(new ArrayList<>(result.args().entrySet())));
+    Query larger = new Query();
+    larger.setCondition(new FieldConditionNode("id", ConditionOperator.IN,
+      new SqlArrayParameter("int8", new Object[]{4L, 5L, 6L, 7L})));
+    assertEquals(shape.getShape(), SqlQueryShape.of(larger, true).getShape());
+  }
+
+  @Test
+  void shouldBuildCacheKeyFromShapeAndTypedValues() {
+    assertEquals(SqlQueryShape.keyOf(newQuery(1, "张")), SqlQueryShape.keyOf(newQuery(1, "张")));
+    assertNotEquals(SqlQueryShape.keyOf(newQuery(1, "张")), SqlQueryShape.keyOf(newQuery(2, "张")));
+    // 值的类型和边界计入键
+    assertNotEquals(SqlQueryShape.keyOf(newQuery(1, "张")), SqlQueryShape.keyOf(newQuery("1", "张")));
+    assertNotEquals(SqlQueryShape.keyOf(newQuery("a|b", "c")), SqlQueryShape.keyOf(newQuery("a", "b|c")));
+
+    Query page1 = newQuery(1, "张");
+    page1.setPage(new Query.Page().setPageNumber(1).setPageSize(10));
+    Query page2 = newQuery(1, "张");
+    page2.setPage(new Query.Page().setPageNumber(2).setPageSize(10));
+    assertNotEquals(SqlQueryShape.keyOf(page1), SqlQueryShape.keyOf(page2));
+  }
+
+}
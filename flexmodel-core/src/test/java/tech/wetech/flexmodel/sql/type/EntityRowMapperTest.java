@@ -0,0 +1,88 @@
+package tech.wetech.flexmodel.sql.type;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.junit.jupiter.api.Test;
+import tech.wetech.flexmodel.annotation.ModelField;
+import tech.wetech.flexmodel.annotation.ModelRelation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityRowMapperTest {
+
+  static class Student {
+    private Long id;
+    @ModelField("student_name")
+    private String studentName;
+    private int age;
+    @ModelRelation
+    private List<Object> courses = new ArrayList<>();
+  }
+
+  record StudentRecord(Long id, String name) {
+  }
+
+  static class Teacher {
+    private Long id;
+    @JsonProperty("teacher_name")
+    @ModelField("name")
+    private String teacherName;
+    @JsonAlias({"teacher_age", "age"})
+    private Integer teacherAge;
+  }
+
+  static class IgnoredTeacher {
+    private Long id;
+    @JsonIgnore
+    private String name;
+  }
+
+  @Test
+  void shouldMapColumnsByModelFieldName() {
+    EntityRowMapper<Student> mapper = EntityRowMapper.of(Student.class);
+    assertNotNull(mapper);
+    assertSame(mapper, EntityRowMapper.of(Student.class));
+    assertEquals(3, mapper.size());
+    assertEquals("id", mapper.getColumnName(0));
+    assertEquals("student_name", mapper.getColumnName(1));
+
+    Student student = mapper.newInstance();
+    mapper.setValue(student, 0, 1);
+    mapper.setValue(student, 1, "张三");
+    mapper.setValue(student, 2, 18L);
+    assertEquals(1L, student.id);
+    assertEquals("张三", student.studentName);
+    assertEquals(18, student.age);
+    // 按列名读取，关联字段不参与
+    assertEquals(Map.of("id", 1L, "student_name", "张三", "age", 18), mapper.toRow(student));
+
+    mapper.setValue(student, 2, null);
+    assertEquals(18, student.age);
+  }
+
+  @Test
+  void shouldNotMapRecord() {
+    assertNull(EntityRowMapper.of(StudentRecord.class));
+  }
+
+  @Test
+  void shouldHonorJsonPropertyAndJsonAlias() {
+    EntityRowMapper<Teacher> mapper = EntityRowMapper.of(Teacher.class);
+    assertNotNull(mapper);
+    assertEquals(3, mapper.size());
+    assertEquals("teacher_name", mapper.getColumnName(1));
+    assertEquals(List.of("teacher_name"), mapper.getColumnNames(1));
+    assertEquals(List.of("teacherAge", "teacher_age", "age"), mapper.getColumnNames(2));
+  }
+
+  @Test
+  void shouldNotMapTypeWithOtherJacksonAnnotations() {
+    assertNull(EntityRowMapper.of(IgnoredTeacher.class));
+  }
+
+}
@@ -0,0 +1,85 @@
+package tech.wetech.flexmodel.sql.type;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SqlResultHandlerTest {
+
+  static class Student {
+    private Long id;
+    private String name;
+  }
+
+  static class RenamedStudent {
+    private Long id;
+    @JsonProperty("student_name")
+    private String name;
+    @JsonAlias("student_age")
+    private Integer age;
+  }
+
+  @Test
+  void shouldMapInterleavedResultSetsWithSharedHandler() throws Exception {
+    SqlResultHandler<Student> handler = new SqlResultHandler<>(Student.class);
+    try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+         Statement first = connection.createStatement();
+         Statement second = connection.createStatement()) {
+      // 两个结果集的列顺序不同，共享的处理器不能复用另一个结果集的列信息
+      ResultSet rs1 = first.executeQuery("select 1 as id, '张三' as name union all select 2, '李四'");
+      ResultSet rs2 = second.executeQuery("select '王五' as name, 3 as id");
+      SqlResultHandler<Student>.RowReader reader1 = handler.compile(rs1);
+      SqlResultHandler<Student>.RowReader reader2 = handler.compile(rs2);
+
+      rs1.next();
+      Student s1 = reader1.read(rs1);
+      rs2.next();
+      Student s2 = reader2.read(rs2);
+      rs1.next();
+      Student s3 = reader1.read(rs1);
+
+      assertEquals(1L, s1.id);
+      assertEquals("张三", s1.name);
+      assertEquals(3L, s2.id);
+      assertEquals("王五", s2.name);
+      assertEquals(2L, s3.id);
+      assertEquals("李四", s3.name);
+    }
+  }
+
+  @Test
+  @SuppressWarnings("all")
+  void shouldConvertResultSetToMapList() throws Exception {
+    SqlResultHandler<Map> handler = new SqlResultHandler<>(Map.class);
+    try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+         Statement statement = connection.createStatement()) {
+      List<Map> list = handler.convertResultSetToList(statement.executeQuery("select 1 as id, 'a' as name union all select 2, 'b'"));
+      assertEquals(2, list.size());
+      assertEquals(List.of("id", "name"), List.copyOf(list.get(0).keySet()));
+      assertEquals("b", list.get(1).get("name"));
+    }
+  }
+
+  @Test
+  void shouldMapRenamedProperty() throws Exception {
+    SqlResultHandler<RenamedStudent> handler = new SqlResultHandler<>(RenamedStudent.class);
+    try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+         Statement statement = connection.createStatement()) {
+      List<RenamedStudent> list = handler.convertResultSetToList(
+        statement.executeQuery("select 1 as id, '张三' as student_name, 18 as student_age, 'x' as name"));
+      assertEquals(1, list.size());
+      assertEquals("张三", list.get(0).name);
+      assertEquals(18, list.get(0).age);
+    }
+  }
+
+}
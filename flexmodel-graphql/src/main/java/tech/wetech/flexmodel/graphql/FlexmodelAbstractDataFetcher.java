@@ -4,23 +4,15 @@ import graphql.execution.CoercedVariables;
 import graphql.execution.ValuesResolver;
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
-import graphql.schema.SelectedField;
-import tech.wetech.flexmodel.JsonUtils;
-import tech.wetech.flexmodel.model.EntityDefinition;
-import tech.wetech.flexmodel.model.field.RelationField;
-import tech.wetech.flexmodel.model.field.TypedField;
+import tech.wetech.flexmodel.condition.ConditionNode;
+import tech.wetech.flexmodel.condition.ConditionParser;
 import tech.wetech.flexmodel.query.Direction;
 import tech.wetech.flexmodel.query.Query;
 import tech.wetech.flexmodel.session.Session;
 import tech.wetech.flexmodel.session.SessionFactory;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
-import static tech.wetech.flexmodel.query.Expressions.field;
 
 /**
  * @author cjbi
@@ -44,6 +36,8 @@ public abstract class FlexmodelAbstractDataFetcher<T> implements DataFetcher<T>
   protected static final String AGG_AVG = "_avg";
   protected static final String[] AGG_FIELDS = new String[]{AGG_COUNT, AGG_MAX, AGG_MIN, AGG_SUM, AGG_AVG};
 
+  private static final ConditionParser CONDITION_PARSER = new ConditionParser();
+
 
   public FlexmodelAbstractDataFetcher(String schemaName, String modelName, SessionFactory sessionFactory) {
     this.schemaName = schemaName;
@@ -51,47 +45,11 @@ public abstract class FlexmodelAbstractDataFetcher<T> implements DataFetcher<T>
     this.sessionFactory = sessionFactory;
   }
 
-  protected List<Map<String, Object>> findRelationDataList(Session session, DataFetchingEnvironment env, String path, String modelName, RelationField relationField, Object id) {
-    EntityDefinition entity = (EntityDefinition) session.schema().getModel(relationField.getModelName());
-    EntityDefinition targetEntity = (EntityDefinition) session.schema().getModel(relationField.getFrom());
-    path = path == null ? relationField.getName() : path + "/" + relationField.getName();
-    List<SelectedField> selectedFields = env.getSelectionSet().getFields(path + "/*");
-    List<RelationField> relationFields = new ArrayList<>();
-
-    List<Map<String, Object>> list = session.dsl()
-      .select(selector -> {
-        TypedField<?, ?> idField = entity.findIdField().orElseThrow();
-        selector.field(idField.getName(), Query.field(entity.getName() + "." + idField.getName()));
-        for (SelectedField selectedField : selectedFields) {
-          TypedField<?, ?> flexModelField = targetEntity.getField(selectedField.getName());
-          if (flexModelField == null) {
-            continue;
-          }
-          if (flexModelField instanceof RelationField secondaryRelationField) {
-            relationFields.add(secondaryRelationField);
-            continue;
-          }
-          selector.field(selectedField.getName(), Query.field(targetEntity.getName() + "." + flexModelField.getName()));
-        }
-        return selector;
-      })
-      .from(entity.getName())
-      .leftJoin(joins -> joins.addLeftJoin(join -> join.setFrom(targetEntity.getName())))
-      .where(field(entity.getName() + "." + entity.findIdField().map(TypedField::getName).orElseThrow()).eq(id))
-      .execute();
-
-    List<Map<String, Object>> result = new ArrayList<>();
-    for (Map<String, Object> map : list) {
-      Map<String, Object> resultData = new HashMap<>(map);
-      result.add(resultData);
-      for (RelationField sencondaryRelationField : relationFields) {
-        Object secondaryId = map.get(entity.findIdField().map(TypedField::getName).orElseThrow());
-        List<Map<String, Object>> associationDataList = findRelationDataList(session, env, path, sencondaryRelationField.getFrom(), sencondaryRelationField, secondaryId);
-        resultData.put(sencondaryRelationField.getName(), sencondaryRelationField.isMultiple() ?
-          associationDataList : associationDataList.stream().findFirst().orElse(null));
-      }
-    }
-    return result;
+  /**
+   * 获取当前GraphQL执行共享的会话，执行完成后统一关闭
+   */
+  protected Session getSession(DataFetchingEnvironment env) {
+    return GraphQLSessionHolder.get(env, sessionFactory).getSession(schemaName);
   }
 
   protected Query getQuery(Integer pageNumber, Integer pageSize, Map<String, String> orderBy, Map<String, Object> where, Query query) {
@@ -104,29 +62,40 @@ public abstract class FlexmodelAbstractDataFetcher<T> implements DataFetcher<T>
       query.setOrderBy(sort);
     }
     if (where != null) {
-      query.setFilter(JsonUtils.toJsonString(where));
+      query.setCondition(toCondition(where));
     }
     return query;
   }
 
+  /**
+   * 解析当前字段的全部参数，每次字段调用只需解析一次
+   */
   protected Map<String, Object> getArguments(DataFetchingEnvironment env) {
-    Map<String, Object> newVariables = new HashMap<>();
-    newVariables.putAll(env.getVariables());
-    Map<String, Object> variables = env.getGraphQlContext()
-      .getOrDefault("__VARIABLES", new ConcurrentHashMap<>());
-    newVariables.putAll(variables);
+    Map<String, Object> exportedVariables = env.getGraphQlContext().get("__VARIABLES");
+    Map<String, Object> variables = env.getVariables();
+    if (exportedVariables != null && !exportedVariables.isEmpty()) {
+      variables = new HashMap<>(variables);
+      variables.putAll(exportedVariables);
+    }
     return ValuesResolver.getArgumentValues(
       env.getGraphQLSchema().getCodeRegistry(),
       env.getFieldDefinition().getArguments(),
       env.getField().getArguments(),
-      CoercedVariables.of(newVariables),
+      CoercedVariables.of(variables),
       env.getGraphQlContext(),
       env.getLocale());
   }
 
   @SuppressWarnings("unchecked")
-  protected <R> R getArgument(DataFetchingEnvironment env, String name) {
-    return (R) getArguments(env).get(name);
+  protected <R> R getArgument(Map<String, Object> arguments, String name) {
+    return (R) arguments.get(name);
+  }
+
+  /**
+   * 将 where 参数直接转换为条件语法树
+   */
+  protected ConditionNode toCondition(Map<String, Object> where) {
+    return where != null ? CONDITION_PARSER.parse(where) : null;
   }
 
 }
@@ -2,7 +2,7 @@ package tech.wetech.flexmodel.graphql;
 
 import graphql.schema.DataFetchingEnvironment;
 import graphql.schema.SelectedField;
-import tech.wetech.flexmodel.JsonUtils;
+import tech.wetech.flexmodel.condition.ConditionNode;
 import tech.wetech.flexmodel.model.EntityDefinition;
 import tech.wetech.flexmodel.model.field.TypedField;
 import tech.wetech.flexmodel.query.Direction;
@@ -31,89 +31,86 @@ public class FlexmodelAggregateDataFetcher extends FlexmodelAbstractDataFetcher<
   }
 
   public Map<String, Object> findRootData(DataFetchingEnvironment env) {
-    Integer pageNumber = getArgument(env, PAGE_NUMBER);
-    Integer pageSize = getArgument(env, PAGE_SIZE);
-    Map<String, String> orderBy = getArgument(env, ORDER_BY);
-    Map<String, Object> where = getArgument(env, WHERE);
+    Map<String, Object> arguments = getArguments(env);
+    Integer pageNumber = getArgument(arguments, PAGE_NUMBER);
+    Integer pageSize = getArgument(arguments, PAGE_SIZE);
+    Map<String, String> orderBy = getArgument(arguments, ORDER_BY);
+    Map<String, Object> where = getArgument(arguments, WHERE);
     List<SelectedField> selectedFields = env.getSelectionSet().getImmediateFields();
-    try (Session session = sessionFactory.createSession(schemaName)) {
-      EntityDefinition entity = (EntityDefinition) session.schema().getModel(modelName);
+    Session session = getSession(env);
+    EntityDefinition entity = (EntityDefinition) session.schema().getModel(modelName);
 
-      String whereString = null;
-      if (where != null) {
-        whereString = JsonUtils.toJsonString(where);
-      }
+    ConditionNode condition = toCondition(where);
 
-      OrderBy sort;
-      if (orderBy != null) {
-        sort = new OrderBy();
-        orderBy.forEach((k, v) -> sort.addOrder(k, Direction.valueOf(v.toUpperCase())));
-      } else {
-        sort = null;
-      }
+    OrderBy sort;
+    if (orderBy != null) {
+      sort = new OrderBy();
+      orderBy.forEach((k, v) -> sort.addOrder(k, Direction.valueOf(v.toUpperCase())));
+    } else {
+      sort = null;
+    }
 
-      Query.Page page = null;
-      if (pageSize != null && pageNumber != null) {
-        page = new Query.Page().setPageNumber(pageNumber).setPageSize(pageSize);
-      }
+    Query.Page page = null;
+    if (pageSize != null && pageNumber != null) {
+      page = new Query.Page().setPageNumber(pageNumber).setPageSize(pageSize);
+    }
 
-      List<Map<String, Object>> list = session.dsl().select(projection -> {
-          for (SelectedField selectedField : selectedFields) {
-            if (selectedField.getName().equals(AGG_COUNT)) {
-              Map<String, Object> args = selectedField.getArguments();
-              Boolean distinct = (Boolean) args.get("distinct");
-              String field = (String) args.get("field");
-              if (field == null) {
-                field = entity.getName() + "." + entity.findIdField().orElseThrow().getName();
-              }
-              projection.field(selectedField.getName(), count(field(field)));
-              continue;
+    List<Map<String, Object>> list = session.dsl().select(projection -> {
+        for (SelectedField selectedField : selectedFields) {
+          if (selectedField.getName().equals(AGG_COUNT)) {
+            Map<String, Object> args = selectedField.getArguments();
+            Boolean distinct = (Boolean) args.get("distinct");
+            String field = (String) args.get("field");
+            if (field == null) {
+              field = entity.getName() + "." + entity.findIdField().orElseThrow().getName();
             }
-            if (selectedField.getName().equals(AGG_MAX)) {
-              List<SelectedField> aggFields = selectedField.getSelectionSet().getImmediateFields();
-              for (SelectedField aggField : aggFields) {
-                projection.field(AGG_MAX + "_" + aggField.getName(), max(field(aggField.getName())));
-              }
-              continue;
-            }
-            if (selectedField.getName().equals(AGG_MIN)) {
-              List<SelectedField> aggFields = selectedField.getSelectionSet().getImmediateFields();
-              for (SelectedField aggField : aggFields) {
-                projection.field(AGG_MIN + "_" + aggField.getName(), min(field(aggField.getName())));
-              }
-              continue;
+            projection.field(selectedField.getName(), count(field(field)));
+            continue;
+          }
+          if (selectedField.getName().equals(AGG_MAX)) {
+            List<SelectedField> aggFields = selectedField.getSelectionSet().getImmediateFields();
+            for (SelectedField aggField : aggFields) {
+              projection.field(AGG_MAX + "_" + aggField.getName(), max(field(aggField.getName())));
             }
-            if (selectedField.getName().equals(AGG_SUM)) {
-              List<SelectedField> aggFields = selectedField.getSelectionSet().getImmediateFields();
-              for (SelectedField aggField : aggFields) {
-                projection.field(AGG_SUM + "_" + aggField.getName(), sum(field(aggField.getName())));
-              }
-              continue;
+            continue;
+          }
+          if (selectedField.getName().equals(AGG_MIN)) {
+            List<SelectedField> aggFields = selectedField.getSelectionSet().getImmediateFields();
+            for (SelectedField aggField : aggFields) {
+              projection.field(AGG_MIN + "_" + aggField.getName(), min(field(aggField.getName())));
             }
-            if (selectedField.getName().equals(AGG_AVG)) {
-              List<SelectedField> aggFields = selectedField.getSelectionSet().getImmediateFields();
-              for (SelectedField aggField : aggFields) {
-                projection.field(AGG_AVG + "_" + aggField.getName(), avg(field(aggField.getName())));
-              }
-              continue;
+            continue;
+          }
+          if (selectedField.getName().equals(AGG_SUM)) {
+            List<SelectedField> aggFields = selectedField.getSelectionSet().getImmediateFields();
+            for (SelectedField aggField : aggFields) {
+              projection.field(AGG_SUM + "_" + aggField.getName(), sum(field(aggField.getName())));
             }
-            TypedField<?, ?> flexModelField = entity.getField(selectedField.getName());
-            if (flexModelField == null) {
-              continue;
+            continue;
+          }
+          if (selectedField.getName().equals(AGG_AVG)) {
+            List<SelectedField> aggFields = selectedField.getSelectionSet().getImmediateFields();
+            for (SelectedField aggField : aggFields) {
+              projection.field(AGG_AVG + "_" + aggField.getName(), avg(field(aggField.getName())));
             }
-            projection.field(selectedField.getName(), field(flexModelField.getModelName() + "." + flexModelField.getName()));
+            continue;
+          }
+          TypedField<?, ?> flexModelField = entity.getField(selectedField.getName());
+          if (flexModelField == null) {
+            continue;
           }
-          return projection;
-        })
-        .from(entity.getName())
-        .where(whereString)
-        .orderBy(sort)
-        .page(page)
-        .execute();
+          projection.field(selectedField.getName(), field(flexModelField.getModelName() + "." + flexModelField.getName()));
+        }
+        return projection;
+      })
+      .from(entity.getName())
+      .where(condition)
+      .orderBy(sort)
+      .page(page)
+      .execute();
 
-      // 不支持关联字段查询
-      return toResult(list.get(0));
-    }
+    // 不支持关联字段查询
+    return toResult(list.get(0));
   }
 
   private Map<String, Object> toResult(Map<String, Object> map) {
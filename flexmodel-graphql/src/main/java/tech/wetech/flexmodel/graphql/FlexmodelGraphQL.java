@@ -1,116 +1,59 @@
 package tech.wetech.flexmodel.graphql;
 
 import graphql.GraphQL;
-import graphql.scalars.ExtendedScalars;
-import graphql.schema.DataFetcher;
-import graphql.schema.GraphQLCodeRegistry;
+import graphql.execution.AsyncExecutionStrategy;
 import graphql.schema.GraphQLSchema;
-import graphql.schema.idl.RuntimeWiring;
-import graphql.schema.idl.SchemaGenerator;
-import graphql.schema.idl.SchemaParser;
-import graphql.schema.idl.TypeDefinitionRegistry;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import tech.wetech.flexmodel.codegen.EnumClass;
-import tech.wetech.flexmodel.codegen.GenerationContext;
-import tech.wetech.flexmodel.codegen.ModelClass;
-import tech.wetech.flexmodel.model.EntityDefinition;
-import tech.wetech.flexmodel.model.EnumDefinition;
-import tech.wetech.flexmodel.model.SchemaObject;
 import tech.wetech.flexmodel.session.SessionFactory;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-
-import static graphql.schema.idl.RuntimeWiring.newRuntimeWiring;
+import java.util.concurrent.Executors;
 
 /**
  * @author cjbi
  */
 public class FlexmodelGraphQL {
 
-  private final Logger log = LoggerFactory.getLogger(FlexmodelGraphQL.class);
-
-  public GraphQL generateGraphQLWithSchemaObject(SessionFactory sf, List<String> includeSchemaNames) {
-    GraphQLSchemaGenerator generator = new GraphQLSchemaGenerator();
-    GenerationContext context = new GenerationContext();
-    Map<String, DataFetcher<?>> queryDataFetchers = new HashMap<>();
-    Map<String, DataFetcher<?>> mutationDataFetchers = new HashMap<>();
-
-    Map<String, Map<String, DataFetcher<?>>> joinDataFetchers = new HashMap<>();
-    Map<String, DataFetcher<?>> joinMap = Map.of(
-      "_join", (DataFetcher<?>) environment -> Map.of(),
-      "_join_mutation", (DataFetcher<?>) environment -> Map.of()
-    );
-    joinDataFetchers.put("mutation_response", joinMap);
-
-    for (String schemaName : sf.getSchemaNames()) {
-      if (!includeSchemaNames.contains(schemaName)) {
-        log.debug("Generate GraphQL,Ignore schema: {}", schemaName);
-        continue;
-      }
-      log.debug("Generate graphQL schema: {}", schemaName);
-      List<SchemaObject> models = sf.getModels(schemaName);
-      for (SchemaObject model : models) {
-        if (model instanceof EntityDefinition entity) {
-          log.debug("Generate graphQL model: {}", model.getName());
-          context.getModelClassList().add(ModelClass.buildModelClass("", schemaName, entity));
-          joinDataFetchers.put(schemaName + "_" + model.getName(), joinMap);
-          joinDataFetchers.put(schemaName + "_" + model.getName() + "_aggregate", joinMap);
+  private boolean mutationTransactional;
+  private int preparsedDocumentCacheSize = FlexmodelPreparsedDocumentProvider.DEFAULT_MAX_SIZE;
 
-          for (DataFetchers fetchType : DataFetchers.values()) {
-            if (fetchType.isQuery()) {
-              queryDataFetchers.put(
-                fetchType.getKeyFunc().apply(schemaName, model.getName()),
-                fetchType.getDataFetcherFunc().apply(schemaName, model.getName(), sf));
-            }
-            if (fetchType.isMutation()) {
-              mutationDataFetchers.put(
-                fetchType.getKeyFunc().apply(schemaName, model.getName()),
-                fetchType.getDataFetcherFunc().apply(schemaName, model.getName(), sf));
-            }
-          }
-        } else if (model instanceof EnumDefinition andEnum) {
-          log.debug("Generate graphQL model: {}", model.getName());
-          context.getEnumClassList().add(EnumClass.buildEnumClass("", schemaName, andEnum));
-        } else {
-          log.debug("Ignore model: {}", model.getName());
-          // 暂时忽略非实体类型
-        }
-      }
-    }
+  /**
+   * 设置mutation默认是否在请求级事务中执行，同一请求的所有mutation共享会话，全部成功后提交
+   */
+  public FlexmodelGraphQL setMutationTransactional(boolean mutationTransactional) {
+    this.mutationTransactional = mutationTransactional;
+    return this;
+  }
 
-    String schemaString = generator.generate(context).getFirst();
-    if (log.isTraceEnabled()) {
-      log.trace("GraphQL schema:\n{}", schemaString);
-    }
-    SchemaParser schemaParser = new SchemaParser();
-    TypeDefinitionRegistry typeDefinitionRegistry = schemaParser.parse(schemaString);
+  /**
+   * 设置解析后文档缓存的最大条目数，包括自动持久化查询
+   */
+  public FlexmodelGraphQL setPreparsedDocumentCacheSize(int preparsedDocumentCacheSize) {
+    this.preparsedDocumentCacheSize = preparsedDocumentCacheSize;
+    return this;
+  }
 
-    // 创建 CodeRegistry
-    GraphQLCodeRegistry codeRegistry = GraphQLCodeRegistry
-      .newCodeRegistry()
-      .dataFetchers("Query", queryDataFetchers)
-      .dataFetchers("Mutation", mutationDataFetchers)
-      .build();
+  public GraphQL generateGraphQLWithSchemaObject(SessionFactory sf, List<String> includeSchemaNames) {
+    GraphQLSchemaBuilder schemaBuilder = new GraphQLSchemaBuilder(sf, includeSchemaNames);
+    schemaBuilder.refresh();
+    return newGraphQL(schemaBuilder.build());
+  }
 
-    // supports _join/_join_mutation
-    codeRegistry = codeRegistry.transform(builder -> joinDataFetchers.forEach(builder::dataFetchers));
+  /**
+   * 生成随模型变更自动重建的GraphQL，模型注册或注销后在后台只重新加载变更的模型，重建完成前继续使用旧的schema，
+   * 不再使用时需调用 {@link RefreshableGraphQL#close()}
+   */
+  public RefreshableGraphQL generateRefreshableGraphQL(SessionFactory sf, List<String> includeSchemaNames) {
+    return new RefreshableGraphQL(sf, new GraphQLSchemaBuilder(sf, includeSchemaNames), this::newGraphQL,
+      Executors.newSingleThreadExecutor(Thread.ofVirtual().name("flexmodel-graphql-rebuild").factory()));
+  }
 
-    RuntimeWiring runtimeWiring = newRuntimeWiring()
-      .codeRegistry(codeRegistry)
-      .scalar(ExtendedScalars.Json)
-      .scalar(ExtendedScalars.DateTime)
-      .scalar(ExtendedScalars.Date)
-      .scalar(ExtendedScalars.Time)
-      .build();
-    SchemaGenerator schemaGenerator = new SchemaGenerator();
-    GraphQLSchema graphQLSchema = schemaGenerator.makeExecutableSchema(typeDefinitionRegistry, runtimeWiring);
-    GraphQL graphQL = GraphQL.newGraphQL(graphQLSchema)
-      .instrumentation(new FlexmodelInstrumentation())
+  private GraphQL newGraphQL(GraphQLSchema graphQLSchema) {
+    // 关联字段通过 DataLoader 批量加载，AsyncExecutionStrategy 按层分派 DataLoader
+    return GraphQL.newGraphQL(graphQLSchema)
+      .queryExecutionStrategy(new AsyncExecutionStrategy())
+      .instrumentation(new FlexmodelInstrumentation(mutationTransactional))
+      .preparsedDocumentProvider(new FlexmodelPreparsedDocumentProvider(preparsedDocumentCacheSize))
       .build();
-    return graphQL;
   }
 
 }
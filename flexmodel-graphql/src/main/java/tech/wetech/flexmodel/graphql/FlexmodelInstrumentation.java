@@ -1,12 +1,17 @@
 package tech.wetech.flexmodel.graphql;
 
+import graphql.ExecutionInput;
 import graphql.ExecutionResult;
+import graphql.GraphQLContext;
+import graphql.GraphqlErrorBuilder;
 import graphql.execution.ExecutionContext;
 import graphql.execution.ExecutionStepInfo;
 import graphql.execution.instrumentation.DocumentAndVariables;
 import graphql.execution.instrumentation.Instrumentation;
 import graphql.execution.instrumentation.InstrumentationContext;
 import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.dataloader.EmptyDataLoaderRegistryInstance;
 import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
 import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
 import graphql.execution.instrumentation.parameters.InstrumentationFieldParameters;
@@ -14,13 +19,16 @@ import graphql.language.*;
 import graphql.util.Breadcrumb;
 import graphql.util.TraversalControl;
 import graphql.util.TraverserContext;
+import org.dataloader.DataLoaderRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringJoiner;
+import java.util.WeakHashMap;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -31,15 +39,57 @@ public class FlexmodelInstrumentation implements Instrumentation {
 
   private static final Logger log = LoggerFactory.getLogger(FlexmodelInstrumentation.class);
 
+  private final boolean mutationTransactional;
+  private final Map<Document, FlexmodelInstrumentationState> documentDirectives =
+    Collections.synchronizedMap(new WeakHashMap<>());
+
+  public FlexmodelInstrumentation() {
+    this(false);
+  }
+
+  /**
+   * @param mutationTransactional mutation默认是否在请求级事务中执行，可通过 GraphQLContext 中的
+   *                              {@link GraphQLSessionHolder#MUTATION_TRANSACTION} 按请求覆盖
+   */
+  public FlexmodelInstrumentation(boolean mutationTransactional) {
+    this.mutationTransactional = mutationTransactional;
+  }
+
   @Override
   public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
     return new FlexmodelInstrumentationState();
   }
 
+  /**
+   * 设置请求级事务的默认值；未指定 DataLoaderRegistry 时为每次请求创建一个，关联字段的 DataLoader 按需注册其中
+   */
+  @Override
+  public ExecutionInput instrumentExecutionInput(ExecutionInput executionInput, InstrumentationExecutionParameters parameters, InstrumentationState state) {
+    GraphQLContext graphQLContext = executionInput.getGraphQLContext();
+    if (!graphQLContext.hasKey(GraphQLSessionHolder.MUTATION_TRANSACTION)) {
+      graphQLContext.put(GraphQLSessionHolder.MUTATION_TRANSACTION, mutationTransactional);
+    }
+    if (executionInput.getDataLoaderRegistry() != EmptyDataLoaderRegistryInstance.EMPTY_DATALOADER_REGISTRY) {
+      return executionInput;
+    }
+    return executionInput.transform(builder -> builder.dataLoaderRegistry(new DataLoaderRegistry()));
+  }
+
+  /**
+   * 文档中的指令按文档实例缓存，配合 {@link FlexmodelPreparsedDocumentProvider} 复用文档时不再重复遍历
+   */
   @Override
   public DocumentAndVariables instrumentDocumentAndVariables(DocumentAndVariables documentAndVariables, InstrumentationExecutionParameters parameters, InstrumentationState state) {
     final FlexmodelInstrumentationState state1 = (FlexmodelInstrumentationState) state;
     Document document = documentAndVariables.getDocument();
+    FlexmodelInstrumentationState directives = documentDirectives.computeIfAbsent(document, this::collectDirectives);
+    state1.getTransformMap().putAll(directives.getTransformMap());
+    state1.getExportDirectiveMap().putAll(directives.getExportDirectiveMap());
+    return documentAndVariables;
+  }
+
+  private FlexmodelInstrumentationState collectDirectives(Document document) {
+    final FlexmodelInstrumentationState state1 = new FlexmodelInstrumentationState();
     // 使用 NodeVisitor 遍历节点
     NodeVisitor visitor = new NodeVisitorStub() {
       @Override
@@ -65,7 +115,7 @@ public class FlexmodelInstrumentation implements Instrumentation {
     // 使用 NodeTraverser 来遍历文档中的节点
     NodeTraverser traverser = new NodeTraverser();
     traverser.preOrder(visitor, document.getDefinitions());
-    return documentAndVariables;
+    return state1;
   }
 
   private String breadcrumbs2Path(List<Breadcrumb> breadcrumbs) {
@@ -81,8 +131,29 @@ public class FlexmodelInstrumentation implements Instrumentation {
     return joiner.toString();
   }
 
+  /**
+   * 执行完成后关闭本次执行共享的会话，存在错误时回滚请求级事务
+   */
+  @Override
+  public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters, InstrumentationState state) {
+    GraphQLContext graphQLContext = parameters.getGraphQLContext();
+    return SimpleInstrumentationContext.whenCompleted((result, t) -> {
+      GraphQLSessionHolder sessionHolder = graphQLContext.get(GraphQLSessionHolder.KEY);
+      if (sessionHolder != null) {
+        sessionHolder.close(t == null && result != null && result.getErrors().isEmpty());
+      }
+    });
+  }
+
   @Override
   public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult, InstrumentationExecutionParameters parameters, InstrumentationState state) {
+    GraphQLSessionHolder sessionHolder = parameters.getGraphQLContext().get(GraphQLSessionHolder.KEY);
+    if (sessionHolder != null && sessionHolder.getCompletionError() != null) {
+      // 提交失败时返回错误，避免客户端误认为修改已生效
+      executionResult = executionResult.transform(builder -> builder.addError(GraphqlErrorBuilder.newError()
+        .message("Transaction commit failed: " + sessionHolder.getCompletionError().getMessage())
+        .build()));
+    }
     Object data = executionResult.getData();
     if (data instanceof Map dataMap) {
       ((FlexmodelInstrumentationState) state).getTransformMap().forEach((key, value) -> {
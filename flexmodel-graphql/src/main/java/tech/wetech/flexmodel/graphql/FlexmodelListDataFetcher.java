@@ -2,7 +2,7 @@ package tech.wetech.flexmodel.graphql;
 
 import graphql.schema.DataFetchingEnvironment;
 import graphql.schema.SelectedField;
-import tech.wetech.flexmodel.JsonUtils;
+import tech.wetech.flexmodel.condition.ConditionNode;
 import tech.wetech.flexmodel.model.EntityDefinition;
 import tech.wetech.flexmodel.model.field.RelationField;
 import tech.wetech.flexmodel.model.field.TypedField;
@@ -34,69 +34,59 @@ public class FlexmodelListDataFetcher extends FlexmodelAbstractDataFetcher<List<
   }
 
   public List<Map<String, Object>> findRootData(DataFetchingEnvironment env) {
-    Integer pageNumber = getArgument(env, PAGE_NUMBER);
-    Integer pageSize = getArgument(env, PAGE_SIZE);
-    Map<String, String> orderBy = getArgument(env, ORDER_BY);
-    Map<String, Object> where = getArgument(env, WHERE);
+    Map<String, Object> arguments = getArguments(env);
+    Integer pageNumber = getArgument(arguments, PAGE_NUMBER);
+    Integer pageSize = getArgument(arguments, PAGE_SIZE);
+    Map<String, String> orderBy = getArgument(arguments, ORDER_BY);
+    Map<String, Object> where = getArgument(arguments, WHERE);
     List<SelectedField> selectedFields = env.getSelectionSet().getImmediateFields();
-    try (Session session = sessionFactory.createSession(schemaName)) {
-      EntityDefinition entity = (EntityDefinition) session.schema().getModel(modelName);
-      List<RelationField> relationFields = new ArrayList<>();
+    Session session = getSession(env);
+    EntityDefinition entity = (EntityDefinition) session.schema().getModel(modelName);
+    ConditionNode condition = toCondition(where);
 
-      String whereString = null;
-      if (where != null) {
-        whereString = JsonUtils.toJsonString(where);
-      }
-
-      Query.OrderBy sort;
-      if (orderBy != null) {
-        sort = new Query.OrderBy();
-        orderBy.forEach((k, v) -> sort.addOrder(k, Direction.valueOf(v.toUpperCase())));
-      } else {
-        sort = null;
-      }
+    Query.OrderBy sort;
+    if (orderBy != null) {
+      sort = new Query.OrderBy();
+      orderBy.forEach((k, v) -> sort.addOrder(k, Direction.valueOf(v.toUpperCase())));
+    } else {
+      sort = null;
+    }
 
-      Query.Page page = null;
-      if (pageSize != null && pageNumber != null) {
-        page = new Query.Page().setPageNumber(pageNumber).setPageSize(pageSize);
-      }
+    Query.Page page = null;
+    if (pageSize != null && pageNumber != null) {
+      page = new Query.Page().setPageNumber(pageNumber).setPageSize(pageSize);
+    }
 
-      List<Map<String, Object>> list = session.dsl()
-        .select(projection -> {
-          TypedField<?, ?> idField = entity.findIdField().orElseThrow();
-          projection.field(idField.getName(), field(entity.getName() + "." + idField.getName()));
-          for (SelectedField selectedField : selectedFields) {
-            TypedField<?, ?> flexModelField = entity.getField(selectedField.getName());
-            if (flexModelField == null) {
-              continue;
-            }
-            if (flexModelField instanceof RelationField secondaryRelationField) {
-              relationFields.add(secondaryRelationField);
-              continue;
-            }
-            projection.field(selectedField.getName(), field(flexModelField.getModelName() + "." + flexModelField.getName()));
+    List<Map<String, Object>> list = session.dsl()
+      .select(projection -> {
+        TypedField<?, ?> idField = entity.findIdField().orElseThrow();
+        projection.field(idField.getName(), field(entity.getName() + "." + idField.getName()));
+        for (SelectedField selectedField : selectedFields) {
+          TypedField<?, ?> flexModelField = entity.getField(selectedField.getName());
+          if (flexModelField == null) {
+            continue;
           }
-          return projection;
-        })
-        .from(entity.getName())
-        .where(whereString)
-        .orderBy(sort)
-        .page(page)
-        .execute();
-
-      List<Map<String, Object>> result = new ArrayList<>();
-      for (Map<String, Object> map : list) {
-        Map<String, Object> resultData = new HashMap<>(map);
-        result.add(resultData);
-        for (RelationField sencondaryRelationField : relationFields) {
-          Object secondaryId = map.get(entity.findIdField().map(TypedField::getName).orElseThrow());
-          List<Map<String, Object>> relationDataList = findRelationDataList(session, env, null, sencondaryRelationField.getFrom(), sencondaryRelationField, secondaryId);
-          resultData.put(sencondaryRelationField.getName(),
-            sencondaryRelationField.isMultiple() ? relationDataList : relationDataList.stream().findFirst().orElse(null));
+          if (flexModelField instanceof RelationField relationField) {
+            // 关联数据由 FlexmodelRelationDataFetcher 按关联键批量加载
+            String localField = FlexmodelRelationDataFetcher.getLocalField(entity, relationField);
+            projection.field(localField, field(entity.getName() + "." + localField));
+            continue;
+          }
+          projection.field(selectedField.getName(), field(flexModelField.getModelName() + "." + flexModelField.getName()));
         }
-      }
-      return result;
+        return projection;
+      })
+      .from(entity.getName())
+      .where(condition)
+      .orderBy(sort)
+      .page(page)
+      .execute();
+
+    List<Map<String, Object>> result = new ArrayList<>(list.size());
+    for (Map<String, Object> map : list) {
+      result.add(new HashMap<>(map));
     }
+    return result;
   }
 
 
@@ -20,15 +20,13 @@ public class FlexmodelMutationCreateDataFetcher extends FlexmodelAbstractDataFet
   public Map<String, Object> get(DataFetchingEnvironment environment) throws Exception {
     Map<String, Object> arguments = getArguments(environment);
     if (arguments.get("data") instanceof Map data) {
-      try (Session session = sessionFactory.createSession(schemaName)) {
+      Session session = getSession(environment);
+      session.dsl()
+        .insertInto(modelName)
+        .values(data)
+        .execute();
 
-        session.dsl()
-          .insertInto(modelName)
-          .values(data)
-          .execute();
-
-        return data;
-      }
+      return data;
     }
     return null;
   }
@@ -21,25 +21,23 @@ public class FlexmodelMutationDeleteByIdDataFetcher extends FlexmodelAbstractDat
 
   @Override
   public Map<String, Object> get(DataFetchingEnvironment environment) throws Exception {
-    Object id = getArgument(environment, ID);
-    try (Session session = sessionFactory.createSession(schemaName)) {
-
-      EntityDefinition entity = (EntityDefinition) session.schema().getModel(modelName);
-      Optional<TypedField<?, ?>> idFieldOptional = entity.findIdField();
-
-      Map<String, Object> data = session.dsl()
-        .select()
-        .from(modelName)
-        .where(Expressions.field(idFieldOptional.get().getName()).eq(id))
-        .executeOne();
-
-      session.dsl()
-        .deleteFrom(modelName)
-        .where(Expressions.field(idFieldOptional.get().getName()).eq(id))
-        .execute();
-
-      return data;
-    }
+    Object id = getArgument(getArguments(environment), ID);
+    Session session = getSession(environment);
+    EntityDefinition entity = (EntityDefinition) session.schema().getModel(modelName);
+    Optional<TypedField<?, ?>> idFieldOptional = entity.findIdField();
+
+    Map<String, Object> data = session.dsl()
+      .select()
+      .from(modelName)
+      .where(Expressions.field(idFieldOptional.get().getName()).eq(id))
+      .executeOne();
+
+    session.dsl()
+      .deleteFrom(modelName)
+      .where(Expressions.field(idFieldOptional.get().getName()).eq(id))
+      .execute();
+
+    return data;
   }
 
 }
@@ -18,17 +18,15 @@ public class FlexmodelMutationDeleteDataFetcher extends FlexmodelAbstractDataFet
 
   @Override
   public Map<String, Object> get(DataFetchingEnvironment environment) throws Exception {
-    Map<String, Object> where = getArgument(environment, WHERE);
+    Map<String, Object> where = getArgument(getArguments(environment), WHERE);
     final String filter = where != null ? JsonUtils.toJsonString(where) : null;
-    try (Session session = sessionFactory.createSession(schemaName)) {
+    Session session = getSession(environment);
+    int rows = session.dsl()
+      .deleteFrom(modelName)
+      .where(filter)
+      .execute();
 
-      int rows = session.dsl()
-        .deleteFrom(modelName)
-        .where(filter)
-        .execute();
-
-      return Map.of(AFFECTED_ROWS, rows);
-    }
+    return Map.of(AFFECTED_ROWS, rows);
   }
 
 }
@@ -21,31 +21,30 @@ public class FlexmodelMutationUpdateByIdDataFetcher extends FlexmodelAbstractDat
 
   @Override
   public Map<String, Object> get(DataFetchingEnvironment environment) throws Exception {
-    Object id = getArgument(environment, ID);
-    Map<String, Object> setValue = getArgument(environment, "_set");
+    Map<String, Object> arguments = getArguments(environment);
+    Object id = getArgument(arguments, ID);
+    Map<String, Object> setValue = getArgument(arguments, "_set");
     assert setValue != null;
 
-    try (Session session = sessionFactory.createSession(schemaName)) {
+    Session session = getSession(environment);
+    EntityDefinition entity = (EntityDefinition) session.schema().getModel(modelName);
+    Optional<TypedField<?, ?>> idFieldOptional = entity.findIdField();
 
-      EntityDefinition entity = (EntityDefinition) session.schema().getModel(modelName);
-      Optional<TypedField<?, ?>> idFieldOptional = entity.findIdField();
+    Map<String, Object> data = session.dsl()
+      .select()
+      .from(modelName)
+      .where(Expressions.field(idFieldOptional.get().getName()).eq(id))
+      .executeOne();
 
-      Map<String, Object> data = session.dsl()
-        .select()
-        .from(modelName)
-        .where(Expressions.field(idFieldOptional.get().getName()).eq(id))
-        .executeOne();
+    data.putAll(setValue);
 
-      data.putAll(setValue);
+    session.dsl()
+      .update(modelName)
+      .values(data)
+      .where(Expressions.field(idFieldOptional.get().getName()).eq(id))
+      .execute();
 
-      session.dsl()
-        .update(modelName)
-        .values(data)
-        .where(Expressions.field(idFieldOptional.get().getName()).eq(id))
-        .execute();
-
-      return data;
-    }
+    return data;
   }
 
 }
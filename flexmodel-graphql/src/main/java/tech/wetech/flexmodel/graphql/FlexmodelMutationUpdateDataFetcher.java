@@ -18,28 +18,26 @@ public class FlexmodelMutationUpdateDataFetcher extends FlexmodelAbstractDataFet
 
   @Override
   public Map<String, Object> get(DataFetchingEnvironment environment) throws Exception {
-    Map<String, Object> where = getArgument(environment, WHERE);
-    Map<String, Object> setValue = getArgument(environment, "_set");
-    final String filter = where != null ? JsonUtils.toJsonString(where) : null;
+    Map<String, Object> arguments = getArguments(environment);
+    Map<String, Object> where = getArgument(arguments, WHERE);
+    Map<String, Object> setValue = getArgument(arguments, "_set");
     assert setValue != null;
-    try (Session session = sessionFactory.createSession(schemaName)) {
-
-      Map<String, Object> data = session.dsl()
-        .select()
-        .from(modelName)
-        .where(filter)
-        .executeOne();
-
-      data.putAll(setValue);
-
-      int rows = session.dsl()
-        .update(modelName)
-        .values(data)
-        .where(filter)
-        .execute();
-
-      return Map.of(AFFECTED_ROWS, rows);
-    }
+    Session session = getSession(environment);
+    Map<String, Object> data = session.dsl()
+      .select()
+      .from(modelName)
+      .where(toCondition(where))
+      .executeOne();
+
+    data.putAll(setValue);
+
+    int rows = session.dsl()
+      .update(modelName)
+      .values(data)
+      .where(where != null ? JsonUtils.toJsonString(where) : null)
+      .execute();
+
+    return Map.of(AFFECTED_ROWS, rows);
   }
 
 }
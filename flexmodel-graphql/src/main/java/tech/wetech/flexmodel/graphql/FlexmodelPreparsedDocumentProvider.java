@@ -0,0 +1,132 @@
+package tech.wetech.flexmodel.graphql;
+
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQueryError;
+import graphql.execution.preparsed.persisted.PersistedQueryIdInvalid;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * 解析及校验后的文档缓存，按查询文本的sha256缓存，相同的查询不再重复解析和校验。
+ * <p>
+ * 同时支持 Automatic Persisted Query：请求 extensions 中带有 {@code persistedQuery.sha256Hash} 时，
+ * 客户端可以只发送hash；未命中时返回 PersistedQueryNotFound 错误，客户端再携带完整查询重试。
+ * 缓存的文档和当前schema绑定，schema重新生成时应使用新的实例。
+ *
+ * @author cjbi
+ */
+public class FlexmodelPreparsedDocumentProvider implements PreparsedDocumentProvider {
+
+  public static final int DEFAULT_MAX_SIZE = 1000;
+
+  private final int maxSize;
+  private final Map<String, PreparsedDocumentEntry> documents;
+
+  public FlexmodelPreparsedDocumentProvider() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  public FlexmodelPreparsedDocumentProvider(int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be greater than 0");
+    }
+    this.maxSize = maxSize;
+    this.documents = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, PreparsedDocumentEntry> eldest) {
+        return size() > FlexmodelPreparsedDocumentProvider.this.maxSize;
+      }
+    };
+  }
+
+  @Override
+  public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                    Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+    String query = executionInput.getQuery();
+    boolean hasQuery = query != null && !query.isBlank() && !PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query);
+    String persistedQueryId = getPersistedQueryId(executionInput);
+    String hash;
+    if (persistedQueryId == null) {
+      if (!hasQuery) {
+        return CompletableFuture.completedFuture(parseAndValidateFunction.apply(executionInput));
+      }
+      hash = sha256(query);
+    } else {
+      hash = persistedQueryId.toLowerCase();
+      if (hasQuery && !hash.equals(sha256(query))) {
+        PersistedQueryIdInvalid error = new PersistedQueryIdInvalid(persistedQueryId);
+        return CompletableFuture.completedFuture(toErrorEntry(error, error.getExtensions()));
+      }
+    }
+    PreparsedDocumentEntry entry;
+    synchronized (documents) {
+      entry = documents.get(hash);
+    }
+    if (entry != null) {
+      return CompletableFuture.completedFuture(entry);
+    }
+    if (!hasQuery) {
+      PersistedQueryNotFound error = new PersistedQueryNotFound(persistedQueryId);
+      return CompletableFuture.completedFuture(toErrorEntry(error, error.getExtensions()));
+    }
+    entry = parseAndValidateFunction.apply(executionInput);
+    if (!entry.hasErrors()) {
+      synchronized (documents) {
+        documents.put(hash, entry);
+      }
+    }
+    return CompletableFuture.completedFuture(entry);
+  }
+
+  /**
+   * 清空缓存的文档
+   */
+  public void invalidateAll() {
+    synchronized (documents) {
+      documents.clear();
+    }
+  }
+
+  /**
+   * 与 {@link PersistedQuerySupport} 一致，将持久化查询错误转换为 GraphQL 错误
+   */
+  private static PreparsedDocumentEntry toErrorEntry(PersistedQueryError error, Map<String, Object> extensions) {
+    return new PreparsedDocumentEntry(GraphqlErrorBuilder.newError()
+      .errorType(error)
+      .message(error.getMessage())
+      .extensions(extensions)
+      .build());
+  }
+
+  @SuppressWarnings("unchecked")
+  private String getPersistedQueryId(ExecutionInput executionInput) {
+    Map<String, Object> extensions = executionInput.getExtensions();
+    if (extensions == null || !(extensions.get("persistedQuery") instanceof Map<?, ?> persistedQuery)) {
+      return null;
+    }
+    Object sha256Hash = ((Map<String, Object>) persistedQuery).get("sha256Hash");
+    return sha256Hash != null ? sha256Hash.toString() : null;
+  }
+
+  private static String sha256(String text) {
+    try {
+      MessageDigest md = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(md.digest(text.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+}
@@ -0,0 +1,102 @@
+package tech.wetech.flexmodel.graphql;
+
+import graphql.schema.DataFetchingEnvironment;
+import org.dataloader.BatchLoader;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderFactory;
+import org.dataloader.DataLoaderOptions;
+import tech.wetech.flexmodel.model.EntityDefinition;
+import tech.wetech.flexmodel.model.field.RelationField;
+import tech.wetech.flexmodel.model.field.TypedField;
+import tech.wetech.flexmodel.session.Session;
+import tech.wetech.flexmodel.session.SessionFactory;
+
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static tech.wetech.flexmodel.query.Expressions.field;
+
+/**
+ * 关联字段数据获取，同一层所有父级数据的关联键通过 DataLoader 合并为一次查询，
+ * DataLoader 注册在每次请求的 DataLoaderRegistry 中，请求内相同的关联键只查询一次，查询使用当前执行共享的会话
+ *
+ * @author cjbi
+ */
+public class FlexmodelRelationDataFetcher extends FlexmodelAbstractDataFetcher<CompletableFuture<Object>> {
+
+  /**
+   * 单次批量查询的最大关联键个数
+   */
+  static final int MAX_BATCH_SIZE = 1000;
+
+  private final RelationField relationField;
+  private final String localField;
+  private final String dataLoaderKey;
+
+  public FlexmodelRelationDataFetcher(String schemaName, EntityDefinition entity, RelationField relationField, SessionFactory sessionFactory) {
+    super(schemaName, entity.getName(), sessionFactory);
+    this.relationField = relationField;
+    this.localField = getLocalField(entity, relationField);
+    this.dataLoaderKey = schemaName + "." + entity.getName() + "." + relationField.getName();
+  }
+
+  /**
+   * 关联字段在父级模型上对应的字段，未指定时为主键
+   */
+  static String getLocalField(EntityDefinition entity, RelationField relationField) {
+    return relationField.getLocalField() != null ?
+      relationField.getLocalField() :
+      entity.findIdField().map(TypedField::getName).orElseThrow();
+  }
+
+  @Override
+  public CompletableFuture<Object> get(DataFetchingEnvironment env) {
+    Map<String, Object> source = env.getSource();
+    Object localKeyValue = source != null ? source.get(localField) : null;
+    if (localKeyValue == null) {
+      return CompletableFuture.completedFuture(relationField.isMultiple() ? List.of() : null);
+    }
+    DataLoader<Object, List<Map<String, Object>>> dataLoader = env.getDataLoaderRegistry()
+      .computeIfAbsent(dataLoaderKey, key -> newDataLoader(createBatchLoader(getSession(env)), MAX_BATCH_SIZE));
+    return dataLoader.load(normalizeKey(localKeyValue))
+      .thenApply(list -> relationField.isMultiple() ? list : list.stream().findFirst().orElse(null));
+  }
+
+  /**
+   * 创建 DataLoader，超过批量大小的关联键拆分为多次查询
+   */
+  static <K, V> DataLoader<K, V> newDataLoader(BatchLoader<K, V> batchLoader, int maxBatchSize) {
+    return DataLoaderFactory.newDataLoader(batchLoader, DataLoaderOptions.newOptions().setMaxBatchSize(maxBatchSize));
+  }
+
+  BatchLoader<Object, List<Map<String, Object>>> createBatchLoader(Session session) {
+    return keys -> {
+      Map<Object, List<Map<String, Object>>> group = new HashMap<>();
+      List<Map<String, Object>> list = session.dsl()
+        .selectFrom(relationField.getFrom())
+        .where(field(relationField.getForeignField()).in(keys))
+        .execute();
+      for (Map<String, Object> dataItem : list) {
+        group.computeIfAbsent(normalizeKey(dataItem.get(relationField.getForeignField())), k -> new ArrayList<>())
+          .add(dataItem);
+      }
+      List<List<Map<String, Object>>> result = new ArrayList<>(keys.size());
+      for (Object key : keys) {
+        result.add(group.getOrDefault(key, List.of()));
+      }
+      return CompletableFuture.completedFuture(result);
+    };
+  }
+
+  /**
+   * 关联两端的字段类型可能不同（如int与bigint），整数统一为Long后再比较
+   */
+  static Object normalizeKey(Object value) {
+    if (value instanceof Integer || value instanceof Short || value instanceof Byte || value instanceof BigInteger) {
+      return ((Number) value).longValue();
+    }
+    return value;
+  }
+
+}
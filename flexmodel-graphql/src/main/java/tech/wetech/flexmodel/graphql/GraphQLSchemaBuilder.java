@@ -0,0 +1,463 @@
+package tech.wetech.flexmodel.graphql;
+
+import graphql.Scalars;
+import graphql.introspection.Introspection;
+import graphql.scalars.ExtendedScalars;
+import graphql.schema.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.wetech.flexmodel.model.EntityDefinition;
+import tech.wetech.flexmodel.model.EnumDefinition;
+import tech.wetech.flexmodel.model.SchemaObject;
+import tech.wetech.flexmodel.model.field.EnumRefField;
+import tech.wetech.flexmodel.model.field.RelationField;
+import tech.wetech.flexmodel.model.field.ScalarType;
+import tech.wetech.flexmodel.model.field.TypedField;
+import tech.wetech.flexmodel.session.SessionFactory;
+
+import java.util.*;
+
+import static graphql.schema.GraphQLArgument.newArgument;
+import static graphql.schema.GraphQLFieldDefinition.newFieldDefinition;
+import static graphql.schema.GraphQLInputObjectField.newInputObjectField;
+import static graphql.schema.GraphQLList.list;
+import static graphql.schema.GraphQLNonNull.nonNull;
+import static graphql.schema.GraphQLTypeReference.typeRef;
+
+/**
+ * 以编程方式构建GraphQL schema，不经过SDL文本的生成和解析。
+ * <p>
+ * 模型定义及其数据获取器按模型缓存，模型变更时通过 {@link #refresh(String, String)} 只重新加载变更的模型。
+ * GraphQL类型对象在构建schema时会被就地解析类型引用，不能跨schema复用，因此每次 {@link #build()} 都重新创建类型对象。
+ *
+ * @author cjbi
+ */
+public class GraphQLSchemaBuilder {
+
+  private static final Logger log = LoggerFactory.getLogger(GraphQLSchemaBuilder.class);
+
+  private static final String QUERY = "Query";
+  private static final String MUTATION = "Mutation";
+  private static final String MUTATION_RESPONSE = "mutation_response";
+  private static final String ORDER_BY = "order_by";
+  private static final String JOIN = "_join";
+  private static final String JOIN_MUTATION = "_join_mutation";
+
+  private static final Map<String, GraphQLScalarType> TYPE_MAPPING = Map.of(
+    ScalarType.STRING_TYPE, Scalars.GraphQLString,
+    ScalarType.FLOAT_TYPE, Scalars.GraphQLFloat,
+    ScalarType.INT_TYPE, Scalars.GraphQLInt,
+    ScalarType.LONG_TYPE, Scalars.GraphQLInt,
+    ScalarType.BOOLEAN_TYPE, Scalars.GraphQLBoolean,
+    ScalarType.DATETIME_TYPE, Scalars.GraphQLString,
+    ScalarType.DATE_TYPE, Scalars.GraphQLString,
+    ScalarType.TIME_TYPE, Scalars.GraphQLString,
+    ScalarType.JSON_TYPE, ExtendedScalars.Json
+  );
+
+  private static final Map<String, String> COMPARISON_MAPPING = Map.of(
+    ScalarType.STRING_TYPE, "String_comparison_exp",
+    ScalarType.FLOAT_TYPE, "Float_comparison_exp",
+    ScalarType.INT_TYPE, "Int_comparison_exp",
+    ScalarType.LONG_TYPE, "Int_comparison_exp",
+    ScalarType.BOOLEAN_TYPE, "Boolean_comparison_exp",
+    ScalarType.DATETIME_TYPE, "DateTime_comparison_exp",
+    ScalarType.DATE_TYPE, "Date_comparison_exp",
+    ScalarType.TIME_TYPE, "Time_comparison_exp",
+    ScalarType.JSON_TYPE, "JSON_comparison_exp"
+  );
+
+  private final SessionFactory sessionFactory;
+  private final List<String> includeSchemaNames;
+  private final I18nUtil i18n = new I18nUtil();
+  /**
+   * schema名称 -> 模型名称 -> 模型定义
+   */
+  private final Map<String, Map<String, SchemaObject>> models = new LinkedHashMap<>();
+  /**
+   * schema名称 -> 模型名称 -> 模型的数据获取器
+   */
+  private final Map<String, Map<String, Map<FieldCoordinates, DataFetcher<?>>>> dataFetchers = new HashMap<>();
+
+  public GraphQLSchemaBuilder(SessionFactory sessionFactory, List<String> includeSchemaNames) {
+    this.sessionFactory = sessionFactory;
+    this.includeSchemaNames = includeSchemaNames;
+  }
+
+  /**
+   * 重新加载所有schema的模型
+   */
+  public synchronized void refresh() {
+    models.clear();
+    dataFetchers.clear();
+    for (String schemaName : sessionFactory.getSchemaNames()) {
+      refresh(schemaName, null);
+    }
+  }
+
+  /**
+   * 重新加载变更的模型
+   *
+   * @param schemaName schema名称
+   * @param modelName  模型名称，为空时重新加载整个schema
+   */
+  public synchronized void refresh(String schemaName, String modelName) {
+    if (!includeSchemaNames.contains(schemaName)) {
+      log.debug("Generate GraphQL,Ignore schema: {}", schemaName);
+      return;
+    }
+    if (modelName == null) {
+      log.debug("Generate graphQL schema: {}", schemaName);
+      models.remove(schemaName);
+      dataFetchers.remove(schemaName);
+      for (SchemaObject model : sessionFactory.getModels(schemaName)) {
+        putModel(schemaName, model);
+      }
+      return;
+    }
+    SchemaObject model = sessionFactory.getModelRegistry().getRegistered(schemaName, modelName);
+    if (model == null) {
+      log.debug("Remove graphQL model: {}", modelName);
+      Optional.ofNullable(models.get(schemaName)).ifPresent(schemaModels -> schemaModels.remove(modelName));
+      Optional.ofNullable(dataFetchers.get(schemaName)).ifPresent(schemaDataFetchers -> schemaDataFetchers.remove(modelName));
+      return;
+    }
+    putModel(schemaName, model);
+  }
+
+  private void putModel(String schemaName, SchemaObject model) {
+    if (!(model instanceof EntityDefinition) && !(model instanceof EnumDefinition)) {
+      // 暂时忽略非实体类型
+      log.debug("Ignore model: {}", model.getName());
+      return;
+    }
+    log.debug("Generate graphQL model: {}", model.getName());
+    models.computeIfAbsent(schemaName, k -> new LinkedHashMap<>()).put(model.getName(), model);
+    Map<String, Map<FieldCoordinates, DataFetcher<?>>> schemaDataFetchers = dataFetchers.computeIfAbsent(schemaName, k -> new HashMap<>());
+    if (model instanceof EntityDefinition entity) {
+      schemaDataFetchers.put(model.getName(), createDataFetchers(schemaName, entity));
+    } else {
+      schemaDataFetchers.remove(model.getName());
+    }
+  }
+
+  private Map<FieldCoordinates, DataFetcher<?>> createDataFetchers(String schemaName, EntityDefinition entity) {
+    Map<FieldCoordinates, DataFetcher<?>> result = new HashMap<>();
+    String key = schemaName + "_" + entity.getName();
+    for (DataFetchers fetchType : DataFetchers.values()) {
+      result.put(FieldCoordinates.coordinates(fetchType.isQuery() ? QUERY : MUTATION, fetchType.getKeyFunc().apply(schemaName, entity.getName())),
+        fetchType.getDataFetcherFunc().apply(schemaName, entity.getName(), sessionFactory));
+    }
+    for (TypedField<?, ?> field : entity.getFields()) {
+      if (field instanceof RelationField relationField) {
+        result.put(FieldCoordinates.coordinates(key, relationField.getName()),
+          new FlexmodelRelationDataFetcher(schemaName, entity, relationField, sessionFactory));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * 根据当前缓存的模型构建schema
+   */
+  public synchronized GraphQLSchema build() {
+    Set<String> enumNames = new HashSet<>();
+    models.values().forEach(schemaModels -> schemaModels.values().forEach(model -> {
+      if (model instanceof EnumDefinition) {
+        enumNames.add(model.getName());
+      }
+    }));
+
+    GraphQLObjectType.Builder query = GraphQLObjectType.newObject()
+      .name(QUERY)
+      .description(i18n.getString("gql.query.comment"));
+    GraphQLObjectType.Builder mutation = GraphQLObjectType.newObject()
+      .name(MUTATION)
+      .description(i18n.getString("gql.mutation.comment"));
+    Set<GraphQLType> types = new LinkedHashSet<>();
+    GraphQLCodeRegistry.Builder codeRegistry = GraphQLCodeRegistry.newCodeRegistry();
+    // supports _join/_join_mutation
+    Map<String, DataFetcher<?>> joinMap = Map.of(
+      JOIN, (DataFetcher<?>) environment -> Map.of(),
+      JOIN_MUTATION, (DataFetcher<?>) environment -> Map.of()
+    );
+    codeRegistry.dataFetchers(MUTATION_RESPONSE, joinMap);
+
+    models.forEach((schemaName, schemaModels) -> schemaModels.values().forEach(model -> {
+      if (model instanceof EntityDefinition entity) {
+        String key = schemaName + "_" + entity.getName();
+        addQueryFields(query, schemaName, entity);
+        addMutationFields(mutation, schemaName, entity);
+        addEntityTypes(types, schemaName, entity, enumNames);
+        codeRegistry.dataFetchers(key, joinMap);
+        codeRegistry.dataFetchers(key + "_aggregate", joinMap);
+      } else if (model instanceof EnumDefinition anEnum) {
+        addEnumTypes(types, schemaName, anEnum);
+      }
+    }));
+    dataFetchers.values().forEach(schemaDataFetchers -> schemaDataFetchers.values()
+      .forEach(modelDataFetchers -> modelDataFetchers.forEach(codeRegistry::dataFetcher)));
+    addCommonTypes(types);
+
+    return GraphQLSchema.newSchema()
+      .query(query)
+      .mutation(mutation)
+      .additionalTypes(types)
+      .additionalDirectives(createDirectives())
+      .codeRegistry(codeRegistry.build())
+      .build();
+  }
+
+  private void addQueryFields(GraphQLObjectType.Builder query, String schemaName, EntityDefinition entity) {
+    String modelName = entity.getName();
+    String key = schemaName + "_" + modelName;
+    query.field(newFieldDefinition()
+      .name(DataFetchers.FIND.getKeyFunc().apply(schemaName, modelName))
+      .description(i18n.getString("gql.query.find.comment", schemaName, modelName))
+      .arguments(createListArguments(key))
+      .type(nonNull(list(nonNull(typeRef(key))))));
+    query.field(newFieldDefinition()
+      .name(DataFetchers.AGGREGATE.getKeyFunc().apply(schemaName, modelName))
+      .description(i18n.getString("gql.query.aggregate.comment", schemaName, modelName))
+      .arguments(createListArguments(key))
+      .type(nonNull(typeRef(key + "_aggregate"))));
+    query.field(newFieldDefinition()
+      .name(DataFetchers.FIND_ONE.getKeyFunc().apply(schemaName, modelName))
+      .description(i18n.getString("gql.query.find_one.comment", schemaName, modelName))
+      .argument(newArgument().name("where").description("filter the rows returned").type(typeRef(key + "_bool_exp")))
+      .type(typeRef(key)));
+  }
+
+  private List<GraphQLArgument> createListArguments(String key) {
+    return List.of(
+      newArgument().name("where").description(i18n.getString("gql.query.where.comment")).type(typeRef(key + "_bool_exp")).build(),
+      newArgument().name("order_by").description(i18n.getString("gql.query.order_by.comment")).type(typeRef(key + "_order_by")).build(),
+      newArgument().name("size").description(i18n.getString("gql.query.size.comment")).type(Scalars.GraphQLInt).build(),
+      newArgument().name("page").description(i18n.getString("gql.query.page.comment")).type(Scalars.GraphQLInt).build()
+    );
+  }
+
+  private void addMutationFields(GraphQLObjectType.Builder mutation, String schemaName, EntityDefinition entity) {
+    String modelName = entity.getName();
+    String key = schemaName + "_" + modelName;
+    mutation.field(newFieldDefinition()
+      .name(DataFetchers.MUTATION_DELETE.getKeyFunc().apply(schemaName, modelName))
+      .description(i18n.getString("gql.mutation.delete.comment", schemaName, modelName))
+      .argument(newArgument().name("where").description(i18n.getString("gql.mutation.delete.filter.comment")).type(nonNull(typeRef(key + "_bool_exp"))))
+      .type(typeRef(MUTATION_RESPONSE)));
+    if (entity.findIdField().isPresent()) {
+      mutation.field(newFieldDefinition()
+        .name(DataFetchers.MUTATION_DELETE_BY_ID.getKeyFunc().apply(schemaName, modelName))
+        .description(i18n.getString("gql.mutation.delete_by_id.comment", schemaName, modelName))
+        .argument(newArgument().name("id").type(nonNull(Scalars.GraphQLID)))
+        .type(typeRef(key)));
+      mutation.field(newFieldDefinition()
+        .name(DataFetchers.MUTATION_UPDATE_BY_ID.getKeyFunc().apply(schemaName, modelName))
+        .description(i18n.getString("gql.mutation.update_by_id.comment", schemaName, modelName))
+        .argument(newArgument().name("_set").type(typeRef(key + "_set_input")))
+        .argument(newArgument().name("id").type(nonNull(Scalars.GraphQLID)))
+        .type(typeRef(key)));
+    }
+    mutation.field(newFieldDefinition()
+      .name(DataFetchers.MUTATION_CREATE.getKeyFunc().apply(schemaName, modelName))
+      .description(i18n.getString("gql.mutation.create.comment", schemaName, modelName))
+      .argument(newArgument().name("data").type(typeRef(key + "_insert_input")))
+      .type(typeRef(key)));
+    mutation.field(newFieldDefinition()
+      .name(DataFetchers.MUTATION_UPDATE.getKeyFunc().apply(schemaName, modelName))
+      .description(i18n.getString("gql.mutation.update.comment", schemaName, modelName))
+      .argument(newArgument().name("_set").type(typeRef(key + "_set_input")))
+      .argument(newArgument().name("where").type(nonNull(typeRef(key + "_bool_exp"))))
+      .type(typeRef(MUTATION_RESPONSE)));
+  }
+
+  private void addEntityTypes(Set<GraphQLType> types, String schemaName, EntityDefinition entity, Set<String> enumNames) {
+    String key = schemaName + "_" + entity.getName();
+    GraphQLObjectType.Builder objectType = GraphQLObjectType.newObject()
+      .name(key)
+      .description(i18n.getString("gql.type.model.comment", schemaName, entity.getName()));
+    GraphQLObjectType.Builder avgFields = GraphQLObjectType.newObject().name(key + "_avg_fields");
+    GraphQLInputObjectType.Builder boolExp = GraphQLInputObjectType.newInputObject()
+      .name(key + "_bool_exp")
+      .description(i18n.getString("gql.bool_expr.comment", key))
+      .field(newInputObjectField().name("_and").type(list(nonNull(typeRef(key + "_bool_exp")))))
+      .field(newInputObjectField().name("_or").type(list(nonNull(typeRef(key + "_bool_exp")))));
+    GraphQLInputObjectType.Builder orderBy = GraphQLInputObjectType.newInputObject()
+      .name(key + "_order_by")
+      .description(i18n.getString("gql.order_by.comment", key));
+    GraphQLInputObjectType.Builder insertInput = GraphQLInputObjectType.newInputObject().name(key + "_insert_input");
+    GraphQLInputObjectType.Builder setInput = GraphQLInputObjectType.newInputObject().name(key + "_set_input");
+    GraphQLEnumType.Builder selectField = GraphQLEnumType.newEnum().name(key + "_select_field");
+
+    for (TypedField<?, ?> field : entity.getFields()) {
+      objectType.field(newFieldDefinition().name(field.getName()).type((GraphQLOutputType) toGraphQLType(schemaName, field, enumNames)));
+      if (field instanceof EnumRefField enumField && enumNames.contains(enumField.getFrom())) {
+        boolExp.field(newInputObjectField().name(field.getName()).type(typeRef(schemaName + "_" + enumField.getFrom() + "_comparison_exp")));
+      } else if (field instanceof RelationField || field instanceof EnumRefField) {
+        boolExp.field(newInputObjectField().name(field.getName()).type(typeRef("String_comparison_exp")));
+      } else {
+        boolExp.field(newInputObjectField().name(field.getName()).type(typeRef(COMPARISON_MAPPING.get(field.getType()))));
+      }
+      if (field instanceof RelationField) {
+        continue;
+      }
+      avgFields.field(newFieldDefinition().name(field.getName()).type(Scalars.GraphQLFloat));
+      orderBy.field(newInputObjectField().name(field.getName()).type(typeRef(ORDER_BY)));
+      insertInput.field(newInputObjectField().name(field.getName()).type((GraphQLInputType) toGraphQLType(schemaName, field, enumNames)));
+      setInput.field(newInputObjectField().name(field.getName()).type((GraphQLInputType) toGraphQLType(schemaName, field, enumNames)));
+      selectField.value(field.getName());
+    }
+    addJoinFields(objectType);
+
+    GraphQLObjectType.Builder aggregate = GraphQLObjectType.newObject()
+      .name(key + "_aggregate")
+      .field(newFieldDefinition()
+        .name("_count")
+        .argument(newArgument().name("distinct").type(Scalars.GraphQLBoolean))
+        .argument(newArgument().name("field").type(typeRef(key + "_select_field")))
+        .type(nonNull(Scalars.GraphQLInt)))
+      .field(newFieldDefinition().name("_max").type(nonNull(typeRef(key))))
+      .field(newFieldDefinition().name("_min").type(nonNull(typeRef(key))))
+      .field(newFieldDefinition().name("_sum").type(nonNull(typeRef(key))))
+      .field(newFieldDefinition().name("_avg").type(nonNull(typeRef(key + "_avg_fields"))));
+    addJoinFields(aggregate);
+
+    types.add(objectType.build());
+    types.add(aggregate.build());
+    types.add(avgFields.build());
+    types.add(boolExp.build());
+    types.add(orderBy.build());
+    types.add(insertInput.build());
+    types.add(setInput.build());
+    types.add(selectField.build());
+  }
+
+  private GraphQLType toGraphQLType(String schemaName, TypedField<?, ?> field, Set<String> enumNames) {
+    if (field instanceof RelationField relationField) {
+      GraphQLTypeReference type = typeRef(schemaName + "_" + relationField.getFrom());
+      return relationField.isMultiple() ? list(type) : type;
+    }
+    if (field instanceof EnumRefField enumField) {
+      if (!enumNames.contains(enumField.getFrom())) {
+        return Scalars.GraphQLString;
+      }
+      GraphQLTypeReference type = typeRef(schemaName + "_" + enumField.getFrom());
+      return enumField.isMultiple() ? list(type) : type;
+    }
+    if (field.isIdentity()) {
+      return Scalars.GraphQLID;
+    }
+    return TYPE_MAPPING.get(field.getType());
+  }
+
+  private void addJoinFields(GraphQLObjectType.Builder objectType) {
+    objectType
+      .field(newFieldDefinition().name(JOIN).type(typeRef(QUERY)))
+      .field(newFieldDefinition().name(JOIN_MUTATION).type(typeRef(MUTATION)));
+  }
+
+  private void addEnumTypes(Set<GraphQLType> types, String schemaName, EnumDefinition anEnum) {
+    String key = schemaName + "_" + anEnum.getName();
+    GraphQLEnumType.Builder enumType = GraphQLEnumType.newEnum().name(key);
+    anEnum.getElements().forEach(enumType::value);
+    types.add(enumType.build());
+    types.add(GraphQLInputObjectType.newInputObject()
+      .name(key + "_comparison_exp")
+      .description(i18n.getString("gql.comparison_exp.comment", "EnumRef"))
+      .field(newInputObjectField().name("_eq").type(typeRef(key)))
+      .field(newInputObjectField().name("_ne").type(typeRef(key)))
+      .field(newInputObjectField().name("_in").type(list(nonNull(typeRef(key)))))
+      .field(newInputObjectField().name("_nin").type(list(nonNull(typeRef(key)))))
+      .build());
+  }
+
+  private void addCommonTypes(Set<GraphQLType> types) {
+    types.add(ExtendedScalars.Json);
+    types.add(ExtendedScalars.DateTime);
+    types.add(ExtendedScalars.Date);
+    types.add(ExtendedScalars.Time);
+    types.add(createComparisonExp("Int", Scalars.GraphQLInt, false, false));
+    types.add(createComparisonExp("Float", Scalars.GraphQLFloat, false, false));
+    types.add(createComparisonExp("String", Scalars.GraphQLString, true, false));
+    types.add(createComparisonExp("JSON", Scalars.GraphQLString, true, false));
+    types.add(GraphQLInputObjectType.newInputObject()
+      .name("Boolean_comparison_exp")
+      .description(i18n.getString("gql.comparison_exp.comment", "Boolean"))
+      .field(newInputObjectField().name("_eq").type(Scalars.GraphQLBoolean))
+      .field(newInputObjectField().name("_ne").type(Scalars.GraphQLBoolean))
+      .build());
+    types.add(createComparisonExp("Date", ExtendedScalars.Date, false, true));
+    types.add(createComparisonExp("DateTime", ExtendedScalars.DateTime, false, true));
+    types.add(createComparisonExp("Time", ExtendedScalars.Time, false, true));
+    types.add(GraphQLEnumType.newEnum()
+      .name(ORDER_BY)
+      .description(i18n.getString("gql.enum.order_by.comment"))
+      .value("asc", "asc", i18n.getString("gql.enum.order_by.asc.comment"))
+      .value("desc", "desc", i18n.getString("gql.enum.order_by.desc.comment"))
+      .build());
+    GraphQLObjectType.Builder mutationResponse = GraphQLObjectType.newObject()
+      .name(MUTATION_RESPONSE)
+      .description(i18n.getString("gql.mutation.response.comment"))
+      .field(newFieldDefinition()
+        .name("affected_rows")
+        .description(i18n.getString("gql.mutation.response.affected_rows.comment"))
+        .type(nonNull(Scalars.GraphQLInt)));
+    addJoinFields(mutationResponse);
+    types.add(mutationResponse.build());
+  }
+
+  /**
+   * 字符串类型支持模糊匹配，日期类型支持区间，其余类型支持比较运算
+   */
+  private GraphQLInputObjectType createComparisonExp(String name, GraphQLInputType type, boolean textual, boolean between) {
+    GraphQLInputObjectType.Builder builder = GraphQLInputObjectType.newInputObject()
+      .name(name + "_comparison_exp")
+      .description(i18n.getString("gql.comparison_exp.comment", name))
+      .field(newInputObjectField().name("_eq").type(type))
+      .field(newInputObjectField().name("_ne").type(type));
+    if (!textual) {
+      builder
+        .field(newInputObjectField().name("_gt").type(type))
+        .field(newInputObjectField().name("_lt").type(type))
+        .field(newInputObjectField().name("_gte").type(type))
+        .field(newInputObjectField().name("_lte").type(type));
+    }
+    builder
+      .field(newInputObjectField().name("_in").type(list(nonNull(type))))
+      .field(newInputObjectField().name("_nin").type(list(nonNull(type))));
+    if (textual) {
+      builder
+        .field(newInputObjectField().name("_contains").type(Scalars.GraphQLString))
+        .field(newInputObjectField().name("_not_contains").type(Scalars.GraphQLString))
+        .field(newInputObjectField().name("_starts_with").type(Scalars.GraphQLString))
+        .field(newInputObjectField().name("_ends_with").type(Scalars.GraphQLString));
+    }
+    if (between) {
+      builder.field(newInputObjectField().name("_between").type(list(nonNull(type))));
+    }
+    return builder.build();
+  }
+
+  private Set<GraphQLDirective> createDirectives() {
+    return Set.of(
+      GraphQLDirective.newDirective()
+        .name("internal")
+        .description(i18n.getString("gql.directive.internal.comment"))
+        .validLocation(Introspection.DirectiveLocation.VARIABLE_DEFINITION)
+        .build(),
+      GraphQLDirective.newDirective()
+        .name("export")
+        .description(i18n.getString("gql.directive.export.comment"))
+        .validLocation(Introspection.DirectiveLocation.FIELD)
+        .argument(newArgument().name("as").type(Scalars.GraphQLString))
+        .build(),
+      GraphQLDirective.newDirective()
+        .name("transform")
+        .description(i18n.getString("gql.directive.transform.comment"))
+        .validLocation(Introspection.DirectiveLocation.FIELD)
+        .argument(newArgument().name("get").type(nonNull(Scalars.GraphQLString)))
+        .build()
+    );
+  }
+
+}
@@ -0,0 +1,109 @@
+package tech.wetech.flexmodel.graphql;
+
+import graphql.GraphQLContext;
+import graphql.language.OperationDefinition;
+import graphql.schema.DataFetchingEnvironment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.wetech.flexmodel.session.Session;
+import tech.wetech.flexmodel.session.SessionFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 一次GraphQL执行内共享的会话，按schema懒创建，保存在 GraphQLContext 中，
+ * 由 {@link FlexmodelInstrumentation} 在执行完成后关闭。
+ * <p>
+ * 开启请求级事务时（GraphQLContext 中 {@link #MUTATION_TRANSACTION} 为true），mutation的会话在创建时开启事务，
+ * 执行无错误时提交，否则回滚。
+ *
+ * @author cjbi
+ */
+public class GraphQLSessionHolder {
+
+  private static final Logger log = LoggerFactory.getLogger(GraphQLSessionHolder.class);
+
+  /**
+   * GraphQLContext 中保存会话的键
+   */
+  public static final String KEY = GraphQLSessionHolder.class.getName();
+  /**
+   * GraphQLContext 中是否开启mutation请求级事务的键
+   */
+  public static final String MUTATION_TRANSACTION = "__MUTATION_TRANSACTION";
+
+  private final SessionFactory sessionFactory;
+  private final boolean transactional;
+  private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+  private volatile Exception completionError;
+
+  public GraphQLSessionHolder(SessionFactory sessionFactory, boolean transactional) {
+    this.sessionFactory = sessionFactory;
+    this.transactional = transactional;
+  }
+
+  /**
+   * 获取当前执行的会话持有者，不存在时创建
+   */
+  public static GraphQLSessionHolder get(DataFetchingEnvironment env, SessionFactory sessionFactory) {
+    GraphQLContext graphQLContext = env.getGraphQlContext();
+    return graphQLContext.computeIfAbsent(KEY, key -> {
+      boolean mutation = env.getOperationDefinition() != null
+                         && env.getOperationDefinition().getOperation() == OperationDefinition.Operation.MUTATION;
+      return new GraphQLSessionHolder(sessionFactory, mutation && Boolean.TRUE.equals(graphQLContext.get(MUTATION_TRANSACTION)));
+    });
+  }
+
+  public Session getSession(String schemaName) {
+    return sessions.computeIfAbsent(schemaName, key -> {
+      Session session = openSession(key);
+      if (transactional) {
+        session.startTransaction();
+      }
+      return session;
+    });
+  }
+
+  /**
+   * 创建schema的会话
+   */
+  Session openSession(String schemaName) {
+    return sessionFactory.createSession(schemaName);
+  }
+
+  /**
+   * 关闭所有会话，开启事务时根据执行结果提交或回滚
+   *
+   * @param success 执行是否成功
+   */
+  public void close(boolean success) {
+    for (Session session : sessions.values()) {
+      try {
+        if (transactional) {
+          if (success) {
+            session.commit();
+          } else {
+            session.rollback();
+          }
+        }
+      } catch (Exception e) {
+        log.error("Complete GraphQL session transaction error: {}", e.getMessage(), e);
+        if (completionError == null) {
+          completionError = e;
+        }
+      } finally {
+        session.close();
+      }
+    }
+    sessions.clear();
+  }
+
+  /**
+   * @return 提交事务时的异常，没有时返回null
+   */
+  public Exception getCompletionError() {
+    return completionError;
+  }
+
+}
@@ -0,0 +1,115 @@
+package tech.wetech.flexmodel.graphql;
+
+import graphql.GraphQL;
+import graphql.schema.GraphQLSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.wetech.flexmodel.ModelRegistryListener;
+import tech.wetech.flexmodel.session.SessionFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 随模型变更自动重建的GraphQL实例。
+ * <p>
+ * 收到模型注册表的变更通知后在后台合并变更并重建schema，只重新加载变更的模型，
+ * 新schema构建完成前 {@link #get()} 继续返回旧的实例，构建失败时保留旧的实例。
+ * <p>
+ * 不再使用时调用 {@link #close()} 移除监听器并关闭重建线程。
+ *
+ * @author cjbi
+ */
+public class RefreshableGraphQL implements ModelRegistryListener, Supplier<GraphQL>, AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(RefreshableGraphQL.class);
+
+  private final SessionFactory sessionFactory;
+  private final GraphQLSchemaBuilder schemaBuilder;
+  private final Function<GraphQLSchema, GraphQL> graphQLFactory;
+  private final ExecutorService executor;
+  private final AtomicReference<GraphQL> current = new AtomicReference<>();
+  private final Queue<ModelChange> pendingChanges = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  /**
+   * 构建初始的schema并注册模型变更监听器
+   *
+   * @param sessionFactory 会话工厂
+   * @param schemaBuilder  schema构建器
+   * @param graphQLFactory 根据schema创建GraphQL实例
+   * @param executor       执行重建的线程池，由 {@link #close()} 关闭
+   */
+  public RefreshableGraphQL(SessionFactory sessionFactory, GraphQLSchemaBuilder schemaBuilder,
+                            Function<GraphQLSchema, GraphQL> graphQLFactory, ExecutorService executor) {
+    this.sessionFactory = sessionFactory;
+    this.schemaBuilder = schemaBuilder;
+    this.graphQLFactory = graphQLFactory;
+    this.executor = executor;
+    schemaBuilder.refresh();
+    current.set(graphQLFactory.apply(schemaBuilder.build()));
+    sessionFactory.addModelRegistryListener(this);
+  }
+
+  @Override
+  public GraphQL get() {
+    return current.get();
+  }
+
+  @Override
+  public void onChanged(String schemaName, String modelName) {
+    if (closed.get()) {
+      return;
+    }
+    pendingChanges.add(new ModelChange(schemaName, modelName));
+    if (scheduled.compareAndSet(false, true)) {
+      executor.execute(this::rebuild);
+    }
+  }
+
+  private synchronized void rebuild() {
+    // 先重置标记，重建期间到达的变更会再次调度
+    scheduled.set(false);
+    List<ModelChange> changes = new ArrayList<>();
+    ModelChange change;
+    while ((change = pendingChanges.poll()) != null) {
+      changes.add(change);
+    }
+    if (changes.isEmpty()) {
+      return;
+    }
+    try {
+      for (ModelChange item : changes) {
+        schemaBuilder.refresh(item.schemaName(), item.modelName());
+      }
+      current.set(graphQLFactory.apply(schemaBuilder.build()));
+      log.debug("Rebuild GraphQL schema, changes: {}", changes);
+    } catch (Exception e) {
+      log.error("Rebuild GraphQL schema error: {}", e.getMessage(), e);
+    }
+  }
+
+  /**
+   * 移除模型变更监听器并关闭重建线程，已开始的重建会执行完成
+   */
+  @Override
+  public void close() {
+    if (closed.compareAndSet(false, true)) {
+      sessionFactory.removeModelRegistryListener(this);
+      executor.shutdown();
+      pendingChanges.clear();
+    }
+  }
+
+  private record ModelChange(String schemaName, String modelName) {
+  }
+
+}
@@ -0,0 +1,187 @@
+package tech.wetech.flexmodel.graphql;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import org.dataloader.DataLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.wetech.flexmodel.event.EventListener;
+import tech.wetech.flexmodel.event.EventType;
+import tech.wetech.flexmodel.event.PreChangeEvent;
+import tech.wetech.flexmodel.model.EntityDefinition;
+import tech.wetech.flexmodel.model.field.RelationField;
+
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tech.wetech.flexmodel.graphql.Models.*;
+
+/**
+ * @author cjbi
+ */
+public class FlexmodelRelationDataFetcherTest extends AbstractIntegrationTest {
+
+  /**
+   * 模型名称 -> 查询次数
+   */
+  private final Map<String, AtomicInteger> queries = new ConcurrentHashMap<>();
+  private final EventListener queryCounter = new EventListener() {
+    @Override
+    public boolean supports(String eventType) {
+      return EventType.PRE_QUERY.getValue().equals(eventType);
+    }
+
+    @Override
+    public void onPreChange(PreChangeEvent event) {
+      queries.computeIfAbsent(event.getModelName(), k -> new AtomicInteger()).incrementAndGet();
+    }
+  };
+
+  @BeforeEach
+  void addQueryCounter() {
+    sessionFactory.getEventPublisher().addListener(queryCounter);
+  }
+
+  @AfterEach
+  void removeQueryCounter() {
+    sessionFactory.getEventPublisher().removeListener(queryCounter);
+  }
+
+  private int countQueries(String modelName) {
+    AtomicInteger count = queries.get(modelName);
+    return count != null ? count.get() : 0;
+  }
+
+  private static void createModels(String prefix) {
+    createClassesEntity(session, prefix + "Classes");
+    createStudentEntity(session, prefix + "Student");
+    createStudentDetailEntity(session, prefix + "StudentDetail");
+    createCourseEntity(session, prefix + "Course");
+    createTeacherEntity(session, prefix + "Teacher");
+    createAssociations(session, prefix + "Classes", prefix + "Student", prefix + "StudentDetail",
+      prefix + "Course", prefix + "Teacher");
+    createClassesData(session, prefix + "Classes");
+    createStudentData(session, prefix + "Student");
+  }
+
+  /**
+   * 写入学生明细，王五没有明细。
+   * <p>
+   * 学生数据中嵌套的明细未指定本地字段，写入的 studentId 为空，这里清空后按明确的主键和外键重新写入
+   */
+  private static void createStudentDetailData(String entityName) {
+    session.data().deleteAll(entityName);
+    List<Map<String, Object>> details = new ArrayList<>();
+    details.add(new HashMap<>(Map.of("id", 1L, "studentId", 1L, "description", "张三的描述")));
+    details.add(new HashMap<>(Map.of("id", 2L, "studentId", 2L, "description", "李四的描述")));
+    session.data().insertAll(entityName, details);
+  }
+
+  private static FlexmodelRelationDataFetcher createFetcher(String classesEntityName) {
+    EntityDefinition entity = (EntityDefinition) session.schema().getModel(classesEntityName);
+    RelationField relationField = (RelationField) entity.getField("students");
+    return new FlexmodelRelationDataFetcher(SCHEMA_NAME, entity, relationField, sessionFactory);
+  }
+
+  @Test
+  void testNormalizeKey() {
+    Object expected = FlexmodelRelationDataFetcher.normalizeKey(1L);
+    assertEquals(expected, FlexmodelRelationDataFetcher.normalizeKey(1));
+    assertEquals(expected, FlexmodelRelationDataFetcher.normalizeKey((short) 1));
+    assertEquals(expected, FlexmodelRelationDataFetcher.normalizeKey((byte) 1));
+    assertEquals(expected, FlexmodelRelationDataFetcher.normalizeKey(BigInteger.ONE));
+    assertEquals("1", FlexmodelRelationDataFetcher.normalizeKey("1"));
+  }
+
+  @Test
+  void testBatchLoad() {
+    createModels("testBatchLoad");
+    FlexmodelRelationDataFetcher fetcher = createFetcher("testBatchLoadClasses");
+    DataLoader<Object, List<Map<String, Object>>> dataLoader = FlexmodelRelationDataFetcher.newDataLoader(
+      fetcher.createBatchLoader(session), FlexmodelRelationDataFetcher.MAX_BATCH_SIZE);
+    // 不同整数类型的相同关联键合并为一个
+    CompletableFuture<List<Map<String, Object>>> class1 = dataLoader.load(FlexmodelRelationDataFetcher.normalizeKey(1));
+    CompletableFuture<List<Map<String, Object>>> class1Long = dataLoader.load(FlexmodelRelationDataFetcher.normalizeKey(1L));
+    CompletableFuture<List<Map<String, Object>>> class2 = dataLoader.load(FlexmodelRelationDataFetcher.normalizeKey(BigInteger.TWO));
+    CompletableFuture<List<Map<String, Object>>> class3 = dataLoader.load(FlexmodelRelationDataFetcher.normalizeKey(3));
+    dataLoader.dispatchAndJoin();
+
+    assertEquals(1, countQueries("testBatchLoadStudent"));
+    assertSame(class1.join(), class1Long.join());
+    assertEquals(Set.of("张三", "李四"), studentNames(class1.join()));
+    assertEquals(Set.of("王五"), studentNames(class2.join()));
+    assertTrue(class3.join().isEmpty());
+  }
+
+  @Test
+  void testMaxBatchSize() {
+    createModels("testMaxBatchSize");
+    FlexmodelRelationDataFetcher fetcher = createFetcher("testMaxBatchSizeClasses");
+    DataLoader<Object, List<Map<String, Object>>> dataLoader = FlexmodelRelationDataFetcher.newDataLoader(
+      fetcher.createBatchLoader(session), 2);
+    CompletableFuture<List<Map<String, Object>>> class1 = dataLoader.load(1L);
+    CompletableFuture<List<Map<String, Object>>> class2 = dataLoader.load(2L);
+    CompletableFuture<List<Map<String, Object>>> class3 = dataLoader.load(3L);
+    dataLoader.dispatchAndJoin();
+
+    // 超过批量大小的关联键拆分为多次查询
+    assertEquals(2, countQueries("testMaxBatchSizeStudent"));
+    assertEquals(Set.of("张三", "李四"), studentNames(class1.join()));
+    assertEquals(Set.of("王五"), studentNames(class2.join()));
+    assertTrue(class3.join().isEmpty());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testQueryEachRelationOncePerLevel() {
+    createModels("testRelationLevel");
+    createStudentDetailData("testRelationLevelStudentDetail");
+    GraphQL graphQL = new FlexmodelGraphQL().generateGraphQLWithSchemaObject(sessionFactory, sessionFactory.getSchemaNames());
+    queries.clear();
+    ExecutionResult executionResult = graphQL.execute("""
+      query {
+        classes: system_list_testRelationLevelClasses(order_by: {id: asc}) {
+          id
+          students {
+            studentName
+            studentDetail {
+              description
+            }
+          }
+        }
+      }
+      """);
+    assertTrue(executionResult.getErrors().isEmpty(), executionResult.getErrors().toString());
+    assertEquals(1, countQueries("testRelationLevelClasses"));
+    assertEquals(1, countQueries("testRelationLevelStudent"));
+    assertEquals(1, countQueries("testRelationLevelStudentDetail"));
+
+    Map<String, Object> data = executionResult.getData();
+    List<Map<String, Object>> classes = (List<Map<String, Object>>) data.get("classes");
+    assertEquals(3, classes.size());
+    List<Map<String, Object>> class1Students = (List<Map<String, Object>>) classes.get(0).get("students");
+    assertEquals(Set.of("张三", "李四"), studentNames(class1Students));
+    for (Map<String, Object> student : class1Students) {
+      Map<String, Object> detail = (Map<String, Object>) student.get("studentDetail");
+      assertEquals(student.get("studentName") + "的描述", detail.get("description"));
+    }
+    List<Map<String, Object>> class2Students = (List<Map<String, Object>>) classes.get(1).get("students");
+    assertEquals(Set.of("王五"), studentNames(class2Students));
+    assertNull(class2Students.getFirst().get("studentDetail"));
+    assertTrue(((List<?>) classes.get(2).get("students")).isEmpty());
+  }
+
+  private static Set<Object> studentNames(List<Map<String, Object>> students) {
+    Set<Object> names = new HashSet<>();
+    for (Map<String, Object> student : students) {
+      names.add(student.get("studentName"));
+    }
+    return names;
+  }
+
+}
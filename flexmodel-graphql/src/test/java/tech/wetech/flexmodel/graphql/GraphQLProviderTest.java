@@ -2,10 +2,17 @@ package tech.wetech.flexmodel.graphql;
 
 import graphql.ExecutionResult;
 import graphql.GraphQL;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import tech.wetech.flexmodel.model.field.*;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
 
 import static tech.wetech.flexmodel.graphql.Models.*;
@@ -260,4 +267,154 @@ public class GraphQLProviderTest extends AbstractIntegrationTest {
     Assertions.assertNotNull(data2.get("class"));
   }
 
+  @Test
+  void testPersistedQuery() {
+    String classesEntityName = "testPersistedQueryClasses";
+    createClassesEntity(session, classesEntityName);
+    createClassesData(session, classesEntityName);
+
+    FlexmodelGraphQL graphQLProvider = new FlexmodelGraphQL();
+    GraphQL graphQL = graphQLProvider.generateGraphQLWithSchemaObject(sessionFactory, sessionFactory.getSchemaNames());
+    String query = "query { system_list_testPersistedQueryClasses { id, classCode } }";
+    String hash = HexFormat.of().formatHex(sha256(query));
+    Map<String, Object> extensions = Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash));
+    // 未注册的hash
+    ExecutionResult notFound = graphQL.execute(i -> i.query(PersistedQuerySupport.PERSISTED_QUERY_MARKER).extensions(extensions));
+    Assertions.assertEquals("PersistedQueryNotFound", notFound.getErrors().getFirst().getMessage());
+    // hash与查询文本不一致
+    ExecutionResult invalid = graphQL.execute(i -> i.query(query + " ").extensions(extensions));
+    Assertions.assertEquals("PersistedQueryIdInvalid", invalid.getErrors().getFirst().getMessage());
+    // 携带完整查询注册后只发送hash
+    ExecutionResult registered = graphQL.execute(i -> i.query(query).extensions(extensions));
+    Assertions.assertTrue(registered.getErrors().isEmpty());
+    ExecutionResult executionResult = graphQL.execute(i -> i.query(PersistedQuerySupport.PERSISTED_QUERY_MARKER).extensions(extensions));
+    Assertions.assertTrue(executionResult.getErrors().isEmpty());
+    Assertions.assertEquals(registered.<Map<String, Object>>getData(), executionResult.getData());
+  }
+
+  @Test
+  void testRefreshableGraphQL() throws InterruptedException {
+    String classesEntityName = "testRefreshableClasses";
+    try (RefreshableGraphQL refreshableGraphQL = new FlexmodelGraphQL()
+      .generateRefreshableGraphQL(sessionFactory, sessionFactory.getSchemaNames())) {
+      GraphQL oldGraphQL = refreshableGraphQL.get();
+      createClassesEntity(session, classesEntityName);
+      createClassesData(session, classesEntityName);
+      // 模型变更后在后台重建，重建完成前仍返回旧的实例
+      long deadline = System.currentTimeMillis() + 10_000;
+      while (refreshableGraphQL.get() == oldGraphQL && System.currentTimeMillis() < deadline) {
+        Thread.sleep(50);
+      }
+      ExecutionResult executionResult = refreshableGraphQL.get()
+        .execute("query { system_list_testRefreshableClasses { id, classCode } }");
+      Assertions.assertTrue(executionResult.getErrors().isEmpty(), executionResult.getErrors().toString());
+    }
+  }
+
+  @Test
+  void testCloseRefreshableGraphQL() throws InterruptedException {
+    RefreshableGraphQL refreshableGraphQL = new FlexmodelGraphQL()
+      .generateRefreshableGraphQL(sessionFactory, sessionFactory.getSchemaNames());
+    GraphQL graphQL = refreshableGraphQL.get();
+    refreshableGraphQL.close();
+    // 关闭后不再响应模型变更
+    createClassesEntity(session, "testClosedRefreshableClasses");
+    Thread.sleep(200);
+    Assertions.assertSame(graphQL, refreshableGraphQL.get());
+    refreshableGraphQL.close();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testDateFilter() {
+    String entityName = "testDateFilter";
+    session.schema().createEntity(entityName, entity -> entity
+      .addField(new LongField("id").asIdentity().setDefaultValue(DefaultValue.AUTO_INCREMENT))
+      .addField(new StringField("name"))
+      .addField(new DateField("birthday"))
+      .addField(new DateTimeField("createdAt"))
+    );
+    // 写入后会回填主键，记录需要可修改
+    session.data().insertAll(entityName, List.of(
+      new HashMap<>(Map.of("name", "A", "birthday", "2019-05-01", "createdAt", "2022-01-01T08:00:00")),
+      new HashMap<>(Map.of("name", "B", "birthday", "2020-06-01", "createdAt", "2023-01-01T08:00:00")),
+      new HashMap<>(Map.of("name", "C", "birthday", "2021-07-01", "createdAt", "2025-01-01T08:00:00"))
+    ));
+
+    FlexmodelGraphQL graphQLProvider = new FlexmodelGraphQL();
+    GraphQL graphQL = graphQLProvider.generateGraphQLWithSchemaObject(sessionFactory, sessionFactory.getSchemaNames());
+    // Date、DateTime 标量解析为 java.time 类型后仍按 ISO 字符串绑定
+    ExecutionResult executionResult = graphQL.execute(i -> i.query("""
+      query ($from: Date, $before: DateTime) {
+        list: system_list_testDateFilter(where: {birthday: {_gte: $from}, createdAt: {_lt: $before}}) {
+          name
+        }
+        between: system_list_testDateFilter(where: {birthday: {_between: ["2019-01-01", "2020-12-31"]}}) {
+          name
+        }
+      }
+      """).variables(Map.of("from", "2020-01-01", "before", "2024-01-01T00:00:00Z")));
+    Assertions.assertTrue(executionResult.getErrors().isEmpty(), executionResult.getErrors().toString());
+    Map<String, Object> data = executionResult.getData();
+    Assertions.assertEquals(List.of(Map.of("name", "B")), data.get("list"));
+    Assertions.assertEquals(2, ((List<Object>) data.get("between")).size());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testIdAndNestedLogicalFilter() {
+    String classesEntityName = "testLogicalFilterClasses";
+    createClassesEntity(session, classesEntityName);
+    createClassesData(session, classesEntityName);
+
+    FlexmodelGraphQL graphQLProvider = new FlexmodelGraphQL();
+    GraphQL graphQL = graphQLProvider.generateGraphQLWithSchemaObject(sessionFactory, sessionFactory.getSchemaNames());
+    ExecutionResult executionResult = graphQL.execute("""
+      query {
+        list: system_list_testLogicalFilterClasses(
+          where: {
+            _or: [
+              {classCode: {_eq: "C_001"}},
+              {_and: [{id: {_in: [2, 3]}}, {className: {_starts_with: "二年级"}}]}
+            ]
+          }
+          order_by: {id: asc}
+        ) {
+          id, classCode
+        }
+      }
+      """);
+    Assertions.assertTrue(executionResult.getErrors().isEmpty(), executionResult.getErrors().toString());
+    List<Map<String, Object>> list = (List<Map<String, Object>>) executionResult.<Map<String, Object>>getData().get("list");
+    Assertions.assertEquals(List.of("C_001", "C_003"), list.stream().map(item -> item.get("classCode")).toList());
+    // ID 标量输出为字符串，可作为变量回传给 _by_id 参数
+    Object id = list.get(1).get("id");
+    Assertions.assertEquals("3", id);
+    ExecutionResult updated = graphQL.execute(i -> i.query("""
+      mutation ($id: ID!) {
+        system_update_testLogicalFilterClasses_by_id(id: $id, _set: {className: "二年级2班"}) {
+          id
+        }
+      }
+      """).variables(Map.of("id", id)));
+    Assertions.assertTrue(updated.getErrors().isEmpty(), updated.getErrors().toString());
+    ExecutionResult found = graphQL.execute("""
+      query {
+        system_find_one_testLogicalFilterClasses(where: {_and: [{id: {_eq: 3}}, {_or: [{className: {_eq: "二年级2班"}}]}]}) {
+          classCode
+        }
+      }
+      """);
+    Assertions.assertTrue(found.getErrors().isEmpty(), found.getErrors().toString());
+    Assertions.assertEquals(Map.of("system_find_one_testLogicalFilterClasses", Map.of("classCode", "C_003")), found.getData());
+  }
+
+  private static byte[] sha256(String text) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
 }
@@ -0,0 +1,158 @@
+package tech.wetech.flexmodel.graphql;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import org.junit.jupiter.api.Test;
+import tech.wetech.flexmodel.event.ChangedEvent;
+import tech.wetech.flexmodel.event.EventListener;
+import tech.wetech.flexmodel.event.EventType;
+import tech.wetech.flexmodel.session.Session;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tech.wetech.flexmodel.graphql.Models.*;
+import static tech.wetech.flexmodel.query.Expressions.field;
+
+/**
+ * @author cjbi
+ */
+public class GraphQLSessionHolderTest extends AbstractIntegrationTest {
+
+  /**
+   * 记录会话创建次数和方法调用次数的会话持有者
+   */
+  static class CountingSessionHolder extends GraphQLSessionHolder {
+    final AtomicInteger opened = new AtomicInteger();
+    final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+    CountingSessionHolder(boolean transactional) {
+      super(sessionFactory, transactional);
+    }
+
+    @Override
+    Session openSession(String schemaName) {
+      Session session = super.openSession(schemaName);
+      opened.incrementAndGet();
+      return (Session) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Session.class},
+        (proxy, method, args) -> {
+          calls.computeIfAbsent(method.getName(), k -> new AtomicInteger()).incrementAndGet();
+          try {
+            return method.invoke(session, args);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+        });
+    }
+
+    int count(String methodName) {
+      AtomicInteger count = calls.get(methodName);
+      return count != null ? count.get() : 0;
+    }
+  }
+
+  private static ExecutionResult execute(GraphQL graphQL, String query, GraphQLSessionHolder sessionHolder) {
+    return graphQL.execute(ExecutionInput.newExecutionInput(query)
+      .graphQLContext(Map.of(GraphQLSessionHolder.KEY, sessionHolder))
+      .build());
+  }
+
+  @Test
+  void testQueryShareOneSession() {
+    createClassesEntity(session, "testShareSessionClasses");
+    createStudentEntity(session, "testShareSessionStudent");
+    createStudentDetailEntity(session, "testShareSessionStudentDetail");
+    createAssociations(session, "testShareSessionClasses", "testShareSessionStudent",
+      "testShareSessionStudentDetail", null, null);
+    createClassesData(session, "testShareSessionClasses");
+    createStudentData(session, "testShareSessionStudent");
+
+    GraphQL graphQL = new FlexmodelGraphQL().generateGraphQLWithSchemaObject(sessionFactory, sessionFactory.getSchemaNames());
+    CountingSessionHolder sessionHolder = new CountingSessionHolder(false);
+    ExecutionResult executionResult = execute(graphQL, """
+      query {
+        classes: system_list_testShareSessionClasses {
+          id, students { studentName }
+        }
+        students: system_list_testShareSessionStudent {
+          id, studentDetail { description }
+        }
+        total: system_aggregate_testShareSessionStudent {
+          _count
+        }
+      }
+      """, sessionHolder);
+    assertTrue(executionResult.getErrors().isEmpty(), executionResult.getErrors().toString());
+    assertEquals(1, sessionHolder.opened.get());
+    assertEquals(0, sessionHolder.count("startTransaction"));
+    assertEquals(0, sessionHolder.count("commit"));
+    assertEquals(1, sessionHolder.count("close"));
+  }
+
+  @Test
+  void testMutationCommitOnce() {
+    createClassesEntity(session, "testCommitOnceClasses");
+    GraphQL graphQL = new FlexmodelGraphQL().generateGraphQLWithSchemaObject(sessionFactory, sessionFactory.getSchemaNames());
+    CountingSessionHolder sessionHolder = new CountingSessionHolder(true);
+    ExecutionResult executionResult = execute(graphQL, """
+      mutation {
+        a: system_create_testCommitOnceClasses(data: {classCode: "A", className: "A"}) { id }
+        b: system_create_testCommitOnceClasses(data: {classCode: "B", className: "B"}) { id }
+        c: system_create_testCommitOnceClasses(data: {classCode: "C", className: "C"}) { id }
+      }
+      """, sessionHolder);
+    assertTrue(executionResult.getErrors().isEmpty(), executionResult.getErrors().toString());
+    assertEquals(1, sessionHolder.opened.get());
+    assertEquals(1, sessionHolder.count("startTransaction"));
+    assertEquals(1, sessionHolder.count("commit"));
+    assertEquals(0, sessionHolder.count("rollback"));
+    assertEquals(1, sessionHolder.count("close"));
+    assertEquals(3, session.dsl().selectFrom("testCommitOnceClasses").count());
+  }
+
+  @Test
+  void testMutationRollbackWhenFetcherThrows() {
+    createClassesEntity(session, "testRollbackClasses");
+    createClassesData(session, "testRollbackClasses");
+    GraphQL graphQL = new FlexmodelGraphQL().setMutationTransactional(true)
+      .generateGraphQLWithSchemaObject(sessionFactory, sessionFactory.getSchemaNames());
+    // 记录写操作所在的会话
+    Set<String> sessionIds = ConcurrentHashMap.newKeySet();
+    EventListener listener = new EventListener() {
+      @Override
+      public boolean supports(String eventType) {
+        return EventType.INSERTED.getValue().equals(eventType);
+      }
+
+      @Override
+      public void onChanged(ChangedEvent event) {
+        sessionIds.add(event.getSessionId());
+      }
+    };
+    sessionFactory.getEventPublisher().addListener(listener);
+    try {
+      // 第二个写操作主键冲突，第一个写操作随请求级事务回滚
+      ExecutionResult executionResult = graphQL.execute("""
+        mutation {
+          a: system_create_testRollbackClasses(data: {classCode: "TX_ROLLBACK", className: "回滚"}) { id }
+          b: system_create_testRollbackClasses(data: {id: 1, classCode: "C_DUP", className: "主键冲突"}) { id }
+        }
+        """);
+      assertFalse(executionResult.getErrors().isEmpty());
+    } finally {
+      sessionFactory.getEventPublisher().removeListener(listener);
+    }
+    assertEquals(1, sessionIds.size());
+    assertEquals(0, session.dsl().selectFrom("testRollbackClasses")
+      .where(field("classCode").eq("TX_ROLLBACK"))
+      .count());
+    assertEquals(3, session.dsl().selectFrom("testRollbackClasses").count());
+  }
+
+}
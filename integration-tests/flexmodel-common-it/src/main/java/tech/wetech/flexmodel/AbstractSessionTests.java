@@ -720,6 +720,135 @@ public abstract class AbstractSessionTests {
   void testInsertAll() {
     String entityName = "testInsertAll_teacher";
     createTeacher2(entityName);
+    Assertions.assertEquals(7, session.data().count(entityName, query -> query));
+  }
+
+  @Test
+  void testInsertAllWritesBackGeneratedIds() {
+    String entityName = generateEntityName("testInsertAllGeneratedIds_teacher");
+    createTeacher2(entityName);
+    registerEntity(entityName);
+
+    // 不带ID的记录，根据方言走批量返回主键或逐条插入
+    List<Map<String, Object>> records = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      Map<String, Object> record = new HashMap<>();
+      record.put("name", "批量" + i);
+      record.put("age", 20 + i);
+      records.add(record);
+    }
+    int affectedRows = session.data().insertAll(entityName, records);
+    Assertions.assertEquals(5, affectedRows);
+
+    Set<Object> ids = new HashSet<>();
+    for (Map<String, Object> record : records) {
+      Object id = record.get("id");
+      Assertions.assertNotNull(id, "生成的ID应该回填到记录中");
+      ids.add(id);
+      Map<String, Object> inserted = session.data().findById(entityName, id);
+      Assertions.assertEquals(record.get("name"), inserted.get("name"));
+      // 未传入的字段使用默认值
+      Assertions.assertNotNull(inserted.get("isLocked"));
+    }
+    Assertions.assertEquals(5, ids.size());
+  }
+
+  @Test
+  void testInsertAllWithProvidedIds() {
+    String entityName = generateEntityName("testInsertAllProvidedIds");
+    session.schema().createEntity(entityName, entity -> entity
+      .addField(new LongField("id").asIdentity())
+      .addField(new StringField("name"))
+      .addField(new IntField("age"))
+    );
+    registerEntity(entityName);
+
+    // 超过单批记录数和单条多行VALUES语句的行数，会拆成多个批次和多条语句
+    List<Map<String, Object>> records = new ArrayList<>();
+    for (long i = 1; i <= 1200; i++) {
+      Map<String, Object> record = new HashMap<>();
+      record.put("id", i);
+      record.put("name", "name" + i);
+      record.put("age", (int) (i % 100));
+      records.add(record);
+    }
+    int affectedRows = session.data().insertAll(entityName, records);
+    Assertions.assertEquals(1200, affectedRows);
+    Assertions.assertEquals(1200, session.data().count(entityName, query -> query));
+    Map<String, Object> last = session.data().findById(entityName, 1200L);
+    Assertions.assertEquals("name1200", last.get("name"));
+    Assertions.assertEquals(0, ((Number) last.get("age")).intValue());
+  }
+
+  @Test
+  void testInsertAllWithDifferentColumns() {
+    String entityName = generateEntityName("testInsertAllDifferentColumns_teacher");
+    createTeacher2(entityName);
+    registerEntity(entityName);
+
+    // 列不同的记录生成的SQL不同，会拆成多个批次，每个批次都要回填ID
+    Map<String, Object> first = new HashMap<>(Map.of("name", "甲", "age", 1));
+    Map<String, Object> second = new HashMap<>(Map.of("name", "乙", "age", 2, "description", "备注"));
+    Map<String, Object> third = new HashMap<>(Map.of("name", "丙", "age", 3));
+    int affectedRows = session.data().insertAll(entityName, List.of(first, second, third));
+    Assertions.assertEquals(3, affectedRows);
+
+    Set<Object> ids = new HashSet<>();
+    for (Map<String, Object> record : List.of(first, second, third)) {
+      Assertions.assertNotNull(record.get("id"));
+      ids.add(record.get("id"));
+      Assertions.assertEquals(record.get("name"), session.data().findById(entityName, record.get("id")).get("name"));
+    }
+    Assertions.assertEquals(3, ids.size());
+    Assertions.assertEquals("备注", session.data().findById(entityName, second.get("id")).get("description"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testNestedQueryWithChunkedForeignKeys() {
+    String parentEntityName = generateEntityName("testNestedChunkParent");
+    String childEntityName = generateEntityName("testNestedChunkChild");
+    session.schema().createEntity(parentEntityName, entity -> entity
+      .addField(new LongField("id").asIdentity())
+      .addField(new StringField("name"))
+    );
+    registerEntity(parentEntityName);
+    session.schema().createEntity(childEntityName, entity -> entity
+      .addField(new LongField("id").asIdentity())
+      .addField(new LongField("parentId"))
+    );
+    registerEntity(childEntityName);
+    session.schema().createField(
+      new RelationField("children")
+        .setModelName(parentEntityName)
+        .setFrom(childEntityName)
+        .setLocalField("id")
+        .setForeignField("parentId")
+        .setMultiple(true)
+    );
+
+    // 外键值超过单次 IN 查询的上限，关联数据分多批查询，最后一批也有结果
+    int total = 1100;
+    List<Map<String, Object>> parents = new ArrayList<>();
+    List<Map<String, Object>> children = new ArrayList<>();
+    for (long i = 1; i <= total; i++) {
+      parents.add(new HashMap<>(Map.of("id", i, "name", "parent" + i)));
+      children.add(new HashMap<>(Map.of("id", i, "parentId", i)));
+    }
+    children.add(new HashMap<>(Map.of("id", total + 1L, "parentId", (long) total)));
+    session.data().insertAll(parentEntityName, parents);
+    session.data().insertAll(childEntityName, children);
+
+    List<Map<String, Object>> result = session.data().find(parentEntityName, Query.Builder.create().enableNested().build());
+    Assertions.assertEquals(total, result.size());
+    for (Map<String, Object> parent : result) {
+      long id = ((Number) parent.get("id")).longValue();
+      List<Map<String, Object>> parentChildren = (List<Map<String, Object>>) parent.get("children");
+      Assertions.assertEquals(id == total ? 2 : 1, parentChildren.size(), "父级数据 " + id + " 的关联数据数量");
+      for (Map<String, Object> child : parentChildren) {
+        Assertions.assertEquals(id, ((Number) child.get("parentId")).longValue());
+      }
+    }
   }
 
   @Test